@@ -0,0 +1,71 @@
+package edu.ucsd.sbrg.bigg;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sbml.jsbml.SBMLDocument;
+
+import edu.ucsd.sbrg.db.BiGGDB;
+import edu.ucsd.sbrg.db.BiGGStub;
+import edu.ucsd.sbrg.util.BenchmarkModel;
+
+/**
+ * Annotation of a polished model against {@link BiGGStub}, which knows all
+ * entities of the model. Lookups run against an in-process SQLite snapshot,
+ * so the results show the cost of ModelPolisher itself rather than that of
+ * the network and the database server. Each parameter needs its own fork, as
+ * the stub is set up once per JVM.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BiGGAnnotationBenchmark {
+
+  private Parameters parameters;
+  private SBMLDocument polished;
+  private SBMLDocument doc;
+  private File snapshot;
+
+  @Setup(Level.Trial)
+  public void setUp(BenchmarkModel model) throws IOException {
+    parameters = Parameters.builder().annotateWithBiGG(true).build();
+    polished = new SBMLPolisher(parameters).polish(model.copy());
+    snapshot = BiGGStub.init(polished);
+  }
+
+
+  @Setup(Level.Invocation)
+  public void copy() {
+    doc = polished.clone();
+  }
+
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    BiGGDB.close();
+    Files.deleteIfExists(snapshot.toPath());
+  }
+
+
+  @Benchmark
+  public SBMLDocument annotate() {
+    return new BiGGAnnotation(parameters).annotate(doc);
+  }
+}
@@ -0,0 +1,125 @@
+package edu.ucsd.sbrg.bigg;
+
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.sbml.jsbml.Model;
+import org.sbml.jsbml.SBase;
+import org.sbml.jsbml.ext.fbc.FBCConstants;
+import org.sbml.jsbml.ext.fbc.FBCModelPlugin;
+
+import edu.ucsd.sbrg.util.BenchmarkModel;
+
+/**
+ * Creating {@link BiGGId}s from all identifiers of a model, as done for every
+ * element during polishing and annotation, from the metabolite identifiers in
+ * the legacy format with dashes and compartment codes in brackets, e.g.,
+ * {@code glc-D[e]}, which need to be corrected, and validating all identifiers.
+ * The ids are created through the {@link BiGGIdCache}, as during polishing,
+ * and without it for comparison. Times are per model.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BiGGIdBenchmark {
+
+  private String[] metabolites;
+  private String[] reactions;
+  private String[] genes;
+  private String[] legacyMetabolites;
+  private String[] all;
+
+  @Setup(Level.Trial)
+  public void setUp(BenchmarkModel benchmarkModel) {
+    Model model = benchmarkModel.getDocument().getModel();
+    metabolites = model.getListOfSpecies().stream().map(SBase::getId).toArray(String[]::new);
+    reactions = model.getListOfReactions().stream().map(SBase::getId).toArray(String[]::new);
+    FBCModelPlugin fbc = (FBCModelPlugin) model.getPlugin(FBCConstants.shortLabel);
+    genes = fbc.getListOfGeneProducts().stream().map(SBase::getId).toArray(String[]::new);
+    legacyMetabolites = Arrays.stream(metabolites).map(BiGGId::createMetaboliteId).flatMap(Optional::stream)
+                              .map(id -> id.getAbbreviation().replace("__", "-") + "[" + id.getCompartmentCode() + "]")
+                              .toArray(String[]::new);
+    all = Stream.of(metabolites, reactions, genes).flatMap(Arrays::stream).toArray(String[]::new);
+  }
+
+
+  @Benchmark
+  public void createMetaboliteIds(Blackhole blackhole) {
+    for (String id : metabolites) {
+      blackhole.consume(BiGGId.createMetaboliteId(id));
+    }
+  }
+
+
+  @Benchmark
+  public void createReactionIds(Blackhole blackhole) {
+    for (String id : reactions) {
+      blackhole.consume(BiGGId.createReactionId(id));
+    }
+  }
+
+
+  @Benchmark
+  public void createGeneIds(Blackhole blackhole) {
+    for (String id : genes) {
+      blackhole.consume(BiGGId.createGeneId(id));
+    }
+  }
+
+
+  @Benchmark
+  public void createMetaboliteIdsUncached(Blackhole blackhole) {
+    for (String id : metabolites) {
+      blackhole.consume(BiGGId.createMetaboliteId(id, true));
+    }
+  }
+
+
+  @Benchmark
+  public void createReactionIdsUncached(Blackhole blackhole) {
+    for (String id : reactions) {
+      blackhole.consume(BiGGId.parseReactionId(id));
+    }
+  }
+
+
+  @Benchmark
+  public void createGeneIdsUncached(Blackhole blackhole) {
+    for (String id : genes) {
+      blackhole.consume(BiGGId.createGeneId(id, true));
+    }
+  }
+
+
+  @Benchmark
+  public void createLegacyMetaboliteIds(Blackhole blackhole) {
+    for (String id : legacyMetabolites) {
+      blackhole.consume(BiGGId.createMetaboliteId(id));
+    }
+  }
+
+
+  @Benchmark
+  public void isValid(Blackhole blackhole) {
+    for (String id : all) {
+      blackhole.consume(BiGGId.isValid(id));
+    }
+  }
+}
@@ -0,0 +1,51 @@
+package edu.ucsd.sbrg.bigg;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sbml.jsbml.SBMLDocument;
+
+import edu.ucsd.sbrg.util.BenchmarkModel;
+
+/**
+ * Polishing without annotation, each invocation works on a fresh copy of the
+ * model, as polishing changes it
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SBMLPolisherBenchmark {
+
+  private Parameters parameters;
+  private SBMLDocument doc;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    parameters = Parameters.builder().build();
+  }
+
+
+  @Setup(Level.Invocation)
+  public void copy(BenchmarkModel model) {
+    doc = model.copy();
+  }
+
+
+  @Benchmark
+  public SBMLDocument polish() {
+    return new SBMLPolisher(parameters).polish(doc);
+  }
+}
@@ -0,0 +1,76 @@
+package edu.ucsd.sbrg.bigg;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sbml.jsbml.SBMLDocument;
+import org.sbml.jsbml.SBMLError;
+
+import edu.ucsd.sbrg.bigg.ModelPolisherOptions.ValidationScope;
+import edu.ucsd.sbrg.util.BenchmarkModel;
+
+/**
+ * Offline validation of a model on the calling thread and on a pool of the
+ * given size, where each thread validates its own copy of the model. Each
+ * invocation works on a fresh copy of the model, as the validator may add
+ * missing lists to it.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SBMLValidatorBenchmark {
+
+  /**
+   * Number of threads of the pool
+   */
+  @Param({"4"})
+  public int threads;
+  private ForkJoinPool pool;
+  private SBMLDocument doc;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    pool = new ForkJoinPool(threads);
+  }
+
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    pool.shutdown();
+  }
+
+
+  @Setup(Level.Invocation)
+  public void copy(BenchmarkModel model) {
+    doc = model.copy();
+  }
+
+
+  @Benchmark
+  public List<SBMLError> validate() {
+    return SBMLValidator.validate(doc, ValidationScope.ALL);
+  }
+
+
+  @Benchmark
+  public List<SBMLError> validateInParallel() {
+    return SBMLValidator.validate(doc, ValidationScope.ALL, pool);
+  }
+}
@@ -0,0 +1,77 @@
+package edu.ucsd.sbrg.bigg;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.stream.XMLStreamException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sbml.jsbml.SBMLDocument;
+import org.sbml.jsbml.SBMLWriter;
+import org.sbml.jsbml.TidySBMLWriter;
+
+import edu.ucsd.sbrg.util.BenchmarkModel;
+
+/**
+ * Writing a polished model with the writers ModelPolisher offers:
+ * {@link TidySBMLWriter}, which can only write to a file, and the streaming
+ * {@link SBMLWriter} with and without indentation, which write to a stream
+ * discarding the output.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TidySBMLWriterBenchmark {
+
+  private SBMLDocument doc;
+  private File output;
+
+  @Setup(Level.Trial)
+  public void setUp(BenchmarkModel model) throws IOException {
+    doc = new SBMLPolisher(Parameters.builder().build()).polish(model.copy());
+    output = File.createTempFile("polished", ".xml");
+    output.deleteOnExit();
+  }
+
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    Files.deleteIfExists(output.toPath());
+  }
+
+
+  @Benchmark
+  public File writeTidy() throws Exception {
+    TidySBMLWriter.write(doc, output, ModelPolisher.class.getSimpleName(), "benchmark", ' ', (short) 2);
+    return output;
+  }
+
+
+  @Benchmark
+  public void writeIndented() throws XMLStreamException {
+    new SBMLWriter(' ', (short) 2).write(doc, OutputStream.nullOutputStream());
+  }
+
+
+  @Benchmark
+  public void writeCompact() throws XMLStreamException {
+    new SBMLWriter(' ', (short) 0).write(doc, OutputStream.nullOutputStream());
+  }
+}
@@ -0,0 +1,312 @@
+package edu.ucsd.sbrg.db;
+
+import static edu.ucsd.sbrg.db.BiGGDBContract.Constants.COMPARTMENT;
+import static edu.ucsd.sbrg.db.BiGGDBContract.Constants.COMPARTMENTALIZED_COMPONENT;
+import static edu.ucsd.sbrg.db.BiGGDBContract.Constants.COMPONENT;
+import static edu.ucsd.sbrg.db.BiGGDBContract.Constants.DATABASE_VERSION;
+import static edu.ucsd.sbrg.db.BiGGDBContract.Constants.DATA_SOURCE;
+import static edu.ucsd.sbrg.db.BiGGDBContract.Constants.GENE;
+import static edu.ucsd.sbrg.db.BiGGDBContract.Constants.GENOME;
+import static edu.ucsd.sbrg.db.BiGGDBContract.Constants.GENOME_REGION;
+import static edu.ucsd.sbrg.db.BiGGDBContract.Constants.MCC;
+import static edu.ucsd.sbrg.db.BiGGDBContract.Constants.MODEL;
+import static edu.ucsd.sbrg.db.BiGGDBContract.Constants.MODEL_REACTION;
+import static edu.ucsd.sbrg.db.BiGGDBContract.Constants.PUBLICATION;
+import static edu.ucsd.sbrg.db.BiGGDBContract.Constants.PUBLICATION_MODEL;
+import static edu.ucsd.sbrg.db.BiGGDBContract.Constants.REACTION;
+import static edu.ucsd.sbrg.db.BiGGDBContract.Constants.SYNONYM;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.StringJoiner;
+
+import org.sbml.jsbml.Compartment;
+import org.sbml.jsbml.Model;
+import org.sbml.jsbml.Reaction;
+import org.sbml.jsbml.SBMLDocument;
+import org.sbml.jsbml.Species;
+import org.sbml.jsbml.ext.fbc.Association;
+import org.sbml.jsbml.ext.fbc.FBCConstants;
+import org.sbml.jsbml.ext.fbc.FBCModelPlugin;
+import org.sbml.jsbml.ext.fbc.FBCReactionPlugin;
+import org.sbml.jsbml.ext.fbc.FBCSpeciesPlugin;
+import org.sbml.jsbml.ext.fbc.GeneProduct;
+import org.sbml.jsbml.ext.fbc.GeneProductRef;
+import org.sbml.jsbml.ext.fbc.LogicalOperator;
+import org.sbml.jsbml.ext.fbc.Or;
+
+import edu.ucsd.sbrg.bigg.BiGGId;
+
+/**
+ * In-process stand-in for the BiGG database: writes a snapshot, as read by
+ * {@link BiGGDB#initSnapshot(File)}, that knows every component, reaction and
+ * gene of one model, so that annotation runs all lookups of a real database
+ * without a PostgreSQL server. Each entity gets a name, a subsystem,
+ * gene-reaction rules and a cross reference with a valid identifiers.org URL.
+ * As {@link QueryOnce} loads the identifiers of the first snapshot only, each
+ * JVM can only use one stub.
+ */
+public final class BiGGStub {
+
+  private static final String[][] TABLES = {{DATABASE_VERSION, "date_time"}, {GENOME, "id", "organism", "taxon_id"},
+    {MODEL, "id", "bigg_id", "genome_id"}, {PUBLICATION, "id", "reference_type", "reference_id"},
+    {PUBLICATION_MODEL, "publication_id", "model_id"}, {COMPARTMENT, "id", "bigg_id", "name"},
+    {COMPONENT, "id", "bigg_id", "name", "type"},
+    {COMPARTMENTALIZED_COMPONENT, "id", "component_id", "compartment_id"},
+    {MCC, "id", "compartmentalized_component_id", "model_id", "formula", "charge"},
+    {REACTION, "id", "bigg_id", "name", "pseudoreaction"},
+    {MODEL_REACTION, "id", "reaction_id", "model_id", "gene_reaction_rule", "subsystem"},
+    {GENOME_REGION, "id", "bigg_id"}, {GENE, "id", "locus_tag"}, {DATA_SOURCE, "id", "bigg_id", "url_prefix"},
+    {SYNONYM, "id", "ome_id", "synonym", "type", "data_source_id"}};
+  /**
+   * Data sources of the cross references, the names of genes have no URL
+   */
+  private static final String[][] DATA_SOURCES = {{"kegg.compound", "http://identifiers.org/kegg.compound/"},
+    {"kegg.reaction", "http://identifiers.org/kegg.reaction/"}, {"ncbigene", "http://identifiers.org/ncbigene/"},
+    {"refseq_name", null}};
+  private static final int KEGG_COMPOUND = 1;
+  private static final int KEGG_REACTION = 2;
+  private static final int NCBIGENE = 3;
+  private static final int REFSEQ_NAME = 4;
+  private static final int SUBSYSTEMS = 20;
+
+  /**
+   * Don't allow instantiation
+   */
+  private BiGGStub() {
+  }
+
+
+  /**
+   * Creates a snapshot for the given model in a temporary file and uses it as
+   * BiGG database
+   *
+   * @param doc
+   * @return the snapshot, to be deleted after {@link BiGGDB#close()}
+   * @throws IOException
+   */
+  public static File init(SBMLDocument doc) throws IOException {
+    File snapshot = File.createTempFile("bigg_stub", ".db");
+    snapshot.deleteOnExit();
+    write(doc, snapshot);
+    BiGGDB.initSnapshot(snapshot);
+    QueryOnce.init();
+    return snapshot;
+  }
+
+
+  /**
+   * @param doc
+   * @param snapshot
+   *        overwritten if it exists
+   * @throws IOException
+   */
+  public static void write(SBMLDocument doc, File snapshot) throws IOException {
+    if (snapshot.exists() && !snapshot.delete()) {
+      throw new IOException("Cannot overwrite " + snapshot.getAbsolutePath());
+    }
+    try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + snapshot.getAbsolutePath())) {
+      connection.setAutoCommit(false);
+      try (Statement statement = connection.createStatement()) {
+        for (String[] table : TABLES) {
+          StringJoiner columns = new StringJoiner(", ", "CREATE TABLE " + table[0] + " (", ")");
+          for (int i = 1; i < table.length; i++) {
+            columns.add(table[i]);
+          }
+          statement.execute(columns.toString());
+        }
+      }
+      new Writer(connection).write(doc.getModel());
+      connection.commit();
+    } catch (SQLException exc) {
+      throw new IOException(exc);
+    }
+  }
+
+
+  /**
+   * Inserts the rows of one model
+   */
+  private static final class Writer {
+
+    private final Connection connection;
+    private final Map<String, PreparedStatement> statements = new HashMap<>();
+    private final Map<String, Integer> compartments = new HashMap<>();
+    private final Map<String, Integer> components = new HashMap<>();
+    private final Map<String, Integer> compartmentalizedComponents = new HashMap<>();
+    private final Map<String, Integer> genes = new HashMap<>();
+    private int synonyms;
+
+    private Writer(Connection connection) {
+      this.connection = connection;
+    }
+
+
+    /**
+     * @param model
+     * @throws SQLException
+     */
+    private void write(Model model) throws SQLException {
+      insert(DATABASE_VERSION, "2019-10-31 17:07:38.123456");
+      insert(GENOME, 1, "Escherichia coli str. K-12 substr. MG1655", 511145);
+      insert(MODEL, 1, model.getId(), 1);
+      insert(PUBLICATION, 1, "pmid", "21988831");
+      insert(PUBLICATION_MODEL, 1, 1);
+      for (int i = 0; i < DATA_SOURCES.length; i++) {
+        insert(DATA_SOURCE, i + 1, DATA_SOURCES[i][0], DATA_SOURCES[i][1]);
+      }
+      for (Compartment compartment : model.getListOfCompartments()) {
+        int id = compartments.size() + 1;
+        compartments.put(compartment.getId(), id);
+        String name = compartment.isSetName() ? compartment.getName() : compartment.getId();
+        insert(COMPARTMENT, id, compartment.getId(), name);
+      }
+      for (Species species : model.getListOfSpecies()) {
+        write(species);
+      }
+      for (int i = 0; i < model.getReactionCount(); i++) {
+        write(model.getReaction(i), i);
+      }
+      FBCModelPlugin fbc = (FBCModelPlugin) model.getPlugin(FBCConstants.shortLabel);
+      for (GeneProduct geneProduct : fbc.getListOfGeneProducts()) {
+        geneId(geneProduct.getId());
+      }
+      for (PreparedStatement statement : statements.values()) {
+        statement.executeBatch();
+        statement.close();
+      }
+    }
+
+
+    /**
+     * @param species
+     * @throws SQLException
+     */
+    private void write(Species species) throws SQLException {
+      BiGGId biggId = BiGGId.createMetaboliteId(species.getId()).orElse(null);
+      Integer compartment = compartments.get(species.getCompartment());
+      if ((biggId == null) || (compartment == null)) {
+        return;
+      }
+      String abbreviation = biggId.getAbbreviation();
+      Integer component = components.get(abbreviation);
+      if (component == null) {
+        component = components.size() + 1;
+        components.put(abbreviation, component);
+        insert(COMPONENT, component, abbreviation, species.isSetName() ? species.getName() : abbreviation,
+          "metabolite");
+        insert(SYNONYM, ++synonyms, component, String.format("C%05d", component), COMPONENT, KEGG_COMPOUND);
+      }
+      String key = abbreviation + '_' + species.getCompartment();
+      if (!compartmentalizedComponents.containsKey(key)) {
+        int id = compartmentalizedComponents.size() + 1;
+        compartmentalizedComponents.put(key, id);
+        insert(COMPARTMENTALIZED_COMPONENT, id, component, compartment);
+        insert(SYNONYM, ++synonyms, id, String.format("C%05d", component), COMPARTMENTALIZED_COMPONENT,
+          KEGG_COMPOUND);
+        FBCSpeciesPlugin plugin = (FBCSpeciesPlugin) species.getPlugin(FBCConstants.shortLabel);
+        insert(MCC, id, id, 1, plugin.isSetChemicalFormula() ? plugin.getChemicalFormula() : "",
+          plugin.isSetCharge() ? plugin.getCharge() : null);
+      }
+    }
+
+
+    /**
+     * @param r
+     * @param index
+     * @throws SQLException
+     */
+    private void write(Reaction r, int index) throws SQLException {
+      BiGGId biggId = BiGGId.createReactionId(r.getId()).orElse(null);
+      if (biggId == null) {
+        return;
+      }
+      String abbreviation = biggId.getAbbreviation();
+      int id = index + 1;
+      boolean pseudo = abbreviation.startsWith("EX_") || abbreviation.startsWith("DM_")
+        || abbreviation.startsWith("SK_") || abbreviation.startsWith("BIOMASS");
+      insert(REACTION, id, abbreviation, r.isSetName() ? r.getName() : abbreviation, pseudo ? "t" : "f");
+      FBCReactionPlugin plugin = (FBCReactionPlugin) r.getPlugin(FBCConstants.shortLabel);
+      String rule = plugin.isSetGeneProductAssociation()
+        ? toRule(plugin.getGeneProductAssociation().getAssociation(), false) : "";
+      insert(MODEL_REACTION, id, id, 1, rule, "Subsystem " + (index % SUBSYSTEMS));
+      if (!pseudo) {
+        insert(SYNONYM, ++synonyms, id, String.format("R%05d", id), REACTION, KEGG_REACTION);
+      }
+    }
+
+
+    /**
+     * @param association
+     * @param nested
+     *        whether the association is part of another one and has to be put
+     *        into parentheses
+     * @return the association as rule in the syntax of BiGG
+     * @throws SQLException
+     */
+    private String toRule(Association association, boolean nested) throws SQLException {
+      if (association instanceof GeneProductRef) {
+        return geneId(((GeneProductRef) association).getGeneProduct());
+      } else if (!(association instanceof LogicalOperator)) {
+        return "";
+      }
+      LogicalOperator operator = (LogicalOperator) association;
+      StringJoiner rule = new StringJoiner(operator instanceof Or ? " or " : " and ", nested ? "(" : "",
+        nested ? ")" : "");
+      for (Association child : operator.getListOfAssociations()) {
+        rule.add(toRule(child, true));
+      }
+      return rule.toString();
+    }
+
+
+    /**
+     * @param geneProductId
+     * @return the BiGG id of the gene, which is added if it is not known yet
+     * @throws SQLException
+     */
+    private String geneId(String geneProductId) throws SQLException {
+      String abbreviation = BiGGId.createGeneId(geneProductId).map(BiGGId::getAbbreviation).orElse(geneProductId);
+      if (!genes.containsKey(abbreviation)) {
+        int id = genes.size() + 1;
+        genes.put(abbreviation, id);
+        insert(GENOME_REGION, id, abbreviation);
+        insert(GENE, id, abbreviation);
+        insert(SYNONYM, ++synonyms, id, Integer.toString(944000 + id), GENE, NCBIGENE);
+        insert(SYNONYM, ++synonyms, id, "gene" + id, GENE, REFSEQ_NAME);
+      }
+      return abbreviation;
+    }
+
+
+    /**
+     * Adds a row to the batch of the given table
+     *
+     * @param table
+     * @param values
+     * @throws SQLException
+     */
+    private void insert(String table, Object... values) throws SQLException {
+      PreparedStatement statement = statements.get(table);
+      if (statement == null) {
+        StringJoiner placeholders = new StringJoiner(", ", "INSERT INTO " + table + " VALUES (", ")");
+        for (int i = 0; i < values.length; i++) {
+          placeholders.add("?");
+        }
+        statement = connection.prepareStatement(placeholders.toString());
+        statements.put(table, statement);
+      }
+      for (int i = 0; i < values.length; i++) {
+        statement.setObject(i + 1, values[i]);
+      }
+      statement.addBatch();
+    }
+  }
+}
@@ -0,0 +1,92 @@
+package edu.ucsd.sbrg.miriam;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.stream.XMLStreamException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.sbml.jsbml.CVTerm;
+import org.sbml.jsbml.SBMLDocument;
+import org.sbml.jsbml.SBMLReader;
+import org.sbml.jsbml.SBase;
+
+import edu.ucsd.sbrg.util.BenchmarkModel;
+
+/**
+ * Checking the annotation URLs of the bundled {@code e_coli_core} model, which
+ * cover the usual collections and both the identifiers.org and the
+ * provider-specific forms. Times are per model. Except for the first
+ * invocation, the URLs are answered from the cache of resolved URLs, which is
+ * the common case during annotation. The cache is cleared before each
+ * invocation of {@link #checkResourceUrlsUncached(Uncached, Blackhole)}, so
+ * that only URLs repeated within the model are answered from it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RegistryBenchmark {
+
+  private String[] resources;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException, XMLStreamException {
+    byte[] sbml = BenchmarkModel.readResource("e_coli_core.xml");
+    SBMLDocument doc = new SBMLReader().readSBMLFromStream(new ByteArrayInputStream(sbml));
+    List<String> urls = new ArrayList<>();
+    List<SBase> elements = new ArrayList<>(doc.getModel().getListOfSpecies());
+    elements.addAll(doc.getModel().getListOfReactions());
+    for (SBase element : elements) {
+      for (CVTerm term : element.getCVTerms()) {
+        urls.addAll(term.getResources());
+      }
+    }
+    resources = urls.toArray(new String[0]);
+  }
+
+
+  @Benchmark
+  public void checkResourceUrls(Blackhole blackhole) {
+    for (String resource : resources) {
+      blackhole.consume(Registry.checkResourceUrl(resource));
+    }
+  }
+
+
+  @Benchmark
+  public void checkResourceUrlsUncached(Uncached uncached, Blackhole blackhole) {
+    for (String resource : resources) {
+      blackhole.consume(Registry.checkResourceUrl(resource));
+    }
+  }
+
+
+  /**
+   * Clears the cache of resolved URLs before each invocation
+   */
+  @State(Scope.Thread)
+  public static class Uncached {
+
+    @Setup(Level.Invocation)
+    public void clear() {
+      Registry.clearResolved();
+    }
+  }
+}
@@ -0,0 +1,67 @@
+package edu.ucsd.sbrg.parsers;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.stream.XMLStreamException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sbml.jsbml.SBMLDocument;
+import org.sbml.jsbml.SBMLReader;
+
+import edu.ucsd.sbrg.bigg.Parameters;
+import edu.ucsd.sbrg.util.BenchmarkModel;
+
+/**
+ * Reading the bundled {@code e_coli_core} model in each supported format. The
+ * files are held in memory, so that only parsing is measured. SBML is also
+ * read for the synthetic models.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParserBenchmark {
+
+  private Parameters parameters;
+  private byte[] mat;
+  private byte[] json;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    parameters = Parameters.builder().build();
+    mat = BenchmarkModel.readResource("e_coli_core.mat");
+    json = BenchmarkModel.readResource("e_coli_core.json");
+  }
+
+
+  @Benchmark
+  public SBMLDocument readMAT() throws IOException {
+    return COBRAparser.read(new ByteArrayInputStream(mat), parameters);
+  }
+
+
+  @Benchmark
+  public SBMLDocument readJSON() throws IOException {
+    return JSONparser.read(new ByteArrayInputStream(json), parameters);
+  }
+
+
+  @Benchmark
+  public SBMLDocument readSBML(BenchmarkModel model) throws XMLStreamException {
+    return new SBMLReader().readSBMLFromStream(model.getSBML());
+  }
+}
@@ -0,0 +1,65 @@
+package edu.ucsd.sbrg.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.sbml.jsbml.Model;
+import org.sbml.jsbml.Reaction;
+
+import de.zbit.kegg.AtomBalanceCheck;
+
+/**
+ * Checking the atom balance of all reactions of a model with
+ * {@link AtomBalanceCheck}, which parses the formulas of the participants for
+ * every reaction, and with {@link AtomBalance}, which parses the formula of
+ * every species once. The latter includes parsing the formulas. Times are per
+ * model.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AtomBalanceBenchmark {
+
+  private Model model;
+  private List<Reaction> reactions;
+
+  @Setup(Level.Trial)
+  public void setUp(BenchmarkModel benchmarkModel) {
+    // AtomBalanceCheck may add empty lists and plugins to the model
+    model = benchmarkModel.copy().getModel();
+    reactions = new ArrayList<>(model.getListOfReactions());
+  }
+
+
+  @Benchmark
+  public void atomBalanceCheck(Blackhole blackhole) {
+    for (Reaction r : reactions) {
+      blackhole.consume(AtomBalanceCheck.checkAtomBalance(r, 1));
+    }
+  }
+
+
+  @Benchmark
+  public void atomBalance(Blackhole blackhole) {
+    AtomBalance atomBalance = new AtomBalance(model);
+    for (Reaction r : reactions) {
+      blackhole.consume(atomBalance.check(r));
+    }
+  }
+}
@@ -0,0 +1,98 @@
+package edu.ucsd.sbrg.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import javax.xml.stream.XMLStreamException;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.sbml.jsbml.SBMLDocument;
+import org.sbml.jsbml.SBMLReader;
+import org.sbml.jsbml.SBMLWriter;
+
+/**
+ * Input of the benchmarks working on a whole model, either the bundled
+ * {@code e_coli_core} model or a model of the given number of reactions
+ * created by {@link SyntheticModelGenerator}. The model is read or generated
+ * once per trial, benchmarks that change it have to work on a
+ * {@link #copy()}.
+ */
+@State(Scope.Benchmark)
+public class BenchmarkModel {
+
+  /**
+   * Location of the models bundled with ModelPolisher
+   */
+  public static final String MODELS = "/edu/ucsd/sbrg/bigg/models/";
+  /**
+   * Seed of the synthetic models, so that all runs see the same model
+   */
+  private static final long SEED = 1995L;
+  /**
+   * Either {@code e_coli_core} or the number of reactions of a synthetic
+   * model, 2500 is about the size of iJO1366, 10000 that of Recon3D
+   */
+  @Param({"e_coli_core", "2500", "10000"})
+  public String model;
+  private SBMLDocument document;
+  private byte[] sbml;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException, XMLStreamException {
+    if (model.chars().allMatch(Character::isDigit)) {
+      document = SyntheticModelGenerator.create(Integer.parseInt(model), SEED);
+      ByteArrayOutputStream stream = new ByteArrayOutputStream();
+      new SBMLWriter().write(document, stream);
+      sbml = stream.toByteArray();
+    } else {
+      sbml = readResource(model + ".xml");
+      document = new SBMLReader().readSBMLFromStream(new ByteArrayInputStream(sbml));
+    }
+  }
+
+
+  /**
+   * @return the model, which must not be changed
+   */
+  public SBMLDocument getDocument() {
+    return document;
+  }
+
+
+  /**
+   * @return a deep copy of the model
+   */
+  public SBMLDocument copy() {
+    return document.clone();
+  }
+
+
+  /**
+   * @return the model in SBML
+   */
+  public InputStream getSBML() {
+    return new ByteArrayInputStream(sbml);
+  }
+
+
+  /**
+   * @param name
+   *        file name of a bundled model
+   * @return the content of the file
+   * @throws IOException
+   */
+  public static byte[] readResource(String name) throws IOException {
+    try (InputStream stream = BenchmarkModel.class.getResourceAsStream(MODELS + name)) {
+      if (stream == null) {
+        throw new IOException("Missing resource " + MODELS + name);
+      }
+      return stream.readAllBytes();
+    }
+  }
+}
@@ -0,0 +1,84 @@
+package edu.ucsd.sbrg.util;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.ucsd.sbrg.bigg.ModelPolisherOptions.Compression;
+
+/**
+ * Reading the uncompressed content of the bundled {@code e_coli_core} model in
+ * SBML from a plain file, a GZIP file and a ZIP archive with
+ * {@link CompressedInput}. Times are per read of the whole model.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CompressedInputBenchmark {
+
+  @Param({"NONE", "GZIP", "ZIP"})
+  public Compression compression;
+  private File file;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    byte[] model = BenchmarkModel.readResource("e_coli_core.xml");
+    switch (compression) {
+    case GZIP:
+      file = File.createTempFile("e_coli_core", ".xml.gz");
+      try (OutputStream out = new GZIPOutputStream(new FileOutputStream(file))) {
+        out.write(model);
+      }
+      break;
+    case ZIP:
+      file = File.createTempFile("e_coli_core", ".zip");
+      try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(file))) {
+        out.putNextEntry(new ZipEntry("e_coli_core.xml"));
+        out.write(model);
+        out.closeEntry();
+      }
+      break;
+    default:
+      file = File.createTempFile("e_coli_core", ".xml");
+      Files.write(file.toPath(), model);
+    }
+  }
+
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    Files.deleteIfExists(file.toPath());
+  }
+
+
+  @Benchmark
+  public byte[] read() throws IOException {
+    try (InputStream in = CompressedInput.open(file)) {
+      return in.readAllBytes();
+    }
+  }
+}
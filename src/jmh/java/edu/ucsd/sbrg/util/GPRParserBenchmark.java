@@ -0,0 +1,93 @@
+package edu.ucsd.sbrg.util;
+
+import java.io.StringReader;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sbml.jsbml.ASTNode;
+import org.sbml.jsbml.Model;
+import org.sbml.jsbml.Reaction;
+import org.sbml.jsbml.SBMLDocument;
+import org.sbml.jsbml.text.parser.CobraFormulaParser;
+import org.sbml.jsbml.text.parser.ParseException;
+
+/**
+ * Parsing gene-reaction rules into FBC associations for all reactions of a
+ * model, which also creates the gene products, with {@link GPRParser} and with
+ * JSBML's {@link CobraFormulaParser} as before. Each invocation starts from a
+ * model with reactions only. With fewer distinct rules than reactions, rules
+ * are repeated as in models where many reactions share a rule. Run with
+ * {@code -prof gc} to compare allocations.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GPRParserBenchmark {
+
+  /**
+   * Number of reactions
+   */
+  @Param({"2500", "10000"})
+  public int reactions;
+  /**
+   * Number of distinct rules, 0 for one per reaction
+   */
+  @Param({"0", "100"})
+  public int distinctRules;
+  private List<String> rules;
+  private Model model;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    rules = SyntheticModelGenerator.createGeneReactionRules(reactions, 1995L);
+    if (distinctRules > 0) {
+      for (int i = distinctRules; i < reactions; i++) {
+        rules.set(i, rules.get(i % distinctRules));
+      }
+    }
+  }
+
+
+  @Setup(Level.Invocation)
+  public void createModel() {
+    model = new SBMLDocument(3, 1).createModel("gpr");
+    for (int i = 0; i < reactions; i++) {
+      model.createReaction("R_r" + i);
+    }
+  }
+
+
+  @Benchmark
+  public Model parseGPR() {
+    for (int i = 0; i < reactions; i++) {
+      GPRParser.parseGPR(model.getReaction(i), rules.get(i), false);
+    }
+    return model;
+  }
+
+
+  @Benchmark
+  public Model parseGPRWithCobraFormulaParser() throws ParseException {
+    for (int i = 0; i < reactions; i++) {
+      Reaction r = model.getReaction(i);
+      ASTNode ast = ASTNode.parseFormula(rules.get(i), new CobraFormulaParser(new StringReader("")));
+      GPRParser.parseGPR(r, GPRParser.convertToAssociation(ast, r.getId(), model, false), false);
+    }
+    return model;
+  }
+}
@@ -0,0 +1,226 @@
+package edu.ucsd.sbrg.util;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.sbml.jsbml.Compartment;
+import org.sbml.jsbml.Model;
+import org.sbml.jsbml.Parameter;
+import org.sbml.jsbml.Reaction;
+import org.sbml.jsbml.SBMLDocument;
+import org.sbml.jsbml.Species;
+import org.sbml.jsbml.ext.fbc.FBCConstants;
+import org.sbml.jsbml.ext.fbc.FBCModelPlugin;
+import org.sbml.jsbml.ext.fbc.FBCReactionPlugin;
+import org.sbml.jsbml.ext.fbc.FBCSpeciesPlugin;
+import org.sbml.jsbml.ext.fbc.FluxObjective;
+import org.sbml.jsbml.ext.fbc.Objective;
+
+/**
+ * Creates models with the proportions of genome-scale BiGG models at any size:
+ * about seven metabolites and six genes for every ten reactions, a tenth of the
+ * reactions are exchange reactions and most of the others have a gene-reaction
+ * rule. Models created with the same size and seed are identical.
+ */
+public final class SyntheticModelGenerator {
+
+  /**
+   * Compartment codes and names
+   */
+  private static final String[][] COMPARTMENTS = {{"c", "cytosol"}, {"p", "periplasm"}, {"e", "extracellular space"}};
+  private static final String[] ELEMENTS = {"C", "H", "N", "O", "P", "S"};
+
+  /**
+   * Don't allow instantiation
+   */
+  private SyntheticModelGenerator() {
+  }
+
+
+  /**
+   * @param reactions
+   *        number of reactions, at least 10
+   * @param seed
+   * @return an SBML Level 3 Version 1 document using FBC version 2
+   */
+  public static SBMLDocument create(int reactions, long seed) {
+    Random random = new Random(seed);
+    SBMLDocument doc = new SBMLDocument(3, 1);
+    Model model = doc.createModel("synthetic_" + reactions);
+    model.setName("Synthetic model with " + reactions + " reactions");
+    FBCModelPlugin fbc = (FBCModelPlugin) model.getPlugin(FBCConstants.shortLabel);
+    fbc.setStrict(true);
+    for (String[] code : COMPARTMENTS) {
+      Compartment compartment = model.createCompartment(code[0]);
+      compartment.setName(code[1]);
+      compartment.setConstant(true);
+    }
+    Parameter lowerBound = createBound(model, "R_default_lb", -1000d);
+    Parameter upperBound = createBound(model, "R_default_ub", 1000d);
+    Parameter zeroBound = createBound(model, "R_0_bound", 0d);
+    int metabolites = Math.max(2, reactions * 7 / 10);
+    List<Species> cytosol = new ArrayList<>(metabolites);
+    for (int i = 0; i < metabolites; i++) {
+      cytosol.add(createSpecies(model, random, i, "c"));
+    }
+    int genes = Math.max(1, reactions * 6 / 10);
+    for (int i = 0; i < reactions; i++) {
+      Reaction r;
+      if (i % 10 == 0) {
+        // exchange of a metabolite with the extracellular space
+        int metabolite = random.nextInt(metabolites);
+        String id = "M_m" + metabolite + "_e";
+        Species species = model.getSpecies(id);
+        if (species == null) {
+          species = createSpecies(model, random, metabolite, "e");
+        }
+        r = createReaction(model, "R_EX_m" + metabolite + "_e_" + i, "Exchange of metabolite " + metabolite);
+        r.createReactant(species).setStoichiometry(1d);
+      } else {
+        r = createReaction(model, "R_r" + i, "Reaction " + i);
+        int participants = 2 + random.nextInt(5);
+        Set<Integer> used = new HashSet<>();
+        for (int j = 0; j < participants; j++) {
+          int metabolite = random.nextInt(metabolites);
+          if (!used.add(metabolite)) {
+            continue;
+          }
+          Species species = cytosol.get(metabolite);
+          double stoichiometry = 1 + random.nextInt(2);
+          if (j < (participants / 2)) {
+            r.createReactant(species).setStoichiometry(stoichiometry);
+          } else {
+            r.createProduct(species).setStoichiometry(stoichiometry);
+          }
+        }
+        if (random.nextInt(5) > 0) {
+          GPRParser.parseGPR(r, createGeneReactionRule(random, genes), false);
+        }
+      }
+      r.getListOfReactants().forEach(reference -> reference.setConstant(true));
+      r.getListOfProducts().forEach(reference -> reference.setConstant(true));
+      FBCReactionPlugin reactionPlugin = (FBCReactionPlugin) r.getPlugin(FBCConstants.shortLabel);
+      reactionPlugin.setLowerFluxBound(r.isReversible() ? lowerBound : zeroBound);
+      reactionPlugin.setUpperFluxBound(upperBound);
+    }
+    Objective objective = fbc.createObjective("obj");
+    objective.setType(Objective.Type.MAXIMIZE);
+    FluxObjective fluxObjective = objective.createFluxObjective();
+    fluxObjective.setReaction(model.getReaction(model.getReactionCount() - 1).getId());
+    fluxObjective.setCoefficient(1d);
+    fbc.setActiveObjectiveId(objective.getId());
+    return doc;
+  }
+
+
+  /**
+   * @param random
+   * @param genes
+   *        number of genes to choose from
+   * @return a rule as found in COBRA models, a single gene, isozymes or
+   *         isozymes of complexes, e.g., {@code (b0001 and b0002) or b0003}
+   */
+  public static String createGeneReactionRule(Random random, int genes) {
+    int isozymes = 1 + random.nextInt(3);
+    StringBuilder rule = new StringBuilder();
+    for (int i = 0; i < isozymes; i++) {
+      if (i > 0) {
+        rule.append(" or ");
+      }
+      int subunits = random.nextInt(4) == 0 ? 2 + random.nextInt(3) : 1;
+      if ((subunits > 1) && (isozymes > 1)) {
+        rule.append('(');
+      }
+      for (int j = 0; j < subunits; j++) {
+        if (j > 0) {
+          rule.append(" and ");
+        }
+        rule.append(String.format("b%04d", random.nextInt(genes)));
+      }
+      if ((subunits > 1) && (isozymes > 1)) {
+        rule.append(')');
+      }
+    }
+    return rule.toString();
+  }
+
+
+  /**
+   * @param count
+   * @param seed
+   * @return the given number of rules over a pool of genes in the proportion
+   *         of the generated models
+   */
+  public static List<String> createGeneReactionRules(int count, long seed) {
+    Random random = new Random(seed);
+    int genes = Math.max(1, count * 6 / 10);
+    List<String> rules = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      rules.add(createGeneReactionRule(random, genes));
+    }
+    return rules;
+  }
+
+
+  /**
+   * @param model
+   * @param id
+   * @param value
+   * @return
+   */
+  private static Parameter createBound(Model model, String id, double value) {
+    Parameter bound = model.createParameter(id);
+    bound.setValue(value);
+    bound.setConstant(true);
+    bound.setSBOTerm(626);
+    return bound;
+  }
+
+
+  /**
+   * @param model
+   * @param random
+   * @param index
+   * @param compartment
+   * @return
+   */
+  private static Species createSpecies(Model model, Random random, int index, String compartment) {
+    Species species = model.createSpecies("M_m" + index + "_" + compartment, model.getCompartment(compartment));
+    species.setName("Metabolite " + index);
+    species.setHasOnlySubstanceUnits(false);
+    species.setBoundaryCondition(false);
+    species.setConstant(false);
+    FBCSpeciesPlugin speciesPlugin = (FBCSpeciesPlugin) species.getPlugin(FBCConstants.shortLabel);
+    StringBuilder formula = new StringBuilder();
+    for (String element : ELEMENTS) {
+      int count = random.nextInt(element.equals("C") || element.equals("H") ? 30 : 4);
+      if (count > 0) {
+        formula.append(element);
+        if (count > 1) {
+          formula.append(count);
+        }
+      }
+    }
+    speciesPlugin.setChemicalFormula(formula.length() > 0 ? formula.toString() : "H");
+    speciesPlugin.setCharge(random.nextInt(4) - 2);
+    return species;
+  }
+
+
+  /**
+   * @param model
+   * @param id
+   * @param name
+   * @return
+   */
+  private static Reaction createReaction(Model model, String id, String name) {
+    Reaction r = model.createReaction(id);
+    r.setName(name);
+    r.setFast(false);
+    r.setReversible(id.startsWith("R_EX_") || (model.getReactionCount() % 3 == 0));
+    return r;
+  }
+}
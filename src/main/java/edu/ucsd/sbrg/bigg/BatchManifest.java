@@ -0,0 +1,136 @@
+package edu.ucsd.sbrg.bigg;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.util.Properties;
+
+import edu.ucsd.sbrg.util.Digests;
+
+/**
+ * Remembers which models of a batch run have been polished, so that a
+ * repeated run only processes models whose input or configuration has
+ * changed. Each output file is mapped to a fingerprint over the content of its
+ * input file and the configuration, which comprises all options that affect
+ * the output and the version of the BiGG database. The manifest is rewritten
+ * atomically after each model, so an interrupted run resumes where it
+ * stopped.
+ */
+class BatchManifest {
+
+  /**
+   * Name of the manifest file within the output directory
+   */
+  static final String FILE_NAME = ".modelpolisher-manifest";
+  private final File file;
+  private final Path directory;
+  private final String configuration;
+  private final Properties fingerprints = new Properties();
+
+  /**
+   * @param directory
+   *        output directory the manifest is kept in
+   * @param configuration
+   *        all settings that affect the polished models
+   * @throws IOException
+   *         if an existing manifest cannot be read
+   */
+  BatchManifest(File directory, String configuration) throws IOException {
+    this.directory = directory.getAbsoluteFile().toPath();
+    this.configuration = configuration;
+    file = new File(directory, FILE_NAME);
+    if (file.isFile()) {
+      try (InputStream in = new FileInputStream(file)) {
+        fingerprints.load(in);
+      }
+    }
+  }
+
+
+  /**
+   * @param input
+   * @return hash over the configuration and the content of the input file
+   * @throws IOException
+   */
+  String fingerprint(File input) throws IOException {
+    MessageDigest digest = Digests.newDigest();
+    digest.update(configuration.getBytes(StandardCharsets.UTF_8));
+    digest.update((byte) 0);
+    Digests.update(digest, input);
+    return Digests.hex(digest.digest());
+  }
+
+
+  /**
+   * @param output
+   * @param fingerprint
+   * @return {@code true} if the output was last written from an input and
+   *         configuration with the given fingerprint
+   */
+  synchronized boolean isUpToDate(File output, String fingerprint) {
+    return fingerprint.equals(fingerprints.getProperty(key(output)));
+  }
+
+
+  /**
+   * Records the fingerprint of a successfully written output and persists the
+   * manifest
+   *
+   * @param output
+   * @param fingerprint
+   * @throws IOException
+   */
+  synchronized void update(File output, String fingerprint) throws IOException {
+    fingerprints.setProperty(key(output), fingerprint);
+    File temp = File.createTempFile(FILE_NAME, ".tmp", file.getAbsoluteFile().getParentFile());
+    try {
+      try (OutputStream out = new FileOutputStream(temp)) {
+        fingerprints.store(out, "ModelPolisher batch manifest");
+      }
+      try {
+        Files.move(temp.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE,
+          StandardCopyOption.REPLACE_EXISTING);
+      } catch (AtomicMoveNotSupportedException exc) {
+        Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+      }
+    } finally {
+      Files.deleteIfExists(temp.toPath());
+    }
+  }
+
+
+  /**
+   * @param output
+   * @return path of the output relative to the manifest, with forward slashes
+   */
+  private String key(File output) {
+    Path path = output.getAbsoluteFile().toPath();
+    if (path.startsWith(directory)) {
+      path = directory.relativize(path);
+    }
+    return path.toString().replace(File.separatorChar, '/');
+  }
+
+
+  /**
+   * @param values
+   * @return hash over the given values, in the given order
+   */
+  static String hash(Iterable<String> values) {
+    MessageDigest digest = Digests.newDigest();
+    for (String value : values) {
+      digest.update(value.getBytes(StandardCharsets.UTF_8));
+      digest.update((byte) 0);
+    }
+    return Digests.hex(digest.digest());
+  }
+}
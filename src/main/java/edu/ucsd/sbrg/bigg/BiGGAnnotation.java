@@ -9,9 +9,11 @@ import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -24,6 +26,12 @@ import java.util.SortedMap;
 import java.util.SortedSet;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
 
@@ -34,6 +42,7 @@ import org.sbml.jsbml.CVTerm;
 import org.sbml.jsbml.CVTerm.Qualifier;
 import org.sbml.jsbml.Compartment;
 import org.sbml.jsbml.Model;
+import org.sbml.jsbml.NamedSBase;
 import org.sbml.jsbml.Reaction;
 import org.sbml.jsbml.SBMLDocument;
 import org.sbml.jsbml.SBO;
@@ -54,6 +63,7 @@ import de.zbit.util.progressbar.AbstractProgressBar;
 import de.zbit.util.progressbar.ProgressBar;
 import edu.ucsd.sbrg.db.AnnotateDB;
 import edu.ucsd.sbrg.db.BiGGDB;
+import edu.ucsd.sbrg.db.BiGGDBPrefetch;
 import edu.ucsd.sbrg.db.QueryOnce;
 import edu.ucsd.sbrg.miriam.Registry;
 import edu.ucsd.sbrg.util.GPRParser;
@@ -94,10 +104,48 @@ public class BiGGAnnotation {
    *
    */
   private int initialGeneProducts;
+  /**
+   * BiGG data prefetched for the model currently annotated
+   */
+  private BiGGDBPrefetch prefetch;
+  /**
+   * Runs the lookups for species, reactions and gene products if more than one
+   * lookup may be in flight, {@code null} otherwise
+   */
+  private ExecutorService lookupExecutor;
+  /**
+   * Options used by lookups, which may run on other threads
+   */
+  private boolean includeAnyURI;
+  private boolean addADBAnnotations;
+  /**
+   * Result of a lookup that found nothing to change
+   */
+  private static final Runnable NO_CHANGES = () -> {
+  };
+
+  /**
+   * Options of the model currently annotated
+   */
+  private final Parameters parameters;
 
   /**
+   * @param parameters
+   *        options of the models to annotate
    */
-  public BiGGAnnotation() {
+  public BiGGAnnotation(Parameters parameters) {
+    this.parameters = parameters;
+    if (parameters.getNoModelNotes()) {
+      setDocumentNotesFile(null);
+      setModelNotesFile(null);
+    } else {
+      if (parameters.getDocumentNotesFile() != null) {
+        setDocumentNotesFile(parameters.getDocumentNotesFile());
+      }
+      if (parameters.getModelNotesFile() != null) {
+        setModelNotesFile(parameters.getModelNotesFile());
+      }
+    }
   }
 
 
@@ -216,6 +264,9 @@ public class BiGGAnnotation {
    * @param model
    */
   private void annotate(Model model) {
+    includeAnyURI = parameters.getIncludeAnyURI();
+    addADBAnnotations = parameters.getAddADBAnnotations();
+    prefetch = prefetch(model);
     BiGGDB.getTaxonId(model.getId()).ifPresent(
       taxonId -> model.addCVTerm(new CVTerm(CVTerm.Qualifier.BQB_HAS_TAXON, Registry.createURI("taxonomy", taxonId))));
     BiGGDB.getOrganism(model.getId()).ifPresent(organism -> processReplacements(model, organism));
@@ -227,9 +278,53 @@ public class BiGGAnnotation {
     }
     annotatePublications(model);
     annotateListOfCompartments(model);
-    annotateListOfSpecies(model);
-    annotateListOfReactions(model);
-    annotateListOfGeneProducts(model);
+    if (parameters.getConcurrentLookups() > 1) {
+      lookupExecutor = Executors.newFixedThreadPool(parameters.getConcurrentLookups());
+    }
+    try {
+      annotateListOfSpecies(model);
+      annotateListOfReactions(model);
+      annotateListOfGeneProducts(model);
+    } finally {
+      if (lookupExecutor != null) {
+        lookupExecutor.shutdownNow();
+        lookupExecutor = null;
+      }
+    }
+  }
+
+
+  /**
+   * Collects the BiGG ids of all species, reactions and gene products in the
+   * model and fetches their data in bulk
+   *
+   * @param model
+   * @return
+   */
+  private BiGGDBPrefetch prefetch(Model model) {
+    Set<String> components = new HashSet<>();
+    for (Species species : model.getListOfSpecies()) {
+      BiGGId.createMetaboliteId(species.getId()).map(BiGGId::getAbbreviation).ifPresent(components::add);
+    }
+    Set<String> reactions = new HashSet<>();
+    for (Reaction reaction : model.getListOfReactions()) {
+      BiGGId.createReactionId(reaction.getId()).map(BiGGId::getAbbreviation).ifPresent(reactions::add);
+    }
+    Set<String> genes = new HashSet<>();
+    if (model.isSetPlugin(FBCConstants.shortLabel)) {
+      FBCModelPlugin fbcModelPlugin = (FBCModelPlugin) model.getPlugin(FBCConstants.shortLabel);
+      for (GeneProduct geneProduct : fbcModelPlugin.getListOfGeneProducts()) {
+        Optional<BiGGId> biggId = BiGGId.createGeneId(geneProduct.getId());
+        biggId.map(BiGGId::getAbbreviation).ifPresent(genes::add);
+        // labels are looked up as used in annotateGeneProduct
+        if (geneProduct.isSetLabel() && !geneProduct.getLabel().equalsIgnoreCase("None")) {
+          genes.add(geneProduct.getLabel());
+        } else {
+          biggId.map(BiGGId::toBiGGId).ifPresent(genes::add);
+        }
+      }
+    }
+    return BiGGDBPrefetch.prefetch(model.getId(), components, reactions, genes, includeAnyURI);
   }
 
 
@@ -238,7 +333,6 @@ public class BiGGAnnotation {
    * @param organism
    */
   private void processReplacements(Model model, String organism) {
-    Parameters parameters = Parameters.get();
     String name = parameters.getDocumentTitlePattern();
     name = name.replace("[biggId]", model.getId());
     name = name.replace("[organism]", organism);
@@ -298,53 +392,131 @@ public class BiGGAnnotation {
   }
 
 
+  /**
+   * Annotates all elements, either one after the other or, if a
+   * {@link #lookupExecutor} is set, by running the lookups for up to
+   * {@link Parameters#getConcurrentLookups()} elements concurrently. Results
+   * are always applied on the calling thread and in the order of the elements,
+   * so that the model is never modified concurrently and the output does not
+   * depend on the order in which lookups finish.
+   *
+   * @param elements
+   * @param message
+   *        for the progress bar
+   * @param annotation
+   *        reads the data needed from an element and returns its lookup, which
+   *        in turn returns the changes to apply to the element
+   */
+  private <T> void annotateAll(Iterable<T> elements, String message, Function<T, Supplier<Runnable>> annotation) {
+    if (lookupExecutor == null) {
+      for (T element : elements) {
+        progress.DisplayBar(message);
+        annotation.apply(element).get().run();
+      }
+      return;
+    }
+    int limit = parameters.getConcurrentLookups();
+    Deque<CompletableFuture<Runnable>> inFlight = new ArrayDeque<>(limit);
+    for (T element : elements) {
+      if (inFlight.size() >= limit) {
+        applyNext(inFlight, message);
+      }
+      inFlight.add(CompletableFuture.supplyAsync(annotation.apply(element), lookupExecutor));
+    }
+    while (!inFlight.isEmpty()) {
+      applyNext(inFlight, message);
+    }
+  }
+
+
+  /**
+   * Waits for the oldest lookup in flight and applies its result
+   *
+   * @param inFlight
+   * @param message
+   */
+  private void applyNext(Deque<CompletableFuture<Runnable>> inFlight, String message) {
+    progress.DisplayBar(message);
+    try {
+      inFlight.removeFirst().join().run();
+    } catch (CompletionException exc) {
+      if (exc.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) exc.getCause();
+      }
+      throw exc;
+    }
+  }
+
+
+  /**
+   * @param sbase
+   * @return all resources of {@link Qualifier#BQB_IS} terms
+   */
+  private List<String> getIsResources(SBase sbase) {
+    return sbase.getAnnotation().getListOfCVTerms().stream().filter(cvTerm -> cvTerm.getQualifier() == Qualifier.BQB_IS)
+                .flatMap(term -> term.getResources().stream()).collect(Collectors.toList());
+  }
+
+
   /**
    * @param model
    */
   private void annotateListOfSpecies(Model model) {
-    for (int i = 0; i < model.getSpeciesCount(); i++) {
-      progress.DisplayBar("Annotating Species (3/5)  ");
-      annotateSpecies(model.getSpecies(i));
-    }
+    annotateAll(model.getListOfSpecies(), "Annotating Species (3/5)  ", this::annotateSpecies);
   }
 
 
   /**
    * @param species
+   * @return
    */
-  private void annotateSpecies(Species species) {
-    // This biggId corresponds to BiGGId calculated from getSpeciesBiGGIdFromUriList method, if not present as
-    // species.id
-    checkId(species).ifPresent(biggId -> {
-      setSpeciesName(species, biggId);
-      setSBOTermFromComponentType(species, biggId);
-      setCVTermResources(species, biggId);
-      FBCSetFormulaCharge(species, biggId);
-    });
+  private Supplier<Runnable> annotateSpecies(Species species) {
+    String id = species.getId();
+    String name = species.isSetName() ? species.getName() : null;
+    List<String> resources = getIsResources(species);
+    String modelId = species.getModel().getId();
+    boolean isSetFormula = species.isSetPlugin(FBCConstants.shortLabel)
+      && ((FBCSpeciesPlugin) species.getPlugin(FBCConstants.shortLabel)).isSetChemicalFormula();
+    return () -> {
+      // This biggId corresponds to BiGGId calculated from getSpeciesBiGGIdFromUriList method, if not present as
+      // species.id
+      Optional<BiGGId> checkedId = checkSpeciesId(id, resources);
+      if (checkedId.isEmpty()) {
+        return NO_CHANGES;
+      }
+      BiGGId biggId = checkedId.get();
+      Optional<String> newName = getSpeciesName(name, biggId);
+      Optional<String> type = prefetch.getComponentType(biggId);
+      Set<String> annotations = getAnnotations(biggId, false);
+      Optional<String> formula = isSetFormula ? Optional.empty() : getChemicalFormula(biggId, modelId);
+      Optional<Integer> charge = getCharge(biggId, modelId);
+      return () -> {
+        newName.ifPresent(species::setName);
+        setSBOTermFromComponentType(species, type);
+        setCVTermResources(species, annotations);
+        FBCSetFormulaCharge(species, formula, charge);
+      };
+    };
   }
 
 
   /**
-   * @param species
+   * @param id
+   * @param resources
    * @return
    */
-  private Optional<BiGGId> checkId(Species species) {
+  private Optional<BiGGId> checkSpeciesId(String id, List<String> resources) {
     // TODO: compartments are not handled correctly -- is this at all possible to get right?
-    Optional<BiGGId> metaboliteId = BiGGId.createMetaboliteId(species.getId());
-    Optional<String> id = metaboliteId.flatMap(biggId -> {
+    Optional<BiGGId> metaboliteId = BiGGId.createMetaboliteId(id);
+    Optional<String> newId = metaboliteId.flatMap(biggId -> {
       // extracting BiGGId if not present for species
-      boolean isBiGGid = QueryOnce.isMetabolite(biggId.getAbbreviation());
-      List<String> resources = new ArrayList<>();
-      if (!isBiGGid) {
-        // Flatten all resources for all CVTerms into a list
-        resources = species.getAnnotation().getListOfCVTerms().stream()
-                           .filter(cvTerm -> cvTerm.getQualifier() == Qualifier.BQB_IS)
-                           .flatMap(term -> term.getResources().stream()).collect(Collectors.toList());
+      if (QueryOnce.isMetabolite(biggId.getAbbreviation())) {
+        return Optional.empty();
       }
       // update id if we found something
       return getBiGGIdFromResources(resources, BiGGDB.TYPE_SPECIES);
     });
-    return id.map(BiGGId::createMetaboliteId).orElse(metaboliteId);
+    return newId.map(BiGGId::createMetaboliteId).orElse(metaboliteId);
   }
 
 
@@ -382,23 +554,25 @@ public class BiGGAnnotation {
 
 
   /**
-   * @param species
+   * @param name
+   *        current name of the species or {@code null}
    * @param biggId
+   * @return the name to set, if any
    */
-  private void setSpeciesName(Species species, BiGGId biggId) {
-    if (!species.isSetName()
-      || species.getName().equals(format("{0}_{1}", biggId.getAbbreviation(), biggId.getCompartmentCode()))) {
-      BiGGDB.getComponentName(biggId).map(SBMLPolisher::polishName).ifPresent(species::setName);
+  private Optional<String> getSpeciesName(String name, BiGGId biggId) {
+    if ((name == null) || name.equals(format("{0}_{1}", biggId.getAbbreviation(), biggId.getCompartmentCode()))) {
+      return prefetch.getComponentName(biggId).map(SBMLPolisher::polishName);
     }
+    return Optional.empty();
   }
 
 
   /**
    * @param species
-   * @param biggId
+   * @param componentType
    */
-  private void setSBOTermFromComponentType(Species species, BiGGId biggId) {
-    BiGGDB.getComponentType(biggId).ifPresent(type -> {
+  private void setSBOTermFromComponentType(Species species, Optional<String> componentType) {
+    componentType.ifPresent(type -> {
       switch (type) {
       case "metabolite":
         species.setSBOTerm(SBO.getSimpleMolecule());
@@ -407,7 +581,6 @@ public class BiGGAnnotation {
         species.setSBOTerm(SBO.getProtein());
         break;
       default:
-        Parameters parameters = Parameters.get();
         if (parameters.getOmitGenericTerms()) {
           species.setSBOTerm(SBO.getMaterialEntity());
         }
@@ -418,92 +591,125 @@ public class BiGGAnnotation {
 
 
   /**
-   * @param species
+   * Collects annotations from BiGGDB and AnnotateDB
+   *
    * @param biggId
+   * @param isReaction
+   * @return
+   */
+  private Set<String> getAnnotations(BiGGId biggId, boolean isReaction) {
+    Set<String> annotations = new HashSet<>();
+    boolean isBiGGId = isReaction ? QueryOnce.isReaction(biggId.getAbbreviation())
+      : QueryOnce.isMetabolite(biggId.getAbbreviation());
+    // using BiGG Database
+    if (isBiGGId) {
+      annotations.add(Registry.createURI(isReaction ? "bigg.reaction" : "bigg.metabolite", biggId));
+    }
+    Set<String> linkOut = prefetch.getResources(biggId, includeAnyURI, isReaction);
+    // convert to set to remove possible duplicates; TreeSet respects order
+    annotations.addAll(linkOut);
+    // using AnnotateDB
+    if (addADBAnnotations && AnnotateDB.inUse() && isBiGGId) {
+      // TODO: sabiork.reaction and strange IDs are returned, needs rework
+      annotations.addAll(AnnotateDB.getAnnotations(isReaction ? AnnotateDB.BIGG_REACTION : AnnotateDB.BIGG_METABOLITE,
+        biggId.toBiGGId()));
+    }
+    return annotations;
+  }
+
+
+  /**
+   * Adds the given annotations to the {@link Qualifier#BQB_IS} term of the
+   * element, except for those already present
+   *
+   * @param sbase
+   * @param annotations
    */
-  private void setCVTermResources(Species species, BiGGId biggId) {
-    // Set of annotations calculated from BiGGDB and AnnotateDB
+  private void setCVTermResources(NamedSBase sbase, Set<String> annotations) {
     CVTerm cvTerm = null;
-    for (CVTerm term : species.getAnnotation().getListOfCVTerms()) {
+    for (CVTerm term : sbase.getAnnotation().getListOfCVTerms()) {
       if (term.getQualifier() == Qualifier.BQB_IS) {
         cvTerm = term;
-        species.removeCVTerm(term);
+        sbase.removeCVTerm(term);
         break;
       }
     }
     if (cvTerm == null) {
       cvTerm = new CVTerm(Qualifier.BQB_IS);
     }
-    Set<String> annotations = new HashSet<>();
-    boolean isBiGGMetabolite = QueryOnce.isMetabolite(biggId.getAbbreviation());
-    // using BiGG Database
-    if (isBiGGMetabolite) {
-      annotations.add(Registry.createURI("bigg.metabolite", biggId));
-    }
-    Parameters parameters = Parameters.get();
-    Set<String> linkOut = BiGGDB.getResources(biggId, parameters.getIncludeAnyURI(), false);
-    // convert to set to remove possible duplicates; TreeSet respects order
-    annotations.addAll(linkOut);
-    // using AnnotateDB
-    if (parameters.getAddADBAnnotations() && AnnotateDB.inUse() && isBiGGMetabolite) {
-      // TODO: sabiork.reaction and strange IDs are returned, needs rework
-      Set<String> adb_annotations = AnnotateDB.getAnnotations(AnnotateDB.BIGG_METABOLITE, biggId.toBiGGId());
-      annotations.addAll(adb_annotations);
-    }
     // don't add resources that are already present
     Set<String> existingAnnotations =
       cvTerm.getResources().stream()
             .map(resource -> resource.replaceAll("http://identifiers.org", "https://identifiers.org"))
             .collect(Collectors.toSet());
-    annotations.removeAll(existingAnnotations);
     // adding annotations to cvTerm
     List<String> sortedAnnotations = new ArrayList<>(annotations);
+    sortedAnnotations.removeAll(existingAnnotations);
     Collections.sort(sortedAnnotations);
     for (String annotation : sortedAnnotations) {
       cvTerm.addResource(annotation);
     }
     if (cvTerm.getResourceCount() > 0) {
-      species.addCVTerm(cvTerm);
+      sbase.addCVTerm(cvTerm);
     }
-    if ((species.getCVTermCount() > 0) && !species.isSetMetaId()) {
-      species.setMetaId(species.getId());
+    if ((sbase.getCVTermCount() > 0) && !sbase.isSetMetaId()) {
+      sbase.setMetaId(sbase.getId());
     }
   }
 
 
   /**
-   * @param species
    * @param biggId
+   * @param modelId
+   * @return
    */
-  @SuppressWarnings("deprecation")
-  private void FBCSetFormulaCharge(Species species, BiGGId biggId) {
-    String modelId = species.getModel().getId();
+  private Optional<String> getChemicalFormula(BiGGId biggId, String modelId) {
     String compartmentCode = biggId.getCompartmentCode();
-    FBCSpeciesPlugin fbcSpecPlug = (FBCSpeciesPlugin) species.getPlugin(FBCConstants.shortLabel);
     boolean isBiGGModel = QueryOnce.isModel(modelId);
     boolean compartmentNonEmpty = compartmentCode != null && !compartmentCode.equals("");
-    if (!fbcSpecPlug.isSetChemicalFormula()) {
-      Optional<String> chemicalFormula = Optional.empty();
-      if (isBiGGModel) {
-        chemicalFormula = BiGGDB.getChemicalFormula(biggId.getAbbreviation(), species.getModel().getId());
-      }
-      if ((!isBiGGModel || chemicalFormula.isEmpty()) && compartmentNonEmpty) {
-        chemicalFormula = BiGGDB.getChemicalFormulaByCompartment(biggId.getAbbreviation(), compartmentCode);
-      }
-      chemicalFormula.ifPresent(formula -> {
-        try {
-          fbcSpecPlug.setChemicalFormula(formula);
-        } catch (IllegalArgumentException exc) {
-          logger.severe(format(mpMessageBundle.getString("CHEM_FORMULA_INVALID"), Utils.getMessage(exc)));
-        }
-      });
-    }
-    Optional<Integer> chargeFromBiGG = Optional.empty();
+    Optional<String> chemicalFormula = Optional.empty();
     if (isBiGGModel) {
-      chargeFromBiGG = BiGGDB.getCharge(biggId.getAbbreviation(), species.getModel().getId());
-    } else if (compartmentNonEmpty) {
-      chargeFromBiGG = BiGGDB.getChargeByCompartment(biggId.getAbbreviation(), biggId.getCompartmentCode());
+      chemicalFormula = prefetch.getChemicalFormula(biggId.getAbbreviation(), modelId);
+    }
+    if ((!isBiGGModel || chemicalFormula.isEmpty()) && compartmentNonEmpty) {
+      chemicalFormula = prefetch.getChemicalFormulaByCompartment(biggId.getAbbreviation(), compartmentCode);
     }
+    return chemicalFormula;
+  }
+
+
+  /**
+   * @param biggId
+   * @param modelId
+   * @return
+   */
+  private Optional<Integer> getCharge(BiGGId biggId, String modelId) {
+    String compartmentCode = biggId.getCompartmentCode();
+    if (QueryOnce.isModel(modelId)) {
+      return prefetch.getCharge(biggId.getAbbreviation(), modelId);
+    } else if (compartmentCode != null && !compartmentCode.equals("")) {
+      return prefetch.getChargeByCompartment(biggId.getAbbreviation(), compartmentCode);
+    }
+    return Optional.empty();
+  }
+
+
+  /**
+   * @param species
+   * @param chemicalFormula
+   * @param chargeFromBiGG
+   */
+  @SuppressWarnings("deprecation")
+  private void FBCSetFormulaCharge(Species species, Optional<String> chemicalFormula,
+    Optional<Integer> chargeFromBiGG) {
+    FBCSpeciesPlugin fbcSpecPlug = (FBCSpeciesPlugin) species.getPlugin(FBCConstants.shortLabel);
+    chemicalFormula.ifPresent(formula -> {
+      try {
+        fbcSpecPlug.setChemicalFormula(formula);
+      } catch (IllegalArgumentException exc) {
+        logger.severe(format(mpMessageBundle.getString("CHEM_FORMULA_INVALID"), Utils.getMessage(exc)));
+      }
+    });
     if (species.isSetCharge()) {
       chargeFromBiGG.filter(charge -> charge != species.getCharge()).ifPresent(charge -> logger.warning(
         format(mpMessageBundle.getString("CHARGE_CONTRADICTION"), charge, species.getCharge(), species.getId())));
@@ -517,62 +723,70 @@ public class BiGGAnnotation {
    * @param model
    */
   private void annotateListOfReactions(Model model) {
-    for (int i = 0; i < model.getReactionCount(); i++) {
-      progress.DisplayBar("Annotating Reactions (4/5)  ");
-      annotateReaction(model.getReaction(i));
-    }
+    annotateAll(model.getListOfReactions(), "Annotating Reactions (4/5)  ", this::annotateReaction);
   }
 
 
   /**
    * @param reaction
+   * @return
    */
-  private void annotateReaction(Reaction reaction) {
-    checkId(reaction).ifPresent(biggId -> {
-      String abbreviation = biggId.getAbbreviation();
-      Parameters parameters = Parameters.get();
-      if (!reaction.isSetSBOTerm()) {
-        if (BiGGDB.isPseudoreaction(abbreviation)) {
-          reaction.setSBOTerm(631);
-        } else if (!parameters.getOmitGenericTerms()) {
-          reaction.setSBOTerm(375); // generic process
-        }
-      }
-      if ((reaction.getCVTermCount() > 0) && !reaction.isSetMetaId()) {
-        reaction.setMetaId(biggId.toBiGGId());
+  private Supplier<Runnable> annotateReaction(Reaction reaction) {
+    String id = reaction.getId();
+    String name = reaction.getName();
+    List<String> resources = getIsResources(reaction);
+    String modelId = reaction.getModel().getId();
+    boolean isSetSBOTerm = reaction.isSetSBOTerm();
+    return () -> {
+      Optional<BiGGId> checkedId = checkReactionId(id, resources);
+      if (checkedId.isEmpty()) {
+        return NO_CHANGES;
       }
+      BiGGId biggId = checkedId.get();
+      String abbreviation = biggId.getAbbreviation();
+      boolean isPseudoreaction = !isSetSBOTerm && prefetch.isPseudoreaction(abbreviation);
       // This biggId corresponds to BiGGId calculated from getSpeciesBiGGIdFromUriList method, if not present as
       // reaction.id
-      BiGGDB.getReactionName(abbreviation).filter(name -> !name.equals(reaction.getName()))
-            .map(SBMLPolisher::polishName).ifPresent(reaction::setName);
-      List<String> geneReactionRules = BiGGDB.getGeneReactionRule(abbreviation, reaction.getModel().getId());
-      for (String geneRactionRule : geneReactionRules) {
-        GPRParser.parseGPR(reaction, geneRactionRule, parameters.getOmitGenericTerms());
-      }
-      parseSubsystems(reaction, biggId);
-      setCVTermResources(reaction, biggId);
-    });
+      Optional<String> newName =
+        prefetch.getReactionName(abbreviation).filter(reactionName -> !reactionName.equals(name))
+                .map(SBMLPolisher::polishName);
+      List<String> geneReactionRules = prefetch.getGeneReactionRule(abbreviation, modelId);
+      List<String> subsystems = prefetch.getSubsystems(modelId, abbreviation);
+      Set<String> annotations = getAnnotations(biggId, true);
+      return () -> {
+        if (!reaction.isSetSBOTerm()) {
+          if (isPseudoreaction) {
+            reaction.setSBOTerm(631);
+          } else if (!parameters.getOmitGenericTerms()) {
+            reaction.setSBOTerm(375); // generic process
+          }
+        }
+        if ((reaction.getCVTermCount() > 0) && !reaction.isSetMetaId()) {
+          reaction.setMetaId(biggId.toBiGGId());
+        }
+        newName.ifPresent(reaction::setName);
+        for (String geneRactionRule : geneReactionRules) {
+          GPRParser.parseGPR(reaction, geneRactionRule, parameters.getOmitGenericTerms());
+        }
+        parseSubsystems(reaction, subsystems);
+        setCVTermResources(reaction, annotations);
+      };
+    };
   }
 
 
   /**
-   * @param reaction
+   * @param id
+   * @param resources
    * @return
    */
-  private Optional<BiGGId> checkId(Reaction reaction) {
-    String id = reaction.getId();
+  private Optional<BiGGId> checkReactionId(String id, List<String> resources) {
     // extracting BiGGId if not present for species
     boolean isBiGGid = id.matches("^(R_)?([a-zA-Z][a-zA-Z0-9_]+)(?:_([a-z][a-z0-9]?))?(?:_([A-Z][A-Z0-9]?))?$")
       && QueryOnce.isReaction(id);
-    if (!isBiGGid) {
-      // Flatten all resources for all CVTerms into a list
-      List<String> resources =
-        reaction.getAnnotation().getListOfCVTerms().stream().filter(cvTerm -> cvTerm.getQualifier() == Qualifier.BQB_IS)
-                .flatMap(term -> term.getResources().stream()).collect(Collectors.toList());
-      if (!resources.isEmpty()) {
-        // update id if we found something
-        id = getBiGGIdFromResources(resources, BiGGDB.TYPE_REACTION).orElse(id);
-      }
+    if (!isBiGGid && !resources.isEmpty()) {
+      // update id if we found something
+      id = getBiGGIdFromResources(resources, BiGGDB.TYPE_REACTION).orElse(id);
     }
     return BiGGId.createReactionId(id);
   }
@@ -580,14 +794,13 @@ public class BiGGAnnotation {
 
   /**
    * @param reaction
-   * @param biggId
+   * @param subsystems
    */
-  private void parseSubsystems(Reaction reaction, BiGGId biggId) {
-    Model model = reaction.getModel();
-    List<String> subsystems = BiGGDB.getSubsystems(model.getId(), biggId.getAbbreviation());
+  private void parseSubsystems(Reaction reaction, List<String> subsystems) {
     if (subsystems.size() < 1) {
       return;
     }
+    Model model = reaction.getModel();
     String groupKey = "GROUP_FOR_NAME";
     if (model.getUserObject(groupKey) == null) {
       model.putUserObject(groupKey, new HashMap<String, Group>());
@@ -611,59 +824,6 @@ public class BiGGAnnotation {
   }
 
 
-  /**
-   * @param reaction
-   * @param biggId
-   */
-  private void setCVTermResources(Reaction reaction, BiGGId biggId) {
-    // Set of annotations calculated from BiGGDB and AnnotateDB
-    CVTerm cvTerm = null;
-    for (CVTerm term : reaction.getAnnotation().getListOfCVTerms()) {
-      if (term.getQualifier() == Qualifier.BQB_IS) {
-        cvTerm = term;
-        reaction.removeCVTerm(term);
-        break;
-      }
-    }
-    if (cvTerm == null) {
-      cvTerm = new CVTerm(Qualifier.BQB_IS);
-    }
-    Set<String> annotations = new HashSet<>();
-    boolean isBiGGReaction = QueryOnce.isReaction(biggId.getAbbreviation());
-    // using BiGG Database
-    if (isBiGGReaction) {
-      annotations.add(Registry.createURI("bigg.reaction", biggId));
-    }
-    Parameters parameters = Parameters.get();
-    Set<String> linkOut = BiGGDB.getResources(biggId, parameters.getIncludeAnyURI(), true);
-    annotations.addAll(linkOut);
-    // using AnnotateDB
-    if (parameters.getAddADBAnnotations() && AnnotateDB.inUse() && isBiGGReaction) {
-      // TODO: probably similar problems as in the species case -- needs rework
-      Set<String> adb_annotations = AnnotateDB.getAnnotations(AnnotateDB.BIGG_REACTION, biggId.toBiGGId());
-      annotations.addAll(adb_annotations);
-    }
-    // add only annotations not already present in model
-    Set<String> existingAnnotations =
-      cvTerm.getResources().stream()
-            .map(resource -> resource.replaceAll("http://identifiers.org", "https://identifiers.org"))
-            .collect(Collectors.toSet());
-    annotations.removeAll(existingAnnotations);
-    // adding annotations to cvTerm
-    List<String> sortedAnnotations = new ArrayList<>(annotations);
-    Collections.sort(sortedAnnotations);
-    for (String annotation : sortedAnnotations) {
-      cvTerm.addResource(annotation);
-    }
-    if (cvTerm.getResourceCount() > 0) {
-      reaction.addCVTerm(cvTerm);
-    }
-    if ((reaction.getCVTermCount() > 0) && !reaction.isSetMetaId()) {
-      reaction.setMetaId(reaction.getId());
-    }
-  }
-
-
   /**
    * @param model
    */
@@ -678,56 +838,62 @@ public class BiGGAnnotation {
         progress.setNumberOfTotalCalls(progress.getNumberOfTotalCalls() + changed - 50);
         progress.setCallNr(current);
       }
-      for (GeneProduct geneProduct : fbcModelPlugin.getListOfGeneProducts()) {
-        progress.DisplayBar("Annotating Gene Products (5/5)  ");
-        annotateGeneProduct(geneProduct);
-      }
+      annotateAll(fbcModelPlugin.getListOfGeneProducts(), "Annotating Gene Products (5/5)  ",
+        this::annotateGeneProduct);
     }
   }
 
 
   /**
    * @param geneProduct
+   * @return
    */
-  private void annotateGeneProduct(GeneProduct geneProduct) {
-    Optional<String> label = Optional.empty();
-    Optional<BiGGId> biggId = checkId(geneProduct);
-    if (geneProduct.isSetLabel() && !geneProduct.getLabel().equalsIgnoreCase("None")) {
-      label = Optional.of(geneProduct.getLabel());
-    } else if (geneProduct.isSetId()) {
-      label = biggId.map(BiGGId::toBiGGId);
-    }
-    if (label.isEmpty()) {
-      return;
-    }
-    // fix geneProductReference in Association not updated
-    SBMLUtils.updateGeneProductReference(geneProduct);
-    biggId.ifPresent(id -> {
-      setCVTermResources(geneProduct, id);
-      if (geneProduct.getCVTermCount() > 0) {
-        geneProduct.setMetaId(id.toBiGGId());
+  private Supplier<Runnable> annotateGeneProduct(GeneProduct geneProduct) {
+    String id = geneProduct.getId();
+    boolean isSetId = geneProduct.isSetId();
+    String currentLabel = geneProduct.isSetLabel() ? geneProduct.getLabel() : null;
+    List<String> resources = getIsResources(geneProduct);
+    return () -> {
+      Optional<String> label = Optional.empty();
+      Optional<BiGGId> biggId = checkGeneProductId(id, resources);
+      if ((currentLabel != null) && !currentLabel.equalsIgnoreCase("None")) {
+        label = Optional.of(currentLabel);
+      } else if (isSetId) {
+        label = biggId.map(BiGGId::toBiGGId);
       }
-    });
-    setGPLabelName(geneProduct, label.get());
+      if (label.isEmpty()) {
+        return NO_CHANGES;
+      }
+      String geneLabel = label.get();
+      // label is stored without "G_" prefix in BiGG
+      Set<String> geneIds = biggId.map(gene -> (Set<String>) prefetch.getGeneIds(gene.getAbbreviation()))
+                                  .orElse(Collections.emptySet());
+      Optional<String> geneName = prefetch.getGeneName(geneLabel);
+      return () -> {
+        // fix geneProductReference in Association not updated
+        SBMLUtils.updateGeneProductReference(geneProduct);
+        biggId.ifPresent(gene -> {
+          setGeneProductResources(geneProduct, geneIds);
+          if (geneProduct.getCVTermCount() > 0) {
+            geneProduct.setMetaId(gene.toBiGGId());
+          }
+        });
+        setGPLabelName(geneProduct, geneLabel, geneName);
+      };
+    };
   }
 
 
   /**
-   * @param geneProduct
+   * @param id
+   * @param resources
    * @return
    */
-  private Optional<BiGGId> checkId(GeneProduct geneProduct) {
-    String id = geneProduct.getId();
+  private Optional<BiGGId> checkGeneProductId(String id, List<String> resources) {
     boolean isBiGGid = id.matches("^(G_)?([a-zA-Z][a-zA-Z0-9_]+)(?:_([a-z][a-z0-9]?))?(?:_([A-Z][A-Z0-9]?))?$");
-    if (!isBiGGid) {
-      // Flatten all resources for all CVTerms into a list
-      List<String> resources = geneProduct.getAnnotation().getListOfCVTerms().stream()
-                                          .filter(cvTerm -> cvTerm.getQualifier() == Qualifier.BQB_IS)
-                                          .flatMap(term -> term.getResources().stream()).collect(Collectors.toList());
-      if (!resources.isEmpty()) {
-        // update id if we found something
-        id = getBiGGIdFromResources(resources, BiGGDB.TYPE_GENE_PRODUCT).orElse(id);
-      }
+    if (!isBiGGid && !resources.isEmpty()) {
+      // update id if we found something
+      id = getBiGGIdFromResources(resources, BiGGDB.TYPE_GENE_PRODUCT).orElse(id);
     }
     return BiGGId.createGeneId(id);
   }
@@ -735,13 +901,12 @@ public class BiGGAnnotation {
 
   /**
    * @param geneProduct
-   * @param biggId
+   * @param geneIds
    */
-  private void setCVTermResources(GeneProduct geneProduct, BiGGId biggId) {
+  private void setGeneProductResources(GeneProduct geneProduct, Set<String> geneIds) {
     CVTerm termIs = new CVTerm(Qualifier.BQB_IS);
     CVTerm termEncodedBy = new CVTerm(Qualifier.BQB_IS_ENCODED_BY);
-    // label is stored without "G_" prefix in BiGG
-    BiGGDB.getGeneIds(biggId.getAbbreviation()).forEach(
+    geneIds.forEach(
       resource -> Registry.checkResourceUrl(resource).map(Registry::getPartsFromCanonicalURI)
                           .filter(parts -> parts.size() > 0).map(parts -> parts.get(0)).ifPresent(collection -> {
                             switch (collection) {
@@ -766,19 +931,20 @@ public class BiGGAnnotation {
   /**
    * @param geneProduct
    * @param label
+   * @param geneName
    */
-  private void setGPLabelName(GeneProduct geneProduct, String label) {
+  private void setGPLabelName(GeneProduct geneProduct, String label, Optional<String> geneName) {
     // we successfully found information by using the id, so this needs to be the label
     if (geneProduct.getLabel().equalsIgnoreCase("None")) {
       geneProduct.setLabel(label);
     }
-    BiGGDB.getGeneName(label).ifPresent(geneName -> {
-      if (geneName.isEmpty()) {
+    geneName.ifPresent(name -> {
+      if (name.isEmpty()) {
         logger.fine(format(mpMessageBundle.getString("NO_GENE_FOR_LABEL"), geneProduct.getName()));
-      } else if (geneProduct.isSetName() && !geneProduct.getName().equals(geneName)) {
-        logger.warning(format(mpMessageBundle.getString("UPDATE_GP_NAME"), geneProduct.getName(), geneName));
+      } else if (geneProduct.isSetName() && !geneProduct.getName().equals(name)) {
+        logger.warning(format(mpMessageBundle.getString("UPDATE_GP_NAME"), geneProduct.getName(), name));
       }
-      geneProduct.setName(geneName);
+      geneProduct.setName(name);
     });
   }
 
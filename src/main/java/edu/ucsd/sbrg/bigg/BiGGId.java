@@ -2,8 +2,6 @@ package edu.ucsd.sbrg.bigg;
 
 import java.util.Optional;
 import java.util.logging.Logger;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * This class stores the information from BiGG identifiers and provides methods
@@ -12,6 +10,8 @@ import java.util.regex.Pattern;
  * <a href=
  * "https://github.com/SBRG/bigg_models/wiki/BiGG-Models-ID-Specification-and-Guidelines">
  * BiGG ID specification</a>.
+ * Identifiers are lexed character by character, without regular expressions,
+ * and corrected in a single buffer.
  *
  * @author Andreas Dr&auml;ger
  * @author Thomas Zajac
@@ -38,40 +38,31 @@ public class BiGGId {
    * Fourth part of BiGG ID, matches [A-Z][A-Z0-9]
    */
   private String tissueCode;
-
   /**
-   *
+   * The BiGG id of frozen instances, which cannot be changed anymore
    */
-  enum IDPattern {
-
-    ATPM("[Aa][Tt][Pp][Mm]"),
-    BIOMASS("(([Rr]_?)?[Bb][Ii][Oo][Mm][Aa][Ss][Ss])(?:_(.+))?"),
-    COMPARTMENT("[a-zA-Z][a-zA-Z0-9]?"),
-    METABOLITE_SPECIAL("M_(?<abbreviation>[a-zA-Z0-9])_(?<compartment>[a-z][a-z0-9]?)"),
-    PSEUDO("(([Rr]_?)?[Ee][Xx]_).*|(([Rr]_?)?[Dd][Mm]_).*|(([Rr]_?)?[Ss]([Ii][Nn])?[Kk]_).*"),
-    UNIVERSAL("^(?<prefix>[RMG])_(?<abbreviation>[a-zA-Z0-9][a-zA-Z0-9_]+?)(?:_(?<compartment>[a-z][a-z0-9]?))?"
-      + "(?:_(?<tissueCode>[A-Z][A-Z0-9]?))?$");
+  private String frozenId;
 
-    /**
-     *
-     */
-    private final Pattern pattern;
-
-    /**
-     * @param pattern
-     */
-    IDPattern(String pattern) {
-      this.pattern = Pattern.compile(pattern);
-    }
-
-
-    /**
-     * @return
-     */
-    Pattern get() {
-      return pattern;
-    }
-  }
+  /**
+   * Maximum length of the compartment and tissue code at the end of an id,
+   * including their separating underscores, i.e., {@code _cc_TT}
+   */
+  private static final int MAX_CODES_LENGTH = 6;
+  /**
+   * Prefix argument for ids that are corrected, but not prefixed
+   */
+  private static final char NO_PREFIX = '\0';
+  /**
+   * Replacements for parentheses and brackets in ids
+   */
+  private static final String LPAREN = "_LPAREN_";
+  private static final String RPAREN = "_RPAREN_";
+  private static final String LBRACKET = "_LBRACKET_";
+  private static final String RBRACKET = "_RBRACKET_";
+  /**
+   * Suffix of duplicated ids, followed by an optional number
+   */
+  private static final String COPY = "_copy";
 
   /**
    *
@@ -103,8 +94,16 @@ public class BiGGId {
   }
 
 
+  /**
+   * Creates the id of a metabolite from the given id, which is corrected if
+   * necessary. The result is shared through the {@link BiGGIdCache} and cannot
+   * be changed.
+   *
+   * @param id
+   * @return the BiGG id, empty if the given id is empty
+   */
   public static Optional<BiGGId> createMetaboliteId(String id) {
-    return createMetaboliteId(id, true);
+    return id.isEmpty() ? Optional.empty() : BiGGIdCache.get(BiGGIdCache.Kind.METABOLITE, id);
   }
 
 
@@ -114,24 +113,15 @@ public class BiGGId {
     }
     id = fixCompartmentCode(id);
     if (correct) {
-      id = makeBiGGConform(id);
-      if (id.startsWith("_")) {
-        id = id.substring(1);
-      }
-      if (id.startsWith("m_")) {
-        id = id.replaceAll("^m_", "M_");
-      } else if (!id.startsWith("M_")) {
-        id = "M_" + id;
-      }
+      id = makeBiGGConform(id, 'M');
     }
     // handle one letter abbreviation metabolites like 'h' which are not in accord with the specification, but still
     // present in BiGG
-    Matcher metaboliteSpecialCase = IDPattern.METABOLITE_SPECIAL.get().matcher(id);
-    if (metaboliteSpecialCase.matches()) {
+    if (matchesMetaboliteSpecial(id)) {
       BiGGId biggId = new BiGGId();
       biggId.setPrefix("M");
-      biggId.setAbbreviation(metaboliteSpecialCase.group("abbreviation"));
-      biggId.setCompartmentCode(metaboliteSpecialCase.group("compartment"));
+      biggId.setAbbreviation(id.substring(2, 3));
+      biggId.setCompartmentCode(id.substring(4));
       return Optional.of(biggId);
     } else {
       return Optional.of(new BiGGId(id));
@@ -139,8 +129,16 @@ public class BiGGId {
   }
 
 
+  /**
+   * Creates the id of a gene product from the given id, which is corrected if
+   * necessary. The result is shared through the {@link BiGGIdCache} and cannot
+   * be changed.
+   *
+   * @param id
+   * @return the BiGG id, empty if the given id is empty
+   */
   public static Optional<BiGGId> createGeneId(String id) {
-    return createGeneId(id, true);
+    return id.isEmpty() ? Optional.empty() : BiGGIdCache.get(BiGGIdCache.Kind.GENE, id);
   }
 
 
@@ -149,21 +147,31 @@ public class BiGGId {
       return Optional.empty();
     }
     if (correct) {
-      id = makeBiGGConform(id);
-      if (id.startsWith("_")) {
-        id = id.substring(1);
-      }
-      if (id.startsWith("g_")) {
-        id = id.replaceAll("^g_", "G_");
-      } else if (!id.startsWith("G_")) {
-        id = "G_" + id;
-      }
+      id = makeBiGGConform(id, 'G');
     }
     return Optional.of(new BiGGId(id));
   }
 
 
+  /**
+   * Creates the id of a reaction from the given id, which is corrected if
+   * necessary. Pseudo reactions are not prefixed. The result is shared through
+   * the {@link BiGGIdCache} and cannot be changed.
+   *
+   * @param id
+   * @return the BiGG id, empty if the given id is empty
+   */
   public static Optional<BiGGId> createReactionId(String id) {
+    return id.isEmpty() ? Optional.empty() : BiGGIdCache.get(BiGGIdCache.Kind.REACTION, id);
+  }
+
+
+  /**
+   * @param id
+   * @return the BiGG id of the reaction, see {@link #createReactionId(String)},
+   *         without using the cache
+   */
+  static Optional<BiGGId> parseReactionId(String id) {
     String prefixStripped = "";
     if (id.startsWith("R_") || id.startsWith("r_")) {
       prefixStripped = id.substring(2);
@@ -179,8 +187,7 @@ public class BiGGId {
 
 
   private static boolean isPseudo(String reactionId) {
-    return IDPattern.ATPM.get().matcher(reactionId).matches() || IDPattern.BIOMASS.get().matcher(reactionId).matches()
-      || IDPattern.PSEUDO.get().matcher(reactionId).matches();
+    return matchesATPM(reactionId) || matchesBiomass(reactionId) || matchesPseudo(reactionId);
   }
 
 
@@ -189,61 +196,165 @@ public class BiGGId {
       return Optional.empty();
     }
     if (correct) {
-      id = makeBiGGConform(id);
-      if (id.startsWith("_")) {
-        id = id.substring(1);
-      }
-      if (!isPseudo && id.startsWith("r_")) {
-        id = id.replaceAll("^r_", "R_");
-      } else if (!isPseudo && !id.startsWith("R_")) {
-        id = "R_" + id;
-      }
+      id = makeBiGGConform(id, isPseudo ? NO_PREFIX : 'R');
     }
     return Optional.of(new BiGGId(id));
   }
 
 
-  private static String makeBiGGConform(String id) {
+  /**
+   * Makes the id conform to the specification, removes a leading underscore
+   * and adds the prefix followed by an underscore, unless the id already starts
+   * with it. A lower case prefix is changed to upper case.
+   *
+   * @param id
+   * @param prefix
+   *        R, M or G, or {@link #NO_PREFIX} to leave the start of the id as it
+   *        is
+   * @return the corrected id
+   */
+  private static String makeBiGGConform(String id, char prefix) {
+    StringBuilder builder = makeBiGGConform(id);
+    if ((builder.length() > 0) && (builder.charAt(0) == '_')) {
+      builder.deleteCharAt(0);
+    }
+    if (prefix != NO_PREFIX) {
+      if (startsWithPrefix(builder, Character.toLowerCase(prefix))) {
+        builder.setCharAt(0, prefix);
+      } else if (!startsWithPrefix(builder, prefix)) {
+        builder.insert(0, prefix).insert(1, '_');
+      }
+    }
+    return builder.toString();
+  }
+
+
+  /**
+   * Prepends an underscore to ids starting with a digit, replaces dashes and
+   * slashes with two underscores, dots with {@code __SBML_DOT__}, a part in
+   * parentheses or brackets with an underscore followed by its content, removes
+   * a {@code _copy} suffix, replaces all other characters that are not letters,
+   * digits or underscores with underscores and removes a trailing underscore.
+   * All of this is done in place in one buffer.
+   *
+   * @param id
+   *        a non-empty id
+   * @return the corrected id
+   */
+  private static StringBuilder makeBiGGConform(String id) {
+    StringBuilder builder = new StringBuilder(id.length() + 8);
     if (Character.isDigit(id.charAt(0))) {
-      id = "_" + id;
-    }
-    id = id.replaceAll("[-/]", "__").replaceAll("\\.", "__SBML_DOT__").replaceAll("\\(", "_LPAREN_")
-           .replaceAll("\\)", "_RPAREN_").replaceAll("\\[", "_LBRACKET_").replaceAll("]", "_RBRACKET_");
-    Pattern parenCompartment = Pattern.compile("_LPAREN_(?<paren>.*?)_RPAREN_");
-    Matcher parenMatcher = parenCompartment.matcher(id);
-    if (parenMatcher.find()) {
-      id = id.replaceAll(parenCompartment.toString(), "_" + parenMatcher.group("paren"));
-    }
-    Pattern bracketCompartment = Pattern.compile("_LBRACKET_(?<bracket>.*)_RBRACKET_");
-    Matcher bracketMatcher = bracketCompartment.matcher(id);
-    if (bracketMatcher.find()) {
-      id = id.replaceAll(bracketCompartment.toString(), "_" + bracketMatcher.group("bracket"));
-    }
-    if (id.matches(".*_copy\\d*")) {
-      id = id.substring(0, id.lastIndexOf('_'));
-    }
-    Pattern alphaNum = Pattern.compile("[a-zA-Z0-9_]");
-    StringBuilder builder = new StringBuilder(id.length());
-    for (char ch : id.toCharArray()) {
-      if (alphaNum.matcher(String.valueOf(ch)).matches()) {
-        builder.append(ch);
+      builder.append('_');
+    }
+    for (int i = 0; i < id.length(); i++) {
+      char c = id.charAt(i);
+      switch (c) {
+      case '-':
+      case '/':
+        builder.append("__");
+        break;
+      case '.':
+        builder.append("__SBML_DOT__");
+        break;
+      case '(':
+        builder.append(LPAREN);
+        break;
+      case ')':
+        builder.append(RPAREN);
+        break;
+      case '[':
+        builder.append(LBRACKET);
+        break;
+      case ']':
+        builder.append(RBRACKET);
+        break;
+      default:
+        builder.append(c);
+      }
+    }
+    replaceEnclosed(builder, LPAREN, RPAREN, false);
+    replaceEnclosed(builder, LBRACKET, RBRACKET, true);
+    removeCopySuffix(builder);
+    for (int i = 0; i < builder.length(); i++) {
+      if (!isWordCharacter(builder.charAt(i))) {
+        builder.setCharAt(i, '_');
+      }
+    }
+    if ((builder.length() > 0) && (builder.charAt(builder.length() - 1) == '_')) {
+      builder.setLength(builder.length() - 1);
+    }
+    return builder;
+  }
+
+
+  /**
+   * Replaces all parts of the id from open to close with an underscore followed
+   * by the content of the first such part. The content is the shortest
+   * possible, or the longest if greedy, and never contains a line terminator.
+   *
+   * @param id
+   * @param open
+   * @param close
+   * @param greedy
+   */
+  private static void replaceEnclosed(StringBuilder id, String open, String close, boolean greedy) {
+    String replacement = null;
+    int start = id.indexOf(open);
+    while (start >= 0) {
+      int end = indexOfClose(id, start + open.length(), close, greedy);
+      if (end < 0) {
+        start = id.indexOf(open, start + 1);
       } else {
-        builder.append("_");
+        if (replacement == null) {
+          replacement = "_" + id.substring(start + open.length(), end);
+        }
+        id.replace(start, end + close.length(), replacement);
+        start = id.indexOf(open, start + replacement.length());
       }
     }
-    id = builder.toString();
-    if (id.endsWith("_")) {
-      id = id.substring(0, id.length() - 1);
+  }
+
+
+  /**
+   * @param id
+   * @param from
+   * @param close
+   * @param greedy
+   * @return the index of the first, or last if greedy, occurrence of close
+   *         from the given index on and before the next line terminator, or -1
+   *         if there is none
+   */
+  private static int indexOfClose(StringBuilder id, int from, String close, boolean greedy) {
+    int limit = from;
+    while ((limit < id.length()) && !isLineTerminator(id.charAt(limit))) {
+      limit++;
+    }
+    int end = greedy ? id.lastIndexOf(close, limit - close.length()) : id.indexOf(close, from);
+    return (end >= from) && (end + close.length() <= limit) ? end : -1;
+  }
+
+
+  /**
+   * Removes {@code _copy} followed by any number of digits from the end of the
+   * id.
+   *
+   * @param id
+   */
+  private static void removeCopySuffix(StringBuilder id) {
+    int end = id.length();
+    while ((end > 0) && isDigit(id.charAt(end - 1))) {
+      end--;
+    }
+    int start = end - COPY.length();
+    if ((start >= 0) && regionMatches(id, start, COPY) && !containsLineTerminator(id, 0, start)) {
+      id.setLength(start);
     }
-    return id;
   }
 
 
   public static boolean isValid(String queryId) {
-    return IDPattern.ATPM.get().matcher(queryId).matches() || IDPattern.BIOMASS.get().matcher(queryId).matches()
-      || IDPattern.COMPARTMENT.get().matcher(queryId).matches()
-      || IDPattern.METABOLITE_SPECIAL.get().matcher(queryId).matches()
-      || IDPattern.PSEUDO.get().matcher(queryId).matches() || IDPattern.UNIVERSAL.get().matcher(queryId).matches();
+    return matchesATPM(queryId) || matchesBiomass(queryId) || matchesCompartment(queryId)
+      || matchesMetaboliteSpecial(queryId) || matchesPseudo(queryId) || (abbreviationEnd(queryId) > 0);
   }
 
 
@@ -253,16 +364,52 @@ public class BiGGId {
    */
   private static String fixCompartmentCode(String id) {
     // Workaround for models with wrong compartment code format [cc] instead of _cc
-    Pattern rescueCompartment = Pattern.compile(".*\\[(?<code>[a-z][a-z0-9]?)\\]");
-    Matcher rescueMatcher = rescueCompartment.matcher(id);
-    if (rescueMatcher.matches()) {
-      String compartmentCode = rescueMatcher.group("code");
-      id = id.replaceAll("\\[[a-z][a-z0-9]?\\]", "_" + compartmentCode + "_");
-      if (id.endsWith("_")) {
-        id = id.substring(0, id.length() - 1);
+    int length = id.length();
+    int start;
+    if ((length >= 3) && (id.charAt(length - 3) == '[') && isLowerCase(id.charAt(length - 2))) {
+      start = length - 3;
+    } else if ((length >= 4) && (id.charAt(length - 4) == '[') && isLowerCase(id.charAt(length - 3))
+      && isLowerCaseOrDigit(id.charAt(length - 2))) {
+      start = length - 4;
+    } else {
+      return id;
+    }
+    if ((id.charAt(length - 1) != ']') || containsLineTerminator(id, 0, start)) {
+      return id;
+    }
+    // all codes in brackets are replaced with the last one
+    String compartmentCode = id.substring(start + 1, length - 1);
+    StringBuilder builder = new StringBuilder(length + 2);
+    int i = 0;
+    while (i < length) {
+      int end = endOfBracketCode(id, i);
+      if (end > i) {
+        builder.append('_').append(compartmentCode).append('_');
+        i = end;
+      } else {
+        builder.append(id.charAt(i++));
       }
     }
-    return id;
+    builder.setLength(builder.length() - 1);
+    return builder.toString();
+  }
+
+
+  /**
+   * @param id
+   * @param from
+   * @return the index after a compartment code in brackets at the given index,
+   *         or the given index if there is none
+   */
+  private static int endOfBracketCode(String id, int from) {
+    if ((from + 2 < id.length()) && (id.charAt(from) == '[') && isLowerCase(id.charAt(from + 1))) {
+      if ((from + 3 < id.length()) && isLowerCaseOrDigit(id.charAt(from + 2)) && (id.charAt(from + 3) == ']')) {
+        return from + 4;
+      } else if (id.charAt(from + 2) == ']') {
+        return from + 3;
+      }
+    }
+    return from;
   }
 
 
@@ -271,14 +418,14 @@ public class BiGGId {
    *        the identifier to be parsed into a bigg_id.
    */
   private void parseBiGGId(String id) {
-    Matcher matcher = IDPattern.UNIVERSAL.get().matcher(id);
     // Handle PseudoReaction with wrongfully added prefix correctly
     boolean isPseudoReaction = false;
     if (id.startsWith("R_")) {
       isPseudoReaction = isPseudo(id);
     }
-    if (!isPseudoReaction && matcher.matches()) {
-      handleNormalId(matcher);
+    int abbreviationEnd = isPseudoReaction ? -1 : abbreviationEnd(id);
+    if (abbreviationEnd > 0) {
+      handleNormalId(id, abbreviationEnd);
     } else {
       handleSpecialCases(id);
     }
@@ -286,17 +433,100 @@ public class BiGGId {
 
 
   /**
-   * @param matcher
+   * Lexes an id of the form {@code prefix_abbreviation[_compartment][_tissue]},
+   * where the prefix is R, M or G, the abbreviation matches
+   * {@code [a-zA-Z0-9][a-zA-Z0-9_]+} and is as short as possible, the
+   * compartment code matches {@code [a-z][a-z0-9]?} and the tissue code
+   * {@code [A-Z][A-Z0-9]?}. As the codes take at most {@link #MAX_CODES_LENGTH}
+   * characters, the shortest abbreviation is found from the end of the id
+   * without backtracking.
+   *
+   * @param id
+   * @return the index after the abbreviation, or -1 if the id does not have
+   *         this form
    */
-  private void handleNormalId(Matcher matcher) {
-    String prefix = matcher.group("prefix");
-    setPrefix(prefix);
-    String abbreviation = matcher.group("abbreviation");
-    setAbbreviation(abbreviation);
-    String compartment = matcher.group("compartment");
-    setCompartmentCode(compartment);
-    String tissueCode = matcher.group("tissueCode");
-    setTissueCode(tissueCode);
+  private static int abbreviationEnd(String id) {
+    int length = id.length();
+    if ((length < 4) || (prefix(id.charAt(0)) == null) || (id.charAt(1) != '_') || !isAlphanumeric(id.charAt(2))) {
+      return -1;
+    }
+    for (int i = 3; i < length; i++) {
+      if (!isWordCharacter(id.charAt(i))) {
+        return -1;
+      }
+    }
+    for (int end = Math.max(4, length - MAX_CODES_LENGTH); end < length; end++) {
+      if (skipTissueCode(id, skipCompartmentCode(id, end)) == length) {
+        return end;
+      }
+    }
+    return length;
+  }
+
+
+  /**
+   * @param id
+   * @param abbreviationEnd
+   *        the index after the abbreviation of an id lexed by
+   *        {@link #abbreviationEnd(String)}
+   */
+  private void handleNormalId(String id, int abbreviationEnd) {
+    setPrefix(prefix(id.charAt(0)));
+    setAbbreviation(id.substring(2, abbreviationEnd));
+    int compartmentEnd = skipCompartmentCode(id, abbreviationEnd);
+    if (compartmentEnd > abbreviationEnd) {
+      setCompartmentCode(id.substring(abbreviationEnd + 1, compartmentEnd));
+    }
+    if (compartmentEnd < id.length()) {
+      setTissueCode(id.substring(compartmentEnd + 1));
+    }
+  }
+
+
+  /**
+   * @param prefix
+   * @return the prefix as string, or {@code null} if it is not R, M or G
+   */
+  private static String prefix(char prefix) {
+    switch (prefix) {
+    case 'R':
+      return "R";
+    case 'M':
+      return "M";
+    case 'G':
+      return "G";
+    default:
+      return null;
+    }
+  }
+
+
+  /**
+   * @param id
+   * @param from
+   * @return the index after an underscore and a compartment code at the given
+   *         index, or the given index if there is none
+   */
+  private static int skipCompartmentCode(String id, int from) {
+    if ((from + 1 < id.length()) && (id.charAt(from) == '_') && isLowerCase(id.charAt(from + 1))) {
+      return (from + 2 < id.length()) && isLowerCaseOrDigit(id.charAt(from + 2)) ? from + 3 : from + 2;
+    }
+    return from;
+  }
+
+
+  /**
+   * @param id
+   * @param from
+   * @return the index after an underscore and a tissue code at the given index,
+   *         or the given index if there is none
+   */
+  private static int skipTissueCode(String id, int from) {
+    if ((from + 1 < id.length()) && (id.charAt(from) == '_') && isUpperCase(id.charAt(from + 1))) {
+      return (from + 2 < id.length()) && (isUpperCase(id.charAt(from + 2)) || isDigit(id.charAt(from + 2)))
+        ? from + 3 : from + 2;
+    }
+    return from;
   }
 
 
@@ -304,21 +534,16 @@ public class BiGGId {
    * @param id
    */
   private void handleSpecialCases(String id) {
-    Matcher pseudoreactionMatcher = IDPattern.PSEUDO.get().matcher(id);
-    Matcher biomassMatcher = IDPattern.BIOMASS.get().matcher(id);
-    Matcher atpmMatcher = IDPattern.ATPM.get().matcher(id);
-    Matcher compartmentMatcher = IDPattern.COMPARTMENT.get().matcher(id);
-    if (pseudoreactionMatcher.matches()) {
-      id = id.replaceAll("^([Rr]_?)?[Ee][Xx]", "EX");
-      id = id.replaceAll("^([Rr]_?)?[Dd][Mm]", "DM");
-      id = id.replaceAll("^([Rr]_?)?[Ss]([Ii][Nn])?[Kk]", "SK");
-      setAbbreviation(id);
-    } else if (biomassMatcher.matches()) {
-      id = id.replaceAll("^([Rr]_?)?[Bb][Ii][Oo][Mm][Aa][Ss][Ss]", "BIOMASS");
-      setAbbreviation(id);
-    } else if (atpmMatcher.matches()) {
+    if (matchesPseudo(id)) {
+      int prefixLength = reactionPrefixLength(id);
+      char type = Character.toUpperCase(id.charAt(prefixLength));
+      String keyword = type == 'E' ? "EX" : type == 'D' ? "DM" : "SK";
+      setAbbreviation(keyword + id.substring(prefixLength + pseudoKeywordLength(id, prefixLength)));
+    } else if (matchesBiomass(id)) {
+      setAbbreviation("BIOMASS" + id.substring(reactionPrefixLength(id) + "biomass".length()));
+    } else if (matchesATPM(id)) {
       setAbbreviation("ATPM");
-    } else if (compartmentMatcher.matches()) {
+    } else if (matchesCompartment(id)) {
       setAbbreviation(id);
     } else {
       logger.warning(String.format("Cannot convert to BiGGId, setting as abbreviation: %s", id));
@@ -328,13 +553,244 @@ public class BiGGId {
 
 
   public static Optional<String> extractCompartmentCode(String id) {
-    if (!Pattern.compile("(C_)?[a-z][a-z0-9]?").matcher(id).matches()) {
+    int start = id.startsWith("C_") ? 2 : 0;
+    int length = id.length() - start;
+    if ((length < 1) || (length > 2) || !isLowerCase(id.charAt(start))
+      || ((length == 2) && !isLowerCaseOrDigit(id.charAt(start + 1)))) {
       return Optional.empty();
     }
-    if (id.startsWith("C_")) {
-      id = id.substring(2);
+    return Optional.of(id.substring(start));
+  }
+
+
+  /**
+   * @param id
+   * @return whether the id is ATPM in any case
+   */
+  private static boolean matchesATPM(String id) {
+    return (id.length() == 4) && regionMatchesIgnoreCase(id, 0, "atpm");
+  }
+
+
+  /**
+   * @param id
+   * @return whether the id is BIOMASS in any case, optionally preceded by
+   *         {@link #reactionPrefixLength(String) R or R_} and followed by an
+   *         underscore and a name
+   */
+  private static boolean matchesBiomass(String id) {
+    int start = reactionPrefixLength(id);
+    if (!regionMatchesIgnoreCase(id, start, "biomass")) {
+      return false;
+    }
+    int end = start + "biomass".length();
+    return (end == id.length())
+      || ((id.charAt(end) == '_') && (end + 1 < id.length()) && !containsLineTerminator(id, end + 1, id.length()));
+  }
+
+
+  /**
+   * @param id
+   * @return whether the id is a single letter optionally followed by a letter
+   *         or digit
+   */
+  private static boolean matchesCompartment(String id) {
+    return ((id.length() == 1) || ((id.length() == 2) && isAlphanumeric(id.charAt(1)))) && isLetter(id.charAt(0));
+  }
+
+
+  /**
+   * @param id
+   * @return whether the id is a metabolite with a single letter or digit as
+   *         abbreviation followed by a compartment code, e.g., {@code M_h_c}
+   */
+  private static boolean matchesMetaboliteSpecial(String id) {
+    return ((id.length() == 5) || ((id.length() == 6) && isLowerCaseOrDigit(id.charAt(5)))) && (id.charAt(0) == 'M')
+      && (id.charAt(1) == '_') && isAlphanumeric(id.charAt(2)) && (id.charAt(3) == '_') && isLowerCase(id.charAt(4));
+  }
+
+
+  /**
+   * @param id
+   * @return whether the id starts with EX_, DM_, SK_ or SINK_ in any case,
+   *         optionally preceded by {@link #reactionPrefixLength(String) R or
+   *         R_}
+   */
+  private static boolean matchesPseudo(String id) {
+    int start = reactionPrefixLength(id);
+    int keywordLength = pseudoKeywordLength(id, start);
+    return (keywordLength > 0) && !containsLineTerminator(id, start + keywordLength + 1, id.length());
+  }
+
+
+  /**
+   * @param id
+   * @return 2 if the id starts with R_ or r_, 1 if it starts with R or r
+   *         otherwise, else 0
+   */
+  private static int reactionPrefixLength(String id) {
+    if (id.startsWith("R") || id.startsWith("r")) {
+      return (id.length() > 1) && (id.charAt(1) == '_') ? 2 : 1;
+    }
+    return 0;
+  }
+
+
+  /**
+   * @param id
+   * @param from
+   * @return the length of EX, DM, SK or SINK in any case at the given index if
+   *         followed by an underscore, else 0
+   */
+  private static int pseudoKeywordLength(String id, int from) {
+    if (regionMatchesIgnoreCase(id, from, "ex_") || regionMatchesIgnoreCase(id, from, "dm_")
+      || regionMatchesIgnoreCase(id, from, "sk_")) {
+      return 2;
+    } else if (regionMatchesIgnoreCase(id, from, "sink_")) {
+      return 4;
+    }
+    return 0;
+  }
+
+
+  /**
+   * @param id
+   * @param prefix
+   * @return whether the id starts with the prefix followed by an underscore
+   */
+  private static boolean startsWithPrefix(CharSequence id, char prefix) {
+    return (id.length() > 1) && (id.charAt(0) == prefix) && (id.charAt(1) == '_');
+  }
+
+
+  /**
+   * @param id
+   * @param from
+   * @param region
+   * @return whether the id contains the region at the given index
+   */
+  private static boolean regionMatches(CharSequence id, int from, String region) {
+    if (from + region.length() > id.length()) {
+      return false;
+    }
+    for (int i = 0; i < region.length(); i++) {
+      if (id.charAt(from + i) != region.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+
+  /**
+   * @param id
+   * @param from
+   * @param region
+   *        in lower case
+   * @return whether the id contains the region at the given index, where only
+   *         the ASCII letters may be upper case
+   */
+  private static boolean regionMatchesIgnoreCase(CharSequence id, int from, String region) {
+    if (from + region.length() > id.length()) {
+      return false;
     }
-    return Optional.of(id);
+    for (int i = 0; i < region.length(); i++) {
+      char c = id.charAt(from + i);
+      char expected = region.charAt(i);
+      if ((c != expected) && (c != Character.toUpperCase(expected))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+
+  /**
+   * @param id
+   * @param from
+   * @param to
+   * @return whether there is a line terminator between the given indices, which
+   *         ends the parts of ids that may contain any character
+   */
+  private static boolean containsLineTerminator(CharSequence id, int from, int to) {
+    for (int i = from; i < to; i++) {
+      if (isLineTerminator(id.charAt(i))) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+
+  /**
+   * @param c
+   * @return whether c is a line terminator as defined by {@link java.util.regex.Pattern}
+   */
+  private static boolean isLineTerminator(char c) {
+    return (c == '\n') || (c == '\r') || (c == '\u0085') || (c == '\u2028') || (c == '\u2029');
+  }
+
+
+  /**
+   * @param c
+   * @return whether c is an ASCII letter, digit or underscore
+   */
+  private static boolean isWordCharacter(char c) {
+    return isAlphanumeric(c) || (c == '_');
+  }
+
+
+  /**
+   * @param c
+   * @return whether c is an ASCII letter or digit
+   */
+  private static boolean isAlphanumeric(char c) {
+    return isLetter(c) || isDigit(c);
+  }
+
+
+  /**
+   * @param c
+   * @return whether c is an ASCII letter
+   */
+  private static boolean isLetter(char c) {
+    return isLowerCase(c) || isUpperCase(c);
+  }
+
+
+  /**
+   * @param c
+   * @return whether c is an ASCII lower case letter or digit
+   */
+  private static boolean isLowerCaseOrDigit(char c) {
+    return isLowerCase(c) || isDigit(c);
+  }
+
+
+  /**
+   * @param c
+   * @return whether c is an ASCII lower case letter
+   */
+  private static boolean isLowerCase(char c) {
+    return (c >= 'a') && (c <= 'z');
+  }
+
+
+  /**
+   * @param c
+   * @return whether c is an ASCII upper case letter
+   */
+  private static boolean isUpperCase(char c) {
+    return (c >= 'A') && (c <= 'Z');
+  }
+
+
+  /**
+   * @param c
+   * @return whether c is an ASCII digit
+   */
+  private static boolean isDigit(char c) {
+    return (c >= '0') && (c <= '9');
   }
 
 
@@ -382,6 +838,26 @@ public class BiGGId {
   }
 
 
+  /**
+   * Prevents further changes of this id and computes its BiGG id once, so that
+   * it can be shared.
+   */
+  void freeze() {
+    frozenId = toBiGGId();
+  }
+
+
+  /**
+   * @throws UnsupportedOperationException
+   *         if this id is frozen
+   */
+  private void checkNotFrozen() {
+    if (frozenId != null) {
+      throw new UnsupportedOperationException("Cannot change shared BiGG id " + frozenId);
+    }
+  }
+
+
   /**
    * @return the abbreviation
    */
@@ -405,6 +881,7 @@ public class BiGGId {
    *        the abbreviation to set
    */
   public void setAbbreviation(String abbreviation) {
+    checkNotFrozen();
     if (null != abbreviation && !abbreviation.isEmpty()) {
       this.abbreviation = abbreviation;
     }
@@ -427,6 +904,7 @@ public class BiGGId {
    *        the compartmentCode to set
    */
   public void setCompartmentCode(String compartmentCode) {
+    checkNotFrozen();
     if (null != compartmentCode && !compartmentCode.isEmpty()) {
       this.compartmentCode = compartmentCode;
     }
@@ -455,6 +933,7 @@ public class BiGGId {
    *        the prefix to set
    */
   public void setPrefix(String prefix) {
+    checkNotFrozen();
     if (null != prefix && !prefix.isEmpty()) {
       this.prefix = prefix;
     }
@@ -477,6 +956,7 @@ public class BiGGId {
    *        the tissueCode to set
    */
   public void setTissueCode(String tissueCode) {
+    checkNotFrozen();
     if (null != tissueCode && !tissueCode.isEmpty()) {
       this.tissueCode = tissueCode;
     }
@@ -537,6 +1017,9 @@ public class BiGGId {
    * @return
    */
   public String toBiGGId() {
+    if (frozenId != null) {
+      return frozenId;
+    }
     StringBuilder sb = new StringBuilder();
     if (isSetPrefix()) {
       sb.append(getPrefix());
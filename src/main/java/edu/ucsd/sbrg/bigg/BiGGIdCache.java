@@ -0,0 +1,302 @@
+package edu.ucsd.sbrg.bigg;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Bounded cache of the {@link BiGGId}s created from raw ids by
+ * {@link BiGGId#createMetaboliteId(String)},
+ * {@link BiGGId#createReactionId(String)} and
+ * {@link BiGGId#createGeneId(String)}, which are called for the same ids again
+ * and again while a model is parsed, polished and annotated. Cached ids are
+ * frozen, so that they can be shared, and their BiGG id string is computed only
+ * once.
+ * The cache is shared by all models and threads. It is two-way set
+ * associative: every raw id can be stored in one of two adjacent slots,
+ * determined by its hash code. A new id takes the first slot and moves the id
+ * there to the second, replacing the id in it. Lookups need neither locks nor
+ * further bookkeeping and the memory used is bounded by the number of slots.
+ */
+public final class BiGGIdCache {
+
+  /**
+   * Number of slots, a power of two, holding at most this many ids
+   */
+  private static final int SLOTS = 1 << 15;
+  /**
+   * Estimated size of a {@link BiGGId} with its {@link Optional} and of a
+   * {@link String} without its characters, in bytes, assuming compressed
+   * references and strings of Latin-1 characters
+   */
+  private static final int ID_BYTES = 56;
+  private static final int STRING_BYTES = 40;
+  /**
+   * Cached ids by slot
+   */
+  private static final Entry[] entries = new Entry[SLOTS];
+  /**
+   * Counters for {@link #getStatistics()}
+   */
+  private static final LongAdder lookups = new LongAdder();
+  private static final LongAdder hits = new LongAdder();
+  private static final LongAdder evictions = new LongAdder();
+  private static final LongAdder savedBytes = new LongAdder();
+
+  /**
+   * Kinds of raw ids with the method creating their {@link BiGGId}
+   */
+  enum Kind {
+
+    METABOLITE(id -> BiGGId.createMetaboliteId(id, true)),
+    REACTION(BiGGId::parseReactionId),
+    GENE(id -> BiGGId.createGeneId(id, true));
+
+    private final Function<String, Optional<BiGGId>> factory;
+
+    /**
+     * @param factory
+     */
+    Kind(Function<String, Optional<BiGGId>> factory) {
+      this.factory = factory;
+    }
+  }
+
+  /**
+   * A cached id. All fields are final, so that entries can be shared between
+   * threads without synchronization.
+   */
+  private static final class Entry {
+
+    private final Kind kind;
+    private final String rawId;
+    private final Optional<BiGGId> biggId;
+    private final int bytes;
+
+    /**
+     * @param kind
+     * @param rawId
+     * @param biggId
+     */
+    private Entry(Kind kind, String rawId, Optional<BiGGId> biggId) {
+      this.kind = kind;
+      this.rawId = rawId;
+      this.biggId = biggId;
+      bytes = biggId.map(BiGGIdCache::estimateBytes).orElse(0);
+    }
+
+
+    /**
+     * @param kind
+     * @param rawId
+     * @return whether this is the entry for the raw id of the given kind
+     */
+    private boolean matches(Kind kind, String rawId) {
+      return (this.kind == kind) && this.rawId.equals(rawId);
+    }
+  }
+
+  private BiGGIdCache() {
+  }
+
+
+  /**
+   * @param kind
+   * @param rawId
+   *        a non-empty id
+   * @return the cached {@link BiGGId} for the raw id, which is created if it is
+   *         not cached yet
+   */
+  static Optional<BiGGId> get(Kind kind, String rawId) {
+    lookups.increment();
+    int slot = slot(kind, rawId);
+    Entry first = entries[slot];
+    if ((first != null) && first.matches(kind, rawId)) {
+      return hit(first);
+    }
+    Entry second = entries[slot + 1];
+    if ((second != null) && second.matches(kind, rawId)) {
+      return hit(second);
+    }
+    Optional<BiGGId> biggId = kind.factory.apply(rawId);
+    biggId.ifPresent(BiGGId::freeze);
+    if (second != null) {
+      evictions.increment();
+    }
+    entries[slot + 1] = first;
+    entries[slot] = new Entry(kind, rawId, biggId);
+    return biggId;
+  }
+
+
+  /**
+   * @param entry
+   * @return the id of the entry found in the cache
+   */
+  private static Optional<BiGGId> hit(Entry entry) {
+    hits.increment();
+    savedBytes.add(entry.bytes);
+    return entry.biggId;
+  }
+
+
+  /**
+   * @param kind
+   * @param rawId
+   * @return the first of the two slots for the raw id
+   */
+  private static int slot(Kind kind, String rawId) {
+    int hash = (31 * rawId.hashCode()) + kind.ordinal();
+    return (hash ^ (hash >>> 16)) & (SLOTS - 2);
+  }
+
+
+  /**
+   * @param biggId
+   * @return estimated number of bytes retained by the id and its strings
+   */
+  private static int estimateBytes(BiGGId biggId) {
+    return ID_BYTES + estimateBytes(biggId.toBiGGId()) + estimateBytes(biggId.getPrefix())
+      + estimateBytes(biggId.getAbbreviation()) + estimateBytes(biggId.getCompartmentCode())
+      + estimateBytes(biggId.getTissueCode());
+  }
+
+
+  /**
+   * @param part
+   * @return estimated number of bytes retained by the part of an id, 0 if it is
+   *         not set
+   */
+  private static int estimateBytes(String part) {
+    return part.isEmpty() ? 0 : STRING_BYTES + part.length();
+  }
+
+
+  /**
+   * Removes all entries and resets the statistics.
+   */
+  public static void clear() {
+    for (int slot = 0; slot < SLOTS; slot++) {
+      entries[slot] = null;
+    }
+    lookups.reset();
+    hits.reset();
+    evictions.reset();
+    savedBytes.reset();
+  }
+
+
+  /**
+   * @return the statistics of the cache since it was created or last cleared
+   */
+  public static Statistics getStatistics() {
+    int size = 0;
+    long retainedBytes = 0;
+    for (Entry entry : entries) {
+      if (entry != null) {
+        size++;
+        retainedBytes += entry.bytes;
+      }
+    }
+    return new Statistics(lookups.sum(), hits.sum(), evictions.sum(), size, retainedBytes, savedBytes.sum());
+  }
+
+
+  /**
+   * Snapshot of the use of the cache. Byte counts are estimates.
+   */
+  public static final class Statistics {
+
+    private final long lookups;
+    private final long hits;
+    private final long evictions;
+    private final int size;
+    private final long retainedBytes;
+    private final long savedBytes;
+
+    /**
+     * @param lookups
+     * @param hits
+     * @param evictions
+     * @param size
+     * @param retainedBytes
+     * @param savedBytes
+     */
+    private Statistics(long lookups, long hits, long evictions, int size, long retainedBytes, long savedBytes) {
+      this.lookups = lookups;
+      this.hits = hits;
+      this.evictions = evictions;
+      this.size = size;
+      this.retainedBytes = retainedBytes;
+      this.savedBytes = savedBytes;
+    }
+
+
+    /**
+     * @return number of ids looked up
+     */
+    public long getLookups() {
+      return lookups;
+    }
+
+
+    /**
+     * @return number of ids found in the cache
+     */
+    public long getHits() {
+      return hits;
+    }
+
+
+    /**
+     * @return fraction of the lookups found in the cache, 0 if there were none
+     */
+    public double getHitRate() {
+      return lookups == 0 ? 0d : hits / (double) lookups;
+    }
+
+
+    /**
+     * @return number of ids replaced by other ids in their slot
+     */
+    public long getEvictions() {
+      return evictions;
+    }
+
+
+    /**
+     * @return number of cached ids
+     */
+    public int getSize() {
+      return size;
+    }
+
+
+    /**
+     * @return bytes retained by the cached ids
+     */
+    public long getRetainedBytes() {
+      return retainedBytes;
+    }
+
+
+    /**
+     * @return bytes that would have been allocated for the ids found in the
+     *         cache if they had been created again
+     */
+    public long getSavedBytes() {
+      return savedBytes;
+    }
+
+
+    /*
+     * (non-Javadoc)
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+      return getClass().getSimpleName() + " [lookups=" + lookups + ", hits=" + hits + ", evictions=" + evictions
+        + ", size=" + size + ", retainedBytes=" + retainedBytes + ", savedBytes=" + savedBytes + "]";
+    }
+  }
+}
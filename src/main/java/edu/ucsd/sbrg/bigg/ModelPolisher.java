@@ -6,33 +6,31 @@ package edu.ucsd.sbrg.bigg;
 import static java.text.MessageFormat.format;
 
 import java.awt.*;
-import java.io.BufferedReader;
-import java.io.BufferedWriter;
-import java.io.ByteArrayInputStream;
+import java.io.BufferedOutputStream;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.io.OutputStreamWriter;
-import java.io.Writer;
+import java.io.OutputStream;
 import java.net.MalformedURLException;
-import java.net.URI;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.util.Arrays;
 import java.util.Calendar;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.ResourceBundle;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Logger;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 import javax.xml.stream.XMLStreamException;
 
@@ -40,23 +38,16 @@ import org.sbml.jsbml.Compartment;
 import org.sbml.jsbml.Reaction;
 import org.sbml.jsbml.SBMLDocument;
 import org.sbml.jsbml.SBMLError;
-import org.sbml.jsbml.SBMLErrorLog;
 import org.sbml.jsbml.SBMLReader;
+import org.sbml.jsbml.SBMLWriter;
 import org.sbml.jsbml.Species;
 import org.sbml.jsbml.TidySBMLWriter;
 import org.sbml.jsbml.ext.fbc.FBCConstants;
 import org.sbml.jsbml.ext.fbc.FBCModelPlugin;
 import org.sbml.jsbml.ext.fbc.GeneProduct;
-import org.sbml.jsbml.ext.fbc.converters.CobraToFbcV2Converter;
-import org.sbml.jsbml.util.SBMLtools;
-import org.sbml.jsbml.util.ValuePair;
-import org.sbml.jsbml.validator.SBMLValidator;
-import org.sbml.jsbml.validator.offline.LoggingValidationContext;
 import org.sbml.jsbml.xml.XMLNode;
 import org.sbml.jsbml.xml.parsers.SBMLRDFAnnotationParser;
-import org.w3c.tidy.Tidy;
 
-import de.unirostock.sems.cbarchive.CombineArchive;
 import de.zbit.AppConf;
 import de.zbit.Launcher;
 import de.zbit.io.FileTools;
@@ -68,15 +59,18 @@ import de.zbit.util.logging.LogOptions;
 import de.zbit.util.prefs.KeyProvider;
 import de.zbit.util.prefs.SBProperties;
 import edu.ucsd.sbrg.bigg.ModelPolisherOptions.Compression;
+import edu.ucsd.sbrg.bigg.ModelPolisherOptions.OutputWriter;
 import edu.ucsd.sbrg.db.ADBOptions;
 import edu.ucsd.sbrg.db.AnnotateDB;
 import edu.ucsd.sbrg.db.BiGGDB;
 import edu.ucsd.sbrg.db.BiGGDBOptions;
+import edu.ucsd.sbrg.db.BiGGSnapshot;
 import edu.ucsd.sbrg.db.DBConfig;
 import edu.ucsd.sbrg.parsers.COBRAparser;
 import edu.ucsd.sbrg.parsers.JSONparser;
-import edu.ucsd.sbrg.util.GPRParser;
-import edu.ucsd.sbrg.util.SBMLUtils;
+import edu.ucsd.sbrg.util.CompressedInput;
+import edu.ucsd.sbrg.util.Digests;
+import edu.ucsd.sbrg.util.HTMLBodyFilterInputStream;
 import edu.ucsd.sbrg.util.UpdateListener;
 
 /**
@@ -89,9 +83,19 @@ public class ModelPolisher extends Launcher {
    */
   private Parameters parameters;
   /**
-   * Type of current input file
+   * Executes model processing in parallel if more than one thread is requested, {@code null} for sequential
+   * processing.
    */
-  private FileType fileType;
+  private ExecutorService executor;
+  /**
+   * Pending models submitted to the {@link #executor}, mapped to their input file.
+   */
+  private Map<File, Future<?>> pendingModels;
+  /**
+   * Fingerprints of the models polished by previous runs if
+   * {@link ModelPolisherOptions#INCREMENTAL} is set, {@code null} otherwise.
+   */
+  private BatchManifest manifest;
   /**
    * Localization support.
    */
@@ -108,6 +112,13 @@ public class ModelPolisher extends Launcher {
    * Generated serial version identifier.
    */
   private static final long serialVersionUID = 7745344693995142413L;
+  /**
+   * Entries of the COMBINE archive written if
+   * {@link ModelPolisherOptions#OUTPUT_COMBINE} is set
+   */
+  static final String COMBINE_MANIFEST = "manifest.xml";
+  static final String COMBINE_MODEL = "model.xml";
+  static final String COMBINE_GLOSSARY = "glossary.rdf";
 
   /**
    * Possible FileTypes of input file
@@ -135,6 +146,19 @@ public class ModelPolisher extends Launcher {
   }
 
 
+  /**
+   * Polishes single models with the given parameters on behalf of a running
+   * instance, without launching the program again
+   *
+   * @param launcher
+   * @param parameters
+   */
+  private ModelPolisher(ModelPolisher launcher, Parameters parameters) {
+    super(launcher);
+    this.parameters = parameters;
+  }
+
+
   /*
    * (non-Javadoc)
    * @see de.zbit.Launcher#addCopyrightToSplashScreen()
@@ -162,17 +186,109 @@ public class ModelPolisher extends Launcher {
   @Override
   public void commandLineMode(AppConf appConf) {
     SBProperties args = appConf.getCmdArgs();
-    parameters = Parameters.init(args);
-    DBConfig.initBiGG(args, parameters.annotateWithBiGG);
-    DBConfig.initADB(args, parameters.addADBAnnotations);
+    parameters = Parameters.of(args);
+    if (args.containsKey(BiGGDBOptions.SNAPSHOT_EXPORT)) {
+      exportSnapshot(args);
+      return;
+    }
+    DBConfig.initBiGG(args, parameters.getAnnotateWithBiGG());
+    DBConfig.initADB(args, parameters.getAddADBAnnotations());
+    if (args.getIntProperty(ModelPolisherOptions.SERVER_PORT) > 0) {
+      runServer(args);
+      return;
+    }
+    if (parameters.getThreads() > 1) {
+      logger.info(format(mpMessageBundle.getString("BATCH_PARALLEL_INFO"), parameters.getThreads()));
+      executor = Executors.newFixedThreadPool(parameters.getThreads());
+      pendingModels = new LinkedHashMap<>();
+    }
     // Gives users the choice to pass an alternative model notes XHTML file to the program.
     try {
+      if (parameters.getIncremental()) {
+        manifest = openManifest(new File(args.getProperty(IOOptions.OUTPUT)));
+      }
       batchProcess(new File(args.getProperty(IOOptions.INPUT)), new File(args.getProperty(IOOptions.OUTPUT)));
+      awaitPendingModels();
     } catch (XMLStreamException | IOException exc) {
       exc.printStackTrace();
     }
     // make sure DB connections are closed in case of exception
     finally {
+      if (executor != null) {
+        executor.shutdownNow();
+      }
+      if (BiGGDB.inUse()) {
+        BiGGDB.close();
+      }
+      if (AnnotateDB.inUse()) {
+        AnnotateDB.close();
+      }
+    }
+  }
+
+
+  /**
+   * Serves polishing requests until the JVM is shut down
+   *
+   * @param args
+   */
+  private void runServer(SBProperties args) {
+    try {
+      PolishingServer server =
+        new PolishingServer(this, args, args.getIntProperty(ModelPolisherOptions.SERVER_PORT), parameters.getThreads());
+      Runtime.getRuntime().addShutdownHook(new Thread(server::stop));
+      server.start();
+      server.awaitTermination();
+    } catch (IOException exc) {
+      logger.severe(Utils.getMessage(exc));
+    } catch (InterruptedException exc) {
+      Thread.currentThread().interrupt();
+    } finally {
+      if (BiGGDB.inUse()) {
+        BiGGDB.close();
+      }
+      if (AnnotateDB.inUse()) {
+        AnnotateDB.close();
+      }
+    }
+  }
+
+
+  /**
+   * Polishes a single model with the given parameters, which may differ from
+   * those this instance was launched with. Can be called concurrently.
+   *
+   * @param parameters
+   * @param input
+   *        model file in SBML, MAT or JSON format, may be compressed
+   * @param outputDirectory
+   * @return the polished model, possibly compressed, or {@code null} if the
+   *         input could not be read
+   * @throws XMLStreamException
+   * @throws IOException
+   */
+  File polish(Parameters parameters, File input, File outputDirectory) throws XMLStreamException, IOException {
+    ModelPolisher polisher = new ModelPolisher(this, parameters);
+    File output = polisher.getOutputFileName(input, outputDirectory);
+    polisher.processFile(input, output);
+    return polisher.findOutput(output);
+  }
+
+
+  /**
+   * Exports the BiGG database, and AnnotateDB if requested, to a snapshot file
+   * for later use with {@link BiGGDBOptions#SNAPSHOT}.
+   *
+   * @param args
+   */
+  private void exportSnapshot(SBProperties args) {
+    DBConfig.initBiGG(args, true);
+    DBConfig.initADB(args, parameters.getAddADBAnnotations());
+    try {
+      BiGGSnapshot.export(new File(args.getProperty(BiGGDBOptions.SNAPSHOT_EXPORT)));
+    } catch (IOException exc) {
+      logger.severe(format(mpMessageBundle.getString("SNAPSHOT_EXPORT_FAILED"), Utils.getMessage(exc)));
+    } finally {
       if (BiGGDB.inUse()) {
         BiGGDB.close();
       }
@@ -217,8 +333,64 @@ public class ModelPolisher extends Launcher {
       }
     } else {
       // NOTE: input is a single file, but output can be a file or a directory, i.e. for multimodel files (MAT format)
-      processFile(input, output);
+      if (executor == null) {
+        processFile(input, output);
+      } else {
+        pendingModels.put(input, executor.submit(() -> {
+          processFile(input, output);
+          return null;
+        }));
+      }
+    }
+  }
+
+
+  /**
+   * @param output:
+   *        Path to output file/directory
+   * @return manifest of previous runs into the output directory, which is
+   *         only valid for the current configuration and BiGG version
+   * @throws IOException
+   *         if the existing manifest cannot be read
+   */
+  private BatchManifest openManifest(File output) throws IOException {
+    File directory = isDirectory(output) ? output : output.getAbsoluteFile().getParentFile();
+    StringBuilder configuration = new StringBuilder(parameters.getConfigurationHash());
+    configuration.append('\n').append(getVersionNumber());
+    // the configuration only names the notes files, their content is part of the output, too
+    for (File notes : Arrays.asList(parameters.getDocumentNotesFile(), parameters.getModelNotesFile())) {
+      configuration.append('\n').append(((notes != null) && notes.isFile()) ? Digests.sha256(notes) : "");
+    }
+    if (parameters.getAnnotateWithBiGG()) {
+      configuration.append('\n').append(BiGGDB.getDatabaseVersion().orElse(""));
+    }
+    if (parameters.getAddADBAnnotations() && AnnotateDB.inUse()) {
+      configuration.append('\n').append(AnnotateDB.getVersion().orElse(""));
     }
+    return new BatchManifest(directory, configuration.toString());
+  }
+
+
+  /**
+   * Waits for all models submitted to the {@link #executor}. A failing model is reported, but does not abort the
+   * processing of the remaining models.
+   */
+  private void awaitPendingModels() {
+    if (pendingModels == null) {
+      return;
+    }
+    for (Map.Entry<File, Future<?>> entry : pendingModels.entrySet()) {
+      try {
+        entry.getValue().get();
+      } catch (InterruptedException exc) {
+        Thread.currentThread().interrupt();
+        return;
+      } catch (ExecutionException exc) {
+        logger.severe(format(mpMessageBundle.getString("BATCH_MODEL_FAILED"), entry.getKey().getAbsolutePath(),
+          Utils.getMessage(exc.getCause())));
+      }
+    }
+    pendingModels.clear();
   }
 
 
@@ -230,12 +402,26 @@ public class ModelPolisher extends Launcher {
    * @return File in output directory with correct file ending for SBML
    */
   private File getOutputFileName(File file, File output) {
-    fileType = getFileType(file);
+    FileType fileType = getFileType(file);
+    String name = getUncompressedName(file);
     if (!fileType.equals(FileType.SBML_FILE)) {
-      return new File(
-        Utils.ensureSlash(output.getAbsolutePath()) + FileTools.removeFileExtension(file.getName()) + ".xml");
+      return new File(Utils.ensureSlash(output.getAbsolutePath()) + FileTools.removeFileExtension(name) + ".xml");
     } else {
-      return new File(Utils.ensureSlash(output.getAbsolutePath()) + file.getName());
+      return new File(Utils.ensureSlash(output.getAbsolutePath()) + name);
+    }
+  }
+
+
+  /**
+   * @param file
+   * @return name of the model within a compressed file, else the file name
+   */
+  private String getUncompressedName(File file) {
+    try {
+      return CompressedInput.getUncompressedName(file);
+    } catch (IOException exc) {
+      logger.warning(format(mpMessageBundle.getString("READ_FILE_ERROR"), file.getAbsolutePath()));
+      return file.getName();
     }
   }
 
@@ -295,13 +481,13 @@ public class ModelPolisher extends Launcher {
    * @param output:
    *        output file or directory
    * @throws XMLStreamException
-   *         propagated from {@link #readAndPolish(File, File)}
+   *         propagated from {@link #readAndPolish(File, File, FileType)}
    * @throws IOException
-   *         propagated from {@link #readAndPolish(File, File)}
+   *         propagated from {@link #readAndPolish(File, File, FileType)}
    */
   private void processFile(File input, File output) throws XMLStreamException, IOException {
     // get fileType array and check if any value is true
-    fileType = getFileType(input);
+    FileType fileType = getFileType(input);
     if (fileType.equals(FileType.UNKNOWN)) {
       // TODO: move into resources for internationalization
       logger.warning(format("Encountered file of unknown type in input : \"{0}\", skipping.", input.getPath()));
@@ -310,7 +496,46 @@ public class ModelPolisher extends Launcher {
     if (output.isDirectory()) {
       output = getOutputFileName(input, output);
     }
-    readAndPolish(input, output);
+    String fingerprint = null;
+    if (manifest != null) {
+      fingerprint = manifest.fingerprint(input);
+      if (manifest.isUpToDate(output, fingerprint) && (findOutput(output) != null)) {
+        logger.info(format(mpMessageBundle.getString("SKIP_UNCHANGED_MODEL"), input.getPath(), output.getPath()));
+        return;
+      }
+    }
+    if (readAndPolish(input, output, fileType) && (manifest != null)) {
+      try {
+        manifest.update(output, fingerprint);
+      } catch (IOException exc) {
+        logger.warning(format(mpMessageBundle.getString("MANIFEST_UPDATE_FAILED"), output.getPath(),
+          Utils.getMessage(exc)));
+      }
+    }
+  }
+
+
+  /**
+   * @param output:
+   *        output file as passed to {@link #polish(SBMLDocument, File)}
+   * @return the file that has been written, either the output as is, as
+   *         compressed file or as COMBINE archive, {@code null} if there is
+   *         none
+   */
+  private File findOutput(File output) {
+    if (output.exists()) {
+      return output;
+    }
+    if (parameters.getCompression() != Compression.NONE) {
+      File archive = new File(output.getAbsolutePath() + "." + parameters.getCompression().getFileExtension());
+      if (archive.exists()) {
+        return archive;
+      }
+    }
+    if (parameters.getOutputCOMBINE() && getCombineArchiveFile(output).exists()) {
+      return getCombineArchiveFile(output);
+    }
+    return null;
   }
 
 
@@ -319,14 +544,18 @@ public class ModelPolisher extends Launcher {
    *
    * @param input
    *        File used in {@link #batchProcess(File, File)}
-   * @return FileType of given file, only SBML, MatLab and JSON files are supported
+   * @return FileType of given file, only SBML, MatLab and JSON files are supported, which may be compressed
    */
   private FileType getFileType(File input) {
-    if (SBFileFilter.isSBMLFile(input)) {
+    boolean compressed = CompressedInput.getCompression(input) != Compression.NONE;
+    // for compressed files, the type is determined by the name of the packed file
+    File named = compressed ? new File(input.getParentFile(), getUncompressedName(input)) : input;
+    if (compressed ? SBFileFilter.hasFileType(named, SBFileFilter.FileType.SBML_FILES)
+      : SBFileFilter.isSBMLFile(input)) {
       return FileType.SBML_FILE;
-    } else if (SBFileFilter.hasFileType(input, SBFileFilter.FileType.MAT_FILES)) {
+    } else if (SBFileFilter.hasFileType(named, SBFileFilter.FileType.MAT_FILES)) {
       return FileType.MAT_FILE;
-    } else if (SBFileFilter.hasFileType(input, SBFileFilter.FileType.JSON_FILES)) {
+    } else if (SBFileFilter.hasFileType(named, SBFileFilter.FileType.JSON_FILES)) {
       return FileType.JSON_FILE;
     } else {
       return FileType.UNKNOWN;
@@ -339,83 +568,90 @@ public class ModelPolisher extends Launcher {
    *        Input file in either SBML, MAT or JSON format
    * @param output:
    *        Output file in SBML format
+   * @param fileType:
+   *        Type of the input file as determined by {@link #getFileType(File)}
    * @throws XMLStreamException
    *         propagated from {@link #polish(SBMLDocument, File)}
    * @throws IOException
    *         propagated from {@link #polish(SBMLDocument, File)}
+   * @return {@code true} if the model was polished and written
    */
-  private void readAndPolish(File input, File output) throws XMLStreamException, IOException {
+  private boolean readAndPolish(File input, File output, FileType fileType) throws XMLStreamException, IOException {
     long time = System.currentTimeMillis();
     logger.info(format(mpMessageBundle.getString("READ_FILE_INFO"), input.getAbsolutePath()));
     SBMLDocument doc;
-    // reading or parsing input
-    if (fileType.equals(FileType.MAT_FILE)) {
-      doc = COBRAparser.read(input, parameters.omitGenericTerms);
-    } else if (fileType.equals(FileType.JSON_FILE)) {
-      doc = JSONparser.read(input);
+    // reading or parsing input, compressed files are read as streams
+    long readStart = System.nanoTime();
+    if (fileType.equals(FileType.MAT_FILE) && (CompressedInput.getCompression(input) == Compression.NONE)) {
+      doc = COBRAparser.read(input, parameters);
     } else {
-      checkHTMLTags(input);
-      doc = SBMLReader.read(input, new UpdateListener());
+      try (InputStream stream = CompressedInput.open(input)) {
+        if (fileType.equals(FileType.MAT_FILE)) {
+          doc = COBRAparser.read(stream, parameters);
+        } else if (fileType.equals(FileType.JSON_FILE)) {
+          doc = JSONparser.read(stream, parameters);
+        } else {
+          doc = readSBML(input, stream);
+        }
+      }
     }
+    logReadThroughput(input, System.nanoTime() - readStart);
     if (doc == null) {
       logger.severe(format(mpMessageBundle.getString("ALL_DOCS_PARSE_ERROR"), input.toString()));
-      return;
+      return false;
     }
     polish(doc, output);
-    // Clear map for next model
-    SBMLUtils.cleanGPRMap();
-    GPRParser.clearAssociationMap();
     time = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis() - time);
     logger.info(String.format(mpMessageBundle.getString("FINISHED_TIME"), (time / 60), (time % 60)));
+    logCacheStatistics();
+    return true;
+  }
+
+
+  /**
+   * Logs how often ids have been found in the {@link BiGGIdCache} so far
+   */
+  private void logCacheStatistics() {
+    BiGGIdCache.Statistics statistics = BiGGIdCache.getStatistics();
+    logger.fine(format(mpMessageBundle.getString("BIGG_ID_CACHE_STATISTICS"), statistics.getHits(),
+      statistics.getLookups(), statistics.getHitRate(), statistics.getSize(), statistics.getRetainedBytes() / 1024,
+      statistics.getSavedBytes() / 1024));
+  }
+
+
+  /**
+   * Logs how fast the input file was read, in terms of its size on disk
+   *
+   * @param input
+   * @param nanos
+   */
+  private void logReadThroughput(File input, long nanos) {
+    double seconds = Math.max(nanos, 1) / 1e9;
+    double megabytes = input.length() / (1024d * 1024d);
+    logger.info(format(mpMessageBundle.getString("READ_THROUGHPUT"), input.getName(),
+      CompressedInput.getCompression(input), megabytes, seconds, megabytes / seconds));
   }
 
 
   /**
-   * Replaces wrong html tags in a SBML model with body tags
+   * Reads an SBML document, replacing wrong html tags with body tags on the fly
    *
    * @param input:
-   *        SBML file
+   *        SBML file, for logging
+   * @param content:
+   *        uncompressed content of the file
+   * @return
+   * @throws XMLStreamException
    */
-  private void checkHTMLTags(File input) {
-    FileInputStream iStream = null;
-    try {
-      iStream = new FileInputStream(input);
-    } catch (FileNotFoundException exc) {
-      logger.severe(format(mpMessageBundle.getString("READ_FILE_ERROR"), input.toPath()));
-    }
-    // If it's null, something went horribly wrong and a nullPointerException should be thrown
-    BufferedReader reader = new BufferedReader(new InputStreamReader(iStream));
-    // Replace tags and replace file for processing
-    try {
-      StringBuilder sb = new StringBuilder();
-      String line;
-      while ((line = reader.readLine()) != null) {
-        sb.append(line).append("\n");
-      }
-      reader.close();
-      String doc = sb.toString();
-      if (!doc.contains("<html ")) {
-        logger.fine(mpMessageBundle.getString("TAGS_FINE_INFO"));
-        return;
-      }
-      doc = doc.replaceAll("<html ", "<body ");
-      doc = doc.replaceAll("</html>", "</body>");
-      // Preserve a copy of the original.
-      try {
-        Path output = Paths.get(input.getAbsolutePath() + ".bak");
-        Files.copy(input.toPath(), output);
-      } catch (IOException e) {
-        // We assume it was already corrected
-        logger.info(mpMessageBundle.getString("SKIP_TAG_REPLACEMENT"));
-        return;
-      }
-      BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(input)));
-      writer.write(doc);
-      logger.info(format(mpMessageBundle.getString("WROTE_CORRECT_HTML"), input.toPath()));
-      writer.close();
-    } catch (IOException exc) {
-      logger.severe(mpMessageBundle.getString("READ_HTML_ERROR"));
+  private SBMLDocument readSBML(File input, InputStream content) throws XMLStreamException {
+    HTMLBodyFilterInputStream stream = new HTMLBodyFilterInputStream(content);
+    SBMLDocument doc = new SBMLReader().readSBMLFromStream(stream, new UpdateListener());
+    if (stream.getReplacements() > 0) {
+      logger.info(format(mpMessageBundle.getString("REPLACED_HTML_TAGS"), stream.getReplacements(), input.toPath()));
+    } else {
+      logger.fine(mpMessageBundle.getString("TAGS_FINE_INFO"));
     }
+    return doc;
   }
 
 
@@ -426,29 +662,48 @@ public class ModelPolisher extends Launcher {
    * @throws XMLStreamException
    */
   private void polish(SBMLDocument doc, File output) throws IOException, XMLStreamException {
-    doc = checkLevelAndVersion(doc);
-    // Polishing
-    SBMLPolisher polisher = initializeSBMLPolisher();
-    doc = polisher.polish(doc);
-    // Annotation
-    if (parameters.annotateWithBiGG) {
-      BiGGAnnotation annotation = setAnnotationParameters();
-      doc = annotation.annotate(doc);
-    }
-    // writing polished model
+    // conversion, polishing and annotation
+    SBMLDocument polished = new Polisher(parameters).polish(doc, false).getDocument();
+    write(polished, output);
+    if (parameters.getSbmlValidation()) {
+      validate(polished, output);
+    }
+  }
+
+
+  /**
+   * @param doc
+   *        polished document
+   * @param output
+   * @throws IOException
+   * @throws XMLStreamException
+   */
+  private void write(SBMLDocument doc, File output) throws IOException, XMLStreamException {
+    if (parameters.getOutputCOMBINE()) {
+      // model and glossary are streamed into the archive, which is compressed anyway
+      writeCombineArchive(doc, getCombineArchiveFile(output));
+      return;
+    }
+    if ((parameters.getCompression() != Compression.NONE) && (parameters.getOutputWriter() != OutputWriter.TIDY)) {
+      // stream directly into the archive, the uncompressed model is never written
+      File archive = new File(output.getAbsolutePath() + "." + parameters.getCompression().getFileExtension());
+      logger.info(format(mpMessageBundle.getString("ARCHIVE"), archive.getAbsolutePath()));
+      writeCompressed(doc, output.getName(), archive);
+      return;
+    }
     logger.info(format(mpMessageBundle.getString("WRITE_FILE_INFO"), output.getAbsolutePath()));
-    TidySBMLWriter.write(doc, output, getClass().getSimpleName(), getVersionNumber(), ' ', (short) 2);
-    // produce COMBINE archive and delete output model and glossary
-    if (parameters.outputCOMBINE) {
-      // producing & writing glossary
-      writeGlossary(doc, output);
-      writeCombineArchive(output);
-    }
-    if (parameters.compression != Compression.NONE) {
-      String fileExtension = parameters.compression.getFileExtension();
+    if (parameters.getOutputWriter() == OutputWriter.TIDY) {
+      TidySBMLWriter.write(doc, output, getClass().getSimpleName(), getVersionNumber(), ' ', (short) 2);
+    } else {
+      try (OutputStream stream = new BufferedOutputStream(new FileOutputStream(output))) {
+        writeSBML(doc, stream);
+      }
+    }
+    if (parameters.getCompression() != Compression.NONE) {
+      String fileExtension = parameters.getCompression().getFileExtension();
       String archive = output.getAbsolutePath() + "." + fileExtension;
       logger.info(format(mpMessageBundle.getString("ARCHIVE"), archive));
-      switch (parameters.compression) {
+      switch (parameters.getCompression()) {
       case ZIP:
         ZIPUtils.ZIPcompress(new String[] {output.getAbsolutePath()}, archive, "SBML Archive", true);
         break;
@@ -461,260 +716,189 @@ public class ModelPolisher extends Launcher {
       if (!output.delete()) {
         logger.warning(String.format("Failed to delete output file '%s' after compression.", output.getAbsolutePath()));
       }
-      if (parameters.sbmlValidation) {
-        validate(archive, false);
-      }
     }
   }
 
 
   /**
-   * Make sure SBML Level and Version are 3.1, so that needed plugins work
-   * 
-   * @param doc:
-   *        SBMLDocument
+   * Writes the document with a streaming writer, indented unless
+   * {@link OutputWriter#COMPACT} is selected
+   *
+   * @param doc
+   * @param stream
+   *        is not closed
+   * @throws XMLStreamException
    */
-  private SBMLDocument checkLevelAndVersion(SBMLDocument doc) {
-    if (!doc.isSetLevelAndVersion() || (doc.getLevelAndVersion().compareTo(ValuePair.of(3, 1)) < 0)) {
-      logger.info(mpMessageBundle.getString("TRY_CONV_LVL3_V1"));
-      SBMLtools.setLevelAndVersion(doc, 3, 1);
-    }
-    CobraToFbcV2Converter converter = new CobraToFbcV2Converter();
-    return converter.convert(doc);
+  private void writeSBML(SBMLDocument doc, OutputStream stream) throws XMLStreamException {
+    short indentCount = (short) (parameters.getOutputWriter() == OutputWriter.COMPACT ? 0 : 2);
+    new SBMLWriter(' ', indentCount).write(doc, stream, getClass().getSimpleName(), getVersionNumber());
   }
 
 
   /**
-   * @return SBMLPolisher object with all relevant paramters set
+   * @param doc
+   * @param entryName
+   *        name of the model within a ZIP archive
+   * @param archive
+   * @throws IOException
+   * @throws XMLStreamException
    */
-  private SBMLPolisher initializeSBMLPolisher() {
-    SBMLPolisher polisher = new SBMLPolisher();
-    polisher.setCheckMassBalance(parameters.checkMassBalance);
-    polisher.setOmitGenericTerms(parameters.omitGenericTerms);
-    if (parameters.includeAnyURI != null) {
-      polisher.setIncludeAnyURI(parameters.includeAnyURI);
-    }
-    if (parameters.documentTitlePattern != null) {
-      polisher.setDocumentTitlePattern(parameters.documentTitlePattern);
+  private void writeCompressed(SBMLDocument doc, String entryName, File archive)
+    throws IOException, XMLStreamException {
+    try (OutputStream stream = new BufferedOutputStream(new FileOutputStream(archive))) {
+      if (parameters.getCompression() == Compression.ZIP) {
+        try (ZipOutputStream zip = new ZipOutputStream(stream)) {
+          zip.putNextEntry(new ZipEntry(entryName));
+          writeSBML(doc, zip);
+          zip.closeEntry();
+        }
+      } else {
+        try (GZIPOutputStream gzip = new GZIPOutputStream(stream, 1 << 16)) {
+          writeSBML(doc, gzip);
+        }
+      }
     }
-    polisher.setFluxCoefficients(parameters.fluxCoefficients);
-    polisher.setFluxObjectives(parameters.fluxObjectives);
-    return polisher;
   }
 
 
   /**
-   * @return BiGGAnnotation object used for annotation with BiGG
+   * @param output:
+   *        output file of the model
+   * @return the COMBINE archive replacing the output file, i.e., the output
+   *         file with extension {@code .zip}
    */
-  private BiGGAnnotation setAnnotationParameters() {
-    BiGGAnnotation annotation = new BiGGAnnotation();
-    if ((parameters.noModelNotes != null) && parameters.noModelNotes) {
-      annotation.setDocumentNotesFile(null);
-      annotation.setModelNotesFile(null);
-    } else {
-      if (parameters.documentNotesFile != null) {
-        annotation.setDocumentNotesFile(parameters.documentNotesFile);
-      }
-      if (parameters.modelNotesFile != null) {
-        annotation.setModelNotesFile(parameters.modelNotesFile);
-      }
-    }
-    return annotation;
+  private File getCombineArchiveFile(File output) {
+    return getSiblingFile(output, ".zip");
   }
 
 
   /**
-   * @param doc:
-   *        SBMLDocument to write glossary for
    * @param output:
-   *        File SBMLDocument is written to
-   * @throws XMLStreamException:
-   *         propagated from {@link #getGlossary(SBMLDocument)} and #TidySBMLWriter.write
-   * @throws IOException:
-   *         propagated from {@link #writeTidyRDF(File, String)}
+   *        output file of the model
+   * @param suffix
+   * @return the output file with its extension replaced by the given suffix
    */
-  private void writeGlossary(SBMLDocument doc, File output) throws XMLStreamException, IOException {
-    String glossary = getGlossary(doc);
-    String glossaryLocation =
-      output.getAbsolutePath().substring(0, output.getAbsolutePath().lastIndexOf('.')) + "_glossary.rdf";
-    logger.info(format(mpMessageBundle.getString("WRITE_RDF_FILE_INFO"), glossaryLocation));
-    writeTidyRDF(new File(glossaryLocation), glossary);
+  private File getSiblingFile(File output, String suffix) {
+    String path = output.getAbsolutePath();
+    return new File((path.lastIndexOf('.') > 0 ? path.substring(0, path.lastIndexOf('.')) : path) + suffix);
   }
 
 
   /**
-   * @param output:
-   *        Output SBML file, location is used to get archive files
+   * Streams the model and its glossary from memory into a COMBINE archive,
+   * nothing else is written to disk
+   *
+   * @param doc:
+   *        polished SBMLDocument
+   * @param archive:
+   *        COMBINE archive to write, replaced if it exists
+   * @throws IOException
+   * @throws XMLStreamException
+   *         propagated from {@link #writeSBML(SBMLDocument, OutputStream)}
    */
-  private void writeCombineArchive(File output) {
-    try {
-      String baseLocation = output.getAbsolutePath().substring(0, output.getAbsolutePath().lastIndexOf('.'));
-      String glossaryLocation = baseLocation + "_glossary.rdf";
-      String combineArcLocation = baseLocation + ".zip";
-      // check if archive file exists and delete
-      File caFile = new File(combineArcLocation);
-      if (caFile.exists()) {
-        if (!caFile.delete()) {
-          logger.severe(format("Failed to delete archive file \"{0}\"", caFile.getPath()));
-        }
-      }
-      // build and pack archive
-      CombineArchive ca = new CombineArchive(caFile);
-      File outputXML = new File(output.getAbsolutePath());
-      File outputRDF = new File(glossaryLocation);
-      ca.addEntry(outputXML, "model.xml", new URI("http://identifiers.org/combine.specifications/sbml"), true);
-      ca.addEntry(outputRDF, "glossary.rdf",
-        // generated from https://sems.uni-rostock.de/trac/combine-ext/wiki/CombineFormatizer
-        new URI("http://purl.org/NET/mediatypes/application/rdf+xml"), true);
-      logger.info(format(mpMessageBundle.getString("WRITE_RDF_FILE_INFO"), combineArcLocation));
-      ca.pack();
-      ca.close();
-      // clean up original of packed files
-      boolean rdfDeleted = outputRDF.delete();
-      boolean outputXMLDeleted = outputXML.delete();
-      logger.info(format(mpMessageBundle.getString("DELETE_FILE"), outputXML.getParent(), outputXMLDeleted));
-      logger.info(format(mpMessageBundle.getString("DELETE_FILE"), outputRDF.getParent(), rdfDeleted));
-    } catch (Exception e) {
-      logger.warning("Exception while producing COMBINE Archive:");
-      e.printStackTrace();
+  private void writeCombineArchive(SBMLDocument doc, File archive) throws IOException, XMLStreamException {
+    logger.info(format(mpMessageBundle.getString("WRITE_COMBINE_ARCHIVE"), archive.getAbsolutePath()));
+    try (ZipOutputStream zip = new ZipOutputStream(new BufferedOutputStream(new FileOutputStream(archive)))) {
+      zip.putNextEntry(new ZipEntry(COMBINE_MANIFEST));
+      zip.write(getCombineManifest().getBytes(StandardCharsets.UTF_8));
+      zip.closeEntry();
+      zip.putNextEntry(new ZipEntry(COMBINE_MODEL));
+      writeSBML(doc, zip);
+      zip.closeEntry();
+      zip.putNextEntry(new ZipEntry(COMBINE_GLOSSARY));
+      zip.write(getGlossary(doc).getBytes(StandardCharsets.UTF_8));
+      zip.closeEntry();
     }
   }
 
 
+  /**
+   * @return OMEX manifest listing the entries of the COMBINE archive
+   */
+  static String getCombineManifest() {
+    return "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+      + "<omexManifest xmlns=\"http://identifiers.org/combine.specifications/omex-manifest\">\n"
+      + "  <content location=\".\" format=\"http://identifiers.org/combine.specifications/omex\" />\n"
+      + "  <content location=\"./" + COMBINE_MANIFEST
+      + "\" format=\"http://identifiers.org/combine.specifications/omex-manifest\" />\n"
+      + "  <content location=\"./" + COMBINE_MODEL
+      + "\" format=\"http://identifiers.org/combine.specifications/sbml\" master=\"true\" />\n"
+      // generated from https://sems.uni-rostock.de/trac/combine-ext/wiki/CombineFormatizer
+      + "  <content location=\"./" + COMBINE_GLOSSARY
+      + "\" format=\"http://purl.org/NET/mediatypes/application/rdf+xml\" />\n"
+      + "</omexManifest>\n";
+  }
+
+
   /**
    * @param doc:
    *        SBMLDocument to produce glossary for
    * @return Glossary as XMLString or empty string, if either model is null or has no children
    */
   private String getGlossary(SBMLDocument doc) throws XMLStreamException {
+    if (!doc.isSetModel()) {
+      return "";
+    }
     SBMLRDFAnnotationParser rdfParser = new SBMLRDFAnnotationParser();
-    if (rdfParser.writeAnnotation(doc.getModel(), null) != null
-      && rdfParser.writeAnnotation(doc.getModel(), null).getChild(1) != null) {
-      XMLNode node = rdfParser.writeAnnotation(doc.getModel(), null).getChild(1);
-      for (Species s : doc.getModel().getListOfSpecies()) {
-        XMLNode tempNode = rdfParser.writeAnnotation(s, null);
-        if (tempNode != null && tempNode.getChildCount() != 0) {
-          node.addChild(tempNode.getChild(1));
-        }
-      }
-      for (Reaction r : doc.getModel().getListOfReactions()) {
-        XMLNode tempNode = rdfParser.writeAnnotation(r, null);
-        if (tempNode != null && tempNode.getChildCount() != 0) {
-          node.addChild(tempNode.getChild(1));
-        }
-      }
-      for (Compartment c : doc.getModel().getListOfCompartments()) {
-        XMLNode tempNode = rdfParser.writeAnnotation(c, null);
-        if (tempNode != null && tempNode.getChildCount() != 0) {
-          node.addChild(tempNode.getChild(1));
-        }
-      }
-      if (doc.getModel().isSetPlugin(FBCConstants.shortLabel)) {
-        FBCModelPlugin fbcModelPlugin = (FBCModelPlugin) doc.getModel().getPlugin(FBCConstants.shortLabel);
-        for (GeneProduct gP : fbcModelPlugin.getListOfGeneProducts()) {
-          XMLNode tempNode = rdfParser.writeAnnotation(gP, null);
-          if (tempNode != null && tempNode.getChildCount() != 0) {
-            node.addChild(tempNode.getChild(1));
-          }
-        }
-      }
-      return node.toXMLString();
-    } else {
+    XMLNode modelAnnotation = rdfParser.writeAnnotation(doc.getModel(), null);
+    if ((modelAnnotation == null) || (modelAnnotation.getChild(1) == null)) {
       return "";
     }
-  }
-
-
-  /**
-   * @param outputFile,
-   *        rdfString
-   */
-  private void writeTidyRDF(File outputFile, String rdfString) throws FileNotFoundException {
-    Tidy tidy = new Tidy(); // obtain a new Tidy instance
-    tidy.setDropEmptyParas(false);
-    tidy.setHideComments(false);
-    tidy.setIndentContent(true);
-    tidy.setInputEncoding("UTF-8");
-    tidy.setOutputEncoding("UTF-8");
-    tidy.setQuiet(true);
-    tidy.setSmartIndent(true);
-    tidy.setTrimEmptyElements(true);
-    tidy.setWraplen(0);
-    tidy.setWrapAttVals(false);
-    tidy.setWrapScriptlets(true);
-    tidy.setLiteralAttribs(true);
-    tidy.setXmlOut(true);
-    tidy.setXmlSpace(true);
-    tidy.setXmlTags(true);
-    tidy.setSpaces(2);
-    Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(outputFile), StandardCharsets.UTF_8));
-    InputStreamReader in = new InputStreamReader(new ByteArrayInputStream(rdfString.getBytes(StandardCharsets.UTF_8)),
-      StandardCharsets.UTF_8);
-    tidy.parse(in, out);
-    try {
-      in.close();
-      out.close();
-    } catch (IOException e) {
-      e.printStackTrace();
+    XMLNode node = modelAnnotation.getChild(1);
+    for (Species s : doc.getModel().getListOfSpecies()) {
+      addGlossaryEntry(node, rdfParser.writeAnnotation(s, null));
     }
+    for (Reaction r : doc.getModel().getListOfReactions()) {
+      addGlossaryEntry(node, rdfParser.writeAnnotation(r, null));
+    }
+    for (Compartment c : doc.getModel().getListOfCompartments()) {
+      addGlossaryEntry(node, rdfParser.writeAnnotation(c, null));
+    }
+    if (doc.getModel().isSetPlugin(FBCConstants.shortLabel)) {
+      FBCModelPlugin fbcModelPlugin = (FBCModelPlugin) doc.getModel().getPlugin(FBCConstants.shortLabel);
+      for (GeneProduct gP : fbcModelPlugin.getListOfGeneProducts()) {
+        addGlossaryEntry(node, rdfParser.writeAnnotation(gP, null));
+      }
+    }
+    return node.toXMLString();
   }
 
 
   /**
-   * @param filename
+   * @param glossary
+   * @param annotation
+   *        RDF annotation of an element, may be {@code null}
    */
-  private void validate(String filename, boolean online) {
-    if (online) {
-      logger.info(String.format("Validating '%s' using online validator.", filename));
-      String output = "xml";
-      String offcheck = "p,u";
-      Map<String, String> parameters = new HashMap<>();
-      parameters.put("output", output);
-      parameters.put("offcheck", offcheck);
-      logger.info("Validating  " + filename + "\n");
-      SBMLErrorLog sbmlErrorLog = SBMLValidator.checkConsistency(filename, parameters);
-      handleErrorLog(sbmlErrorLog, filename);
-    } else {
-      logger.info(String.format("Validating '%s' using offline validator.", filename));
-      SBMLDocument doc = null;
-      try {
-        InputStream istream;
-        if (filename.endsWith(".gz")) {
-          istream = ZIPUtils.GUnzipStream(filename);
-        } else {
-          istream = new FileInputStream(filename);
-        }
-        doc = SBMLReader.read(istream);
-      } catch (XMLStreamException | IOException e) {
-        e.printStackTrace();
-      }
-      if (doc != null) {
-        LoggingValidationContext context = new LoggingValidationContext(doc.getLevel(), doc.getVersion());
-        context.loadConstraints(SBMLDocument.class);
-        context.validate(doc);
-        SBMLErrorLog sbmlErrorLog = context.getErrorLog();
-        handleErrorLog(sbmlErrorLog, filename);
-      } else {
-        logger.severe(String.format("Failed reading file '%s' for offline validation.", filename));
-      }
+  private static void addGlossaryEntry(XMLNode glossary, XMLNode annotation) {
+    if ((annotation != null) && (annotation.getChildCount() != 0)) {
+      glossary.addChild(annotation.getChild(1));
     }
   }
 
 
   /**
-   * @param sbmlErrorLog
-   * @param filename
+   * Validates the polished document in memory and writes the problems found
+   * to a JSON file next to the output, see
+   * {@link SBMLValidator#writeReport(String, List, OutputStream)}
+   *
+   * @param doc
+   *        polished document
+   * @param output
+   *        output file of the model
    */
-  private void handleErrorLog(SBMLErrorLog sbmlErrorLog, String filename) {
-    if (sbmlErrorLog != null) {
-      logger.info(format(mpMessageBundle.getString("VAL_ERR_COUNT"), sbmlErrorLog.getErrorCount(), filename));
-      // printErrors
-      for (int j = 0; j < sbmlErrorLog.getErrorCount(); j++) {
-        SBMLError error = sbmlErrorLog.getError(j);
-        logger.warning(error.toString());
+  private void validate(SBMLDocument doc, File output) {
+    long start = System.currentTimeMillis();
+    File report = getSiblingFile(output, "_validation.json");
+    try {
+      List<SBMLError> errors = SBMLValidator.validate(doc, parameters);
+      try (OutputStream stream = new BufferedOutputStream(new FileOutputStream(report))) {
+        SBMLValidator.writeReport(doc.isSetModel() ? doc.getModel().getId() : null, errors, stream);
       }
-    } else {
-      logger.info(mpMessageBundle.getString("VAL_ERROR"));
+      logger.info(format(mpMessageBundle.getString("VALIDATION_DONE"), output.getName(),
+        System.currentTimeMillis() - start, SBMLValidator.countErrors(errors),
+        errors.stream().filter(SBMLError::isWarning).count(), report.getPath()));
+    } catch (IOException | RuntimeException exc) {
+      logger.warning(format(mpMessageBundle.getString("VALIDATION_FAILED"), output.getName(), Utils.getMessage(exc)));
     }
   }
 
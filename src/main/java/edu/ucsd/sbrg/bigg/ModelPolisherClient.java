@@ -0,0 +1,162 @@
+package edu.ucsd.sbrg.bigg;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import de.zbit.io.FileTools;
+
+/**
+ * Command-line client for a ModelPolisher started with
+ * {@link ModelPolisherOptions#SERVER_PORT}. Takes the same arguments as
+ * ModelPolisher itself plus {@code --server=<url>}, which defaults to
+ * {@code http://localhost:1995}. Every input file, or every file within an
+ * input directory, is posted to the server, all other arguments are passed on
+ * as options of the request. Options that can only be set when the server is
+ * started, e.g., database connections, are ignored by the server.
+ */
+public final class ModelPolisherClient {
+
+  /**
+   * Server used if none is given
+   */
+  public static final String DEFAULT_SERVER = "http://localhost:1995";
+  private static final Pattern FILE_NAME = Pattern.compile("filename=\"([^\"]+)\"");
+  private final HttpClient client = HttpClient.newHttpClient();
+  private final URI server;
+  private final String options;
+
+  /**
+   * @param server
+   *        base URL of the server
+   * @param options
+   *        command-line options passed on to the server
+   */
+  public ModelPolisherClient(String server, List<String> options) {
+    this.server = URI.create(server.endsWith("/") ? server.substring(0, server.length() - 1) : server);
+    StringBuilder query = new StringBuilder();
+    for (String option : options) {
+      int separator = option.indexOf('=');
+      query.append('&').append(encode(separator < 0 ? option : option.substring(0, separator)));
+      if (separator >= 0) {
+        query.append('=').append(encode(option.substring(separator + 1)));
+      }
+    }
+    this.options = query.toString();
+  }
+
+
+  /**
+   * @param args
+   *        {@code --server=<url> --input=<file or directory> --output=<file or
+   *        directory>} and ModelPolisher options
+   */
+  public static void main(String[] args) {
+    String server = DEFAULT_SERVER;
+    String input = null;
+    String output = null;
+    List<String> options = new ArrayList<>();
+    for (String arg : args) {
+      if (arg.startsWith("--server=")) {
+        server = value(arg);
+      } else if (arg.startsWith("--input=")) {
+        input = value(arg);
+      } else if (arg.startsWith("--output=")) {
+        output = value(arg);
+      } else {
+        options.add(arg);
+      }
+    }
+    if ((input == null) || (output == null)) {
+      System.err.println("Usage: ModelPolisherClient [--server=" + DEFAULT_SERVER
+        + "] --input=<file|dir> --output=<file|dir> [options]");
+      System.exit(2);
+    }
+    ModelPolisherClient client = new ModelPolisherClient(server, options);
+    int failed = 0;
+    File in = new File(input);
+    File[] files = in.isDirectory() ? in.listFiles(File::isFile) : new File[] {in};
+    for (File file : files == null ? new File[0] : files) {
+      try {
+        File result = client.polish(file, new File(output));
+        System.out.println(file.getPath() + " -> " + result.getPath());
+      } catch (IOException exc) {
+        failed++;
+        System.err.println(file.getPath() + ": " + exc.getMessage());
+      } catch (InterruptedException exc) {
+        Thread.currentThread().interrupt();
+        break;
+      }
+    }
+    System.exit(failed == 0 ? 0 : 1);
+  }
+
+
+  /**
+   * Posts a model to the server and stores the polished model
+   *
+   * @param input
+   *        model file, which may be compressed
+   * @param output
+   *        file or directory to write the polished model to, directories are
+   *        recognized as by {@link ModelPolisher#isDirectory(File)}
+   * @return the file the polished model has been written to
+   * @throws IOException
+   *         if the server cannot be reached or rejects the model
+   * @throws InterruptedException
+   */
+  public File polish(File input, File output) throws IOException, InterruptedException {
+    URI uri = URI.create(server + PolishingServer.POLISH_PATH + "?" + PolishingServer.NAME_PARAMETER + "="
+      + encode(input.getName()) + options);
+    HttpRequest request = HttpRequest.newBuilder(uri).POST(HttpRequest.BodyPublishers.ofFile(input.toPath())).build();
+    HttpResponse<InputStream> response = client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+    try (InputStream body = response.body()) {
+      if (response.statusCode() != 200) {
+        String message = new String(body.readAllBytes(), StandardCharsets.UTF_8).trim();
+        throw new IOException("Server responded with " + response.statusCode() + ": " + message);
+      }
+      File target = output;
+      if (!output.getName().contains(".")) {
+        String name = response.headers().firstValue("Content-Disposition").map(FILE_NAME::matcher)
+                              .filter(Matcher::find).map(matcher -> matcher.group(1))
+                              .orElse(FileTools.removeFileExtension(input.getName()) + ".xml");
+        target = new File(output, new File(name).getName());
+      }
+      if (target.getAbsoluteFile().getParentFile() != null) {
+        Files.createDirectories(target.getAbsoluteFile().getParentFile().toPath());
+      }
+      Files.copy(body, target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+      return target;
+    }
+  }
+
+
+  /**
+   * @param arg
+   * @return
+   */
+  private static String value(String arg) {
+    return arg.substring(arg.indexOf('=') + 1);
+  }
+
+
+  /**
+   * @param value
+   * @return
+   */
+  private static String encode(String value) {
+    return URLEncoder.encode(value, StandardCharsets.UTF_8);
+  }
+}
@@ -7,10 +7,8 @@ import static edu.ucsd.sbrg.bigg.ModelPolisher.mpMessageBundle;
 
 import java.io.File;
 
-import de.zbit.util.objectwrapper.ValuePairUncomparable;
 import de.zbit.util.prefs.KeyProvider;
 import de.zbit.util.prefs.Option;
-import de.zbit.util.prefs.Range;
 
 /**
  * @author Andreas Dr&auml;ger
@@ -64,6 +62,43 @@ public interface ModelPolisherOptions extends KeyProvider {
     }
   }
 
+  /**
+   * Ways to serialize the polished SBML document
+   */
+  enum OutputWriter {
+
+    /**
+     * Complete document is serialized and then indented with JTidy
+     */
+    TIDY,
+    /**
+     * Document is streamed and indented while writing
+     */
+    STREAM,
+    /**
+     * Document is streamed without indentation
+     */
+    COMPACT
+  }
+
+  /**
+   * Constraint groups checked by the offline validation
+   */
+  enum ValidationScope {
+
+    /**
+     * All constraint groups
+     */
+    ALL,
+    /**
+     * Only general and identifier consistency, which contain the rules of the
+     * FBC and groups packages. Units, MathML, SBO, overdetermination and
+     * modeling practice checks are skipped, as they rarely apply to constraint
+     * based models.
+     */
+    FBC
+  }
+
   /**
    * This switch allows users to specify if also those database cross-links
    * should be extracted from BiGG Models database for which currently no entry
@@ -122,6 +157,14 @@ public interface ModelPolisherOptions extends KeyProvider {
   @SuppressWarnings("unchecked")
   Option<Compression> COMPRESSION_TYPE =
     new Option<>("COMPRESSION_TYPE", Compression.class, mpMessageBundle.getString("COMPR_DESC"), Compression.NONE);
+  /**
+   * Decides how the output file is written. Unlike {@link OutputWriter#TIDY}, the
+   * streaming writers need no second copy of the document in memory and write
+   * compressed output directly into the archive.
+   */
+  @SuppressWarnings("unchecked")
+  Option<OutputWriter> OUTPUT_WRITER = new Option<>("OUTPUT_WRITER", OutputWriter.class,
+    mpMessageBundle.getString("OUTPUT_WRITER_DESC"), OutputWriter.TIDY);
   /**
    * This option allows you to define the title of the SBML document's
    * description and hence the head line when the file is displayed in a web
@@ -157,13 +200,55 @@ public interface ModelPolisherOptions extends KeyProvider {
   Option<Boolean> OUTPUT_COMBINE =
     new Option<>("OUTPUT_COMBINE", Boolean.class, mpMessageBundle.getString("OUTPUT_COMBINE"), Boolean.FALSE);
   /**
-   * If true, the created SBML file will be validated through the online
-   * validator service at {@link "http://sbml.org"}. This option is only used
-   * if the output is GZIP compressed.
+   * Maximum number of species, reactions or gene products of a model whose
+   * database lookups are in flight at the same time. The default of one
+   * annotates all elements sequentially.
+   */
+  @SuppressWarnings("unchecked")
+  Option<Integer> CONCURRENT_LOOKUPS =
+    new Option<>("CONCURRENT_LOOKUPS", Integer.class, mpMessageBundle.getString("CONCURRENT_LOOKUPS_DESC"), 1);
+  /**
+   * Number of models that are processed concurrently when the input is a
+   * directory. The default of one processes all models sequentially.
+   */
+  @SuppressWarnings("unchecked")
+  Option<Integer> THREADS =
+    new Option<>("THREADS", Integer.class, mpMessageBundle.getString("THREADS_DESC"), 1);
+  /**
+   * If true, the species, reactions and other elements of a model are polished
+   * and validated in parallel. The polished model and the validation report
+   * are identical to those of a sequential run.
+   */
+  @SuppressWarnings("unchecked")
+  Option<Boolean> PARALLEL_POLISHING = new Option<>("PARALLEL_POLISHING", Boolean.class,
+    mpMessageBundle.getString("PARALLEL_POLISHING_DESC"), Boolean.FALSE);
+  /**
+   * Skip models in batch mode whose input, relevant options and BiGG version
+   * are unchanged since the last run into the same output directory.
+   */
+  @SuppressWarnings("unchecked")
+  Option<Boolean> INCREMENTAL =
+    new Option<>("INCREMENTAL", Boolean.class, mpMessageBundle.getString("INCREMENTAL_DESC"), Boolean.FALSE);
+  /**
+   * If set to a port number, ModelPolisher runs as a server on the local host
+   * that polishes models posted to it, see {@link PolishingServer}. The default
+   * of zero runs ModelPolisher once on the given input.
+   */
+  @SuppressWarnings("unchecked")
+  Option<Integer> SERVER_PORT =
+    new Option<>("SERVER_PORT", Integer.class, mpMessageBundle.getString("SERVER_PORT_DESC"), 0);
+  /**
+   * If true, the polished SBML document is validated offline before it is
+   * written, the errors are written to a JSON file next to the output.
    */
   @SuppressWarnings("unchecked")
   Option<Boolean> SBML_VALIDATION =
-    new Option<>("SBML_VALIDATION", Boolean.class, mpMessageBundle.getString("SBML_VAL_DESC"), Boolean.FALSE,
-      new ValuePairUncomparable<>(COMPRESSION_TYPE, new Range<>(Compression.class, Compression.GZIP)),
-      new ValuePairUncomparable<>(COMPRESSION_TYPE, new Range<>(Compression.class, Compression.ZIP)));
+    new Option<>("SBML_VALIDATION", Boolean.class, mpMessageBundle.getString("SBML_VAL_DESC"), Boolean.FALSE);
+  /**
+   * Decides which constraint groups are checked if {@link #SBML_VALIDATION} is
+   * set
+   */
+  @SuppressWarnings("unchecked")
+  Option<ValidationScope> VALIDATION_SCOPE = new Option<>("VALIDATION_SCOPE", ValidationScope.class,
+    mpMessageBundle.getString("VALIDATION_SCOPE_DESC"), ValidationScope.ALL);
 }
@@ -1,152 +1,250 @@
 package edu.ucsd.sbrg.bigg;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import de.zbit.util.prefs.Option;
 import de.zbit.util.prefs.SBProperties;
+import edu.ucsd.sbrg.bigg.ModelPolisherOptions.Compression;
+import edu.ucsd.sbrg.bigg.ModelPolisherOptions.OutputWriter;
+import edu.ucsd.sbrg.bigg.ModelPolisherOptions.ValidationScope;
+import edu.ucsd.sbrg.db.ADBOptions;
+import edu.ucsd.sbrg.db.BiGGDBOptions;
 
 /**
- * Helper class to store all parameters for running ModelPolisher in batch
- * mode.
+ * Immutable set of parameters for one run of ModelPolisher, either created
+ * from the command-line options by {@link #of(SBProperties)} or
+ * programmatically by a {@link Builder}. Runs with different parameters can
+ * take place concurrently, as every run passes its parameters on explicitly.
  *
  * @author Andreas Dr&auml;ger
  */
-class Parameters {
+public final class Parameters {
 
   /**
-   * Singleton for ModelPolisher parameters
+   * Options that do not change the polished models and are therefore not part
+   * of the {@link #configurationHash}
    */
-  static Parameters parameters;
+  private static final Set<String> IGNORED_OPTIONS = Stream.of(IOOptions.INPUT, IOOptions.OUTPUT,
+    ModelPolisherOptions.THREADS, ModelPolisherOptions.CONCURRENT_LOOKUPS, ModelPolisherOptions.INCREMENTAL,
+    ModelPolisherOptions.SERVER_PORT, ModelPolisherOptions.PARALLEL_POLISHING, BiGGDBOptions.PASSWD,
+    BiGGDBOptions.POOL_SIZE, BiGGDBOptions.FETCH_SIZE, BiGGDBOptions.CACHE_DIR, ADBOptions.PASSWD,
+    ADBOptions.POOL_SIZE, ADBOptions.FETCH_SIZE)
+                                                     .map(Option::getOptionName).collect(Collectors.toSet());
   /**
    * @see ModelPolisherOptions#INCLUDE_ANY_URI
    */
-  Boolean includeAnyURI = null;
+  private final boolean includeAnyURI;
   /**
    * @see ModelPolisherOptions#ANNOTATE_WITH_BIGG
    */
-  Boolean annotateWithBiGG = null;
+  private final boolean annotateWithBiGG;
   /**
    * @see ModelPolisherOptions#OUTPUT_COMBINE
    */
-  Boolean outputCOMBINE = null;
+  private final boolean outputCOMBINE;
   /**
    * @see ModelPolisherOptions#ADD_ADB_ANNOTATIONS
    */
-  Boolean addADBAnnotations = null;
+  private final boolean addADBAnnotations;
   /**
    * @see ModelPolisherOptions#CHECK_MASS_BALANCE
    */
-  Boolean checkMassBalance = null;
+  private final boolean checkMassBalance;
   /**
    * @see ModelPolisherOptions#NO_MODEL_NOTES
    */
-  Boolean noModelNotes = null;
+  private final boolean noModelNotes;
   /**
    * @see ModelPolisherOptions#COMPRESSION_TYPE
    */
-  ModelPolisherOptions.Compression compression = ModelPolisherOptions.Compression.NONE;
+  private final Compression compression;
+  /**
+   * @see ModelPolisherOptions#OUTPUT_WRITER
+   */
+  private final OutputWriter outputWriter;
   /**
    * Can be {@code null}
    *
    * @see ModelPolisherOptions#DOCUMENT_NOTES_FILE
    */
-  File documentNotesFile = null;
+  private final File documentNotesFile;
   /**
-   * Can be {@code null} (then a default is used).
-   *
    * @see ModelPolisherOptions#DOCUMENT_TITLE_PATTERN
    */
-  String documentTitlePattern = null;
+  private final String documentTitlePattern;
   /**
+   * Can be {@code null}
+   *
    * @see ModelPolisherOptions#FLUX_COEFFICIENTS
    */
-  double[] fluxCoefficients = null;
+  private final double[] fluxCoefficients;
   /**
+   * Can be {@code null}
+   *
    * @see ModelPolisherOptions#FLUX_OBJECTIVES
    */
-  String[] fluxObjectives = null;
+  private final String[] fluxObjectives;
   /**
    * Can be {@code null}
    *
    * @see ModelPolisherOptions#MODEL_NOTES_FILE
    */
-  File modelNotesFile = null;
+  private final File modelNotesFile;
   /**
    * @see ModelPolisherOptions#OMIT_GENERIC_TERMS
    */
-  Boolean omitGenericTerms = null;
+  private final boolean omitGenericTerms;
   /**
    * @see ModelPolisherOptions#SBML_VALIDATION
    */
-  Boolean sbmlValidation = null;
-
+  private final boolean sbmlValidation;
   /**
-   * 
+   * @see ModelPolisherOptions#VALIDATION_SCOPE
    */
-  private Parameters(SBProperties args) {
-    super();
-    initParameters(args);
-  }
-
+  private final ValidationScope validationScope;
+  /**
+   * @see ModelPolisherOptions#THREADS
+   */
+  private final int threads;
+  /**
+   * @see ModelPolisherOptions#CONCURRENT_LOOKUPS
+   */
+  private final int concurrentLookups;
+  /**
+   * @see ModelPolisherOptions#PARALLEL_POLISHING
+   */
+  private final boolean parallelPolishing;
+  /**
+   * @see ModelPolisherOptions#INCREMENTAL
+   */
+  private final boolean incremental;
+  /**
+   * Hash over all options that affect the polished models
+   */
+  private final String configurationHash;
 
   /**
-   * 
+   * @param builder
    */
-  static Parameters init(SBProperties args) {
-    if (parameters == null) {
-      parameters = new Parameters(args);
-    }
-    return parameters;
+  private Parameters(Builder builder) {
+    includeAnyURI = builder.includeAnyURI;
+    annotateWithBiGG = builder.annotateWithBiGG;
+    outputCOMBINE = builder.outputCOMBINE;
+    addADBAnnotations = builder.addADBAnnotations;
+    checkMassBalance = builder.checkMassBalance;
+    noModelNotes = builder.noModelNotes;
+    compression = builder.compression;
+    outputWriter = builder.outputWriter;
+    documentNotesFile = builder.documentNotesFile;
+    documentTitlePattern = builder.documentTitlePattern;
+    fluxCoefficients = builder.fluxCoefficients == null ? null : builder.fluxCoefficients.clone();
+    fluxObjectives = builder.fluxObjectives == null ? null : builder.fluxObjectives.clone();
+    modelNotesFile = builder.modelNotesFile;
+    omitGenericTerms = builder.omitGenericTerms;
+    sbmlValidation = builder.sbmlValidation;
+    validationScope = builder.validationScope;
+    threads = builder.threads;
+    concurrentLookups = builder.concurrentLookups;
+    parallelPolishing = builder.parallelPolishing;
+    incremental = builder.incremental;
+    configurationHash = builder.configurationHash != null ? builder.configurationHash : hashConfiguration();
   }
 
 
-  public static Parameters get() {
-    if (parameters != null) {
-      return parameters;
-    } else {
-      // this should not happen, abort
-      throw new IllegalStateException("Parameters not initialized");
-    }
+  /**
+   * @return a builder initialized with the defaults of
+   *         {@link ModelPolisherOptions}
+   */
+  public static Builder builder() {
+    return new Builder();
   }
 
 
   /**
    * @param args:
    *        Arguments from commandline
+   * @return parameters for a run with the given options
+   * @throws IllegalArgumentException
+   *         if an option has an invalid value
    */
-  private void initParameters(SBProperties args) {
-    String documentTitlePattern = "[biggId] - [organism]";
+  public static Parameters of(SBProperties args) {
+    Builder builder = builder();
     if (args.containsKey(ModelPolisherOptions.DOCUMENT_TITLE_PATTERN)) {
-      documentTitlePattern = args.getProperty(ModelPolisherOptions.DOCUMENT_TITLE_PATTERN);
+      builder.documentTitlePattern(args.getProperty(ModelPolisherOptions.DOCUMENT_TITLE_PATTERN));
     }
-    double[] coefficients = null;
     if (args.containsKey(ModelPolisherOptions.FLUX_COEFFICIENTS)) {
       String c = args.getProperty(ModelPolisherOptions.FLUX_COEFFICIENTS);
       String[] coeff = c.substring(1, c.length() - 1).split(",");
-      coefficients = new double[coeff.length];
+      double[] coefficients = new double[coeff.length];
       for (int i = 0; i < coeff.length; i++) {
         coefficients[i] = Double.parseDouble(coeff[i].trim());
       }
+      builder.fluxCoefficients(coefficients);
     }
-    String[] fObj = null;
     if (args.containsKey(ModelPolisherOptions.FLUX_OBJECTIVES)) {
       String fObjectives = args.getProperty(ModelPolisherOptions.FLUX_OBJECTIVES);
-      fObj = fObjectives.substring(1, fObjectives.length() - 1).split(":");
+      builder.fluxObjectives(fObjectives.substring(1, fObjectives.length() - 1).split(":"));
+    }
+    builder.annotateWithBiGG(args.getBooleanProperty(ModelPolisherOptions.ANNOTATE_WITH_BIGG))
+           .outputCOMBINE(args.getBooleanProperty(ModelPolisherOptions.OUTPUT_COMBINE))
+           .addADBAnnotations(args.getBooleanProperty(ModelPolisherOptions.ADD_ADB_ANNOTATIONS))
+           .checkMassBalance(args.getBooleanProperty(ModelPolisherOptions.CHECK_MASS_BALANCE))
+           .noModelNotes(args.getBooleanProperty(ModelPolisherOptions.NO_MODEL_NOTES))
+           .compression(Compression.valueOf(args.getProperty(ModelPolisherOptions.COMPRESSION_TYPE)))
+           .outputWriter(OutputWriter.valueOf(args.getProperty(ModelPolisherOptions.OUTPUT_WRITER)))
+           .documentNotesFile(parseFileOption(args, ModelPolisherOptions.DOCUMENT_NOTES_FILE))
+           .includeAnyURI(args.getBooleanProperty(ModelPolisherOptions.INCLUDE_ANY_URI))
+           .modelNotesFile(parseFileOption(args, ModelPolisherOptions.MODEL_NOTES_FILE))
+           .omitGenericTerms(args.getBooleanProperty(ModelPolisherOptions.OMIT_GENERIC_TERMS))
+           .sbmlValidation(args.getBooleanProperty(ModelPolisherOptions.SBML_VALIDATION))
+           .validationScope(ValidationScope.valueOf(args.getProperty(ModelPolisherOptions.VALIDATION_SCOPE)))
+           .parallelPolishing(args.getBooleanProperty(ModelPolisherOptions.PARALLEL_POLISHING))
+           .incremental(args.getBooleanProperty(ModelPolisherOptions.INCREMENTAL));
+    if (args.containsKey(ModelPolisherOptions.THREADS)) {
+      builder.threads(args.getIntProperty(ModelPolisherOptions.THREADS));
     }
-    annotateWithBiGG = args.getBooleanProperty(ModelPolisherOptions.ANNOTATE_WITH_BIGG);
-    outputCOMBINE = args.getBooleanProperty(ModelPolisherOptions.OUTPUT_COMBINE);
-    addADBAnnotations = args.getBooleanProperty(ModelPolisherOptions.ADD_ADB_ANNOTATIONS);
-    checkMassBalance = args.getBooleanProperty(ModelPolisherOptions.CHECK_MASS_BALANCE);
-    noModelNotes = args.getBooleanProperty(ModelPolisherOptions.NO_MODEL_NOTES);
-    compression = ModelPolisherOptions.Compression.valueOf(args.getProperty(ModelPolisherOptions.COMPRESSION_TYPE));
-    documentNotesFile = parseFileOption(args, ModelPolisherOptions.DOCUMENT_NOTES_FILE);
-    this.documentTitlePattern = documentTitlePattern;
-    fluxCoefficients = coefficients;
-    fluxObjectives = fObj;
-    includeAnyURI = args.getBooleanProperty(ModelPolisherOptions.INCLUDE_ANY_URI);
-    modelNotesFile = parseFileOption(args, ModelPolisherOptions.MODEL_NOTES_FILE);
-    omitGenericTerms = args.getBooleanProperty(ModelPolisherOptions.OMIT_GENERIC_TERMS);
-    sbmlValidation = args.getBooleanProperty(ModelPolisherOptions.SBML_VALIDATION);
+    if (args.containsKey(ModelPolisherOptions.CONCURRENT_LOOKUPS)) {
+      builder.concurrentLookups(args.getIntProperty(ModelPolisherOptions.CONCURRENT_LOOKUPS));
+    }
+    builder.configurationHash = hashConfiguration(args);
+    return builder.build();
+  }
+
+
+  /**
+   * @param args
+   * @return hash over all given options except the {@link #IGNORED_OPTIONS},
+   *         independent of their order
+   */
+  private static String hashConfiguration(SBProperties args) {
+    List<String> options = new ArrayList<>();
+    for (Object key : new TreeSet<>(args.stringPropertyNames())) {
+      if (!IGNORED_OPTIONS.contains(key.toString())) {
+        options.add(key + "=" + args.getProperty(key));
+      }
+    }
+    return BatchManifest.hash(options);
+  }
+
+
+  /**
+   * @return hash over all parameters that affect the polished models, for
+   *         parameters that have not been created from command-line options
+   */
+  private String hashConfiguration() {
+    return BatchManifest.hash(Arrays.asList(Boolean.toString(includeAnyURI), Boolean.toString(annotateWithBiGG),
+      Boolean.toString(outputCOMBINE), Boolean.toString(addADBAnnotations), Boolean.toString(checkMassBalance),
+      Boolean.toString(noModelNotes), compression.name(), outputWriter.name(), String.valueOf(documentNotesFile),
+      String.valueOf(documentTitlePattern), Arrays.toString(fluxCoefficients), Arrays.toString(fluxObjectives),
+      String.valueOf(modelNotesFile), Boolean.toString(omitGenericTerms), Boolean.toString(sbmlValidation),
+      validationScope.name()));
   }
 
 
@@ -161,7 +259,7 @@ class Parameters {
    * @return a {@link File} object that corresponds to a desired command-line
    *         option, or {@code null} if it does not exist.
    */
-  private File parseFileOption(SBProperties args, Option<File> option) {
+  private static File parseFileOption(SBProperties args, Option<File> option) {
     if (args.containsKey(option)) {
       File notesFile = new File(args.getProperty(option));
       if (notesFile.exists() && notesFile.canRead()) {
@@ -172,41 +270,46 @@ class Parameters {
   }
 
 
-  public Boolean getIncludeAnyURI() {
+  public boolean getIncludeAnyURI() {
     return includeAnyURI;
   }
 
 
-  public Boolean getAnnotateWithBiGG() {
+  public boolean getAnnotateWithBiGG() {
     return annotateWithBiGG;
   }
 
 
-  public Boolean getOutputCOMBINE() {
+  public boolean getOutputCOMBINE() {
     return outputCOMBINE;
   }
 
 
-  public Boolean getAddADBAnnotations() {
+  public boolean getAddADBAnnotations() {
     return addADBAnnotations;
   }
 
 
-  public Boolean getCheckMassBalance() {
+  public boolean getCheckMassBalance() {
     return checkMassBalance;
   }
 
 
-  public Boolean getNoModelNotes() {
+  public boolean getNoModelNotes() {
     return noModelNotes;
   }
 
 
-  public ModelPolisherOptions.Compression getCompression() {
+  public Compression getCompression() {
     return compression;
   }
 
 
+  public OutputWriter getOutputWriter() {
+    return outputWriter;
+  }
+
+
   public File getDocumentNotesFile() {
     return documentNotesFile;
   }
@@ -218,12 +321,12 @@ class Parameters {
 
 
   public double[] getFluxCoefficients() {
-    return fluxCoefficients;
+    return fluxCoefficients == null ? null : fluxCoefficients.clone();
   }
 
 
   public String[] getFluxObjectives() {
-    return fluxObjectives;
+    return fluxObjectives == null ? null : fluxObjectives.clone();
   }
 
 
@@ -232,12 +335,200 @@ class Parameters {
   }
 
 
-  public Boolean getOmitGenericTerms() {
+  public boolean getOmitGenericTerms() {
     return omitGenericTerms;
   }
 
 
-  public Boolean getSbmlValidation() {
+  public boolean getSbmlValidation() {
     return sbmlValidation;
   }
+
+
+  public ValidationScope getValidationScope() {
+    return validationScope;
+  }
+
+
+  public int getThreads() {
+    return threads;
+  }
+
+
+  public int getConcurrentLookups() {
+    return concurrentLookups;
+  }
+
+
+  public boolean getParallelPolishing() {
+    return parallelPolishing;
+  }
+
+
+  public boolean getIncremental() {
+    return incremental;
+  }
+
+
+  public String getConfigurationHash() {
+    return configurationHash;
+  }
+
+
+  /**
+   * Creates {@link Parameters} programmatically, all values default to those
+   * of {@link ModelPolisherOptions}
+   */
+  public static final class Builder {
+
+    private boolean includeAnyURI = false;
+    private boolean annotateWithBiGG = false;
+    private boolean outputCOMBINE = false;
+    private boolean addADBAnnotations = false;
+    private boolean checkMassBalance = true;
+    private boolean noModelNotes = false;
+    private Compression compression = Compression.NONE;
+    private OutputWriter outputWriter = OutputWriter.TIDY;
+    private File documentNotesFile = null;
+    private String documentTitlePattern = "[biggId] - [organism]";
+    private double[] fluxCoefficients = null;
+    private String[] fluxObjectives = null;
+    private File modelNotesFile = null;
+    private boolean omitGenericTerms = false;
+    private boolean sbmlValidation = false;
+    private ValidationScope validationScope = ValidationScope.ALL;
+    private int threads = 1;
+    private int concurrentLookups = 1;
+    private boolean parallelPolishing = false;
+    private boolean incremental = false;
+    private String configurationHash = null;
+
+    private Builder() {
+    }
+
+
+    public Builder includeAnyURI(boolean includeAnyURI) {
+      this.includeAnyURI = includeAnyURI;
+      return this;
+    }
+
+
+    public Builder annotateWithBiGG(boolean annotateWithBiGG) {
+      this.annotateWithBiGG = annotateWithBiGG;
+      return this;
+    }
+
+
+    public Builder outputCOMBINE(boolean outputCOMBINE) {
+      this.outputCOMBINE = outputCOMBINE;
+      return this;
+    }
+
+
+    public Builder addADBAnnotations(boolean addADBAnnotations) {
+      this.addADBAnnotations = addADBAnnotations;
+      return this;
+    }
+
+
+    public Builder checkMassBalance(boolean checkMassBalance) {
+      this.checkMassBalance = checkMassBalance;
+      return this;
+    }
+
+
+    public Builder noModelNotes(boolean noModelNotes) {
+      this.noModelNotes = noModelNotes;
+      return this;
+    }
+
+
+    public Builder compression(Compression compression) {
+      this.compression = compression;
+      return this;
+    }
+
+
+    public Builder outputWriter(OutputWriter outputWriter) {
+      this.outputWriter = outputWriter;
+      return this;
+    }
+
+
+    public Builder documentNotesFile(File documentNotesFile) {
+      this.documentNotesFile = documentNotesFile;
+      return this;
+    }
+
+
+    public Builder documentTitlePattern(String documentTitlePattern) {
+      this.documentTitlePattern = documentTitlePattern;
+      return this;
+    }
+
+
+    public Builder fluxCoefficients(double[] fluxCoefficients) {
+      this.fluxCoefficients = fluxCoefficients;
+      return this;
+    }
+
+
+    public Builder fluxObjectives(String[] fluxObjectives) {
+      this.fluxObjectives = fluxObjectives;
+      return this;
+    }
+
+
+    public Builder modelNotesFile(File modelNotesFile) {
+      this.modelNotesFile = modelNotesFile;
+      return this;
+    }
+
+
+    public Builder omitGenericTerms(boolean omitGenericTerms) {
+      this.omitGenericTerms = omitGenericTerms;
+      return this;
+    }
+
+
+    public Builder sbmlValidation(boolean sbmlValidation) {
+      this.sbmlValidation = sbmlValidation;
+      return this;
+    }
+
+
+    public Builder validationScope(ValidationScope validationScope) {
+      this.validationScope = validationScope;
+      return this;
+    }
+
+
+    public Builder threads(int threads) {
+      this.threads = Math.max(1, threads);
+      return this;
+    }
+
+
+    public Builder concurrentLookups(int concurrentLookups) {
+      this.concurrentLookups = Math.max(1, concurrentLookups);
+      return this;
+    }
+
+
+    public Builder parallelPolishing(boolean parallelPolishing) {
+      this.parallelPolishing = parallelPolishing;
+      return this;
+    }
+
+
+    public Builder incremental(boolean incremental) {
+      this.incremental = incremental;
+      return this;
+    }
+
+
+    public Parameters build() {
+      return new Parameters(this);
+    }
+  }
 }
@@ -0,0 +1,199 @@
+package edu.ucsd.sbrg.bigg;
+
+import static edu.ucsd.sbrg.bigg.ModelPolisher.mpMessageBundle;
+import static java.text.MessageFormat.format;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.logging.Logger;
+
+import javax.xml.stream.XMLStreamException;
+
+import org.sbml.jsbml.SBMLDocument;
+import org.sbml.jsbml.SBMLError;
+import org.sbml.jsbml.SBMLReader;
+import org.sbml.jsbml.ext.fbc.converters.CobraToFbcV2Converter;
+import org.sbml.jsbml.util.SBMLtools;
+import org.sbml.jsbml.util.ValuePair;
+
+import edu.ucsd.sbrg.parsers.COBRAparser;
+import edu.ucsd.sbrg.parsers.JSONparser;
+import edu.ucsd.sbrg.util.GPRParser;
+import edu.ucsd.sbrg.util.HTMLBodyFilterInputStream;
+import edu.ucsd.sbrg.util.SBMLUtils;
+import edu.ucsd.sbrg.util.UpdateListener;
+
+/**
+ * Library entry point for polishing models held in memory. A document is
+ * converted to SBML Level 3 Version 1 with FBC version 2, polished with
+ * {@link SBMLPolisher}, annotated with {@link BiGGAnnotation} if
+ * {@link Parameters#getAnnotateWithBiGG()} is set and validated offline if
+ * {@link Parameters#getSbmlValidation()} is set. Nothing is read from or
+ * written to the file system, apart from notes files given by the parameters.
+ * Annotation requires the BiGG database to be connected through
+ * {@link edu.ucsd.sbrg.db.BiGGDB#init}. Instances are immutable and can be
+ * shared between threads, each document has to be polished by a single thread.
+ *
+ * <pre>
+ * Polisher polisher = new Polisher(Parameters.builder().omitGenericTerms(true).build());
+ * PolishingReport report = polisher.polish(doc);
+ * </pre>
+ */
+public final class Polisher {
+
+  /**
+   * Formats {@link #polish(InputStream, Format)} can read
+   */
+  public enum Format {
+    /**
+     * SBML in any level and version
+     */
+    SBML,
+    /**
+     * BiGG/COBRApy JSON model
+     */
+    JSON,
+    /**
+     * COBRA toolbox MAT file
+     */
+    MAT
+  }
+
+  private static final Logger logger = Logger.getLogger(Polisher.class.getName());
+  private final Parameters parameters;
+
+  /**
+   * @param parameters
+   *        settings for all documents polished by this instance
+   */
+  public Polisher(Parameters parameters) {
+    this.parameters = parameters;
+  }
+
+
+  /**
+   * @return the settings of this instance
+   */
+  public Parameters getParameters() {
+    return parameters;
+  }
+
+
+  /**
+   * Polishes the given document in place
+   *
+   * @param doc
+   * @return the polished document, which may be a different instance than the
+   *         given one if it had to be converted, and what has been done to it
+   */
+  public PolishingReport polish(SBMLDocument doc) {
+    return polish(doc, parameters.getSbmlValidation());
+  }
+
+
+  /**
+   * Reads a model and polishes it
+   *
+   * @param stream
+   *        uncompressed model, see
+   *        {@link edu.ucsd.sbrg.util.CompressedInput} for compressed files, is
+   *        not closed
+   * @param format
+   *        format of the model
+   * @return the polished document and what has been done to it
+   * @throws IOException
+   *         if the model cannot be read
+   */
+  public PolishingReport polish(InputStream stream, Format format) throws IOException {
+    return polish(read(stream, format));
+  }
+
+
+  /**
+   * @param stream
+   *        uncompressed model, is not closed
+   * @param format
+   * @return the model as SBML document, not yet polished
+   * @throws IOException
+   *         if the model cannot be read
+   */
+  public SBMLDocument read(InputStream stream, Format format) throws IOException {
+    SBMLDocument doc;
+    switch (format) {
+    case JSON:
+      doc = JSONparser.read(stream, parameters);
+      break;
+    case MAT:
+      doc = COBRAparser.read(stream, parameters);
+      break;
+    default:
+      HTMLBodyFilterInputStream filtered = new HTMLBodyFilterInputStream(stream);
+      try {
+        doc = new SBMLReader().readSBMLFromStream(filtered, new UpdateListener());
+      } catch (XMLStreamException exc) {
+        throw new IOException(exc);
+      }
+      if (filtered.getReplacements() > 0) {
+        logger.info(format(mpMessageBundle.getString("REPLACED_HTML_TAGS_STREAM"), filtered.getReplacements()));
+      }
+      break;
+    }
+    if (doc == null) {
+      throw new IOException(format(mpMessageBundle.getString("STREAM_PARSE_ERROR"), format));
+    }
+    return doc;
+  }
+
+
+  /**
+   * @param doc
+   * @param validate
+   *        whether to validate the polished document, independent of the
+   *        parameters
+   * @return
+   */
+  PolishingReport polish(SBMLDocument doc, boolean validate) {
+    PolishingReport.Builder report = new PolishingReport.Builder();
+    if (doc.isSetLevelAndVersion()) {
+      report.originalLevelAndVersion(doc.getLevel(), doc.getVersion());
+    }
+    long start = System.currentTimeMillis();
+    report.converted(!doc.isSetLevelAndVersion() || (doc.getLevelAndVersion().compareTo(ValuePair.of(3, 1)) < 0));
+    doc = checkLevelAndVersion(doc);
+    doc = new SBMLPolisher(parameters).polish(doc);
+    report.polishingTime(System.currentTimeMillis() - start);
+    if (parameters.getAnnotateWithBiGG()) {
+      start = System.currentTimeMillis();
+      doc = new BiGGAnnotation(parameters).annotate(doc);
+      report.annotated(true).annotationTime(System.currentTimeMillis() - start);
+    }
+    // Release per model state
+    if (doc.isSetModel()) {
+      SBMLUtils.cleanGPRMap(doc.getModel());
+      GPRParser.clearAssociationMap(doc.getModel());
+    }
+    if (validate) {
+      start = System.currentTimeMillis();
+      List<SBMLError> errors = SBMLValidator.validate(doc, parameters);
+      report.validation(errors, System.currentTimeMillis() - start);
+    }
+    return report.document(doc).build();
+  }
+
+
+  /**
+   * Make sure SBML Level and Version are 3.1, so that needed plugins work
+   *
+   * @param doc:
+   *        SBMLDocument
+   */
+  private SBMLDocument checkLevelAndVersion(SBMLDocument doc) {
+    if (!doc.isSetLevelAndVersion() || (doc.getLevelAndVersion().compareTo(ValuePair.of(3, 1)) < 0)) {
+      logger.info(mpMessageBundle.getString("TRY_CONV_LVL3_V1"));
+      SBMLtools.setLevelAndVersion(doc, 3, 1);
+    }
+    CobraToFbcV2Converter converter = new CobraToFbcV2Converter();
+    return converter.convert(doc);
+  }
+}
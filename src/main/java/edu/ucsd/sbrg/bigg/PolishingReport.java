@@ -0,0 +1,223 @@
+package edu.ucsd.sbrg.bigg;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.sbml.jsbml.SBMLDocument;
+import org.sbml.jsbml.SBMLError;
+
+/**
+ * Outcome of polishing a single document with {@link Polisher}: the polished
+ * document together with what has been done to it and the findings of the
+ * optional validation.
+ */
+public final class PolishingReport {
+
+  private final SBMLDocument document;
+  private final String modelId;
+  private final int originalLevel;
+  private final int originalVersion;
+  private final boolean converted;
+  private final boolean annotated;
+  private final long polishingTime;
+  private final long annotationTime;
+  private final long validationTime;
+  private final List<SBMLError> validationErrors;
+
+  /**
+   * @param builder
+   */
+  private PolishingReport(Builder builder) {
+    document = builder.document;
+    modelId = document.isSetModel() ? document.getModel().getId() : null;
+    originalLevel = builder.originalLevel;
+    originalVersion = builder.originalVersion;
+    converted = builder.converted;
+    annotated = builder.annotated;
+    polishingTime = builder.polishingTime;
+    annotationTime = builder.annotationTime;
+    validationTime = builder.validationTime;
+    validationErrors = builder.validationErrors;
+  }
+
+
+  /**
+   * @return the polished document
+   */
+  public SBMLDocument getDocument() {
+    return document;
+  }
+
+
+  /**
+   * @return id of the polished model, {@code null} if the document has no
+   *         model
+   */
+  public String getModelId() {
+    return modelId;
+  }
+
+
+  /**
+   * @return SBML level of the document before polishing, -1 if it was not set
+   */
+  public int getOriginalLevel() {
+    return originalLevel;
+  }
+
+
+  /**
+   * @return SBML version of the document before polishing, -1 if it was not
+   *         set
+   */
+  public int getOriginalVersion() {
+    return originalVersion;
+  }
+
+
+  /**
+   * @return {@code true} if the document has been converted to SBML Level 3
+   *         Version 1
+   */
+  public boolean isConverted() {
+    return converted;
+  }
+
+
+  /**
+   * @return {@code true} if the document has been annotated with the BiGG
+   *         database
+   */
+  public boolean isAnnotated() {
+    return annotated;
+  }
+
+
+  /**
+   * @return {@code true} if the polished document has been validated
+   */
+  public boolean isValidated() {
+    return validationErrors != null;
+  }
+
+
+  /**
+   * @return {@code true} if the validation found neither errors nor fatal
+   *         errors, warnings are ignored, or if the document has not been
+   *         validated
+   */
+  public boolean isValid() {
+    return SBMLValidator.countErrors(getValidationErrors()) == 0;
+  }
+
+
+  /**
+   * @return all problems found by the validation in the order they have been
+   *         reported, empty if the document has not been validated
+   */
+  public List<SBMLError> getValidationErrors() {
+    return validationErrors == null ? Collections.emptyList() : validationErrors;
+  }
+
+
+  /**
+   * @return time spent on conversion and polishing in milliseconds
+   */
+  public long getPolishingTime() {
+    return polishingTime;
+  }
+
+
+  /**
+   * @return time spent on annotation in milliseconds
+   */
+  public long getAnnotationTime() {
+    return annotationTime;
+  }
+
+
+  /**
+   * @return time spent on validation in milliseconds
+   */
+  public long getValidationTime() {
+    return validationTime;
+  }
+
+
+  /*
+   * (non-Javadoc)
+   * @see java.lang.Object#toString()
+   */
+  @Override
+  public String toString() {
+    return getClass().getSimpleName() + " [modelId=" + modelId + ", originalLevel=" + originalLevel
+      + ", originalVersion=" + originalVersion + ", converted=" + converted + ", annotated=" + annotated
+      + ", validationErrors=" + (isValidated() ? validationErrors.size() : "n/a") + ", polishingTime="
+      + polishingTime + ", annotationTime=" + annotationTime + ", validationTime=" + validationTime + "]";
+  }
+
+
+  /**
+   * Collects the results of the individual steps of {@link Polisher}
+   */
+  static final class Builder {
+
+    private SBMLDocument document;
+    private int originalLevel = -1;
+    private int originalVersion = -1;
+    private boolean converted;
+    private boolean annotated;
+    private long polishingTime;
+    private long annotationTime;
+    private long validationTime;
+    private List<SBMLError> validationErrors;
+
+    Builder document(SBMLDocument document) {
+      this.document = document;
+      return this;
+    }
+
+
+    Builder originalLevelAndVersion(int level, int version) {
+      originalLevel = level;
+      originalVersion = version;
+      return this;
+    }
+
+
+    Builder converted(boolean converted) {
+      this.converted = converted;
+      return this;
+    }
+
+
+    Builder annotated(boolean annotated) {
+      this.annotated = annotated;
+      return this;
+    }
+
+
+    Builder polishingTime(long polishingTime) {
+      this.polishingTime = polishingTime;
+      return this;
+    }
+
+
+    Builder annotationTime(long annotationTime) {
+      this.annotationTime = annotationTime;
+      return this;
+    }
+
+
+    Builder validation(List<SBMLError> errors, long validationTime) {
+      validationErrors = Collections.unmodifiableList(errors);
+      this.validationTime = validationTime;
+      return this;
+    }
+
+
+    PolishingReport build() {
+      return new PolishingReport(this);
+    }
+  }
+}
@@ -0,0 +1,382 @@
+package edu.ucsd.sbrg.bigg;
+
+import static edu.ucsd.sbrg.bigg.ModelPolisher.mpMessageBundle;
+import static java.text.MessageFormat.format;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.xml.stream.XMLStreamException;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import de.zbit.util.Utils;
+import de.zbit.util.prefs.KeyProvider;
+import de.zbit.util.prefs.Option;
+import de.zbit.util.prefs.SBProperties;
+import edu.ucsd.sbrg.db.AnnotateDB;
+import edu.ucsd.sbrg.db.BiGGDB;
+
+/**
+ * Keeps ModelPolisher running between models, so that the JVM, the MIRIAM
+ * registry and the database connection pools need to be initialized only once.
+ * Models are posted to {@link #POLISH_PATH} on the local host, the file name of
+ * the model is given by the query parameter {@link #NAME_PARAMETER}, all other
+ * query parameters are command-line options of {@link ModelPolisherOptions},
+ * e.g., {@code /polish?name=e_coli_core.xml&check-mass-balance=false}. Options
+ * not given by a request default to those the server was started with. Options
+ * that concern the server as a whole or name local files cannot be set by a
+ * request. The response contains the polished model, compressed if requested.
+ */
+class PolishingServer {
+
+  /**
+   * Path models are posted to
+   */
+  static final String POLISH_PATH = "/polish";
+  /**
+   * Path that answers {@code GET} requests as long as the server is running
+   */
+  static final String STATUS_PATH = "/status";
+  /**
+   * Query parameter for the file name of the posted model, which determines
+   * its format
+   */
+  static final String NAME_PARAMETER = "name";
+  private static final Logger logger = Logger.getLogger(PolishingServer.class.getName());
+  /**
+   * Options of {@link ModelPolisherOptions} that affect the server as a whole
+   * or name files on the server, which clients must not read through the
+   * polished models
+   */
+  private static final Set<String> SERVER_OPTIONS = Set.of(ModelPolisherOptions.THREADS.getOptionName(),
+    ModelPolisherOptions.INCREMENTAL.getOptionName(), ModelPolisherOptions.SERVER_PORT.getOptionName(),
+    ModelPolisherOptions.MODEL_NOTES_FILE.getOptionName(), ModelPolisherOptions.DOCUMENT_NOTES_FILE.getOptionName());
+  private final ModelProcessor processor;
+  private final SBProperties defaults;
+  private final Set<String> requestOptions = new HashSet<>();
+  private final Set<String> knownOptions = new HashSet<>();
+  private final HttpServer server;
+  private final ExecutorService executor;
+  private final int threads;
+  private final CountDownLatch stopped = new CountDownLatch(1);
+
+  /**
+   * Polishes a posted model
+   *
+   * @see ModelPolisher#polish(Parameters, File, File)
+   */
+  @FunctionalInterface
+  interface ModelProcessor {
+
+    /**
+     * @param parameters
+     * @param input
+     * @param outputDirectory
+     * @return the polished model or {@code null} if the input cannot be read
+     * @throws XMLStreamException
+     * @throws IOException
+     */
+    File polish(Parameters parameters, File input, File outputDirectory) throws XMLStreamException, IOException;
+  }
+
+  /**
+   * @param launcher
+   *        the running ModelPolisher, which provides the command-line options
+   *        and is copied for every request
+   * @param defaults
+   *        options the server was started with
+   * @param port
+   * @param threads
+   *        number of requests processed concurrently
+   * @throws IOException
+   *         if the port cannot be bound
+   */
+  PolishingServer(ModelPolisher launcher, SBProperties defaults, int port, int threads) throws IOException {
+    this(launcher.getCmdLineOptions(), launcher::polish, launcher.getVersionNumber(), defaults, port, threads);
+  }
+
+
+  /**
+   * @param providers
+   *        command-line options
+   * @param processor
+   *        polishes the posted models
+   * @param version
+   *        answer to status requests
+   * @param defaults
+   *        options the server was started with
+   * @param port
+   * @param threads
+   *        number of requests processed concurrently
+   * @throws IOException
+   *         if the port cannot be bound
+   */
+  @SuppressWarnings("rawtypes")
+  PolishingServer(List<Class<? extends KeyProvider>> providers, ModelProcessor processor, String version,
+    SBProperties defaults, int port, int threads) throws IOException {
+    this.processor = processor;
+    this.defaults = defaults;
+    for (Class<? extends KeyProvider> provider : providers) {
+      for (Option option : KeyProvider.Tools.optionList(provider)) {
+        knownOptions.add(option.getOptionName());
+        if ((provider == ModelPolisherOptions.class) && !SERVER_OPTIONS.contains(option.getOptionName())) {
+          requestOptions.add(option.getOptionName());
+        }
+      }
+    }
+    server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+    this.threads = threads;
+    executor = Executors.newFixedThreadPool(threads);
+    server.setExecutor(executor);
+    server.createContext(POLISH_PATH, this::handlePolish);
+    server.createContext(STATUS_PATH, exchange -> respond(exchange, 200, version));
+  }
+
+
+  /**
+   * Initializes the MIRIAM registry and starts accepting requests
+   */
+  void start() {
+    try {
+      Class.forName("edu.ucsd.sbrg.miriam.Registry");
+    } catch (ClassNotFoundException exc) {
+      throw new IllegalStateException(exc);
+    }
+    server.start();
+    logger.info(format(mpMessageBundle.getString("SERVER_STARTED"), server.getAddress().getPort(), POLISH_PATH,
+      threads));
+  }
+
+
+  /**
+   * Stops accepting requests and waits up to a minute for running requests
+   */
+  void stop() {
+    stop(60);
+  }
+
+
+  /**
+   * Stops accepting requests
+   *
+   * @param delay
+   *        seconds to wait for running requests
+   */
+  void stop(int delay) {
+    server.stop(delay);
+    executor.shutdownNow();
+    logger.info(mpMessageBundle.getString("SERVER_STOPPED"));
+    stopped.countDown();
+  }
+
+
+  /**
+   * Blocks until {@link #stop()} is called
+   *
+   * @throws InterruptedException
+   */
+  void awaitTermination() throws InterruptedException {
+    stopped.await();
+  }
+
+
+  /**
+   * @return port the server listens on
+   */
+  int getPort() {
+    return server.getAddress().getPort();
+  }
+
+
+  /**
+   * @param exchange
+   * @throws IOException
+   */
+  private void handlePolish(HttpExchange exchange) throws IOException {
+    if (!"POST".equals(exchange.getRequestMethod())) {
+      exchange.getResponseHeaders().set("Allow", "POST");
+      respond(exchange, 405, "Models have to be posted to " + POLISH_PATH);
+      return;
+    }
+    long start = System.currentTimeMillis();
+    Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+    String name = new File(query.getOrDefault(NAME_PARAMETER, "")).getName();
+    Path directory = null;
+    try {
+      if (name.isEmpty()) {
+        throw new IllegalArgumentException("Missing query parameter '" + NAME_PARAMETER + "'");
+      }
+      Parameters parameters = Parameters.of(getOptions(query));
+      if (parameters.getAnnotateWithBiGG() && !BiGGDB.inUse()) {
+        throw new IllegalArgumentException("The server has not been started with a BiGG database");
+      }
+      if (parameters.getAddADBAnnotations() && !AnnotateDB.inUse()) {
+        throw new IllegalArgumentException("The server has not been started with AnnotateDB");
+      }
+      directory = Files.createTempDirectory("ModelPolisher");
+      File input = new File(Files.createDirectory(directory.resolve("input")).toFile(), name);
+      File output = Files.createDirectory(directory.resolve("output")).toFile();
+      try (InputStream body = exchange.getRequestBody()) {
+        Files.copy(body, input.toPath());
+      }
+      File polished = processor.polish(parameters, input, output);
+      if (polished == null) {
+        respond(exchange, 422, "Could not read model " + name);
+        return;
+      }
+      exchange.getResponseHeaders().set("Content-Type", contentType(polished));
+      exchange.getResponseHeaders().set("Content-Disposition", "attachment; filename=\"" + polished.getName() + "\"");
+      exchange.sendResponseHeaders(200, polished.length());
+      try (OutputStream body = exchange.getResponseBody()) {
+        Files.copy(polished.toPath(), body);
+      }
+      logger.info(format(mpMessageBundle.getString("SERVER_REQUEST_DONE"), name, System.currentTimeMillis() - start));
+    } catch (IllegalArgumentException exc) {
+      logger.warning(format(mpMessageBundle.getString("SERVER_REQUEST_FAILED"), name, Utils.getMessage(exc)));
+      respond(exchange, 400, Utils.getMessage(exc));
+    } catch (Exception exc) {
+      logger.warning(format(mpMessageBundle.getString("SERVER_REQUEST_FAILED"), name, Utils.getMessage(exc)));
+      respond(exchange, 500, Utils.getMessage(exc));
+    } finally {
+      exchange.close();
+      if (directory != null) {
+        delete(directory);
+      }
+    }
+  }
+
+
+  /**
+   * @param query
+   *        parameters of a request
+   * @return the options the server was started with, overridden by the
+   *         options of the request
+   * @throws IllegalArgumentException
+   *         if the request contains an unknown option
+   */
+  SBProperties getOptions(Map<String, String> query) {
+    SBProperties options = defaults.clone();
+    for (Map.Entry<String, String> parameter : query.entrySet()) {
+      if (parameter.getKey().equals(NAME_PARAMETER)) {
+        continue;
+      }
+      String option = toOptionName(parameter.getKey());
+      if (requestOptions.contains(option)) {
+        options.put(option, parameter.getValue());
+      } else if (knownOptions.contains(option)) {
+        logger.fine(format(mpMessageBundle.getString("SERVER_IGNORED_OPTION"), parameter.getKey()));
+      } else {
+        throw new IllegalArgumentException("Unknown option '" + parameter.getKey() + "'");
+      }
+    }
+    return options;
+  }
+
+
+  /**
+   * @param parameter
+   *        command-line style option, e.g., {@code --check-mass-balance}
+   * @return name of the option, e.g., {@code CHECK_MASS_BALANCE}
+   */
+  static String toOptionName(String parameter) {
+    int start = 0;
+    while ((start < parameter.length()) && (parameter.charAt(start) == '-')) {
+      start++;
+    }
+    return parameter.substring(start).replace('-', '_').toUpperCase();
+  }
+
+
+  /**
+   * @param query
+   *        raw query of a request URI, may be {@code null}
+   * @return decoded query parameters, a parameter without value is mapped to
+   *         {@code true}
+   */
+  static Map<String, String> parseQuery(String query) {
+    Map<String, String> parameters = new HashMap<>();
+    if ((query == null) || query.isEmpty()) {
+      return parameters;
+    }
+    for (String parameter : query.split("&")) {
+      if (parameter.isEmpty()) {
+        continue;
+      }
+      int separator = parameter.indexOf('=');
+      String key = separator < 0 ? parameter : parameter.substring(0, separator);
+      String value = separator < 0 ? "true" : parameter.substring(separator + 1);
+      parameters.put(URLDecoder.decode(key, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+    }
+    return parameters;
+  }
+
+
+  /**
+   * @param file
+   * @return
+   */
+  private static String contentType(File file) {
+    String name = file.getName().toLowerCase();
+    if (name.endsWith(".gz")) {
+      return "application/gzip";
+    } else if (name.endsWith(".zip")) {
+      return "application/zip";
+    }
+    return "application/xml";
+  }
+
+
+  /**
+   * @param exchange
+   * @param status
+   * @param message
+   * @throws IOException
+   */
+  private static void respond(HttpExchange exchange, int status, String message) throws IOException {
+    byte[] bytes = (message + "\n").getBytes(StandardCharsets.UTF_8);
+    exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=UTF-8");
+    exchange.sendResponseHeaders(status, bytes.length);
+    try (OutputStream body = exchange.getResponseBody()) {
+      body.write(bytes);
+    }
+  }
+
+
+  /**
+   * Deletes the temporary files of a request
+   *
+   * @param directory
+   */
+  private static void delete(Path directory) {
+    try (Stream<Path> paths = Files.walk(directory)) {
+      List<Path> files = paths.sorted(Comparator.reverseOrder()).collect(Collectors.toList());
+      for (Path file : files) {
+        Files.deleteIfExists(file);
+      }
+    } catch (IOException exc) {
+      logger.fine(format("{0}: {1}", exc.getClass().getName(), Utils.getMessage(exc)));
+    }
+  }
+}
@@ -19,11 +19,16 @@ import static java.text.MessageFormat.format;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.ResourceBundle;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
 import java.util.logging.Logger;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 import org.sbml.jsbml.CVTerm;
 import org.sbml.jsbml.Compartment;
@@ -53,11 +58,10 @@ import org.sbml.jsbml.util.ModelBuilder;
 import org.sbml.jsbml.util.ResourceManager;
 import org.sbml.jsbml.xml.XMLNode;
 
-import de.zbit.kegg.AtomBalanceCheck;
-import de.zbit.kegg.AtomBalanceCheck.AtomCheckResult;
 import de.zbit.util.progressbar.AbstractProgressBar;
 import de.zbit.util.progressbar.ProgressBar;
 import edu.ucsd.sbrg.miriam.Registry;
+import edu.ucsd.sbrg.util.AtomBalance;
 import edu.ucsd.sbrg.util.GPRParser;
 import edu.ucsd.sbrg.util.SBMLFix;
 import edu.ucsd.sbrg.util.SBMLUtils;
@@ -96,6 +100,15 @@ public class SBMLPolisher {
    * A {@link Logger} for this class.
    */
   public static final transient Logger logger = Logger.getLogger(SBMLPolisher.class.getName());
+  /**
+   * Lower bound of the number of list elements prepared as one part
+   */
+  private static final int MIN_CHUNK_SIZE = 32;
+  /**
+   * Number of parts the elements are split into for each thread of the pool,
+   * so that threads finishing early can take over parts from others
+   */
+  private static final int CHUNKS_PER_THREAD = 4;
   /**
    *
    */
@@ -121,6 +134,14 @@ public class SBMLPolisher {
    *
    */
   private String[] fluxObjectives;
+  /**
+   *
+   */
+  private String documentTitlePattern;
+  /**
+   * Switch to decide if the elements of a list are prepared in parallel
+   */
+  private boolean parallelPolishing;
 
   /**
    *
@@ -130,6 +151,21 @@ public class SBMLPolisher {
   }
 
 
+  /**
+   * @param parameters
+   *        options of the models to polish
+   */
+  public SBMLPolisher(Parameters parameters) {
+    checkMassBalance = parameters.getCheckMassBalance();
+    omitGenericTerms = parameters.getOmitGenericTerms();
+    includeAnyURI = parameters.getIncludeAnyURI();
+    documentTitlePattern = parameters.getDocumentTitlePattern();
+    fluxCoefficients = parameters.getFluxCoefficients();
+    fluxObjectives = parameters.getFluxObjectives();
+    parallelPolishing = parameters.getParallelPolishing();
+  }
+
+
   /**
    * @return the checkMassBalance
    */
@@ -203,6 +239,51 @@ public class SBMLPolisher {
   }
 
 
+  /**
+   * Polishes the given elements in two phases: each element is first prepared,
+   * which may only change the element itself and look up others, and then
+   * merged, which applies all changes that affect other elements of the model,
+   * such as new identifiers, new or removed elements and log messages. With
+   * {@link #parallelPolishing}, the preparations run in chunks on the common
+   * {@link ForkJoinPool}, while the merges always run on the calling thread in
+   * the order of the given elements, so that the polished model does not
+   * depend on the number of threads.
+   *
+   * @param elements
+   *        a snapshot of the list to polish, so that merges may remove elements
+   *        from the model
+   * @param preparation
+   *        prepares an element and returns its merge
+   * @param message
+   *        for the progress bar
+   * @return the results of all merges in the order of the elements
+   */
+  private <T, R> List<R> polishElements(List<T> elements, Function<T, Supplier<R>> preparation, String message) {
+    List<R> results = new ArrayList<>(elements.size());
+    if (!parallelPolishing || (elements.size() <= MIN_CHUNK_SIZE)) {
+      for (T element : elements) {
+        progress.DisplayBar(message);
+        results.add(preparation.apply(element).get());
+      }
+      return results;
+    }
+    ForkJoinPool pool = ForkJoinPool.commonPool();
+    int chunkSize = Math.max(MIN_CHUNK_SIZE, elements.size() / (CHUNKS_PER_THREAD * pool.getParallelism()));
+    List<List<T>> chunks = new ArrayList<>();
+    for (int i = 0; i < elements.size(); i += chunkSize) {
+      chunks.add(elements.subList(i, Math.min(i + chunkSize, elements.size())));
+    }
+    List<Supplier<R>> merges = pool.submit(
+      () -> chunks.parallelStream().flatMap(chunk -> chunk.stream().map(preparation)).collect(Collectors.toList()))
+                                   .join();
+    for (Supplier<R> merge : merges) {
+      progress.DisplayBar(message);
+      results.add(merge.get());
+    }
+    return results;
+  }
+
+
   /**
    * @param model
    */
@@ -318,11 +399,7 @@ public class SBMLPolisher {
    * @param model
    */
   public void polishListOfCompartments(Model model) {
-    for (int i = 0; i < model.getCompartmentCount(); i++) {
-      Compartment c = model.getCompartment(i);
-      progress.DisplayBar("Polishing Compartments (3/9)  "); // "Processing compartment " + c.getId());
-      polish(c);
-    }
+    polishElements(new ArrayList<>(model.getListOfCompartments()), this::prepare, "Polishing Compartments (3/9)  ");
   }
 
 
@@ -330,11 +407,32 @@ public class SBMLPolisher {
    * @param c
    */
   public void polish(Compartment c) {
+    prepare(c).get();
+  }
+
+
+  /**
+   * @param c
+   * @return the merge, which polishes the compartment
+   */
+  private Supplier<Compartment> prepare(Compartment c) {
+    Optional<String> compartmentCode = c.isSetId() ? BiGGId.extractCompartmentCode(c.getId()) : Optional.empty();
+    return () -> polish(c, compartmentCode);
+  }
+
+
+  /**
+   * @param c
+   * @param compartmentCode
+   *        the code extracted from the id of the compartment, if any
+   * @return the polished compartment
+   */
+  private Compartment polish(Compartment c, Optional<String> compartmentCode) {
     if (!c.isSetId()) {
       c.setId("d"); // default
     } else {
       // remove C_ prefix of compartment code, not in BiGGId specification
-      BiGGId.extractCompartmentCode(c.getId()).ifPresentOrElse(c::setId,
+      compartmentCode.ifPresentOrElse(c::setId,
         () -> logger.warning(String.format("CompartmentCode '%s' is not BiGGId conform.", c.getId())));
     }
     c.setSBOTerm(410); // implicit compartment
@@ -363,6 +461,7 @@ public class SBMLPolisher {
         c.setUnits(Unit.Kind.DIMENSIONLESS);
       }
     }
+    return c;
   }
 
 
@@ -370,13 +469,10 @@ public class SBMLPolisher {
    * @param model
    */
   public void polishListOfSpecies(Model model) {
-    List<Species> speciesToRemove = new ArrayList<>();
-    for (Species species : model.getListOfSpecies()) {
-      progress.DisplayBar("Polishing Species (4/9)  "); // "Processing species " + species.getId());
-      polish(species).ifPresent(speciesToRemove::add);
-    }
-    for (Species species : speciesToRemove) {
-      model.removeSpecies(species);
+    List<Optional<Species>> speciesToRemove =
+      polishElements(new ArrayList<>(model.getListOfSpecies()), this::prepare, "Polishing Species (4/9)  ");
+    for (Optional<Species> species : speciesToRemove) {
+      species.ifPresent(model::removeSpecies);
     }
   }
 
@@ -385,18 +481,60 @@ public class SBMLPolisher {
    * @param species
    */
   public Optional<Species> polish(Species species) {
+    return prepare(species).get();
+  }
+
+
+  /**
+   * @param species
+   * @return the merge, which polishes the species and returns it if it has to
+   *         be removed from the model
+   */
+  private Supplier<Optional<Species>> prepare(Species species) {
     String id = species.getId();
     if (id.isEmpty()) {
-      // remove species with missing id, produces invalid SBML
-      if (species.isSetName()) {
-        logger.severe(String.format(
-          "Removing species '%s' due to missing id. Check your Model for entries missing the id attribute or duplicates.",
-          species.getName()));
-      } else {
-        logger.severe("Removing species with missing id and name. Check your Model for species without id and name.");
-      }
-      return Optional.of(species);
+      return () -> remove(species);
+    }
+    String abbreviation = id.endsWith("_boundary") ? id.substring(0, id.length() - 9) : id;
+    Optional<BiGGId> biggId = BiGGId.createMetaboliteId(abbreviation);
+    // the compartment can only be derived from the id if it is not set yet
+    Optional<BiGGId> compartmentId = species.isSetCompartment() ? Optional.empty()
+      : abbreviation.equals(id) ? biggId : BiGGId.createMetaboliteId(id);
+    return () -> {
+      polish(species, biggId, compartmentId);
+      return Optional.empty();
+    };
+  }
+
+
+  /**
+   * @param species
+   *        without id
+   * @return the species to remove
+   */
+  private Optional<Species> remove(Species species) {
+    // remove species with missing id, produces invalid SBML
+    if (species.isSetName()) {
+      logger.severe(String.format(
+        "Removing species '%s' due to missing id. Check your Model for entries missing the id attribute or duplicates.",
+        species.getName()));
+    } else {
+      logger.severe("Removing species with missing id and name. Check your Model for species without id and name.");
     }
+    return Optional.of(species);
+  }
+
+
+  /**
+   * @param species
+   * @param biggId
+   *        created from the id of the species without the suffix
+   *        {@code _boundary}
+   * @param compartmentId
+   *        created from the full id of the species to derive its compartment
+   */
+  private void polish(Species species, Optional<BiGGId> biggId, Optional<BiGGId> compartmentId) {
+    String id = species.getId();
     if (species.getId().endsWith("_boundary")) {
       logger.warning(format(mpMessageBundle.getString("SPECIES_ID_INVALID"), id));
       id = id.substring(0, id.length() - 9);
@@ -423,16 +561,15 @@ public class SBMLPolisher {
     if ((species.getCVTermCount() > 0) && !species.isSetMetaId()) {
       species.setMetaId(species.getId());
     }
-    BiGGId.createMetaboliteId(id).ifPresent(biggId -> {
-      if (biggId.isSetCompartmentCode() && species.isSetCompartment()
-        && !biggId.getCompartmentCode().equals(species.getCompartment())) {
+    biggId.ifPresent(metaboliteId -> {
+      if (metaboliteId.isSetCompartmentCode() && species.isSetCompartment()
+        && !metaboliteId.getCompartmentCode().equals(species.getCompartment())) {
         logger.warning(format(mpMessageBundle.getString("CHANGE_COMPART_REFERENCE"), species.getId(),
-          species.getCompartment(), biggId.getCompartmentCode()));
-        species.setCompartment(biggId.getCompartmentCode());
+          species.getCompartment(), metaboliteId.getCompartmentCode()));
+        species.setCompartment(metaboliteId.getCompartmentCode());
       }
     });
-    checkCompartment(species);
-    return Optional.empty();
+    checkCompartment(species, compartmentId);
   }
 
 
@@ -440,34 +577,38 @@ public class SBMLPolisher {
    * @param nsb
    */
   public void checkCompartment(NamedSBase nsb) {
-    if ((nsb instanceof Species) && !((Species) nsb).isSetCompartment()) {
-      Optional<BiGGId> biggId = BiGGId.createMetaboliteId(nsb.getId());
-      boolean setCompartment = false;
-      if (biggId.isPresent()) {
-        if (biggId.get().isSetCompartmentCode()) {
-          ((Species) nsb).setCompartment(biggId.get().getCompartmentCode());
-          setCompartment = true;
-        }
-      }
-      if (!setCompartment) {
-        return;
-      }
-    } else if ((nsb instanceof Reaction) && !((Reaction) nsb).isSetCompartment()) {
-      return;
-    }
     if (nsb instanceof Species) {
-      String cId = ((Species) nsb).getCompartment();
-      Model model = nsb.getModel();
-      SBase candidate = model.findUniqueNamedSBase(cId);
-      if (candidate instanceof Compartment) {
-        // compartment can't be null here, instanceof would evaluate to false
-        Compartment c = (Compartment) candidate;
-        polish(c);
-      } else if (candidate == null) {
-        logger.warning(
-          format(mpMessageBundle.getString("CREATE_MISSING_COMP"), cId, nsb.getId(), nsb.getElementName()));
-        polish(model.createCompartment(cId));
+      Species species = (Species) nsb;
+      checkCompartment(species,
+        species.isSetCompartment() ? Optional.empty() : BiGGId.createMetaboliteId(species.getId()));
+    }
+  }
+
+
+  /**
+   * @param species
+   * @param biggId
+   *        created from the id of the species, only used if the species has
+   *        no compartment
+   */
+  private void checkCompartment(Species species, Optional<BiGGId> biggId) {
+    if (!species.isSetCompartment()) {
+      if (biggId.isEmpty() || !biggId.get().isSetCompartmentCode()) {
+        return;
       }
+      species.setCompartment(biggId.get().getCompartmentCode());
+    }
+    String cId = species.getCompartment();
+    Model model = species.getModel();
+    SBase candidate = model.findUniqueNamedSBase(cId);
+    if (candidate instanceof Compartment) {
+      // compartment can't be null here, instanceof would evaluate to false
+      Compartment c = (Compartment) candidate;
+      polish(c);
+    } else if (candidate == null) {
+      logger.warning(
+        format(mpMessageBundle.getString("CREATE_MISSING_COMP"), cId, species.getId(), species.getElementName()));
+      polish(model.createCompartment(cId));
     }
   }
 
@@ -477,66 +618,130 @@ public class SBMLPolisher {
    * @return
    */
   public boolean polishListOfReactions(Model model) {
-    boolean strict = true;
-    for (int i = 0; i < model.getReactionCount(); i++) {
-      Reaction r = model.getReaction(i);
-      strict &= polish(r);
-      progress.DisplayBar("Polishing Reactions (5/9)  "); // "Processing reaction " + r.getId());
-    }
-    return strict;
+    // parses the formulas of all species once for all reactions
+    AtomBalance atomBalance = isCheckMassBalance() ? new AtomBalance(model) : null;
+    List<Boolean> strict = polishElements(new ArrayList<>(model.getListOfReactions()), r -> prepare(r, atomBalance),
+      "Polishing Reactions (5/9)  ");
+    return strict.stream().allMatch(Boolean::booleanValue);
   }
 
 
   /**
+   * Polishes a single reaction, which parses the formulas of all species of its
+   * model, use {@link #polishListOfReactions(Model)} for all reactions of a
+   * model.
+   *
    * @param r
    * @return {@code true} if the given reaction qualifies for strict FBC.
    */
   public boolean polish(Reaction r) {
+    return prepare(r, isCheckMassBalance() ? new AtomBalance(r.getModel()) : null).get();
+  }
+
+
+  /**
+   * Sets the attributes of the reaction and its species references that do not
+   * depend on other reactions and checks its atom balance.
+   *
+   * @param r
+   * @param atomBalance
+   *        for the model of the reaction, {@code null} if the mass balance is
+   *        not checked
+   * @return the merge, which returns {@code true} if the given reaction
+   *         qualifies for strict FBC.
+   */
+  private Supplier<Boolean> prepare(Reaction r, AtomBalance atomBalance) {
     String id = r.getId();
     if (id.isEmpty()) {
-      // remove species with missing id, produces invalid SBML
-      if (r.isSetName()) {
-        logger.severe(String.format(
-          "Removing reaction '%s' due to missing id. Check your Model for entries missing the id attribute or duplicates.",
-          r.getName()));
-      } else {
-        logger.severe("Removing reaction with missing id and name. Check your Model for reaction without id and name.");
-      }
-      r.getModel().removeReaction(r);
-      return false;
+      return () -> remove(r);
     }
     BiGGId.createReactionId(id).ifPresent(biggId -> setSBOTermFromPattern(r, biggId));
     // TODO: make code more robust -> 'conflicting compartment codes?'
+    List<String> invalidReferences = new ArrayList<>();
     String compartmentId = r.isSetCompartment() ? r.getCompartment() : null;
     if (r.isSetListOfReactants()) {
-      String cId = polish(r.getListOfReactants(), SBO.getReactant());
+      String cId = polish(r.getListOfReactants(), SBO.getReactant(), invalidReferences);
       compartmentId = checkCId(cId, compartmentId);
       if (compartmentId != null) {
         r.setCompartment(compartmentId);
       }
     }
     if (r.isSetListOfProducts()) {
-      String cId = polish(r.getListOfProducts(), SBO.getProduct());
+      String cId = polish(r.getListOfProducts(), SBO.getProduct(), invalidReferences);
       compartmentId = checkCId(cId, compartmentId);
       if (compartmentId != null) {
         r.setCompartment(compartmentId);
       }
     }
-    if (!r.isSetMetaId() && (r.getCVTermCount() > 0)) {
-      r.setMetaId(r.getId());
-    }
     String rName = r.getName();
     if (rName.matches(".*_copy\\d*")) {
       rName = rName.substring(0, rName.lastIndexOf('_'));
       r.setName(rName);
     }
+    if (!r.isSetFast()) {
+      r.setFast(false);
+    }
+    if (!r.isSetReversible()) {
+      r.setReversible(false);
+    }
+    boolean participants = (r.getReactantCount() > 0) || (r.getProductCount() > 0);
+    if (participants) {
+      setDemandSBOTerm(r);
+    }
+    boolean atomsChecked = participants && isAtomBalanceChecked(r);
+    Map<String, Integer> defects = atomsChecked ? atomBalance.check(r) : null;
+    return () -> polish(r, invalidReferences, atomsChecked, defects);
+  }
+
+
+  /**
+   * @param r
+   *        without id
+   * @return {@code false}, as the model is not strict without the reaction
+   */
+  private boolean remove(Reaction r) {
+    // remove species with missing id, produces invalid SBML
+    if (r.isSetName()) {
+      logger.severe(String.format(
+        "Removing reaction '%s' due to missing id. Check your Model for entries missing the id attribute or duplicates.",
+        r.getName()));
+    } else {
+      logger.severe("Removing reaction with missing id and name. Check your Model for reaction without id and name.");
+    }
+    r.getModel().removeReaction(r);
+    return false;
+  }
+
+
+  /**
+   * @param r
+   * @param invalidReferences
+   *        species referenced by the reaction that are not part of the model
+   * @param atomsChecked
+   *        if the atom balance of the reaction has been checked
+   * @param defects
+   *        the result of the atom balance check, see
+   *        {@link AtomBalance#check(Reaction)}
+   * @return {@code true} if the given reaction qualifies for strict FBC.
+   */
+  private boolean polish(Reaction r, List<String> invalidReferences, boolean atomsChecked,
+    Map<String, Integer> defects) {
+    for (String species : invalidReferences) {
+      logger.info(format(mpMessageBundle.getString("SPECIES_REFERENCE_INVALID"), species));
+    }
+    if (!r.isSetMetaId() && (r.getCVTermCount() > 0)) {
+      r.setMetaId(r.getId());
+    }
     SBMLUtils.setRequiredAttributes(r);
     // This is a check if we are producing invalid SBML.
     if ((r.getReactantCount() == 0) && (r.getProductCount() == 0)) {
       ResourceBundle bundle = ResourceManager.getBundle("org.sbml.jsbml.resources.cfg.Messages");
       logger.severe(format(bundle.getString("SBMLCoreParser.reactionWithoutParticipantsError"), r.getId()));
     } else {
-      checkBalance(r);
+      if (atomsChecked) {
+        logAtomBalance(r, defects);
+      }
+      GPRParser.convertAssociationsToFBCV2(r, omitGenericTerms);
     }
     fluxObjectiveFromLocalParameter(r);
     associationFromNotes(r);
@@ -570,9 +775,12 @@ public class SBMLPolisher {
   /**
    * @param speciesReferences
    * @param defaultSBOterm
+   * @param invalidReferences
+   *        collects the referenced species that are not part of the model
    * @return
    */
-  private String polish(ListOf<SpeciesReference> speciesReferences, int defaultSBOterm) {
+  private String polish(ListOf<SpeciesReference> speciesReferences, int defaultSBOterm,
+    List<String> invalidReferences) {
     String compartmentId = "";
     Model model = speciesReferences.getModel();
     for (SpeciesReference sr : speciesReferences) {
@@ -591,7 +799,7 @@ public class SBMLPolisher {
           compartmentId = species.getCompartment();
         }
       } else {
-        logger.info(format(mpMessageBundle.getString("SPECIES_REFERENCE_INVALID"), sr.getSpecies()));
+        invalidReferences.add(sr.getSpecies());
       }
     }
     if ((compartmentId == null) || compartmentId.isEmpty()) {
@@ -623,7 +831,7 @@ public class SBMLPolisher {
   /**
    * @param r
    */
-  private void checkBalance(Reaction r) {
+  private void setDemandSBOTerm(Reaction r) {
     // TODO: change messages
     if (!r.isSetSBOTerm()) {
       // The reaction has not been recognized as demand or exchange reaction
@@ -644,19 +852,34 @@ public class SBMLPolisher {
         }
       }
     }
-    if (isCheckMassBalance() && ((r.getSBOTerm() < 627) || (630 < r.getSBOTerm()))) {
-      // check atom balance only if the reaction is not identified as biomass
-      // production, demand, exchange or ATP maintenance.
-      AtomCheckResult<Reaction> defects = AtomBalanceCheck.checkAtomBalance(r, 1);
-      if ((defects != null) && (defects.hasDefects())) {
-        logger.warning(format(mpMessageBundle.getString("ATOMS_MISSING"), r.getId(), defects.getDefects().toString()));
-      } else if (defects == null) {
-        logger.fine(format(mpMessageBundle.getString("CHECK_ATOM_BALANCE_FAILED"), r.getId()));
-      } else {
-        logger.fine(format(mpMessageBundle.getString("ATOMS_OK"), r.getId()));
-      }
+  }
+
+
+  /**
+   * The atom balance is only checked if the reaction is not identified as
+   * biomass production, demand, exchange or ATP maintenance.
+   *
+   * @param r
+   * @return {@code true} if the atom balance of the reaction is checked
+   */
+  private boolean isAtomBalanceChecked(Reaction r) {
+    return isCheckMassBalance() && ((r.getSBOTerm() < 627) || (630 < r.getSBOTerm()));
+  }
+
+
+  /**
+   * @param r
+   * @param defects
+   *        the result of the atom balance check of the reaction
+   */
+  private void logAtomBalance(Reaction r, Map<String, Integer> defects) {
+    if ((defects != null) && !defects.isEmpty()) {
+      logger.warning(format(mpMessageBundle.getString("ATOMS_MISSING"), r.getId(), defects.toString()));
+    } else if (defects == null) {
+      logger.fine(format(mpMessageBundle.getString("CHECK_ATOM_BALANCE_FAILED"), r.getId()));
+    } else {
+      logger.fine(format(mpMessageBundle.getString("ATOMS_OK"), r.getId()));
     }
-    GPRParser.convertAssociationsToFBCV2(r, omitGenericTerms);
   }
 
 
@@ -709,7 +932,7 @@ public class SBMLPolisher {
               if (splits.length == 2) {
                 String association = splits[1];
                 if (!association.isEmpty()) {
-                  GPRParser.parseGPR(r, association, Parameters.get().getOmitGenericTerms());
+                  GPRParser.parseGPR(r, association, omitGenericTerms);
                 }
               }
             }
@@ -968,10 +1191,8 @@ public class SBMLPolisher {
    * @param fbcModelPlug
    */
   public void polishListOfGeneProducts(FBCModelPlugin fbcModelPlug) {
-    for (GeneProduct geneProduct : fbcModelPlug.getListOfGeneProducts()) {
-      progress.DisplayBar("Polishing Gene Products (8/9)  ");
-      polish(geneProduct);
-    }
+    polishElements(new ArrayList<>(fbcModelPlug.getListOfGeneProducts()), this::prepare,
+      "Polishing Gene Products (8/9)  ");
   }
 
 
@@ -979,6 +1200,15 @@ public class SBMLPolisher {
    * @param geneProduct
    */
   public void polish(GeneProduct geneProduct) {
+    prepare(geneProduct).get();
+  }
+
+
+  /**
+   * @param geneProduct
+   * @return the merge, which renames the gene product and sets its name
+   */
+  private Supplier<GeneProduct> prepare(GeneProduct geneProduct) {
     String label = null;
     if (geneProduct.isSetLabel() && !geneProduct.getLabel().equalsIgnoreCase("None")) {
       label = geneProduct.getLabel();
@@ -986,20 +1216,24 @@ public class SBMLPolisher {
       label = geneProduct.getId();
     }
     if (label == null) {
-      return;
-    }
-    BiGGId.createGeneId(geneProduct.getId()).ifPresent(biggId -> {
-      String id = biggId.toBiGGId();
-      if (!id.equals(geneProduct.getId())) {
-        geneProduct.setId(id);
-      }
-      if (geneProduct.getCVTermCount() > 0) {
-        geneProduct.setMetaId(id);
+      return () -> geneProduct;
+    }
+    Optional<String> biggId = BiGGId.createGeneId(geneProduct.getId()).map(BiGGId::toBiGGId);
+    String name = label;
+    return () -> {
+      biggId.ifPresent(id -> {
+        if (!id.equals(geneProduct.getId())) {
+          geneProduct.setId(id);
+        }
+        if (geneProduct.getCVTermCount() > 0) {
+          geneProduct.setMetaId(id);
+        }
+      });
+      if (!geneProduct.isSetName() || geneProduct.getName().equalsIgnoreCase("None")) {
+        geneProduct.setName(name);
       }
-    });
-    if (!geneProduct.isSetName() || geneProduct.getName().equalsIgnoreCase("None")) {
-      geneProduct.setName(label);
-    }
+      return geneProduct;
+    };
   }
 
 
@@ -1007,22 +1241,25 @@ public class SBMLPolisher {
    * @param model
    */
   public void polishListOfParameters(Model model) {
-    for (int i = 0; i < model.getParameterCount(); i++) {
-      Parameter parameter = model.getParameter(i);
-      progress.DisplayBar("Polishing Parameters (9/9)  ");
-      polish(parameter);
-    }
+    polishElements(new ArrayList<>(model.getListOfParameters()), this::prepare, "Polishing Parameters (9/9)  ");
   }
 
 
   /**
    * @param p
+   * @return the merge, which sets the name of the parameter
    */
-  private void polish(Parameter p) {
-    if (p.isSetId() && !p.isSetName()) {
-      // TODO: what is happening here?
-      p.setName(polishName(p.getId()));
-    }
+  private Supplier<Parameter> prepare(Parameter p) {
+    if (!p.isSetId() || p.isSetName()) {
+      return () -> p;
+    }
+    // TODO: what is happening here?
+    String name = createName(p.getId());
+    return () -> {
+      logNameChange(p.getId(), name);
+      p.setName(name);
+      return p;
+    };
   }
 
 
@@ -1031,6 +1268,17 @@ public class SBMLPolisher {
    * @return
    */
   public static String polishName(String name) {
+    String newName = createName(name);
+    logNameChange(name, newName);
+    return newName;
+  }
+
+
+  /**
+   * @param name
+   * @return the polished name without logging the change
+   */
+  private static String createName(String name) {
     // can this be replaced by BiGGId creation?
     String newName = name;
     if (name.startsWith("?_")) {
@@ -1046,10 +1294,18 @@ public class SBMLPolisher {
         newName.substring(0, newName.lastIndexOf('_')) + " - " + newName.substring(newName.lastIndexOf('_') + 1);
     }
     newName = newName.replace("_", " ");
+    return newName;
+  }
+
+
+  /**
+   * @param name
+   * @param newName
+   */
+  private static void logNameChange(String name, String newName) {
     if (!newName.equals(name)) {
       logger.fine(format(mpMessageBundle.getString("CHANGED_NAME"), name, newName));
     }
-    return newName;
   }
 
 
@@ -1085,13 +1341,20 @@ public class SBMLPolisher {
   }
 
 
+  /**
+   * @return the pattern for the document title
+   */
+  public String getDocumentTitlePattern() {
+    return documentTitlePattern;
+  }
+
+
   /**
    * @param modelNamePattern
    *        the modelNamePattern to set
    */
   public void setDocumentTitlePattern(String modelNamePattern) {
-    Parameters parameters = Parameters.get();
-    parameters.documentTitlePattern = modelNamePattern;
+    documentTitlePattern = modelNamePattern;
   }
 
 
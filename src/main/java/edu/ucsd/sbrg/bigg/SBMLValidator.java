@@ -4,12 +4,53 @@
 package edu.ucsd.sbrg.bigg;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import javax.swing.tree.TreeNode;
+
+import org.sbml.jsbml.ListOf;
+import org.sbml.jsbml.Model;
+import org.sbml.jsbml.SBMLDocument;
+import org.sbml.jsbml.SBMLError;
+import org.sbml.jsbml.ext.SBasePlugin;
+import org.sbml.jsbml.validator.SBMLValidator.CHECK_CATEGORY;
+import org.sbml.jsbml.validator.offline.LoggingValidationContext;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import edu.ucsd.sbrg.bigg.ModelPolisherOptions.ValidationScope;
 
 /**
  * @author Andreas Dr&auml;ger
  */
 public class SBMLValidator {
 
+  /**
+   * Lower bound of the number of list elements validated as one part
+   */
+  private static final int MIN_CHUNK_SIZE = 32;
+  /**
+   * Number of parts the elements are split into for each thread of the pool,
+   * so that threads finishing early can take over parts from others
+   */
+  private static final int CHUNKS_PER_THREAD = 4;
+  /**
+   * Number of list elements per thread below which validating a copy of the
+   * document costs less than cloning it
+   */
+  private static final int MIN_ELEMENTS_PER_THREAD = 1000;
+
   /**
    * @param args
    *        the paths to at least one SBML file that is to be validated. When
@@ -27,4 +68,300 @@ public class SBMLValidator {
       }
     }
   }
+
+
+  /**
+   * Validates a document offline, as it is in memory, on the calling thread
+   *
+   * @param doc
+   * @param scope
+   *        constraint groups to check
+   * @return the problems found
+   */
+  public static List<SBMLError> validate(SBMLDocument doc, ValidationScope scope) {
+    LoggingValidationContext context = createContext(doc, scope);
+    context.validate(doc);
+    return context.getErrorLog().getValidationErrors();
+  }
+
+
+  /**
+   * Validates a document offline, in parallel on the common
+   * {@link ForkJoinPool} if {@link Parameters#getParallelPolishing()} is set
+   * and the model is large enough to make up for copying it
+   *
+   * @param doc
+   * @param parameters
+   * @return the problems found
+   */
+  public static List<SBMLError> validate(SBMLDocument doc, Parameters parameters) {
+    if (parameters.getParallelPolishing() && (countElements(doc) >= 2 * MIN_ELEMENTS_PER_THREAD)) {
+      return validate(doc, parameters.getValidationScope(), ForkJoinPool.commonPool());
+    }
+    return validate(doc, parameters.getValidationScope());
+  }
+
+
+  /**
+   * Validates a document offline on the given pool. The tree of the document
+   * is split into parts that are validated independently: the document, the
+   * model, its plugins and large lists are checked on their own, without
+   * their children, the elements of large lists are checked in chunks of
+   * consecutive elements, all other elements together with their children.
+   * The problems of all parts are concatenated in the order in which a single
+   * thread would have visited them.
+   * JSBML trees are not thread-safe, the validator even adds missing lists
+   * while reading them. Each thread therefore validates its own copy of the
+   * document, and the document itself is only read by one thread at a time to
+   * make these copies. The number of threads is limited by the size of the
+   * model, so that each copy pays off.
+   *
+   * @param doc
+   * @param scope
+   *        constraint groups to check
+   * @param pool
+   * @return the same problems as {@link #validate(SBMLDocument, ValidationScope)}
+   */
+  public static List<SBMLError> validate(SBMLDocument doc, ValidationScope scope, ForkJoinPool pool) {
+    int elements = countElements(doc);
+    int threads = Math.max(1, Math.min(pool.getParallelism(), elements / MIN_ELEMENTS_PER_THREAD));
+    int chunkSize = Math.max(MIN_CHUNK_SIZE, elements / (CHUNKS_PER_THREAD * threads));
+    List<Part> parts = new ArrayList<>();
+    split(doc, new int[0], chunkSize, parts);
+    AtomicInteger next = new AtomicInteger();
+    AtomicReferenceArray<List<SBMLError>> errors = new AtomicReferenceArray<>(parts.size());
+    List<ForkJoinTask<?>> tasks = new ArrayList<>(threads);
+    for (int i = 0; i < threads; i++) {
+      tasks.add(pool.submit(() -> {
+        Worker worker = new Worker(doc, scope, parts);
+        for (int part = next.getAndIncrement(); part < parts.size(); part = next.getAndIncrement()) {
+          errors.set(part, worker.validate(part));
+        }
+      }));
+    }
+    for (ForkJoinTask<?> task : tasks) {
+      task.join();
+    }
+    List<SBMLError> result = new ArrayList<>();
+    for (int part = 0; part < errors.length(); part++) {
+      result.addAll(errors.get(part));
+    }
+    return result;
+  }
+
+
+  /**
+   * @param doc
+   * @param scope
+   * @return a context for validating the given document, its constraints are
+   *         loaded
+   */
+  private static LoggingValidationContext createContext(SBMLDocument doc, ValidationScope scope) {
+    LoggingValidationContext context = new LoggingValidationContext(doc.getLevel(), doc.getVersion());
+    // enable the categories explicitly, as SBMLDocument#checkConsistencyOffline does
+    context.enableCheckCategories(CHECK_CATEGORY.values(), scope == ValidationScope.ALL);
+    if (scope == ValidationScope.FBC) {
+      context.enableCheckCategory(CHECK_CATEGORY.GENERAL_CONSISTENCY, true);
+      context.enableCheckCategory(CHECK_CATEGORY.IDENTIFIER_CONSISTENCY, true);
+    }
+    context.loadConstraints(SBMLDocument.class);
+    return context;
+  }
+
+
+  /**
+   * Adds the parts of the given node in pre-order, the order in which the
+   * validator visits them
+   *
+   * @param node
+   * @param path
+   *        indices of the children leading from the document to the node
+   * @param chunkSize
+   *        number of elements of a list validated as one part
+   * @param parts
+   */
+  private static void split(TreeNode node, int[] path, int chunkSize, List<Part> parts) {
+    if (!isSplit(node, chunkSize)) {
+      parts.add(new Part(Collections.singletonList(path), true));
+      return;
+    }
+    parts.add(new Part(Collections.singletonList(path), false));
+    List<int[]> chunk = new ArrayList<>();
+    for (int i = 0; i < node.getChildCount(); i++) {
+      TreeNode child = node.getChildAt(i);
+      int[] childPath = Arrays.copyOf(path, path.length + 1);
+      childPath[path.length] = i;
+      if (isSplit(child, chunkSize)) {
+        if (!chunk.isEmpty()) {
+          parts.add(new Part(chunk, true));
+          chunk = new ArrayList<>();
+        }
+        split(child, childPath, chunkSize, parts);
+      } else {
+        chunk.add(childPath);
+        if (chunk.size() >= chunkSize) {
+          parts.add(new Part(chunk, true));
+          chunk = new ArrayList<>();
+        }
+      }
+    }
+    if (!chunk.isEmpty()) {
+      parts.add(new Part(chunk, true));
+    }
+  }
+
+
+  /**
+   * @param node
+   * @param chunkSize
+   * @return {@code true} if the children of the node are validated apart from
+   *         it
+   */
+  private static boolean isSplit(TreeNode node, int chunkSize) {
+    return (node instanceof SBMLDocument) || (node instanceof Model)
+      || ((node instanceof SBasePlugin) && (((SBasePlugin) node).getParent() instanceof Model))
+      || ((node instanceof ListOf<?>) && (((ListOf<?>) node).size() > chunkSize));
+  }
+
+
+  /**
+   * @param doc
+   * @return number of elements in the lists of the model, including those of
+   *         its plugins
+   */
+  private static int countElements(SBMLDocument doc) {
+    if (!doc.isSetModel()) {
+      return 0;
+    }
+    int count = 0;
+    Model model = doc.getModel();
+    for (int i = 0; i < model.getChildCount(); i++) {
+      TreeNode child = model.getChildAt(i);
+      count += child instanceof ListOf<?> ? ((ListOf<?>) child).size() : child.getChildCount();
+    }
+    return count;
+  }
+
+
+  /**
+   * Consecutive nodes of the document that are validated together by one
+   * thread, given by their paths from the document
+   */
+  private static final class Part {
+
+    private final List<int[]> paths;
+    private final boolean recursive;
+
+    /**
+     * @param paths
+     * @param recursive
+     *        whether the children of the nodes are validated as well
+     */
+    private Part(List<int[]> paths, boolean recursive) {
+      this.paths = paths;
+      this.recursive = recursive;
+    }
+  }
+
+  /**
+   * Copy of a document with a context for validating it, used by one thread.
+   * The nodes of all parts are looked up before any of them is validated, as
+   * validating a node may add children to the copy and thereby change the
+   * paths of the nodes that follow.
+   */
+  private static final class Worker {
+
+    private final LoggingValidationContext context;
+    private final List<Part> parts;
+    private final TreeNode[][] nodes;
+
+    /**
+     * @param doc
+     *        document to copy
+     * @param scope
+     * @param parts
+     *        all parts of the document
+     */
+    private Worker(SBMLDocument doc, ValidationScope scope, List<Part> parts) {
+      SBMLDocument copy;
+      synchronized (doc) {
+        copy = doc.clone();
+        context = createContext(doc, scope);
+      }
+      this.parts = parts;
+      nodes = new TreeNode[parts.size()][];
+      for (int i = 0; i < parts.size(); i++) {
+        List<int[]> paths = parts.get(i).paths;
+        nodes[i] = new TreeNode[paths.size()];
+        for (int j = 0; j < paths.size(); j++) {
+          TreeNode node = copy;
+          for (int index : paths.get(j)) {
+            node = node.getChildAt(index);
+          }
+          nodes[i][j] = node;
+        }
+      }
+    }
+
+
+    /**
+     * @param part
+     *        index of the part to validate
+     * @return the problems found in the part of the copy
+     */
+    private List<SBMLError> validate(int part) {
+      int start = context.getErrorLog().getValidationErrors().size();
+      for (TreeNode node : nodes[part]) {
+        context.validate(node, parts.get(part).recursive);
+      }
+      List<SBMLError> errors = context.getErrorLog().getValidationErrors();
+      return new ArrayList<>(errors.subList(start, errors.size()));
+    }
+  }
+
+
+  /**
+   * Writes the problems found by a validation as JSON object with the model
+   * id, the number of errors and warnings and an array of the single
+   * problems, each with code, severity, category, position and message
+   *
+   * @param modelId
+   *        may be {@code null}
+   * @param errors
+   * @param stream
+   *        is not closed
+   * @throws IOException
+   */
+  public static void writeReport(String modelId, List<SBMLError> errors, OutputStream stream) throws IOException {
+    try (JsonGenerator json = new JsonFactory().createGenerator(stream, JsonEncoding.UTF8)) {
+      json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+      json.useDefaultPrettyPrinter();
+      json.writeStartObject();
+      json.writeStringField("model", modelId);
+      json.writeNumberField("errors", countErrors(errors));
+      json.writeNumberField("warnings", errors.stream().filter(SBMLError::isWarning).count());
+      json.writeArrayFieldStart("problems");
+      for (SBMLError error : errors) {
+        json.writeStartObject();
+        json.writeNumberField("code", error.getCode());
+        json.writeStringField("severity", error.getSeverity());
+        json.writeStringField("category", error.getCategory());
+        json.writeNumberField("line", error.getLine());
+        json.writeNumberField("column", error.getColumn());
+        json.writeStringField("message", error.getMessage() == null ? null : error.getMessage().trim());
+        json.writeEndObject();
+      }
+      json.writeEndArray();
+      json.writeEndObject();
+    }
+  }
+
+
+  /**
+   * @param errors
+   * @return number of errors and fatal errors
+   */
+  public static long countErrors(List<SBMLError> errors) {
+    return errors.stream().filter(error -> error.isError() || error.isFatal()).count();
+  }
 }
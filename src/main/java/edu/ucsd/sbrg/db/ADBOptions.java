@@ -32,4 +32,16 @@ public interface ADBOptions extends KeyProvider {
    */
   @SuppressWarnings("unchecked")
   Option<String> DBNAME = new Option<>("ADB_DBNAME", String.class, "The name of the database to use.", "adb");
+  /**
+   *
+   */
+  @SuppressWarnings("unchecked")
+  Option<Integer> POOL_SIZE = new Option<>("ADB_POOL_SIZE", Integer.class, "Maximum number of connections", 16);
+  /**
+   *
+   */
+  @SuppressWarnings("unchecked")
+  Option<Integer> FETCH_SIZE =
+    new Option<>("ADB_FETCH_SIZE", Integer.class,
+      "Number of rows fetched from the database per round trip by lookups that return many rows", 1000);
 }
@@ -1,6 +1,8 @@
 package edu.ucsd.sbrg.db;
 
 import static edu.ucsd.sbrg.db.AnnotateDBContract.Constants.ADB_COLLECTION;
+import static edu.ucsd.sbrg.db.AnnotateDBContract.Constants.COLUMN_EVIDENCE_SOURCE;
+import static edu.ucsd.sbrg.db.AnnotateDBContract.Constants.COLUMN_EVIDENCE_VERSION;
 import static edu.ucsd.sbrg.db.AnnotateDBContract.Constants.COLUMN_NAMESPACE;
 import static edu.ucsd.sbrg.db.AnnotateDBContract.Constants.COLUMN_SOURCE_NAMESPACE;
 import static edu.ucsd.sbrg.db.AnnotateDBContract.Constants.COLUMN_SOURCE_TERM;
@@ -8,16 +10,18 @@ import static edu.ucsd.sbrg.db.AnnotateDBContract.Constants.COLUMN_TARGET_NAMESP
 import static edu.ucsd.sbrg.db.AnnotateDBContract.Constants.COLUMN_TARGET_TERM;
 import static edu.ucsd.sbrg.db.AnnotateDBContract.Constants.COLUMN_URLPATTERN;
 import static edu.ucsd.sbrg.db.AnnotateDBContract.Constants.MAPPING_VIEW;
+import static java.text.MessageFormat.format;
 
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
+import java.io.File;
 import java.sql.SQLException;
+import java.util.Optional;
 import java.util.Set;
 import java.util.TreeSet;
 import java.util.logging.Logger;
 
 import de.zbit.util.Utils;
+import edu.ucsd.sbrg.util.Digests;
+
 
 /**
  * @author Kaustubh Trivedi
@@ -28,6 +32,16 @@ public class AnnotateDB {
   private static final String SELECT = "SELECT ";
   private static final String FROM = " FROM ";
   private static final String WHERE = " WHERE ";
+  private static final String ANNOTATIONS_QUERY =
+    SELECT + "m." + COLUMN_TARGET_TERM + ", ac." + COLUMN_URLPATTERN + FROM + MAPPING_VIEW + " m, " + ADB_COLLECTION
+      + " ac" + WHERE + "m." + COLUMN_SOURCE_NAMESPACE + " = ? AND " + "m." + COLUMN_SOURCE_TERM + " = ? AND ac."
+      + COLUMN_NAMESPACE + " = m." + COLUMN_TARGET_NAMESPACE;
+  private static final String MAPPING_VERSIONS_QUERY =
+    SELECT + COLUMN_EVIDENCE_SOURCE + ", " + COLUMN_EVIDENCE_VERSION + ", COUNT(*)" + FROM + MAPPING_VIEW + " GROUP BY "
+      + COLUMN_EVIDENCE_SOURCE + ", " + COLUMN_EVIDENCE_VERSION + " ORDER BY " + COLUMN_EVIDENCE_SOURCE + ", "
+      + COLUMN_EVIDENCE_VERSION;
+  private static final String COLLECTIONS_QUERY =
+    SELECT + COLUMN_NAMESPACE + ", " + COLUMN_URLPATTERN + FROM + ADB_COLLECTION + " ORDER BY " + COLUMN_NAMESPACE;
   // source_namespace types:
   public static final String BIGG_METABOLITE = "bigg.metabolite";
   public static final String BIGG_REACTION = "bigg.reaction";
@@ -35,7 +49,7 @@ public class AnnotateDB {
   static final String METABOLITE_PREFIX = "M_";
   static final String REACTION_PREFIX = "R_";
   static final String GENE_PREFIX = "G_";
-  private static PostgreSQLConnector connector;
+  private static SQLConnector connector;
 
   /**
    * Don't allow instantiation
@@ -52,9 +66,31 @@ public class AnnotateDB {
    * @param user
    * @param passwd
    * @param name
+   * @param poolSize
+   * @param fetchSize
+   */
+  public static void init(String host, String port, String user, String passwd, String name, int poolSize,
+    int fetchSize) {
+    connector = new PostgreSQLConnector(host, Integer.parseInt(port), user, passwd, name, poolSize, fetchSize);
+  }
+
+
+  /**
+   * Uses a snapshot created by {@link BiGGSnapshot} instead of a PostgreSQL
+   * database.
+   *
+   * @param snapshot
    */
-  public static void init(String host, String port, String user, String passwd, String name) {
-    connector = new PostgreSQLConnector(host, Integer.parseInt(port), user, passwd, name);
+  public static void initSnapshot(File snapshot) {
+    connector = new SQLiteConnector(snapshot);
+  }
+
+
+  /**
+   * @return the connection to the database currently in use
+   */
+  static SQLConnector getConnector() {
+    return connector;
   }
 
 
@@ -73,6 +109,30 @@ public class AnnotateDB {
   }
 
 
+  /**
+   * AnnotateDB has no version of its own, it is identified by the sources and
+   * versions of its mappings, the number of mappings per source and the URL
+   * patterns of all collections.
+   *
+   * @return a digest of the above, empty if it cannot be determined
+   */
+  public static Optional<String> getVersion() {
+    try {
+      StringBuilder version = new StringBuilder();
+      for (String[] row : connector.query(MAPPING_VERSIONS_QUERY, 3)) {
+        version.append(String.join("\t", row[0], row[1], row[2])).append('\n');
+      }
+      for (String[] row : connector.query(COLLECTIONS_QUERY, 2)) {
+        version.append(String.join("\t", row[0], row[1])).append('\n');
+      }
+      return Optional.of(Digests.sha256(version.toString()));
+    } catch (SQLException exc) {
+      logger.finest(format("{0}: {1}", exc.getClass().getName(), Utils.getMessage(exc)));
+      return Optional.empty();
+    }
+  }
+
+
   /**
    * @param type
    * @param biggId
@@ -91,25 +151,11 @@ public class AnnotateDB {
     if (biggId.endsWith("_")) {
       biggId = biggId.substring(0, biggId.length() - 2);
     }
-    String query = SELECT + "m." + COLUMN_TARGET_TERM + ", ac." + COLUMN_URLPATTERN + FROM + MAPPING_VIEW + " m, "
-      + ADB_COLLECTION + " ac" + WHERE + "m." + COLUMN_SOURCE_NAMESPACE + " = ? AND " + "m." + COLUMN_SOURCE_TERM
-      + " = ? AND ac." + COLUMN_NAMESPACE + " = m." + COLUMN_TARGET_NAMESPACE;
-    try {
-      Connection connection = connector.getConnection();
-      PreparedStatement pStatement = connection.prepareStatement(query);
-      pStatement.setString(1, type);
-      pStatement.setString(2, biggId);
-      ResultSet resultSet = pStatement.executeQuery();
-      while (resultSet.next()) {
-        String uri = resultSet.getString(COLUMN_URLPATTERN);
-        String id = resultSet.getString(COLUMN_TARGET_TERM);
-        uri = uri.replace("{$id}", id);
-        annotations.add(uri);
-      }
-      pStatement.close();
-      connection.close();
-    } catch (SQLException exc) {
-      logger.warning(Utils.getMessage(exc));
+    for (String[] row : QueryCache.query(connector, ANNOTATIONS_QUERY, 2, type, biggId)) {
+      String uri = row[1];
+      String id = row[0];
+      uri = uri.replace("{$id}", id);
+      annotations.add(uri);
     }
     return annotations;
   }
@@ -56,12 +56,11 @@ import static edu.ucsd.sbrg.db.BiGGDBContract.Constants.URL_PREFIX;
 import static java.text.MessageFormat.format;
 import static org.sbml.jsbml.util.Pair.pairOf;
 
-import java.sql.Connection;
+import java.io.File;
 import java.sql.Date;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
@@ -89,6 +88,137 @@ public class BiGGDB {
   public static final String TYPE_SPECIES = "SPECIES";
   public static final String TYPE_REACTION = "REACTION";
   public static final String TYPE_GENE_PRODUCT = "GENE_PRODUCT";
+  /**
+   * Queries, which are built once, so that the driver can reuse the prepared
+   * statement for each of them
+   */
+  private static final String SUBSYSTEMS_QUERY =
+    "SELECT DISTINCT mr.subsystem FROM reaction r, model m, model_reaction mr WHERE m.bigg_id = ? "
+      + "AND r.bigg_id = ? AND m.id = mr.model_id AND r.id = mr.reaction_id AND LENGTH(mr.subsystem) > 0";
+  private static final String FORMULA_BY_COMPARTMENT_QUERY =
+    "SELECT DISTINCT mcc." + COLUMN_FORMULA + " FROM " + MCC + " mcc, " + COMPARTMENTALIZED_COMPONENT
+      + " cc, " + COMPONENT + " c, " + COMPARTMENT + " co WHERE c." + COLUMN_BIGG_ID + " = ? AND c." + COLUMN_ID
+      + " = cc." + COLUMN_COMPONENT_ID + " AND co." + COLUMN_BIGG_ID + " = ? AND co." + COLUMN_ID + " = cc."
+      + COLUMN_COMPARTMENT_ID + " and cc." + COLUMN_ID + " = mcc." + COLUMN_COMPARTMENTALIZED_COMPONENT_ID
+      + " AND mcc.formula <> '' ORDER BY mcc." + COLUMN_FORMULA;
+  private static final String FORMULA_QUERY = "SELECT DISTINCT mcc." + COLUMN_FORMULA + "\n FROM " + COMPONENT + " c,\n"
+      + COMPARTMENTALIZED_COMPONENT + " cc,\n" + MODEL + " m,\n" + MCC + " mcc\n WHERE c." + COLUMN_ID + " = cc."
+      + COLUMN_COMPONENT_ID + " AND\n cc." + COLUMN_ID + " = mcc." + COLUMN_COMPARTMENTALIZED_COMPONENT_ID + " AND\n c."
+      + COLUMN_BIGG_ID + " = ? AND\n m." + COLUMN_BIGG_ID + " = ? AND\n m." + COLUMN_ID + " = mcc." + COLUMN_MODEL_ID
+      + " AND mcc.formula <> ''";
+  private static final String COMPARTMENT_NAME_QUERY = "SELECT name FROM compartment WHERE bigg_id = ? AND name <> ''";
+  private static final String COMPONENT_NAME_QUERY = "SELECT name FROM component WHERE bigg_id = ? AND name <> ''";
+  private static final String COMPONENT_TYPE_QUERY = "SELECT type FROM component WHERE bigg_id = ? AND name <> ''";
+  private static final String GENE_IDS_QUERY =
+    SELECT + URL_PREFIX + ", s." + SYNONYM + "\n" + "FROM  " + DATA_SOURCE + " d, " + SYNONYM + " s, "
+      + GENOME_REGION + " gr\n" + "WHERE d." + COLUMN_ID + " = s." + COLUMN_DATA_SOURCE_ID + " AND\n s." + COLUMN_OME_ID
+      + " = gr." + COLUMN_ID + " AND\n gr." + COLUMN_BIGG_ID + " = ? AND\n d." + COLUMN_BIGG_ID + " != " + OLD_BIGG_ID
+      + " AND\n d." + COLUMN_BIGG_ID + " NOT LIKE " + REFSEQ_PATTERN;
+  private static final String GENE_NAME_QUERY =
+    "SELECT s." + SYNONYM + "\n" + "FROM  " + DATA_SOURCE + " d, " + SYNONYM + " s, " + GENOME_REGION
+      + " gr\n" + "WHERE d." + COLUMN_ID + " = s." + COLUMN_DATA_SOURCE_ID + " AND\n s." + COLUMN_OME_ID + " = gr."
+      + COLUMN_ID + " AND\n gr." + COLUMN_BIGG_ID + " = ? AND\n d." + COLUMN_BIGG_ID + " LIKE " + REFSEQ_NAME
+      + " AND s.synonym <> ''";
+  private static final String ORGANISM_QUERY =
+    "SELECT g." + COLUMN_ORGANISM + FROM + GENOME + " g, " + MODEL + " m WHERE m." + COLUMN_GENOME_ID
+      + " = g." + COLUMN_ID + " AND m." + COLUMN_BIGG_ID + " = ?";
+  private static final String PUBLICATIONS_QUERY =
+    "SELECT p." + COLUMN_REFERENCE_TYPE + ", p." + COLUMN_REFERENCE_ID + " FROM  " + PUBLICATION + " p, "
+      + PUBLICATION_MODEL + " pm, " + MODEL + " m WHERE p." + COLUMN_ID + " = pm." + COLUMN_PUBLICATION_ID + " AND pm."
+      + COLUMN_MODEL_ID + " = m." + COLUMN_ID + " AND m." + COLUMN_BIGG_ID + " = ?";
+  private static final String REACTION_NAME_QUERY = "SELECT name FROM reaction WHERE bigg_id = ? AND name <> ''";
+  private static final String TAXON_ID_QUERY =
+    SELECT + COLUMN_TAXON_ID + FROM + GENOME + " g, " + MODEL + " m WHERE g." + COLUMN_ID + " = m."
+      + COLUMN_GENOME_ID + " AND m." + COLUMN_BIGG_ID + " = ? AND taxon_id IS NOT NULL";
+  private static final String CHARGE_BY_COMPARTMENT_QUERY =
+    "SELECT DISTINCT mcc." + COLUMN_CHARGE + " FROM " + MCC + " mcc, " + COMPARTMENTALIZED_COMPONENT
+      + " cc, " + COMPONENT + " c, " + COMPARTMENT + " co WHERE c." + COLUMN_BIGG_ID + " = ? AND c." + COLUMN_ID
+      + " = cc." + COLUMN_COMPONENT_ID + " AND co." + COLUMN_BIGG_ID + " = ? AND co." + COLUMN_ID + " = cc."
+      + COLUMN_COMPARTMENT_ID + " and cc." + COLUMN_ID + " = mcc." + COLUMN_COMPARTMENTALIZED_COMPONENT_ID
+      + " AND LENGTH(CAST( mcc." + COLUMN_CHARGE + " AS text)) > 0 ORDER BY mcc." + COLUMN_CHARGE;
+  private static final String CHARGE_QUERY =
+    "SELECT DISTINCT mcc." + COLUMN_CHARGE + "\n FROM " + COMPONENT + " c,\n" + COMPARTMENTALIZED_COMPONENT + " cc,\n"
+      + MODEL + " m,\n" + MCC + " mcc\n WHERE c." + COLUMN_ID + " = cc." + COLUMN_COMPONENT_ID + " AND\n cc."
+      + COLUMN_ID + " = mcc." + COLUMN_COMPARTMENTALIZED_COMPONENT_ID + " AND\n c." + COLUMN_BIGG_ID + " = ? AND\n m."
+      + COLUMN_BIGG_ID + " = ? AND\n m." + COLUMN_ID + " = mcc." + COLUMN_MODEL_ID + " AND mcc.charge IS NOT NULL";
+  private static final String PSEUDOREACTION_QUERY = "SELECT pseudoreaction FROM reaction WHERE bigg_id = ?";
+  private static final String BULK_COMPONENTS_QUERY =
+    "SELECT bigg_id, name, type FROM component WHERE bigg_id = ANY(?) AND name <> ''";
+  private static final String BULK_REACTIONS_QUERY =
+    "SELECT bigg_id, name, pseudoreaction FROM reaction WHERE bigg_id = ANY(?)";
+  private static final String BULK_FORMULAS_AND_CHARGES_QUERY =
+    "SELECT DISTINCT c." + COLUMN_BIGG_ID + ", mcc." + COLUMN_FORMULA + ", mcc." + COLUMN_CHARGE + FROM
+      + COMPONENT + " c, " + COMPARTMENTALIZED_COMPONENT + " cc, " + MODEL + " m, " + MCC + " mcc WHERE c." + COLUMN_ID
+      + " = cc." + COLUMN_COMPONENT_ID + " AND cc." + COLUMN_ID + " = mcc." + COLUMN_COMPARTMENTALIZED_COMPONENT_ID
+      + " AND c." + COLUMN_BIGG_ID + " = ANY(?) AND m." + COLUMN_BIGG_ID + " = ? AND m." + COLUMN_ID + " = mcc."
+      + COLUMN_MODEL_ID;
+  private static final String BULK_FORMULAS_AND_CHARGES_BY_COMPARTMENT_QUERY =
+    "SELECT DISTINCT c." + COLUMN_BIGG_ID + ", co." + COLUMN_BIGG_ID + ", mcc." + COLUMN_FORMULA
+      + ", mcc." + COLUMN_CHARGE + FROM + MCC + " mcc, " + COMPARTMENTALIZED_COMPONENT + " cc, " + COMPONENT + " c, "
+      + COMPARTMENT + " co WHERE c." + COLUMN_BIGG_ID + " = ANY(?) AND c." + COLUMN_ID + " = cc." + COLUMN_COMPONENT_ID
+      + " AND co." + COLUMN_ID + " = cc." + COLUMN_COMPARTMENT_ID + " AND cc." + COLUMN_ID + " = mcc."
+      + COLUMN_COMPARTMENTALIZED_COMPONENT_ID;
+  private static final String BULK_GENE_REACTION_RULES_QUERY =
+    "SELECT r." + COLUMN_BIGG_ID + ", REPLACE(REPLACE(RTRIM(REPLACE(REPLACE(mr." + COLUMN_GENE_REACTION_RULE
+      + ", 'or', '||'), 'and', '&&'), '.'), '.', '__SBML_DOT__'), '_AT', '__SBML_DOT__') AS "
+      + COLUMN_GENE_REACTION_RULE + FROM + MODEL_REACTION + " mr, " + REACTION + " r, " + MODEL + " m WHERE r."
+      + COLUMN_ID + " = mr." + COLUMN_REACTION_ID + " AND m." + COLUMN_ID + " = mr." + COLUMN_MODEL_ID + " AND mr."
+      + COLUMN_GENE_REACTION_RULE + " IS NOT NULL AND LENGTH(mr." + COLUMN_GENE_REACTION_RULE + ") > 0 AND r."
+      + COLUMN_BIGG_ID + " = ANY(?) AND m." + COLUMN_BIGG_ID + " = ? AND mr.gene_reaction_rule <> '' ORDER BY mr."
+      + COLUMN_ID;
+  private static final String BULK_SUBSYSTEMS_QUERY =
+    "SELECT DISTINCT r.bigg_id, mr.subsystem FROM reaction r, model m, model_reaction mr "
+      + "WHERE m.bigg_id = ? AND r.bigg_id = ANY(?) AND m.id = mr.model_id AND r.id = mr.reaction_id "
+      + "AND LENGTH(mr.subsystem) > 0";
+  private static final String BULK_GENE_IDS_QUERY =
+    SELECT + "gr." + COLUMN_BIGG_ID + ", " + URL_PREFIX + ", s." + SYNONYM + FROM + DATA_SOURCE + " d, "
+      + SYNONYM + " s, " + GENOME_REGION + " gr WHERE d." + COLUMN_ID + " = s." + COLUMN_DATA_SOURCE_ID + " AND s."
+      + COLUMN_OME_ID + " = gr." + COLUMN_ID + " AND gr." + COLUMN_BIGG_ID + " = ANY(?) AND d." + COLUMN_BIGG_ID
+      + " != " + OLD_BIGG_ID + " AND d." + COLUMN_BIGG_ID + " NOT LIKE " + REFSEQ_PATTERN;
+  private static final String BULK_GENE_NAMES_QUERY =
+    SELECT + "gr." + COLUMN_BIGG_ID + ", s." + SYNONYM + FROM + DATA_SOURCE + " d, " + SYNONYM + " s, "
+      + GENOME_REGION + " gr WHERE d." + COLUMN_ID + " = s." + COLUMN_DATA_SOURCE_ID + " AND s." + COLUMN_OME_ID
+      + " = gr." + COLUMN_ID + " AND gr." + COLUMN_BIGG_ID + " = ANY(?) AND d." + COLUMN_BIGG_ID + " LIKE "
+      + REFSEQ_NAME + " AND s.synonym <> ''";
+  private static final String GENE_REACTION_RULE_QUERY =
+    "SELECT REPLACE(REPLACE(RTRIM(REPLACE(REPLACE(mr." + COLUMN_GENE_REACTION_RULE
+      + ", 'or', '||'), 'and', '&&'), '.'), '.', '__SBML_DOT__'), '_AT', '__SBML_DOT__') AS "
+      + COLUMN_GENE_REACTION_RULE + " FROM " + MODEL_REACTION + " mr, " + REACTION + " r, " + MODEL + " m WHERE r."
+      + COLUMN_ID + " = mr." + COLUMN_REACTION_ID + " AND m." + COLUMN_ID + " = mr." + COLUMN_MODEL_ID + " AND mr."
+      + COLUMN_GENE_REACTION_RULE + " IS NOT NULL AND  LENGTH(mr." + COLUMN_GENE_REACTION_RULE + ") > 0 AND r."
+      + COLUMN_BIGG_ID + " = ? AND m." + COLUMN_BIGG_ID + " = ? AND mr.gene_reaction_rule <> '' ORDER BY mr."
+      + COLUMN_ID;
+  private static final String SPECIES_FROM_SYNONYM_QUERY =
+    SELECT + "c." + COLUMN_BIGG_ID + FROM + COMPONENT + " c, " + DATA_SOURCE + " d, " + SYNONYM + " s" + WHERE
+      + "d." + COLUMN_BIGG_ID + " = ? AND d." + COLUMN_ID + " = s." + COLUMN_DATA_SOURCE_ID + " AND s."
+      + COLUMN_SYNONYM + " = ? AND s." + COLUMN_OME_ID + " = c." + COLUMN_ID;
+  private static final String REACTION_FROM_SYNONYM_QUERY =
+    SELECT + "r." + COLUMN_BIGG_ID + FROM + REACTION + " r, " + DATA_SOURCE + " d, " + SYNONYM + " s" + WHERE
+      + "d." + COLUMN_BIGG_ID + " = ? AND d." + COLUMN_ID + " = s." + COLUMN_DATA_SOURCE_ID + " AND s."
+      + COLUMN_SYNONYM + " = ? AND s." + COLUMN_OME_ID + " = r." + COLUMN_ID;
+  private static final String GENE_FROM_SYNONYM_QUERY =
+    SELECT + "g." + COLUMN_LOCUS_TAG + FROM + GENE + " g, " + DATA_SOURCE + " d, " + SYNONYM + " s" + WHERE
+      + "d." + COLUMN_BIGG_ID + " = ? AND d." + COLUMN_ID + " = s." + COLUMN_DATA_SOURCE_ID + " AND s."
+      + COLUMN_SYNONYM + " = ? AND s." + COLUMN_OME_ID + " = g." + COLUMN_ID;
+  /**
+   * Queries for resources of components or reactions, indexed by
+   * {@link #resourcesQuery(boolean, boolean, boolean)}
+   */
+  private static final String[] RESOURCES_QUERIES = new String[8];
+  static {
+    for (int i = 0; i < RESOURCES_QUERIES.length; i++) {
+      boolean bulk = (i & 4) != 0;
+      boolean includeAnyURI = (i & 2) != 0;
+      boolean isReaction = (i & 1) != 0;
+      String typeCondition = isReaction ? "CAST(s.type AS text) = '" + REACTION + "'"
+        : "(CAST(s.type AS text) = '" + COMPONENT + "' OR CAST(s.type AS text) = '" + COMPARTMENTALIZED_COMPONENT
+          + "')";
+      RESOURCES_QUERIES[i] = String.format("SELECT %sCONCAT(url_prefix, s.synonym) AS url FROM %s t, synonym s, "
+        + "data_source d WHERE t.id = s.ome_id AND s.data_source_id = d.id AND url_prefix IS NOT NULL AND %s AND "
+        + "t.bigg_id %s %s", bulk ? "t.bigg_id, " : "", isReaction ? REACTION : COMPONENT, typeCondition,
+        bulk ? "= ANY(?)" : "= ?", includeAnyURI ? "" : "AND url_prefix like '%identifiers.org%'");
+    }
+  }
   /**
    * A {@link Logger} for this class.
    */
@@ -96,7 +226,7 @@ public class BiGGDB {
   /**
    * The connection to the database.
    */
-  private static PostgreSQLConnector connector;
+  private static SQLConnector connector;
 
   /**
    * Don't allow instantiation
@@ -105,8 +235,28 @@ public class BiGGDB {
   }
 
 
-  public static void init(String host, String port, String user, String passwd, String name) {
-    connector = new PostgreSQLConnector(host, Integer.parseInt(port), user, passwd, name);
+  public static void init(String host, String port, String user, String passwd, String name, int poolSize,
+    int fetchSize) {
+    connector = new PostgreSQLConnector(host, Integer.parseInt(port), user, passwd, name, poolSize, fetchSize);
+  }
+
+
+  /**
+   * Uses a snapshot created by {@link BiGGSnapshot} instead of a PostgreSQL
+   * database.
+   *
+   * @param snapshot
+   */
+  public static void initSnapshot(File snapshot) {
+    connector = new SQLiteConnector(snapshot);
+  }
+
+
+  /**
+   * @return the connection to the database currently in use
+   */
+  static SQLConnector getConnector() {
+    return connector;
   }
 
 
@@ -114,10 +264,74 @@ public class BiGGDB {
    *
    */
   public static void close() {
+    QueryCache.close();
     connector.close();
   }
 
 
+  /**
+   * Keeps the results of all lookups in a persistent cache within the given
+   * directory. The cache is only valid for the BiGG version currently reported
+   * by the database and is not used if the version cannot be determined.
+   *
+   * @param directory
+   */
+  public static void initCache(File directory) {
+    Optional<String> version = getDatabaseVersion();
+    if (version.isPresent()) {
+      QueryCache.open(directory, version.get());
+    } else {
+      logger.warning(mpMessageBundle.getString("BIGG_CACHE_NO_VERSION"));
+    }
+  }
+
+
+  /**
+   * @return the full time stamp of the BiGG database version as reported by
+   *         the database, e.g., 2019-10-31 17:07:38.123456
+   */
+  public static Optional<String> getDatabaseVersion() {
+    try {
+      List<String[]> version = connector.query("SELECT date_time FROM database_version", 1);
+      if (!version.isEmpty() && (version.get(0)[0] != null)) {
+        return Optional.of(version.get(0)[0]);
+      }
+    } catch (SQLException exc) {
+      logger.finest(format("{0}: {1}", exc.getClass().getName(), Utils.getMessage(exc)));
+    }
+    return Optional.empty();
+  }
+
+
+  /**
+   * Runs a query against BiGG, answering it from the persistent cache if
+   * possible.
+   *
+   * @param query
+   * @param columns
+   * @param params
+   * @return
+   */
+  private static List<String[]> query(String query, int columns, Object... params) {
+    return QueryCache.query(connector, query, columns, params);
+  }
+
+
+  /**
+   * Like {@link #query(String, int, Object...)}, for queries that return many
+   * rows, i.e., the bulk lookups for all ids of a model and the lookups of all
+   * ids of a table.
+   *
+   * @param query
+   * @param columns
+   * @param params
+   * @return
+   */
+  private static List<String[]> queryLarge(String query, int columns, Object... params) {
+    return QueryCache.queryLarge(connector, query, columns, params);
+  }
+
+
   /**
    * @return
    */
@@ -132,15 +346,12 @@ public class BiGGDB {
   public static Optional<Date> getBiGGVersion() {
     Optional<Date> date = Optional.empty();
     try {
-      Connection connection = connector.getConnection();
-      PreparedStatement pStatement = connection.prepareStatement("Select date_time FROM database_version");
-      ResultSet resultSet = pStatement.executeQuery();
-      if (resultSet.next()) {
-        date = Optional.of(resultSet.getDate(1));
+      // read as text, which is the same for PostgreSQL and snapshots
+      Optional<String> version = getDatabaseVersion();
+      if (version.isPresent()) {
+        date = Optional.of(Date.valueOf(version.get().substring(0, 10)));
       }
-      pStatement.close();
-      connection.close();
-    } catch (SQLException exc) {
+    } catch (IllegalArgumentException | IndexOutOfBoundsException exc) {
       logger.finest(format("{0}: {1}", exc.getClass().getName(), Utils.getMessage(exc)));
     }
     return date;
@@ -153,22 +364,9 @@ public class BiGGDB {
    * @return
    */
   public static List<String> getSubsystems(String modelBiGGid, String reactionBiGGid) {
-    String query = "SELECT DISTINCT mr.subsystem FROM reaction r, model m, model_reaction mr WHERE m.bigg_id = ? "
-      + "AND r.bigg_id = ? AND m.id = mr.model_id AND r.id = mr.reaction_id AND LENGTH(mr.subsystem) > 0";
     List<String> list = new LinkedList<>();
-    try {
-      Connection connection = connector.getConnection();
-      PreparedStatement pStatement = connection.prepareStatement(query);
-      pStatement.setString(1, modelBiGGid);
-      pStatement.setString(2, reactionBiGGid);
-      ResultSet resultSet = pStatement.executeQuery();
-      while (resultSet.next()) {
-        list.add(resultSet.getString(1));
-      }
-      pStatement.close();
-      connection.close();
-    } catch (SQLException exc) {
-      logger.warning(Utils.getMessage(exc));
+    for (String[] row : query(SUBSYSTEMS_QUERY, 1, modelBiGGid, reactionBiGGid)) {
+      list.add(row[0]);
     }
     return list;
   }
@@ -182,12 +380,7 @@ public class BiGGDB {
    * @return
    */
   public static Optional<String> getChemicalFormulaByCompartment(String componentId, String compartmentId) {
-    String query = "SELECT DISTINCT mcc." + COLUMN_FORMULA + " FROM " + MCC + " mcc, " + COMPARTMENTALIZED_COMPONENT
-      + " cc, " + COMPONENT + " c, " + COMPARTMENT + " co WHERE c." + COLUMN_BIGG_ID + " = ? AND c." + COLUMN_ID
-      + " = cc." + COLUMN_COMPONENT_ID + " AND co." + COLUMN_BIGG_ID + " = ? AND co." + COLUMN_ID + " = cc."
-      + COLUMN_COMPARTMENT_ID + " and cc." + COLUMN_ID + " = mcc." + COLUMN_COMPARTMENTALIZED_COMPONENT_ID
-      + " AND mcc.formula <> '' ORDER BY mcc." + COLUMN_FORMULA;
-    Set<String> results = runFormulaQuery(query, componentId, compartmentId);
+    Set<String> results = runFormulaQuery(FORMULA_BY_COMPARTMENT_QUERY, componentId, compartmentId);
     if (results.size() == 1) {
       return Optional.of(results.iterator().next());
     } else {
@@ -208,19 +401,8 @@ public class BiGGDB {
    */
   private static Set<String> runFormulaQuery(String query, String componentId, String compartmentOrModelId) {
     Set<String> results = new HashSet<>();
-    try {
-      Connection connection = connector.getConnection();
-      PreparedStatement pStatement = connection.prepareStatement(query);
-      pStatement.setString(1, componentId);
-      pStatement.setString(2, compartmentOrModelId);
-      ResultSet resultSet = pStatement.executeQuery();
-      while (resultSet.next()) {
-        results.add(resultSet.getString(1));
-      }
-      pStatement.close();
-      connection.close();
-    } catch (SQLException exc) {
-      logger.warning(Utils.getMessage(exc));
+    for (String[] row : query(query, 1, componentId, compartmentOrModelId)) {
+      results.add(row[0]);
     }
     return results.stream().filter(formula -> formula != null && !formula.isEmpty()).collect(Collectors.toSet());
   }
@@ -234,12 +416,7 @@ public class BiGGDB {
    * @return
    */
   public static Optional<String> getChemicalFormula(String componentId, String modelId) {
-    String query = "SELECT DISTINCT mcc." + COLUMN_FORMULA + "\n FROM " + COMPONENT + " c,\n"
-      + COMPARTMENTALIZED_COMPONENT + " cc,\n" + MODEL + " m,\n" + MCC + " mcc\n WHERE c." + COLUMN_ID + " = cc."
-      + COLUMN_COMPONENT_ID + " AND\n cc." + COLUMN_ID + " = mcc." + COLUMN_COMPARTMENTALIZED_COMPONENT_ID + " AND\n c."
-      + COLUMN_BIGG_ID + " = ? AND\n m." + COLUMN_BIGG_ID + " = ? AND\n m." + COLUMN_ID + " = mcc." + COLUMN_MODEL_ID
-      + " AND mcc.formula <> ''";
-    Set<String> results = runFormulaQuery(query, componentId, modelId);
+    Set<String> results = runFormulaQuery(FORMULA_QUERY, componentId, modelId);
     if (results.size() == 1) {
       return Optional.of(results.iterator().next());
     } else {
@@ -257,8 +434,7 @@ public class BiGGDB {
    * @return
    */
   public static Optional<String> getCompartmentName(BiGGId biggId) {
-    String query = "SELECT name FROM compartment WHERE bigg_id = ? AND name <> ''";
-    return singleParamStatement(query, biggId.getAbbreviation());
+    return singleParamStatement(COMPARTMENT_NAME_QUERY, biggId.getAbbreviation());
   }
 
 
@@ -269,18 +445,8 @@ public class BiGGDB {
    */
   public static Optional<String> singleParamStatement(String query, String param) {
     Set<String> results = new HashSet<>();
-    try {
-      Connection connection = connector.getConnection();
-      PreparedStatement pStatement = connection.prepareStatement(query);
-      pStatement.setString(1, param);
-      ResultSet resultSet = pStatement.executeQuery();
-      while (resultSet.next()) {
-        results.add(resultSet.getString(1));
-      }
-      pStatement.close();
-      connection.close();
-    } catch (SQLException exc) {
-      logger.warning(Utils.getMessage(exc));
+    for (String[] row : query(query, 1, param)) {
+      results.add(row[0]);
     }
     results = results.stream().filter(result -> result != null && !result.isEmpty()).collect(Collectors.toSet());
     if (results.size() == 1) {
@@ -299,8 +465,7 @@ public class BiGGDB {
    * @return
    */
   public static Optional<String> getComponentName(BiGGId biggId) {
-    String query = "SELECT name FROM component WHERE bigg_id = ? AND name <> ''";
-    return singleParamStatement(query, biggId.getAbbreviation());
+    return singleParamStatement(COMPONENT_NAME_QUERY, biggId.getAbbreviation());
   }
 
 
@@ -309,8 +474,7 @@ public class BiGGDB {
    * @return
    */
   public static Optional<String> getComponentType(BiGGId biggId) {
-    String query = "SELECT type FROM component WHERE bigg_id = ? AND name <> ''";
-    return singleParamStatement(query, biggId.getAbbreviation());
+    return singleParamStatement(COMPONENT_TYPE_QUERY, biggId.getAbbreviation());
   }
 
 
@@ -323,34 +487,20 @@ public class BiGGDB {
    */
   public static TreeSet<String> getGeneIds(String label) {
     TreeSet<String> results = new TreeSet<>();
-    String query = SELECT + URL_PREFIX + ", s." + SYNONYM + "\n" + "FROM  " + DATA_SOURCE + " d, " + SYNONYM + " s, "
-      + GENOME_REGION + " gr\n" + "WHERE d." + COLUMN_ID + " = s." + COLUMN_DATA_SOURCE_ID + " AND\n s." + COLUMN_OME_ID
-      + " = gr." + COLUMN_ID + " AND\n gr." + COLUMN_BIGG_ID + " = ? AND\n d." + COLUMN_BIGG_ID + " != " + OLD_BIGG_ID
-      + " AND\n d." + COLUMN_BIGG_ID + " NOT LIKE " + REFSEQ_PATTERN;
-    try {
-      Connection connection = connector.getConnection();
-      PreparedStatement pStatement = connection.prepareStatement(query);
-      pStatement.setString(1, label);
-      ResultSet resultSet = pStatement.executeQuery();
-      while (resultSet.next()) {
-        String resource;
-        String collection = resultSet.getString(1);
-        String identifier = resultSet.getString(2);
-        if (collection != null && identifier != null) {
-          resource = collection.replaceAll("http://", "https://") + identifier;
-        } else if (collection == null) {
-          logger.fine(mpMessageBundle.getString("COLLECTION_NULL_GENE"));
-          continue;
-        } else {
-          logger.warning(format(mpMessageBundle.getString("IDENTIFIER_NULL_GENE"), collection));
-          continue;
-        }
-        Registry.checkResourceUrl(resource).map(results::add);
+    for (String[] row : query(GENE_IDS_QUERY, 2, label)) {
+      String resource;
+      String collection = row[0];
+      String identifier = row[1];
+      if (collection != null && identifier != null) {
+        resource = collection.replaceAll("http://", "https://") + identifier;
+      } else if (collection == null) {
+        logger.fine(mpMessageBundle.getString("COLLECTION_NULL_GENE"));
+        continue;
+      } else {
+        logger.warning(format(mpMessageBundle.getString("IDENTIFIER_NULL_GENE"), collection));
+        continue;
       }
-      pStatement.close();
-      connection.close();
-    } catch (SQLException exc) {
-      logger.warning(Utils.getMessage(exc));
+      Registry.checkResourceUrl(resource).map(results::add);
     }
     return results;
   }
@@ -361,11 +511,7 @@ public class BiGGDB {
    * @return
    */
   public static Optional<String> getGeneName(String label) {
-    String query = "SELECT s." + SYNONYM + "\n" + "FROM  " + DATA_SOURCE + " d, " + SYNONYM + " s, " + GENOME_REGION
-      + " gr\n" + "WHERE d." + COLUMN_ID + " = s." + COLUMN_DATA_SOURCE_ID + " AND\n s." + COLUMN_OME_ID + " = gr."
-      + COLUMN_ID + " AND\n gr." + COLUMN_BIGG_ID + " = ? AND\n d." + COLUMN_BIGG_ID + " LIKE " + REFSEQ_NAME
-      + " AND s.synonym <> ''";
-    return singleParamStatement(query, label);
+    return singleParamStatement(GENE_NAME_QUERY, label);
   }
 
 
@@ -375,13 +521,7 @@ public class BiGGDB {
    * @return
    */
   public static List<String> getGeneReactionRule(String reactionId, String modelId) {
-    return getReactionRules("SELECT REPLACE(REPLACE(RTRIM(REPLACE(REPLACE(mr." + COLUMN_GENE_REACTION_RULE
-      + ", 'or', '||'), 'and', '&&'), '.'), '.', '__SBML_DOT__'), '_AT', '__SBML_DOT__') AS "
-      + COLUMN_GENE_REACTION_RULE + " FROM " + MODEL_REACTION + " mr, " + REACTION + " r, " + MODEL + " m WHERE r."
-      + COLUMN_ID + " = mr." + COLUMN_REACTION_ID + " AND m." + COLUMN_ID + " = mr." + COLUMN_MODEL_ID + " AND mr."
-      + COLUMN_GENE_REACTION_RULE + " IS NOT NULL AND  LENGTH(mr." + COLUMN_GENE_REACTION_RULE + ") > 0 AND r."
-      + COLUMN_BIGG_ID + " = ? AND m." + COLUMN_BIGG_ID + " = ? AND mr.gene_reaction_rule <> '' ORDER BY mr."
-      + COLUMN_ID, reactionId, modelId);
+    return getReactionRules(GENE_REACTION_RULE_QUERY, reactionId, modelId);
   }
 
 
@@ -393,19 +533,8 @@ public class BiGGDB {
    */
   public static List<String> getReactionRules(String query, String reactionId, String modelId) {
     List<String> results = new ArrayList<>();
-    try {
-      Connection connection = connector.getConnection();
-      PreparedStatement pStatement = connection.prepareStatement(query);
-      pStatement.setString(1, reactionId);
-      pStatement.setString(2, modelId);
-      ResultSet resultSet = pStatement.executeQuery();
-      while (resultSet.next()) {
-        results.add(resultSet.getString(1));
-      }
-      pStatement.close();
-      connection.close();
-    } catch (SQLException exc) {
-      logger.warning(Utils.getMessage(exc));
+    for (String[] row : query(query, 1, reactionId, modelId)) {
+      results.add(row[0]);
     }
     return results;
   }
@@ -416,9 +545,7 @@ public class BiGGDB {
    * @return
    */
   public static Optional<String> getOrganism(String abbreviation) {
-    String query = "SELECT g." + COLUMN_ORGANISM + FROM + GENOME + " g, " + MODEL + " m WHERE m." + COLUMN_GENOME_ID
-      + " = g." + COLUMN_ID + " AND m." + COLUMN_BIGG_ID + " = ?";
-    return singleParamStatement(query, abbreviation);
+    return singleParamStatement(ORGANISM_QUERY, abbreviation);
   }
 
 
@@ -428,22 +555,9 @@ public class BiGGDB {
    */
   public static List<Pair<String, String>> getPublications(String abbreviation) {
     List<Pair<String, String>> results = new LinkedList<>();
-    String query = "SELECT p." + COLUMN_REFERENCE_TYPE + ", p." + COLUMN_REFERENCE_ID + " FROM  " + PUBLICATION + " p, "
-      + PUBLICATION_MODEL + " pm, " + MODEL + " m WHERE p." + COLUMN_ID + " = pm." + COLUMN_PUBLICATION_ID + " AND pm."
-      + COLUMN_MODEL_ID + " = m." + COLUMN_ID + " AND m." + COLUMN_BIGG_ID + " = ?";
-    try {
-      Connection connection = connector.getConnection();
-      PreparedStatement pStatement = connection.prepareStatement(query);
-      pStatement.setString(1, abbreviation);
-      ResultSet resultSet = pStatement.executeQuery();
-      while (resultSet.next()) {
-        String key = resultSet.getString(1);
-        results.add(pairOf(key.equals("pmid") ? "pubmed" : key, resultSet.getString(2)));
-      }
-      pStatement.close();
-      connection.close();
-    } catch (SQLException exc) {
-      logger.warning(Utils.getMessage(exc));
+    for (String[] row : query(PUBLICATIONS_QUERY, 2, abbreviation)) {
+      String key = row[0];
+      results.add(pairOf(key.equals("pmid") ? "pubmed" : key, row[1]));
     }
     return results;
   }
@@ -454,8 +568,7 @@ public class BiGGDB {
    * @return
    */
   public static Optional<String> getReactionName(String abbreviation) {
-    String query = "SELECT name FROM reaction WHERE bigg_id = ? AND name <> ''";
-    return singleParamStatement(query, abbreviation);
+    return singleParamStatement(REACTION_NAME_QUERY, abbreviation);
   }
 
 
@@ -466,38 +579,23 @@ public class BiGGDB {
    * @return a set of external source together with external id.
    */
   public static Set<String> getResources(BiGGId biggId, boolean includeAnyURI, boolean isReaction) {
-    String type = isReaction ? REACTION : COMPONENT;
     Set<String> resources = new TreeSet<>();
-    try {
-      String query = String.format(
-        "SELECT CONCAT(url_prefix, s.synonym) AS url FROM %s t, synonym s, data_source d WHERE t.id = s.ome_id AND s.data_source_id = d.id AND url_prefix IS NOT NULL AND %s AND t.bigg_id = ? %s",
-        type, getTypeQuery(isReaction), includeAnyURI ? "" : "AND url_prefix like '%%identifiers.org%%'");
-      Connection connection = connector.getConnection();
-      PreparedStatement pStatement = connection.prepareStatement(query);
-      pStatement.setString(1, biggId.getAbbreviation());
-      ResultSet resultSet = pStatement.executeQuery();
-      while (resultSet.next()) {
-        Registry.checkResourceUrl(resultSet.getString(1)).map(resources::add);
-      }
-      pStatement.close();
-      connection.close();
-    } catch (SQLException exc) {
-      logger.warning(Utils.getMessage(exc));
+    for (String[] row : query(resourcesQuery(false, includeAnyURI, isReaction), 1, biggId.getAbbreviation())) {
+      Registry.checkResourceUrl(row[0]).map(resources::add);
     }
     return resources;
   }
 
 
   /**
+   * @param bulk
+   *        whether the query is for many identifiers at once
+   * @param includeAnyURI
    * @param isReaction
-   * @return
+   * @return one of the {@link #RESOURCES_QUERIES}
    */
-  private static String getTypeQuery(boolean isReaction) {
-    if (isReaction) {
-      return "CAST(s.type AS \"text\") = '" + REACTION + "'";
-    }
-    return "(CAST(s.type AS \"text\") = '" + COMPONENT + "' OR CAST(s.type AS \"text\") = '"
-      + COMPARTMENTALIZED_COMPONENT + "')";
+  private static String resourcesQuery(boolean bulk, boolean includeAnyURI, boolean isReaction) {
+    return RESOURCES_QUERIES[(bulk ? 4 : 0) + (includeAnyURI ? 2 : 0) + (isReaction ? 1 : 0)];
   }
 
 
@@ -507,24 +605,16 @@ public class BiGGDB {
    */
   public static Optional<Integer> getTaxonId(String abbreviation) {
     Integer result = null;
-    String query = SELECT + COLUMN_TAXON_ID + FROM + GENOME + " g, " + MODEL + " m WHERE g." + COLUMN_ID + " = m."
-      + COLUMN_GENOME_ID + " AND m." + COLUMN_BIGG_ID + " = ? AND taxon_id IS NOT NULL";
-    try {
-      Connection connection = connector.getConnection();
-      PreparedStatement pStatement = connection.prepareStatement(query);
-      pStatement.setString(1, abbreviation);
-      ResultSet resultSet = pStatement.executeQuery();
-      while (resultSet.next()) {
-        if (result != null) {
-          logger.severe(String.format("Taxon id query returned multiple results for abbreviation: %s", abbreviation));
-        } else {
-          result = resultSet.getInt(1);
+    for (String[] row : query(TAXON_ID_QUERY, 1, abbreviation)) {
+      if (result != null) {
+        logger.severe(String.format("Taxon id query returned multiple results for abbreviation: %s", abbreviation));
+      } else {
+        try {
+          result = Integer.parseInt(row[0]);
+        } catch (NumberFormatException exc) {
+          logger.warning(format(mpMessageBundle.getString("GET_TAXON_ERROR"), abbreviation, Utils.getMessage(exc)));
         }
       }
-      pStatement.close();
-      connection.close();
-    } catch (SQLException exc) {
-      logger.warning(format(mpMessageBundle.getString("GET_TAXON_ERROR"), abbreviation, Utils.getMessage(exc)));
     }
     return result == null ? Optional.empty() : Optional.of(result);
   }
@@ -536,18 +626,13 @@ public class BiGGDB {
    */
   public static Set<String> getOnce(String table) {
     Set<String> biggIds = new LinkedHashSet<>();
-    try {
-      Connection connection = connector.getConnection();
-      String query = "SELECT bigg_id FROM " + table + " ORDER BY bigg_id";
-      PreparedStatement pStatement = connection.prepareStatement(query);
-      ResultSet resultSet = pStatement.executeQuery();
-      while (resultSet.next()) {
-        biggIds.add(resultSet.getString(1));
-      }
-      pStatement.close();
-      connection.close();
-    } catch (SQLException exc) {
-      logger.warning(String.format("Failed to fetch BiGGIDs for table '%s': '%s'", table, Utils.getMessage(exc)));
+    // no ORDER BY, the ids are sorted by the BiGGIdIndex built from them
+    String query = "SELECT bigg_id FROM " + table;
+    for (String[] row : queryLarge(query, 1)) {
+      biggIds.add(row[0]);
+    }
+    if (biggIds.isEmpty()) {
+      logger.warning(String.format("Failed to fetch BiGGIDs for table '%s'", table));
     }
     return biggIds;
   }
@@ -561,12 +646,7 @@ public class BiGGDB {
    * @return
    */
   public static Optional<Integer> getChargeByCompartment(String componentId, String compartmentId) {
-    String query = "SELECT DISTINCT mcc." + COLUMN_CHARGE + " FROM " + MCC + " mcc, " + COMPARTMENTALIZED_COMPONENT
-      + " cc, " + COMPONENT + " c, " + COMPARTMENT + " co WHERE c." + COLUMN_BIGG_ID + " = ? AND c." + COLUMN_ID
-      + " = cc." + COLUMN_COMPONENT_ID + " AND co." + COLUMN_BIGG_ID + " = ? AND co." + COLUMN_ID + " = cc."
-      + COLUMN_COMPARTMENT_ID + " and cc." + COLUMN_ID + " = mcc." + COLUMN_COMPARTMENTALIZED_COMPONENT_ID
-      + " AND LENGTH(CAST( mcc." + COLUMN_CHARGE + " AS text)) > 0 ORDER BY mcc." + COLUMN_CHARGE;
-    Set<String> results = runChargeQuery(query, componentId, compartmentId);
+    Set<String> results = runChargeQuery(CHARGE_BY_COMPARTMENT_QUERY, componentId, compartmentId);
     if (results.size() == 1) {
       return Optional.of(Integer.parseInt(results.iterator().next()));
     } else {
@@ -587,19 +667,8 @@ public class BiGGDB {
    */
   private static Set<String> runChargeQuery(String query, String componentId, String compartmentOrModelId) {
     Set<String> results = new HashSet<>();
-    try {
-      Connection connection = connector.getConnection();
-      PreparedStatement pStatement = connection.prepareStatement(query);
-      pStatement.setString(1, componentId);
-      pStatement.setString(2, compartmentOrModelId);
-      ResultSet resultSet = pStatement.executeQuery();
-      while (resultSet.next()) {
-        results.add(resultSet.getString(1));
-      }
-      pStatement.close();
-      connection.close();
-    } catch (SQLException exc) {
-      logger.warning(Utils.getMessage(exc));
+    for (String[] row : query(query, 1, componentId, compartmentOrModelId)) {
+      results.add(row[0]);
     }
     return results.stream().filter(charge -> charge != null && !charge.isEmpty()).collect(Collectors.toSet());
   }
@@ -613,12 +682,7 @@ public class BiGGDB {
    * @return
    */
   public static Optional<Integer> getCharge(String componentId, String modelId) {
-    String query =
-      "SELECT DISTINCT mcc." + COLUMN_CHARGE + "\n FROM " + COMPONENT + " c,\n" + COMPARTMENTALIZED_COMPONENT + " cc,\n"
-        + MODEL + " m,\n" + MCC + " mcc\n WHERE c." + COLUMN_ID + " = cc." + COLUMN_COMPONENT_ID + " AND\n cc."
-        + COLUMN_ID + " = mcc." + COLUMN_COMPARTMENTALIZED_COMPONENT_ID + " AND\n c." + COLUMN_BIGG_ID + " = ? AND\n m."
-        + COLUMN_BIGG_ID + " = ? AND\n m." + COLUMN_ID + " = mcc." + COLUMN_MODEL_ID + " AND mcc.charge IS NOT NULL";
-    Set<String> results = runChargeQuery(query, componentId, modelId);
+    Set<String> results = runChargeQuery(CHARGE_QUERY, componentId, modelId);
     if (results.size() == 1) {
       return Optional.of(Integer.parseInt(results.iterator().next()));
     } else {
@@ -636,8 +700,7 @@ public class BiGGDB {
    * @return
    */
   public static boolean isPseudoreaction(String reactionId) {
-    String query = "SELECT pseudoreaction FROM reaction WHERE bigg_id = ?";
-    Optional<String> result = singleParamStatement(query, reactionId);
+    Optional<String> result = singleParamStatement(PSEUDOREACTION_QUERY, reactionId);
     return result.isPresent() && result.get().equals("t");
   }
 
@@ -653,35 +716,19 @@ public class BiGGDB {
     String query;
     switch (type) {
     case TYPE_SPECIES:
-      query = SELECT + "c." + COLUMN_BIGG_ID + FROM + COMPONENT + " c, " + DATA_SOURCE + " d, " + SYNONYM + " s" + WHERE
-        + "d." + COLUMN_BIGG_ID + " = ? AND d." + COLUMN_ID + " = s." + COLUMN_DATA_SOURCE_ID + " AND s."
-        + COLUMN_SYNONYM + " = ? AND s." + COLUMN_OME_ID + " = c." + COLUMN_ID;
+      query = SPECIES_FROM_SYNONYM_QUERY;
       break;
     case TYPE_REACTION:
-      query = SELECT + "r." + COLUMN_BIGG_ID + FROM + REACTION + " r, " + DATA_SOURCE + " d, " + SYNONYM + " s" + WHERE
-        + "d." + COLUMN_BIGG_ID + " = ? AND d." + COLUMN_ID + " = s." + COLUMN_DATA_SOURCE_ID + " AND s."
-        + COLUMN_SYNONYM + " = ? AND s." + COLUMN_OME_ID + " = r." + COLUMN_ID;
+      query = REACTION_FROM_SYNONYM_QUERY;
       break;
     case TYPE_GENE_PRODUCT:
-      query = SELECT + "g." + COLUMN_LOCUS_TAG + FROM + GENE + " g, " + DATA_SOURCE + " d, " + SYNONYM + " s" + WHERE
-        + "d." + COLUMN_BIGG_ID + " = ? AND d." + COLUMN_ID + " = s." + COLUMN_DATA_SOURCE_ID + " AND s."
-        + COLUMN_SYNONYM + " = ? AND s." + COLUMN_OME_ID + " = g." + COLUMN_ID;
+      query = GENE_FROM_SYNONYM_QUERY;
       break;
     default:
       return Optional.empty();
     }
-    try {
-      Connection connection = connector.getConnection();
-      PreparedStatement pStatement = connection.prepareStatement(query);
-      pStatement.setString(1, dataSourceId);
-      pStatement.setString(2, synonym);
-      ResultSet resultSet = pStatement.executeQuery();
-      while (resultSet.next()) {
-        results.add(resultSet.getString(1));
-      }
-      connection.close();
-    } catch (SQLException exc) {
-      logger.warning(Utils.getMessage(exc));
+    for (String[] row : query(query, 1, dataSourceId, synonym)) {
+      results.add(row[0]);
     }
     results = results.stream().filter(biggId -> biggId != null && !biggId.isEmpty()).collect(Collectors.toSet());
     if (results.size() == 1) {
@@ -690,4 +737,91 @@ public class BiGGDB {
       return Optional.empty();
     }
   }
+
+
+  /**
+   * @param componentIds
+   * @return rows of component id, name and type
+   */
+  static List<String[]> getComponents(Collection<String> componentIds) {
+    return queryLarge(BULK_COMPONENTS_QUERY, 3, componentIds);
+  }
+
+
+  /**
+   * @param reactionIds
+   * @return rows of reaction id, name and pseudoreaction flag
+   */
+  static List<String[]> getReactions(Collection<String> reactionIds) {
+    return queryLarge(BULK_REACTIONS_QUERY, 3, reactionIds);
+  }
+
+
+  /**
+   * @param biggIds
+   * @param includeAnyURI
+   * @param isReaction
+   * @return rows of component or reaction id and resource URL
+   */
+  static List<String[]> getResources(Collection<String> biggIds, boolean includeAnyURI, boolean isReaction) {
+    return queryLarge(resourcesQuery(true, includeAnyURI, isReaction), 2, biggIds);
+  }
+
+
+  /**
+   * @param componentIds
+   * @param modelId
+   * @return rows of component id, chemical formula and charge within the given model
+   */
+  static List<String[]> getFormulasAndCharges(Collection<String> componentIds, String modelId) {
+    return queryLarge(BULK_FORMULAS_AND_CHARGES_QUERY, 3, componentIds, modelId);
+  }
+
+
+  /**
+   * @param componentIds
+   * @return rows of component id, compartment id, chemical formula and charge across all models
+   */
+  static List<String[]> getFormulasAndChargesByCompartment(Collection<String> componentIds) {
+    return queryLarge(BULK_FORMULAS_AND_CHARGES_BY_COMPARTMENT_QUERY, 4, componentIds);
+  }
+
+
+  /**
+   * @param reactionIds
+   * @param modelId
+   * @return rows of reaction id and gene reaction rule, in the same order as
+   *         {@link #getGeneReactionRule(String, String)}
+   */
+  static List<String[]> getGeneReactionRules(Collection<String> reactionIds, String modelId) {
+    return queryLarge(BULK_GENE_REACTION_RULES_QUERY, 2, reactionIds, modelId);
+  }
+
+
+  /**
+   * @param modelId
+   * @param reactionIds
+   * @return rows of reaction id and subsystem
+   */
+  static List<String[]> getSubsystems(String modelId, Collection<String> reactionIds) {
+    return queryLarge(BULK_SUBSYSTEMS_QUERY, 2, modelId, reactionIds);
+  }
+
+
+  /**
+   * @param labels
+   * @return rows of gene label, data source URL prefix and synonym
+   */
+  static List<String[]> getGeneIds(Collection<String> labels) {
+    return queryLarge(BULK_GENE_IDS_QUERY, 3, labels);
+  }
+
+
+  /**
+   * @param labels
+   * @return rows of gene label and gene name
+   */
+  static List<String[]> getGeneNames(Collection<String> labels) {
+    return queryLarge(BULK_GENE_NAMES_QUERY, 2, labels);
+  }
 }
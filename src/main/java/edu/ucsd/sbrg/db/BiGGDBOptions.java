@@ -3,6 +3,8 @@
  */
 package edu.ucsd.sbrg.db;
 
+import java.io.File;
+
 import de.zbit.util.prefs.KeyProvider;
 import de.zbit.util.prefs.Option;
 
@@ -36,4 +38,35 @@ public interface BiGGDBOptions extends KeyProvider {
    */
   @SuppressWarnings("unchecked")
   Option<String> DBNAME = new Option<>("BiGG_DBNAME", String.class, "The name of the database to use.", "bigg");
+  /**
+   *
+   */
+  @SuppressWarnings("unchecked")
+  Option<Integer> POOL_SIZE = new Option<>("BiGG_POOL_SIZE", Integer.class, "Maximum number of connections", 16);
+  /**
+   *
+   */
+  @SuppressWarnings("unchecked")
+  Option<Integer> FETCH_SIZE =
+    new Option<>("BiGG_FETCH_SIZE", Integer.class,
+      "Number of rows fetched from the database per round trip by lookups that return many rows", 1000);
+  /**
+   *
+   */
+  @SuppressWarnings("unchecked")
+  Option<File> CACHE_DIR = new Option<>("BiGG_CACHE_DIR", File.class,
+    "Directory in which query results are cached across runs, as long as the BiGG database version does not change. "
+      + "The directory can be shared by several processes.");
+  /**
+   *
+   */
+  @SuppressWarnings("unchecked")
+  Option<File> SNAPSHOT = new Option<>("BiGG_SNAPSHOT", File.class,
+    "Snapshot file to use instead of the BiGG and AnnotateDB databases, see BiGG_SNAPSHOT_EXPORT.");
+  /**
+   *
+   */
+  @SuppressWarnings("unchecked")
+  Option<File> SNAPSHOT_EXPORT = new Option<>("BiGG_SNAPSHOT_EXPORT", File.class,
+    "Export the BiGG database, and AnnotateDB if add-adb-annotations is set, to the given snapshot file and exit.");
 }
@@ -0,0 +1,427 @@
+package edu.ucsd.sbrg.db;
+
+import static edu.ucsd.sbrg.bigg.ModelPolisher.mpMessageBundle;
+import static java.text.MessageFormat.format;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.logging.Logger;
+
+import edu.ucsd.sbrg.bigg.BiGGId;
+import edu.ucsd.sbrg.miriam.Registry;
+
+/**
+ * In-memory snapshot of the BiGG data needed to annotate a single model. All
+ * components, reactions and genes of a model are fetched with one set based
+ * query per category instead of one query per entity. Lookups for identifiers
+ * that were not part of the prefetch, e.g., because they were only resolved
+ * from a synonym during annotation, are delegated to {@link BiGGDB}. All
+ * methods mirror the corresponding methods in {@link BiGGDB}.
+ */
+public class BiGGDBPrefetch {
+
+  /**
+   * A {@link Logger} for this class.
+   */
+  private static final transient Logger logger = Logger.getLogger(BiGGDBPrefetch.class.getName());
+  /**
+   * BiGG id of the model that was prefetched
+   */
+  private final String modelId;
+  /**
+   * Whether resources were fetched including URIs that are not from identifiers.org
+   */
+  private final boolean includeAnyURI;
+  /**
+   * Identifiers that were part of the prefetch
+   */
+  private final Set<String> components;
+  private final Set<String> reactions;
+  private final Set<String> genes;
+  /**
+   * Prefetched data, keyed by component, reaction or gene identifier
+   */
+  private final Map<String, Set<String>> componentNames = new HashMap<>();
+  private final Map<String, Set<String>> componentTypes = new HashMap<>();
+  private final Map<String, Set<String>> componentResources = new HashMap<>();
+  private final Map<String, Set<String>> formulas = new HashMap<>();
+  private final Map<String, Set<String>> charges = new HashMap<>();
+  private final Map<String, Map<String, Set<String>>> formulasByCompartment = new HashMap<>();
+  private final Map<String, Map<String, Set<String>>> chargesByCompartment = new HashMap<>();
+  private final Map<String, Set<String>> reactionNames = new HashMap<>();
+  private final Set<String> pseudoreactions = new HashSet<>();
+  private final Map<String, Set<String>> reactionResources = new HashMap<>();
+  private final Map<String, List<String>> geneReactionRules = new HashMap<>();
+  private final Map<String, Set<String>> subsystems = new HashMap<>();
+  private final Map<String, TreeSet<String>> geneIds = new HashMap<>();
+  private final Map<String, Set<String>> geneNames = new HashMap<>();
+
+  /**
+   * @param modelId
+   * @param components
+   * @param reactions
+   * @param genes
+   * @param includeAnyURI
+   */
+  private BiGGDBPrefetch(String modelId, Set<String> components, Set<String> reactions, Set<String> genes,
+    boolean includeAnyURI) {
+    this.modelId = modelId;
+    this.components = components;
+    this.reactions = reactions;
+    this.genes = genes;
+    this.includeAnyURI = includeAnyURI;
+  }
+
+
+  /**
+   * Fetches all data for the given identifiers from BiGG Models.
+   *
+   * @param modelId
+   *        BiGG id of the model, used for model specific formulas, charges,
+   *        gene reaction rules and subsystems
+   * @param components
+   *        abbreviations of all metabolites in the model
+   * @param reactions
+   *        abbreviations of all reactions in the model
+   * @param genes
+   *        labels of all gene products in the model
+   * @param includeAnyURI
+   * @return
+   */
+  public static BiGGDBPrefetch prefetch(String modelId, Set<String> components, Set<String> reactions,
+    Set<String> genes, boolean includeAnyURI) {
+    long time = System.currentTimeMillis();
+    BiGGDBPrefetch prefetch = new BiGGDBPrefetch(modelId, new HashSet<>(components), new HashSet<>(reactions),
+      new HashSet<>(genes), includeAnyURI);
+    if (!components.isEmpty()) {
+      prefetch.fetchComponents();
+    }
+    if (!reactions.isEmpty()) {
+      prefetch.fetchReactions();
+    }
+    if (!genes.isEmpty()) {
+      prefetch.fetchGenes();
+    }
+    logger.fine(format(mpMessageBundle.getString("PREFETCH_INFO"), components.size(), reactions.size(), genes.size(),
+      System.currentTimeMillis() - time));
+    return prefetch;
+  }
+
+
+  /**
+   *
+   */
+  private void fetchComponents() {
+    for (String[] row : BiGGDB.getComponents(components)) {
+      add(componentNames, row[0], row[1]);
+      add(componentTypes, row[0], row[2]);
+    }
+    for (String[] row : BiGGDB.getResources(components, includeAnyURI, false)) {
+      addResource(componentResources, row[0], row[1]);
+    }
+    if (modelId != null) {
+      for (String[] row : BiGGDB.getFormulasAndCharges(components, modelId)) {
+        add(formulas, row[0], row[1]);
+        add(charges, row[0], row[2]);
+      }
+    }
+    for (String[] row : BiGGDB.getFormulasAndChargesByCompartment(components)) {
+      add(formulasByCompartment.computeIfAbsent(row[0], key -> new HashMap<>()), row[1], row[2]);
+      add(chargesByCompartment.computeIfAbsent(row[0], key -> new HashMap<>()), row[1], row[3]);
+    }
+  }
+
+
+  /**
+   *
+   */
+  private void fetchReactions() {
+    for (String[] row : BiGGDB.getReactions(reactions)) {
+      add(reactionNames, row[0], row[1]);
+      if ("t".equals(row[2])) {
+        pseudoreactions.add(row[0]);
+      }
+    }
+    for (String[] row : BiGGDB.getResources(reactions, includeAnyURI, true)) {
+      addResource(reactionResources, row[0], row[1]);
+    }
+    if (modelId != null) {
+      for (String[] row : BiGGDB.getGeneReactionRules(reactions, modelId)) {
+        geneReactionRules.computeIfAbsent(row[0], key -> new ArrayList<>()).add(row[1]);
+      }
+      for (String[] row : BiGGDB.getSubsystems(modelId, reactions)) {
+        add(subsystems, row[0], row[1]);
+      }
+    }
+  }
+
+
+  /**
+   *
+   */
+  private void fetchGenes() {
+    for (String[] row : BiGGDB.getGeneIds(genes)) {
+      String collection = row[1];
+      String identifier = row[2];
+      if (collection == null) {
+        logger.fine(mpMessageBundle.getString("COLLECTION_NULL_GENE"));
+      } else if (identifier == null) {
+        logger.warning(format(mpMessageBundle.getString("IDENTIFIER_NULL_GENE"), collection));
+      } else {
+        String resource = collection.replaceAll("http://", "https://") + identifier;
+        Registry.checkResourceUrl(resource)
+                .map(url -> geneIds.computeIfAbsent(row[0], key -> new TreeSet<>()).add(url));
+      }
+    }
+    for (String[] row : BiGGDB.getGeneNames(genes)) {
+      add(geneNames, row[0], row[1]);
+    }
+  }
+
+
+  /**
+   * Adds a value to the set of values for the given key, ignoring {@code null}
+   * and empty values in the same way as the single entity queries
+   *
+   * @param map
+   * @param key
+   * @param value
+   */
+  private static void add(Map<String, Set<String>> map, String key, String value) {
+    if ((value != null) && !value.isEmpty()) {
+      map.computeIfAbsent(key, k -> new LinkedHashSet<>()).add(value);
+    }
+  }
+
+
+  /**
+   * @param map
+   * @param key
+   * @param url
+   */
+  private static void addResource(Map<String, Set<String>> map, String key, String url) {
+    Registry.checkResourceUrl(url).map(resource -> map.computeIfAbsent(key, k -> new TreeSet<>()).add(resource));
+  }
+
+
+  /**
+   * @param values
+   * @return the only value, if there is exactly one
+   */
+  private static Optional<String> unique(Set<String> values) {
+    if ((values != null) && (values.size() == 1)) {
+      return Optional.of(values.iterator().next());
+    }
+    return Optional.empty();
+  }
+
+
+  /**
+   * @param map
+   * @param key
+   * @return the only value for the given key, a severe message is logged, if
+   *         there are multiple values, just like
+   *         {@link BiGGDB#singleParamStatement(String, String)} does
+   */
+  private static Optional<String> uniqueOrLog(Map<String, Set<String>> map, String key) {
+    Set<String> values = map.get(key);
+    if ((values != null) && (values.size() > 1)) {
+      logger.severe(String.format("Query returned multiple results for parameter %s", key));
+    }
+    return unique(values);
+  }
+
+
+  /**
+   * @param biggId
+   * @return
+   */
+  public Optional<String> getComponentName(BiGGId biggId) {
+    if (!components.contains(biggId.getAbbreviation())) {
+      return BiGGDB.getComponentName(biggId);
+    }
+    return uniqueOrLog(componentNames, biggId.getAbbreviation());
+  }
+
+
+  /**
+   * @param biggId
+   * @return
+   */
+  public Optional<String> getComponentType(BiGGId biggId) {
+    if (!components.contains(biggId.getAbbreviation())) {
+      return BiGGDB.getComponentType(biggId);
+    }
+    return uniqueOrLog(componentTypes, biggId.getAbbreviation());
+  }
+
+
+  /**
+   * @param biggId
+   * @param includeAnyURI
+   * @param isReaction
+   * @return
+   */
+  public Set<String> getResources(BiGGId biggId, boolean includeAnyURI, boolean isReaction) {
+    String abbreviation = biggId.getAbbreviation();
+    if ((includeAnyURI != this.includeAnyURI) || !(isReaction ? reactions : components).contains(abbreviation)) {
+      return BiGGDB.getResources(biggId, includeAnyURI, isReaction);
+    }
+    Set<String> resources = (isReaction ? reactionResources : componentResources).get(abbreviation);
+    return resources == null ? new TreeSet<>() : new TreeSet<>(resources);
+  }
+
+
+  /**
+   * @param componentId
+   * @param modelId
+   * @return
+   */
+  public Optional<String> getChemicalFormula(String componentId, String modelId) {
+    if (!modelId.equals(this.modelId) || !components.contains(componentId)) {
+      return BiGGDB.getChemicalFormula(componentId, modelId);
+    }
+    Set<String> results = formulas.get(componentId);
+    if ((results != null) && (results.size() > 1)) {
+      logger.info(String.format("Could not retrieve unique chemical formula for component '%s' and model '%s'",
+        componentId, modelId));
+    }
+    return unique(results);
+  }
+
+
+  /**
+   * @param componentId
+   * @param compartmentId
+   * @return
+   */
+  public Optional<String> getChemicalFormulaByCompartment(String componentId, String compartmentId) {
+    if (!components.contains(componentId)) {
+      return BiGGDB.getChemicalFormulaByCompartment(componentId, compartmentId);
+    }
+    Set<String> results = formulasByCompartment.getOrDefault(componentId, Collections.emptyMap()).get(compartmentId);
+    if ((results != null) && (results.size() > 1)) {
+      logger.info(String.format("Could not retrieve unique chemical formula for component '%s' and compartment '%s'",
+        componentId, compartmentId));
+    }
+    return unique(results);
+  }
+
+
+  /**
+   * @param componentId
+   * @param modelId
+   * @return
+   */
+  public Optional<Integer> getCharge(String componentId, String modelId) {
+    if (!modelId.equals(this.modelId) || !components.contains(componentId)) {
+      return BiGGDB.getCharge(componentId, modelId);
+    }
+    Set<String> results = charges.get(componentId);
+    if ((results != null) && (results.size() > 1)) {
+      logger.warning(String.format("Could not retrieve unique charge for component '%s' and compartment '%s'",
+        componentId, modelId));
+    }
+    return unique(results).map(Integer::parseInt);
+  }
+
+
+  /**
+   * @param componentId
+   * @param compartmentId
+   * @return
+   */
+  public Optional<Integer> getChargeByCompartment(String componentId, String compartmentId) {
+    if (!components.contains(componentId)) {
+      return BiGGDB.getChargeByCompartment(componentId, compartmentId);
+    }
+    Set<String> results = chargesByCompartment.getOrDefault(componentId, Collections.emptyMap()).get(compartmentId);
+    if ((results != null) && (results.size() > 1)) {
+      logger.warning(String.format("Could not retrieve unique charge for component '%s' and compartment '%s'",
+        componentId, compartmentId));
+    }
+    return unique(results).map(Integer::parseInt);
+  }
+
+
+  /**
+   * @param reactionId
+   * @return
+   */
+  public boolean isPseudoreaction(String reactionId) {
+    if (!reactions.contains(reactionId)) {
+      return BiGGDB.isPseudoreaction(reactionId);
+    }
+    return pseudoreactions.contains(reactionId);
+  }
+
+
+  /**
+   * @param abbreviation
+   * @return
+   */
+  public Optional<String> getReactionName(String abbreviation) {
+    if (!reactions.contains(abbreviation)) {
+      return BiGGDB.getReactionName(abbreviation);
+    }
+    return uniqueOrLog(reactionNames, abbreviation);
+  }
+
+
+  /**
+   * @param reactionId
+   * @param modelId
+   * @return
+   */
+  public List<String> getGeneReactionRule(String reactionId, String modelId) {
+    if (!modelId.equals(this.modelId) || !reactions.contains(reactionId)) {
+      return BiGGDB.getGeneReactionRule(reactionId, modelId);
+    }
+    return new ArrayList<>(geneReactionRules.getOrDefault(reactionId, Collections.emptyList()));
+  }
+
+
+  /**
+   * @param modelId
+   * @param reactionId
+   * @return
+   */
+  public List<String> getSubsystems(String modelId, String reactionId) {
+    if (!modelId.equals(this.modelId) || !reactions.contains(reactionId)) {
+      return BiGGDB.getSubsystems(modelId, reactionId);
+    }
+    return new ArrayList<>(subsystems.getOrDefault(reactionId, Collections.emptySet()));
+  }
+
+
+  /**
+   * @param label
+   * @return
+   */
+  public TreeSet<String> getGeneIds(String label) {
+    if (!genes.contains(label)) {
+      return BiGGDB.getGeneIds(label);
+    }
+    return new TreeSet<>(geneIds.getOrDefault(label, new TreeSet<>()));
+  }
+
+
+  /**
+   * @param label
+   * @return
+   */
+  public Optional<String> getGeneName(String label) {
+    if (!genes.contains(label)) {
+      return BiGGDB.getGeneName(label);
+    }
+    return uniqueOrLog(geneNames, label);
+  }
+}
@@ -0,0 +1,192 @@
+package edu.ucsd.sbrg.db;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Immutable set of identifiers, e.g., all BiGG ids of one table. The ids are
+ * sorted and packed into a single byte array, one byte per character, so that
+ * the index needs little more memory than the characters themselves.
+ * Membership checks run a binary search directly on the packed bytes and do
+ * not allocate, which also allows to check a part of a {@link CharSequence},
+ * e.g., an id without its {@code M_} prefix. Instances can be shared between
+ * threads without synchronization.
+ */
+public final class BiGGIdIndex {
+
+  /**
+   * Characters of all ids in ascending order
+   */
+  private final byte[] data;
+  /**
+   * Start of the i-th id in {@link #data}, with an additional entry for the end
+   * of the last id
+   */
+  private final int[] offsets;
+  /**
+   * Ids containing characters that do not fit into one byte; these do not occur
+   * in BiGG, but are supported for completeness
+   */
+  private final Set<String> wide;
+
+  /**
+   * @param data
+   * @param offsets
+   * @param wide
+   */
+  private BiGGIdIndex(byte[] data, int[] offsets, Set<String> wide) {
+    this.data = data;
+    this.offsets = offsets;
+    this.wide = wide;
+  }
+
+
+  /**
+   * @param ids
+   * @return an index of the given ids, ignoring duplicates and {@code null}
+   */
+  public static BiGGIdIndex of(Collection<String> ids) {
+    TreeSet<String> sorted = new TreeSet<>();
+    Set<String> wide = new TreeSet<>();
+    int length = 0;
+    for (String id : ids) {
+      if (id == null) {
+        continue;
+      }
+      if (id.chars().allMatch(c -> c <= 0xff)) {
+        if (sorted.add(id)) {
+          length += id.length();
+        }
+      } else {
+        wide.add(id);
+      }
+    }
+    byte[] data = new byte[length];
+    int[] offsets = new int[sorted.size() + 1];
+    int i = 0, position = 0;
+    for (String id : sorted) {
+      offsets[i++] = position;
+      for (int c = 0; c < id.length(); c++) {
+        data[position++] = (byte) id.charAt(c);
+      }
+    }
+    offsets[i] = position;
+    return new BiGGIdIndex(data, offsets, wide.isEmpty() ? Set.of() : Set.copyOf(wide));
+  }
+
+
+  /**
+   * @param id
+   * @return
+   */
+  public boolean contains(CharSequence id) {
+    return contains(id, 0);
+  }
+
+
+  /**
+   * @param id
+   * @param from
+   *        index of the first character of the id within the given sequence
+   * @return whether the sequence from the given position on is in this index
+   */
+  public boolean contains(CharSequence id, int from) {
+    int low = 0;
+    int high = offsets.length - 2;
+    while (low <= high) {
+      int middle = (low + high) >>> 1;
+      int comparison = compare(middle, id, from);
+      if (comparison < 0) {
+        low = middle + 1;
+      } else if (comparison > 0) {
+        high = middle - 1;
+      } else {
+        return true;
+      }
+    }
+    return !wide.isEmpty() && wide.contains(id.subSequence(from, id.length()).toString());
+  }
+
+
+  /**
+   * Compares the i-th id to the given sequence like {@link String#compareTo(String)}
+   *
+   * @param i
+   * @param id
+   * @param from
+   * @return
+   */
+  private int compare(int i, CharSequence id, int from) {
+    int start = offsets[i];
+    int length = offsets[i + 1] - start;
+    int otherLength = id.length() - from;
+    int limit = Math.min(length, otherLength);
+    for (int c = 0; c < limit; c++) {
+      int difference = (data[start + c] & 0xff) - id.charAt(from + c);
+      if (difference != 0) {
+        return difference;
+      }
+    }
+    return length - otherLength;
+  }
+
+
+  /**
+   * @return the number of ids in this index
+   */
+  public int size() {
+    return offsets.length - 1 + wide.size();
+  }
+
+
+  /**
+   * @return approximate number of bytes occupied by this index, i.e., the
+   *         packed characters, their offsets and the array headers
+   */
+  public long getMemoryFootprint() {
+    long footprint = 16L + data.length + 16L + 4L * offsets.length;
+    for (String id : wide) {
+      footprint += 40L + 2L * id.length();
+    }
+    return footprint;
+  }
+
+
+  /*
+   * (non-Javadoc)
+   * @see java.lang.Object#toString()
+   */
+  @Override
+  public String toString() {
+    return getClass().getSimpleName() + " [size=" + size() + ", bytes=" + getMemoryFootprint() + "]";
+  }
+
+
+  /*
+   * (non-Javadoc)
+   * @see java.lang.Object#equals(java.lang.Object)
+   */
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (!(obj instanceof BiGGIdIndex)) {
+      return false;
+    }
+    BiGGIdIndex other = (BiGGIdIndex) obj;
+    return Arrays.equals(data, other.data) && Arrays.equals(offsets, other.offsets) && wide.equals(other.wide);
+  }
+
+
+  /*
+   * (non-Javadoc)
+   * @see java.lang.Object#hashCode()
+   */
+  @Override
+  public int hashCode() {
+    return 31 * Arrays.hashCode(offsets) + Arrays.hashCode(data);
+  }
+}
@@ -0,0 +1,269 @@
+package edu.ucsd.sbrg.db;
+
+import static edu.ucsd.sbrg.bigg.ModelPolisher.mpMessageBundle;
+import static edu.ucsd.sbrg.db.AnnotateDBContract.Constants.ADB_COLLECTION;
+import static edu.ucsd.sbrg.db.AnnotateDBContract.Constants.MAPPING_VIEW;
+import static edu.ucsd.sbrg.db.BiGGDBContract.Constants.COMPARTMENT;
+import static edu.ucsd.sbrg.db.BiGGDBContract.Constants.COMPARTMENTALIZED_COMPONENT;
+import static edu.ucsd.sbrg.db.BiGGDBContract.Constants.COMPONENT;
+import static edu.ucsd.sbrg.db.BiGGDBContract.Constants.DATABASE_VERSION;
+import static edu.ucsd.sbrg.db.BiGGDBContract.Constants.DATA_SOURCE;
+import static edu.ucsd.sbrg.db.BiGGDBContract.Constants.GENE;
+import static edu.ucsd.sbrg.db.BiGGDBContract.Constants.GENOME;
+import static edu.ucsd.sbrg.db.BiGGDBContract.Constants.GENOME_REGION;
+import static edu.ucsd.sbrg.db.BiGGDBContract.Constants.MCC;
+import static edu.ucsd.sbrg.db.BiGGDBContract.Constants.MODEL;
+import static edu.ucsd.sbrg.db.BiGGDBContract.Constants.MODEL_REACTION;
+import static edu.ucsd.sbrg.db.BiGGDBContract.Constants.PUBLICATION;
+import static edu.ucsd.sbrg.db.BiGGDBContract.Constants.PUBLICATION_MODEL;
+import static edu.ucsd.sbrg.db.BiGGDBContract.Constants.REACTION;
+import static edu.ucsd.sbrg.db.BiGGDBContract.Constants.SYNONYM;
+import static java.text.MessageFormat.format;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.Arrays;
+import java.util.StringJoiner;
+import java.util.logging.Logger;
+
+/**
+ * Exports the tables queried by {@link BiGGDB} and {@link AnnotateDB} into a
+ * single indexed SQLite file. Such a snapshot can be used instead of the
+ * PostgreSQL databases, see {@link BiGGDBOptions#SNAPSHOT}.
+ */
+public final class BiGGSnapshot {
+
+  /**
+   * A {@link Logger} for this class.
+   */
+  private static final transient Logger logger = Logger.getLogger(BiGGSnapshot.class.getName());
+  /**
+   * Tables and views used by {@link BiGGDB}
+   */
+  private static final String[] BIGG_TABLES = {DATABASE_VERSION, COMPARTMENT, COMPARTMENTALIZED_COMPONENT, COMPONENT,
+    DATA_SOURCE, GENE, GENOME, GENOME_REGION, MCC, MODEL, MODEL_REACTION, PUBLICATION, PUBLICATION_MODEL, REACTION,
+    SYNONYM};
+  /**
+   * Tables and views used by {@link AnnotateDB}
+   */
+  private static final String[] ADB_TABLES = {MAPPING_VIEW, ADB_COLLECTION};
+  /**
+   * Indices matching the conditions of the lookups in {@link BiGGDB} and
+   * {@link AnnotateDB}
+   */
+  private static final String[][] BIGG_INDICES = {{COMPARTMENT, "bigg_id"}, {COMPONENT, "bigg_id"},
+    {DATA_SOURCE, "bigg_id"}, {GENOME_REGION, "bigg_id"}, {MODEL, "bigg_id"}, {REACTION, "bigg_id"},
+    {COMPARTMENTALIZED_COMPONENT, "component_id"}, {MCC, "compartmentalized_component_id"},
+    {MODEL_REACTION, "reaction_id"}, {PUBLICATION_MODEL, "model_id"}, {SYNONYM, "ome_id"}, {SYNONYM, "synonym"}};
+  private static final String[][] ADB_INDICES = {{MAPPING_VIEW, "source_namespace", "source_term"},
+    {ADB_COLLECTION, "namespace"}};
+  /**
+   * Number of rows inserted per batch
+   */
+  private static final int BATCH_SIZE = 10000;
+
+  /**
+   * Don't allow instantiation
+   */
+  private BiGGSnapshot() {
+  }
+
+
+  /**
+   * Writes all data needed for annotation from the databases currently in use
+   * to the given file. AnnotateDB is only included if it is in use.
+   *
+   * @param snapshot
+   * @throws IOException
+   */
+  public static void export(File snapshot) throws IOException {
+    if (!BiGGDB.inUse()) {
+      throw new IOException(mpMessageBundle.getString("SNAPSHOT_NO_BIGG"));
+    }
+    export(BiGGDB.getConnector(), AnnotateDB.inUse() ? AnnotateDB.getConnector() : null, snapshot);
+  }
+
+
+  /**
+   * @param bigg
+   *        the database to copy the tables of {@link BiGGDB} from
+   * @param adb
+   *        the database to copy the tables of {@link AnnotateDB} from, or
+   *        {@code null} to leave them out
+   * @param snapshot
+   * @throws IOException
+   */
+  static void export(SQLConnector bigg, SQLConnector adb, File snapshot) throws IOException {
+    File parent = snapshot.getAbsoluteFile().getParentFile();
+    if (!parent.isDirectory() && !parent.mkdirs()) {
+      throw new IOException(format(mpMessageBundle.getString("DIRECTORY_CREATION_FAILED"), parent));
+    }
+    // write to a temporary file, so that an aborted export never leaves a truncated snapshot
+    File tmp = File.createTempFile(snapshot.getName(), ".tmp", parent);
+    try (Connection target = DriverManager.getConnection("jdbc:sqlite:" + tmp.getAbsolutePath())) {
+      target.setAutoCommit(false);
+      copy(bigg, target, BIGG_TABLES, BIGG_INDICES);
+      if (adb != null) {
+        copy(adb, target, ADB_TABLES, ADB_INDICES);
+      }
+      target.commit();
+    } catch (SQLException exc) {
+      Files.deleteIfExists(tmp.toPath());
+      throw new IOException(exc);
+    }
+    Files.move(tmp.toPath(), snapshot.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    logger.info(format(mpMessageBundle.getString("SNAPSHOT_EXPORT_DONE"), snapshot.getAbsolutePath()));
+  }
+
+
+  /**
+   * @param source
+   * @param target
+   * @param tables
+   * @param indices
+   * @throws SQLException
+   */
+  private static void copy(SQLConnector source, Connection target, String[] tables, String[][] indices)
+    throws SQLException {
+    try (Connection connection = source.getConnection()) {
+      // PostgreSQL only streams results with a fetch size inside a transaction
+      connection.setAutoCommit(false);
+      for (String table : tables) {
+        copyTable(connection, target, table);
+      }
+    }
+    try (Statement statement = target.createStatement()) {
+      for (String[] index : indices) {
+        String[] columns = Arrays.copyOfRange(index, 1, index.length);
+        statement.execute(format("CREATE INDEX {0}_{1} ON {0} ({2})", index[0], String.join("_", columns),
+          String.join(", ", columns)));
+      }
+    }
+  }
+
+
+  /**
+   * @param connection
+   * @param target
+   * @param table
+   * @throws SQLException
+   */
+  private static void copyTable(Connection connection, Connection target, String table) throws SQLException {
+    try (Statement select = connection.createStatement()) {
+      select.setFetchSize(BATCH_SIZE);
+      try (ResultSet resultSet = select.executeQuery("SELECT * FROM " + table)) {
+        ResultSetMetaData metaData = resultSet.getMetaData();
+        int columns = metaData.getColumnCount();
+        StringJoiner definition = new StringJoiner(", ", "CREATE TABLE " + table + " (", ")");
+        StringJoiner placeholders = new StringJoiner(", ", "INSERT INTO " + table + " VALUES (", ")");
+        int[] types = new int[columns];
+        for (int column = 1; column <= columns; column++) {
+          types[column - 1] = affinity(metaData.getColumnType(column));
+          definition.add(metaData.getColumnName(column) + " " + typeName(types[column - 1]));
+          placeholders.add("?");
+        }
+        try (Statement create = target.createStatement()) {
+          create.execute(definition.toString());
+        }
+        long count = 0;
+        try (PreparedStatement insert = target.prepareStatement(placeholders.toString())) {
+          while (resultSet.next()) {
+            for (int column = 1; column <= columns; column++) {
+              copyValue(resultSet, insert, column, types[column - 1]);
+            }
+            insert.addBatch();
+            if (++count % BATCH_SIZE == 0) {
+              insert.executeBatch();
+            }
+          }
+          insert.executeBatch();
+        }
+        logger.info(format(mpMessageBundle.getString("SNAPSHOT_EXPORT_TABLE"), table, count));
+      }
+    }
+  }
+
+
+  /**
+   * @param sqlType
+   *        one of {@link Types}
+   * @return the storage class used for values of the given type, either
+   *         {@link Types#BIGINT}, {@link Types#DOUBLE} or {@link Types#VARCHAR}
+   */
+  private static int affinity(int sqlType) {
+    switch (sqlType) {
+    case Types.TINYINT:
+    case Types.SMALLINT:
+    case Types.INTEGER:
+    case Types.BIGINT:
+      return Types.BIGINT;
+    case Types.REAL:
+    case Types.FLOAT:
+    case Types.DOUBLE:
+    case Types.NUMERIC:
+    case Types.DECIMAL:
+      return Types.DOUBLE;
+    default:
+      // booleans, enums and time stamps are kept in their PostgreSQL text representation, e.g., 't' for true
+      return Types.VARCHAR;
+    }
+  }
+
+
+  /**
+   * @param affinity
+   * @return
+   */
+  private static String typeName(int affinity) {
+    switch (affinity) {
+    case Types.BIGINT:
+      return "INTEGER";
+    case Types.DOUBLE:
+      return "REAL";
+    default:
+      return "TEXT";
+    }
+  }
+
+
+  /**
+   * @param resultSet
+   * @param insert
+   * @param column
+   * @param affinity
+   * @throws SQLException
+   */
+  private static void copyValue(ResultSet resultSet, PreparedStatement insert, int column, int affinity)
+    throws SQLException {
+    switch (affinity) {
+    case Types.BIGINT:
+      long longValue = resultSet.getLong(column);
+      if (resultSet.wasNull()) {
+        insert.setNull(column, Types.BIGINT);
+      } else {
+        insert.setLong(column, longValue);
+      }
+      break;
+    case Types.DOUBLE:
+      double doubleValue = resultSet.getDouble(column);
+      if (resultSet.wasNull()) {
+        insert.setNull(column, Types.DOUBLE);
+      } else {
+        insert.setDouble(column, doubleValue);
+      }
+      break;
+    default:
+      insert.setString(column, resultSet.getString(column));
+    }
+  }
+}
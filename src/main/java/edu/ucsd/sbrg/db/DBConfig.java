@@ -1,5 +1,7 @@
 package edu.ucsd.sbrg.db;
 
+import java.io.File;
+
 import de.zbit.util.prefs.SBProperties;
 
 public class DBConfig {
@@ -19,6 +21,11 @@ public class DBConfig {
    *        Arguments from Commandline
    */
   private static void initADB(SBProperties args) {
+    String snapshot = args.getProperty(BiGGDBOptions.SNAPSHOT);
+    if (iStrNotNullOrEmpty(snapshot)) {
+      AnnotateDB.initSnapshot(new File(snapshot));
+      return;
+    }
     String name = args.getProperty(ADBOptions.DBNAME);
     String host = args.getProperty(ADBOptions.HOST);
     String passwd = args.getProperty(ADBOptions.PASSWD);
@@ -29,7 +36,8 @@ public class DBConfig {
     run &= iStrNotNullOrEmpty(port);
     run &= iStrNotNullOrEmpty(user);
     if (run) {
-      AnnotateDB.init(host, port, user, passwd, name);
+      AnnotateDB.init(host, port, user, passwd, name, args.getIntProperty(ADBOptions.POOL_SIZE),
+        args.getIntProperty(ADBOptions.FETCH_SIZE));
     }
   }
 
@@ -37,6 +45,9 @@ public class DBConfig {
   public static void initBiGG(SBProperties args, boolean annotateWithBiGG) {
     if (annotateWithBiGG && !BiGGDB.inUse()) {
       initBiGG(args);
+      if (BiGGDB.inUse()) {
+        QueryOnce.init();
+      }
     }
   }
 
@@ -48,6 +59,11 @@ public class DBConfig {
    *        Arguments from Commandline
    */
   private static void initBiGG(SBProperties args) {
+    String snapshot = args.getProperty(BiGGDBOptions.SNAPSHOT);
+    if (iStrNotNullOrEmpty(snapshot)) {
+      BiGGDB.initSnapshot(new File(snapshot));
+      return;
+    }
     String name = args.getProperty(BiGGDBOptions.DBNAME);
     String host = args.getProperty(BiGGDBOptions.HOST);
     String passwd = args.getProperty(BiGGDBOptions.PASSWD);
@@ -58,7 +74,12 @@ public class DBConfig {
     run &= iStrNotNullOrEmpty(port);
     run &= iStrNotNullOrEmpty(user);
     if (run) {
-      BiGGDB.init(host, port, user, passwd, name);
+      BiGGDB.init(host, port, user, passwd, name, args.getIntProperty(BiGGDBOptions.POOL_SIZE),
+        args.getIntProperty(BiGGDBOptions.FETCH_SIZE));
+      String cacheDir = args.getProperty(BiGGDBOptions.CACHE_DIR);
+      if (iStrNotNullOrEmpty(cacheDir)) {
+        BiGGDB.initCache(new File(cacheDir));
+      }
     }
   }
 
@@ -3,7 +3,10 @@ package edu.ucsd.sbrg.db;
 import static java.text.MessageFormat.format;
 
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
 import java.util.Properties;
 import java.util.StringJoiner;
 import java.util.logging.Logger;
@@ -11,59 +14,129 @@ import java.util.logging.Logger;
 import org.sbml.jsbml.util.StringTools;
 
 import com.zaxxer.hikari.HikariConfig;
-import com.zaxxer.hikari.HikariDataSource;
 
 /**
  * Created by mephenor on 05.05.17.
  */
-class PostgreSQLConnector {
+class PostgreSQLConnector extends SQLConnector {
 
   /**
    * A {@link Logger} for this class.
    */
   private static final transient Logger logger = Logger.getLogger(PostgreSQLConnector.class.getName());
   /**
-   * 
+   * Number of queries for which each connection keeps a server side prepared
+   * statement. This covers all distinct queries of {@link BiGGDB} and
+   * {@link AnnotateDB}.
    */
-  private HikariDataSource dataSource;
-
+  private static final int STATEMENT_CACHE_SIZE = 256;
   /**
-   * @return
-   * @throws SQLException
+   * Number of rows fetched per round trip, 0 to leave this to the driver,
+   * which then reads the whole result at once
    */
-  public Connection getConnection() throws SQLException {
-    return dataSource.getConnection();
-  }
-
+  private final int fetchSize;
 
   /**
-   * 
+   * @param host
+   * @param port
+   * @param user
+   * @param password
+   * @param dbName
+   * @param poolSize
+   *        maximum number of connections
+   * @param fetchSize
+   *        number of rows fetched per round trip
    */
-  public void close() {
-    dataSource.close();
+  PostgreSQLConnector(String host, int port, String user, String password, String dbName, int poolSize,
+    int fetchSize) {
+    super(config(host, port, user, password == null ? "" : password, dbName, poolSize));
+    this.fetchSize = fetchSize;
+    logger.fine(format("{0}@{1}:{2}, password={3}", user, host, port,
+      StringTools.fill(password == null ? 0 : password.length(), '*')));
   }
 
 
-
   /**
    * @param host
    * @param port
    * @param user
    * @param password
    * @param dbName
+   * @param poolSize
+   * @return
    */
-  PostgreSQLConnector(String host, int port, String user, String password, String dbName) {
-    password = password == null ? "" : password;
+  private static HikariConfig config(String host, int port, String user, String password, String dbName,
+    int poolSize) {
     Properties properties = new Properties();
     properties.setProperty("dataSourceClassName", "org.postgresql.ds.PGSimpleDataSource");
     properties.setProperty("dataSource.user", user);
     properties.setProperty("dataSource.password", password);
     properties.setProperty("dataSource.databaseName", dbName);
     properties.setProperty("dataSource.serverName", host);
+    properties.setProperty("dataSource.portNumber", Integer.toString(port));
+    // prepare every query on the server at its first execution and keep it per connection, so that repeated
+    // lookups only send parameters
+    properties.setProperty("dataSource.prepareThreshold", "1");
+    properties.setProperty("dataSource.preparedStatementCacheQueries", Integer.toString(STATEMENT_CACHE_SIZE));
     HikariConfig config = new HikariConfig(properties);
-    config.setMaximumPoolSize(16);
+    config.setMaximumPoolSize(poolSize);
     config.setReadOnly(true);
-    dataSource = new HikariDataSource(config);
-    logger.fine(format("{0}@{1}:{2}, password={3}", user, host, port, StringTools.fill(password.length(), '*')));
+    return config;
+  }
+
+
+  /**
+   * Reads the result in chunks of the fetch size. PostgreSQL ignores the fetch
+   * size outside of a transaction, hence the query runs in its own read-only
+   * transaction.
+   *
+   * @see edu.ucsd.sbrg.db.SQLConnector#queryLarge(java.lang.String, int, java.lang.Object[])
+   */
+  @Override
+  List<String[]> queryLarge(String query, int columns, Object... params) throws SQLException {
+    if (fetchSize <= 0) {
+      return query(query, columns, params);
+    }
+    try (Connection connection = getConnection()) {
+      connection.setAutoCommit(false);
+      try {
+        List<String[]> rows = query(connection, query, columns, fetchSize, params);
+        connection.commit();
+        return rows;
+      } catch (SQLException exc) {
+        connection.rollback();
+        throw exc;
+      } finally {
+        connection.setAutoCommit(true);
+      }
+    }
+  }
+
+
+  /*
+   * (non-Javadoc)
+   * @see edu.ucsd.sbrg.db.SQLConnector#prepare(java.lang.String)
+   */
+  @Override
+  String prepare(String query) {
+    return query;
+  }
+
+
+  /**
+   * Passes {@link Collection}s as SQL text arrays, so that the query can use
+   * them with {@code = ANY(?)}, all other parameters are passed as strings.
+   *
+   * @see edu.ucsd.sbrg.db.SQLConnector#setParameter(java.sql.Connection, java.sql.PreparedStatement, int,
+   *      java.lang.Object)
+   */
+  @Override
+  void setParameter(Connection connection, PreparedStatement pStatement, int index, Object param)
+    throws SQLException {
+    if (param instanceof Collection) {
+      pStatement.setArray(index, connection.createArrayOf("text", ((Collection<?>) param).toArray()));
+    } else {
+      pStatement.setString(index, (String) param);
+    }
   }
 }
@@ -0,0 +1,511 @@
+package edu.ucsd.sbrg.db;
+
+import static java.text.MessageFormat.format;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+import de.zbit.util.Utils;
+import edu.ucsd.sbrg.util.Digests;
+
+/**
+ * Persistent cache for the results of queries against BiGG Models and
+ * AnnotateDB. Results are stored in an append-only key-value file, named after
+ * the BiGG database version, so that all cached results are discarded as soon
+ * as the database reports a different version. Keys are digests of the query
+ * and its parameters, values are the rows of the result. Only the positions of
+ * the values are kept in memory.
+ * <p>
+ * Several processes may share a cache directory: appends hold an exclusive
+ * lock on the file and first read the entries other processes appended, every
+ * process keeps a shared lock on the file while it uses it, which prevents the
+ * deletion of the file by processes that use another BiGG version.
+ */
+final class QueryCache {
+
+  /**
+   * A {@link Logger} for this class.
+   */
+  private static final transient Logger logger = Logger.getLogger(QueryCache.class.getName());
+  /**
+   * Identifies cache files and their format
+   */
+  private static final int MAGIC = 0x4d504332;
+  /**
+   * Prefix of all cache files within the cache directory
+   */
+  private static final String FILE_PREFIX = "bigg-";
+  /**
+   * Suffix of all cache files within the cache directory
+   */
+  private static final String FILE_SUFFIX = ".cache";
+  /**
+   * Position of the byte locked while a process uses a cache file, all bytes
+   * before it are locked to read or append entries
+   */
+  private static final long IN_USE = Long.MAX_VALUE - 1;
+  /**
+   * The cache currently in use or {@code null} if caching is disabled
+   */
+  private static volatile QueryCache instance;
+  /**
+   * Position of the length of each value in the cache file by key
+   */
+  private final Map<String, Long> index = new ConcurrentHashMap<>();
+  /**
+   * Digests of queries, which are the same for every call of a lookup method
+   */
+  private final Map<String, String> queryDigests = new ConcurrentHashMap<>();
+  /**
+   * Location of the cache file
+   */
+  private final File file;
+  /**
+   * The BiGG version of all entries
+   */
+  private final String version;
+  /**
+   * The open cache file, holding the shared {@link #IN_USE} lock
+   */
+  private final FileChannel channel;
+  /**
+   * End of the last complete entry in the cache file
+   */
+  private long end;
+
+  /**
+   * @param file
+   * @param version
+   * @param channel
+   */
+  private QueryCache(File file, String version, FileChannel channel) {
+    this.file = file;
+    this.version = version;
+    this.channel = channel;
+  }
+
+
+  /**
+   * Opens the cache for the given BiGG version in the given directory and makes
+   * it available to {@link #query(SQLConnector, String, int, Object...)}.
+   * Cache files of other versions are deleted, unless another process uses
+   * them.
+   *
+   * @param directory
+   * @param version
+   *        the value of {@code database_version.date_time} reported by BiGG
+   */
+  static synchronized void open(File directory, String version) {
+    close();
+    try {
+      QueryCache cache = create(directory, version);
+      instance = cache;
+      logger.info(format("Using BiGG cache ''{0}'' with {1,number,integer} entries", cache.file.getAbsolutePath(),
+        cache.size()));
+    } catch (IOException | OverlappingFileLockException exc) {
+      logger.warning(format("BiGG cache disabled: {0}", Utils.getMessage(exc)));
+    }
+  }
+
+
+  /**
+   * @param directory
+   * @param version
+   * @return the cache for the given version, which is not used by
+   *         {@link #query(SQLConnector, String, int, Object...)} until it is
+   *         opened
+   * @throws IOException
+   */
+  static QueryCache create(File directory, String version) throws IOException {
+    if (!directory.isDirectory() && !directory.mkdirs()) {
+      throw new IOException(format("Could not create directory ''{0}''", directory.getAbsolutePath()));
+    }
+    String name = FILE_PREFIX + Digests.sha256(version).substring(0, 16) + FILE_SUFFIX;
+    File[] outdated = directory.listFiles((dir, fileName) -> fileName.startsWith(FILE_PREFIX)
+      && fileName.endsWith(FILE_SUFFIX) && !fileName.equals(name));
+    if (outdated != null) {
+      for (File old : outdated) {
+        delete(old);
+      }
+    }
+    File file = new File(directory, name);
+    FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ,
+      StandardOpenOption.WRITE);
+    try {
+      // released when the channel is closed
+      channel.lock(IN_USE, 1, true);
+      if (!file.exists()) {
+        // deleted by a process using another BiGG version before the lock was granted
+        throw new IOException(format("BiGG cache ''{0}'' was deleted by another process", file));
+      }
+      QueryCache cache = new QueryCache(file, version, channel);
+      try (FileLock lock = channel.lock(0, IN_USE, true)) {
+        cache.end = cache.scan(0, channel.size());
+      }
+      return cache;
+    } catch (IOException | RuntimeException exc) {
+      channel.close();
+      throw exc;
+    }
+  }
+
+
+  /**
+   * Deletes a cache file of another BiGG version, unless another process still
+   * uses it
+   *
+   * @param old
+   */
+  private static void delete(File old) {
+    try (FileChannel channel = FileChannel.open(old.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+        FileLock lock = channel.tryLock(IN_USE, 1, false)) {
+      if (lock == null) {
+        logger.fine(format("Keeping BiGG cache ''{0}'', which is in use by another process", old.getName()));
+      } else {
+        logger.info(format("Deleting BiGG cache ''{0}'' of a previous database version", old.getName()));
+        Files.delete(old.toPath());
+      }
+    } catch (IOException | OverlappingFileLockException exc) {
+      logger.fine(format("Keeping BiGG cache ''{0}'': {1}", old.getName(), Utils.getMessage(exc)));
+    }
+  }
+
+
+  /**
+   * Closes the cache currently in use, if any.
+   */
+  static synchronized void close() {
+    if (instance != null) {
+      try {
+        synchronized (instance) {
+          instance.release();
+        }
+      } catch (IOException exc) {
+        logger.warning(format("Failed to close BiGG cache ''{0}'': {1}", instance.file, Utils.getMessage(exc)));
+      }
+      instance = null;
+    }
+  }
+
+
+  /**
+   * Runs the given query using the connector, unless its result is already
+   * cached. Parameters that are {@link Collection}s are passed as SQL text
+   * arrays, all other parameters as strings.
+   *
+   * @param connector
+   * @param query
+   * @param columns
+   * @param params
+   * @return the rows of the result, empty if the query failed
+   */
+  static List<String[]> query(SQLConnector connector, String query, int columns, Object... params) {
+    return query(connector, false, query, columns, params);
+  }
+
+
+  /**
+   * Like {@link #query(SQLConnector, String, int, Object...)}, but for
+   * queries that return many rows, see
+   * {@link SQLConnector#queryLarge(String, int, Object...)}.
+   *
+   * @param connector
+   * @param query
+   * @param columns
+   * @param params
+   * @return the rows of the result, empty if the query failed
+   */
+  static List<String[]> queryLarge(SQLConnector connector, String query, int columns, Object... params) {
+    return query(connector, true, query, columns, params);
+  }
+
+
+  /**
+   * @param connector
+   * @param large
+   *        whether the query returns many rows
+   * @param query
+   * @param columns
+   * @param params
+   * @return
+   */
+  private static List<String[]> query(SQLConnector connector, boolean large, String query, int columns,
+    Object... params) {
+    QueryCache cache = isCacheable(params) ? instance : null;
+    String key = null;
+    if (cache != null) {
+      key = cache.key(query, params);
+      List<String[]> rows = cache.get(key);
+      if (rows != null) {
+        return rows;
+      }
+    }
+    try {
+      List<String[]> rows = large ? connector.queryLarge(query, columns, params)
+        : connector.query(query, columns, params);
+      if (cache != null) {
+        cache.put(key, rows, columns);
+      }
+      return rows;
+    } catch (SQLException exc) {
+      logger.warning(Utils.getMessage(exc));
+      return new ArrayList<>();
+    }
+  }
+
+
+  /**
+   * @param params
+   * @return {@code false} for lookups of many ids at once, which are run once
+   *         per model for the ids of that model, so that their results would
+   *         only add to the file and are hardly ever read again
+   */
+  private static boolean isCacheable(Object... params) {
+    for (Object param : params) {
+      if (param instanceof Collection) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+
+  /**
+   * @param query
+   * @param params
+   * @return
+   */
+  private String key(String query, Object... params) {
+    StringBuilder sb = new StringBuilder(queryDigests.computeIfAbsent(query, Digests::sha256));
+    for (Object param : params) {
+      sb.append('\u0000').append(param);
+    }
+    return Digests.sha256(sb.toString());
+  }
+
+
+  /**
+   * @return the number of entries
+   */
+  int size() {
+    return index.size();
+  }
+
+
+  /**
+   * @param key
+   * @return the cached rows or {@code null} if there is no entry for the key
+   */
+  List<String[]> get(String key) {
+    Long position = index.get(key);
+    if (position == null) {
+      return null;
+    }
+    try {
+      ByteBuffer length = read(position, Integer.BYTES, Long.MAX_VALUE);
+      ByteBuffer value = length == null ? null : read(position + Integer.BYTES, length.getInt(), Long.MAX_VALUE);
+      if (value != null) {
+        int rowCount = value.getInt();
+        int columns = value.getInt();
+        List<String[]> rows = new ArrayList<>(rowCount);
+        for (int i = 0; i < rowCount; i++) {
+          String[] row = new String[columns];
+          for (int column = 0; column < columns; column++) {
+            row[column] = value.get() == 0 ? null : readString(value);
+          }
+          rows.add(row);
+        }
+        return Collections.unmodifiableList(rows);
+      }
+    } catch (IOException | BufferUnderflowException exc) {
+      logger.warning(format("Failed to read from BiGG cache ''{0}'': {1}", file, Utils.getMessage(exc)));
+    }
+    return null;
+  }
+
+
+  /**
+   * Appends an entry, unless this or another process already added one for
+   * the key
+   *
+   * @param key
+   * @param rows
+   * @param columns
+   */
+  synchronized void put(String key, List<String[]> rows, int columns) {
+    if (index.containsKey(key)) {
+      return;
+    }
+    try (FileLock lock = channel.lock(0, IN_USE, false)) {
+      long size = channel.size();
+      if ((end == 0) || (size > end)) {
+        end = scan(end, size);
+        if (index.containsKey(key)) {
+          return;
+        }
+      }
+      if (size > end) {
+        // an incomplete entry of an aborted process, entries are always complete once the lock is released
+        channel.truncate(end);
+      }
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      DataOutputStream out = new DataOutputStream(bytes);
+      if (end == 0) {
+        out.writeInt(MAGIC);
+        writeString(out, version);
+      }
+      writeString(out, key);
+      long position = end + out.size();
+      ByteArrayOutputStream valueBytes = new ByteArrayOutputStream();
+      DataOutputStream value = new DataOutputStream(valueBytes);
+      value.writeInt(rows.size());
+      value.writeInt(columns);
+      for (String[] row : rows) {
+        for (String cell : row) {
+          value.writeBoolean(cell != null);
+          if (cell != null) {
+            writeString(value, cell);
+          }
+        }
+      }
+      out.writeInt(value.size());
+      valueBytes.writeTo(out);
+      ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+      while (buffer.hasRemaining()) {
+        channel.write(buffer, end + buffer.position());
+      }
+      index.put(key, position);
+      end += buffer.capacity();
+    } catch (IOException exc) {
+      logger.warning(format("Failed to write to BiGG cache ''{0}'': {1}", file, Utils.getMessage(exc)));
+    }
+  }
+
+
+  /**
+   * Adds the positions of all complete entries within the given range of the
+   * cache file to the index
+   *
+   * @param from
+   *        end of the last entry already read, zero to also check the header
+   * @param size
+   *        current size of the cache file
+   * @return the end of the last complete entry, zero if the file has to be
+   *         rewritten entirely
+   * @throws IOException
+   */
+  private long scan(long from, long size) throws IOException {
+    long position = from;
+    if (position == 0) {
+      ByteBuffer header = read(0, 2 * Integer.BYTES, size);
+      if ((header == null) || (header.getInt() != MAGIC)) {
+        return 0;
+      }
+      byte[] expected = version.getBytes(StandardCharsets.UTF_8);
+      int length = header.getInt();
+      ByteBuffer actual = length == expected.length ? read(header.capacity(), length, size) : null;
+      if ((actual == null) || !actual.equals(ByteBuffer.wrap(expected))) {
+        return 0;
+      }
+      position = header.capacity() + length;
+    }
+    while (position < size) {
+      ByteBuffer keyLength = read(position, Integer.BYTES, size);
+      ByteBuffer key = keyLength == null ? null : read(position + Integer.BYTES, keyLength.getInt(), size);
+      if (key == null) {
+        break;
+      }
+      long valuePosition = position + Integer.BYTES + key.capacity();
+      ByteBuffer valueLength = read(valuePosition, Integer.BYTES, size);
+      int length = valueLength == null ? -1 : valueLength.getInt();
+      if ((length < 0) || (valuePosition + Integer.BYTES + length > size)) {
+        break;
+      }
+      index.putIfAbsent(StandardCharsets.UTF_8.decode(key).toString(), valuePosition);
+      position = valuePosition + Integer.BYTES + length;
+    }
+    if (position < size) {
+      logger.fine("Ignoring incomplete entry at the end of the BiGG cache");
+    }
+    return position;
+  }
+
+
+  /**
+   * @param position
+   * @param length
+   * @param size
+   *        current size of the cache file
+   * @return a buffer with the requested bytes or {@code null} if they are not
+   *         within the file
+   * @throws IOException
+   */
+  private ByteBuffer read(long position, int length, long size) throws IOException {
+    if ((length < 0) || (position + length > size)) {
+      return null;
+    }
+    ByteBuffer buffer = ByteBuffer.allocate(length);
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer, position + buffer.position()) < 0) {
+        return null;
+      }
+    }
+    buffer.flip();
+    return buffer;
+  }
+
+
+  /**
+   * Closes the cache file and releases all locks on it
+   *
+   * @throws IOException
+   */
+  void release() throws IOException {
+    channel.close();
+  }
+
+
+  /**
+   * @param out
+   * @param value
+   * @throws IOException
+   */
+  private static void writeString(DataOutputStream out, String value) throws IOException {
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+
+  /**
+   * @param buffer
+   * @return
+   */
+  private static String readString(ByteBuffer buffer) {
+    int length = buffer.getInt();
+    if ((length < 0) || (length > buffer.remaining())) {
+      throw new BufferUnderflowException();
+    }
+    byte[] bytes = new byte[length];
+    buffer.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+}
@@ -1,28 +1,102 @@
 package edu.ucsd.sbrg.db;
 
-import java.util.LinkedHashSet;
-import java.util.Set;
+import static edu.ucsd.sbrg.bigg.ModelPolisher.mpMessageBundle;
+import static edu.ucsd.sbrg.db.BiGGDBContract.Constants.COMPARTMENT;
+import static edu.ucsd.sbrg.db.BiGGDBContract.Constants.COMPONENT;
+import static edu.ucsd.sbrg.db.BiGGDBContract.Constants.DATA_SOURCE;
+import static edu.ucsd.sbrg.db.BiGGDBContract.Constants.MODEL;
+import static edu.ucsd.sbrg.db.BiGGDBContract.Constants.REACTION;
+import static java.text.MessageFormat.format;
 
+import java.util.logging.Logger;
+
+/**
+ * Membership checks against all identifiers of the BiGG tables, which are
+ * loaded once into immutable {@link BiGGIdIndex}es and shared between all
+ * models processed concurrently.
+ */
 public class QueryOnce {
 
-  private static Set<String> BiGGDBCompartments = new LinkedHashSet<>();
-  private static Set<String> BiGGDBDataSources = new LinkedHashSet<>();
-  private static Set<String> BiGGDBMetabolites = new LinkedHashSet<>();
-  private static Set<String> BiGGDBModels = new LinkedHashSet<>();
-  private static Set<String> BiGGDBReactions = new LinkedHashSet<>();
+  /**
+   * A {@link Logger} for this class.
+   */
+  private static final transient Logger logger = Logger.getLogger(QueryOnce.class.getName());
+  /**
+   * Set once by {@link #init()}
+   */
+  private static volatile Indices indices;
+
+  /**
+   * Identifiers of all tables, loaded together
+   */
+  private static final class Indices {
+
+    private final BiGGIdIndex compartments;
+    private final BiGGIdIndex dataSources;
+    private final BiGGIdIndex metabolites;
+    private final BiGGIdIndex models;
+    private final BiGGIdIndex reactions;
+
+    private Indices() {
+      compartments = BiGGIdIndex.of(BiGGDB.getOnce(COMPARTMENT));
+      dataSources = BiGGIdIndex.of(BiGGDB.getOnce(DATA_SOURCE));
+      metabolites = BiGGIdIndex.of(BiGGDB.getOnce(COMPONENT));
+      models = BiGGIdIndex.of(BiGGDB.getOnce(MODEL));
+      reactions = BiGGIdIndex.of(BiGGDB.getOnce(REACTION));
+      BiGGIdIndex[] all = {compartments, dataSources, metabolites, models, reactions};
+      long size = 0, bytes = 0;
+      for (BiGGIdIndex index : all) {
+        size += index.size();
+        bytes += index.getMemoryFootprint();
+      }
+      logger.info(format(mpMessageBundle.getString("BIGG_ID_INDEX_LOADED"), size, bytes));
+    }
+  }
+
+  /**
+   * Loads the identifiers of all tables, unless this has already been done.
+   * Called once the BiGG database is set up, so that the first model does not
+   * pay for it.
+   */
+  public static void init() {
+    getIndices();
+  }
+
+
+  /**
+   * @return
+   */
+  private static Indices getIndices() {
+    Indices current = indices;
+    if (current == null) {
+      synchronized (QueryOnce.class) {
+        current = indices;
+        if (current == null) {
+          current = new Indices();
+          indices = current;
+        }
+      }
+    }
+    return current;
+  }
+
+
+  /**
+   * @param id
+   * @param prefix
+   * @return the position of the id after the given prefix, if present, else 0
+   */
+  private static int skip(String id, String prefix) {
+    return id.startsWith(prefix) ? prefix.length() : 0;
+  }
+
 
   /**
    * @param id
    * @return
    */
   public static boolean isCompartment(String id) {
-    if (BiGGDBCompartments.isEmpty()) {
-      BiGGDBCompartments = BiGGDB.getOnce("compartment");
-    }
-    if (id.startsWith("C_")) {
-      id = id.substring(2);
-    }
-    return BiGGDBCompartments.contains(id);
+    return getIndices().compartments.contains(id, skip(id, "C_"));
   }
 
 
@@ -31,10 +105,7 @@ public class QueryOnce {
    * @return
    */
   public static boolean isDataSource(String id) {
-    if (BiGGDBDataSources.isEmpty()) {
-      BiGGDBDataSources = BiGGDB.getOnce("data_source");
-    }
-    return BiGGDBDataSources.contains(id);
+    return getIndices().dataSources.contains(id);
   }
 
 
@@ -43,13 +114,7 @@ public class QueryOnce {
    * @return
    */
   public static boolean isMetabolite(String id) {
-    if (BiGGDBMetabolites.isEmpty()) {
-      BiGGDBMetabolites = BiGGDB.getOnce("component");
-    }
-    if (id.startsWith("M_")) {
-      id = id.substring(2);
-    }
-    return BiGGDBMetabolites.contains(id);
+    return getIndices().metabolites.contains(id, skip(id, "M_"));
   }
 
 
@@ -58,10 +123,7 @@ public class QueryOnce {
    * @return
    */
   public static boolean isModel(String id) {
-    if (BiGGDBModels.isEmpty()) {
-      BiGGDBModels = BiGGDB.getOnce("model");
-    }
-    return BiGGDBModels.contains(id);
+    return getIndices().models.contains(id);
   }
 
 
@@ -70,12 +132,6 @@ public class QueryOnce {
    * @return
    */
   public static boolean isReaction(String id) {
-    if (BiGGDBReactions.isEmpty()) {
-      BiGGDBReactions = BiGGDB.getOnce("reaction");
-    }
-    if (id.startsWith("R_")) {
-      id = id.substring(2);
-    }
-    return BiGGDBReactions.contains(id);
+    return getIndices().reactions.contains(id, skip(id, "R_"));
   }
 }
@@ -0,0 +1,139 @@
+package edu.ucsd.sbrg.db;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * A pool of connections to a database holding the tables of {@link BiGGDB}
+ * and {@link AnnotateDB}. All queries are written for PostgreSQL, subclasses
+ * adapt them and their parameters to the database they connect to.
+ */
+abstract class SQLConnector {
+
+  /**
+   *
+   */
+  private final HikariDataSource dataSource;
+
+  /**
+   * @param config
+   *        configuration of the connection pool
+   */
+  SQLConnector(HikariConfig config) {
+    dataSource = new HikariDataSource(config);
+  }
+
+
+  /**
+   * @return
+   * @throws SQLException
+   */
+  public Connection getConnection() throws SQLException {
+    return dataSource.getConnection();
+  }
+
+
+  /**
+   * Runs a query on a pooled connection.
+   *
+   * @param query
+   *        a query in PostgreSQL syntax, {@link Collection} parameters are
+   *        referenced by {@code = ANY(?)}
+   * @param columns
+   *        number of columns to read from each row
+   * @param params
+   *        {@link String}s or {@link Collection}s of strings
+   * @return all rows of the result, each as an array of the requested columns
+   * @throws SQLException
+   */
+  List<String[]> query(String query, int columns, Object... params) throws SQLException {
+    try (Connection connection = getConnection()) {
+      return query(connection, query, columns, 0, params);
+    }
+  }
+
+
+  /**
+   * Runs a query that returns many rows, e.g., a lookup of all ids of a model
+   * at once. By default this is the same as
+   * {@link #query(String, int, Object...)}.
+   *
+   * @param query
+   * @param columns
+   * @param params
+   * @return
+   * @throws SQLException
+   */
+  List<String[]> queryLarge(String query, int columns, Object... params) throws SQLException {
+    return query(query, columns, params);
+  }
+
+
+  /**
+   * @param connection
+   * @param query
+   * @param columns
+   * @param fetchSize
+   *        number of rows fetched per round trip, 0 to leave this to the
+   *        driver
+   * @param params
+   * @return
+   * @throws SQLException
+   */
+  List<String[]> query(Connection connection, String query, int columns, int fetchSize, Object... params)
+    throws SQLException {
+    List<String[]> rows = new ArrayList<>();
+    try (PreparedStatement pStatement = connection.prepareStatement(prepare(query))) {
+      pStatement.setFetchSize(fetchSize);
+      for (int i = 0; i < params.length; i++) {
+        setParameter(connection, pStatement, i + 1, params[i]);
+      }
+      try (ResultSet resultSet = pStatement.executeQuery()) {
+        while (resultSet.next()) {
+          String[] row = new String[columns];
+          for (int column = 0; column < columns; column++) {
+            row[column] = resultSet.getString(column + 1);
+          }
+          rows.add(row);
+        }
+      }
+    }
+    return rows;
+  }
+
+
+  /**
+   * @param query
+   *        a query in PostgreSQL syntax
+   * @return the query to run on the underlying database
+   */
+  abstract String prepare(String query);
+
+
+  /**
+   * @param connection
+   * @param pStatement
+   * @param index
+   * @param param
+   *        a {@link String} or a {@link Collection} of strings
+   * @throws SQLException
+   */
+  abstract void setParameter(Connection connection, PreparedStatement pStatement, int index, Object param)
+    throws SQLException;
+
+
+  /**
+   *
+   */
+  public void close() {
+    dataSource.close();
+  }
+}
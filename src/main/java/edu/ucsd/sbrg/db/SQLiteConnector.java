@@ -0,0 +1,93 @@
+package edu.ucsd.sbrg.db;
+
+import static java.text.MessageFormat.format;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariConfig;
+
+/**
+ * Runs the queries of {@link BiGGDB} and {@link AnnotateDB} against a snapshot
+ * file created by {@link BiGGSnapshot}. The queries are written for PostgreSQL,
+ * the only construct SQLite does not understand is {@code = ANY(?)} with an
+ * array parameter, which is rewritten to a lookup in a JSON array. Rows are read
+ * from a local file without network round trips, hence there is no fetch size.
+ */
+class SQLiteConnector extends SQLConnector {
+
+  /**
+   * A {@link Logger} for this class.
+   */
+  private static final transient Logger logger = Logger.getLogger(SQLiteConnector.class.getName());
+  /**
+   * Matches array parameters in PostgreSQL syntax
+   */
+  private static final Pattern ANY = Pattern.compile("=\\s*ANY\\(\\?\\)");
+  /**
+   * Serializes array parameters
+   */
+  private static final ObjectMapper mapper = new ObjectMapper();
+
+  /**
+   * @param snapshot
+   */
+  SQLiteConnector(File snapshot) {
+    super(config(snapshot));
+    logger.fine(format("Using BiGG snapshot ''{0}''", snapshot.getAbsolutePath()));
+  }
+
+
+  /**
+   * @param snapshot
+   * @return
+   */
+  private static HikariConfig config(File snapshot) {
+    if (!snapshot.isFile()) {
+      throw new IllegalArgumentException(format("BiGG snapshot ''{0}'' does not exist", snapshot.getAbsolutePath()));
+    }
+    HikariConfig config = new HikariConfig();
+    config.setJdbcUrl("jdbc:sqlite:" + snapshot.getAbsolutePath());
+    // SQLITE_OPEN_READONLY, SQLite does not allow to change this on an open connection
+    config.addDataSourceProperty("open_mode", "1");
+    config.setMaximumPoolSize(Runtime.getRuntime().availableProcessors());
+    return config;
+  }
+
+
+  /*
+   * (non-Javadoc)
+   * @see edu.ucsd.sbrg.db.SQLConnector#prepare(java.lang.String)
+   */
+  @Override
+  String prepare(String query) {
+    return ANY.matcher(query).replaceAll("IN (SELECT value FROM json_each(?))");
+  }
+
+
+  /*
+   * (non-Javadoc)
+   * @see edu.ucsd.sbrg.db.SQLConnector#setParameter(java.sql.Connection, java.sql.PreparedStatement, int,
+   * java.lang.Object)
+   */
+  @Override
+  void setParameter(Connection connection, PreparedStatement pStatement, int index, Object param)
+    throws SQLException {
+    if (param instanceof Collection) {
+      try {
+        pStatement.setString(index, mapper.writeValueAsString(param));
+      } catch (JsonProcessingException exc) {
+        throw new SQLException(exc);
+      }
+    } else {
+      pStatement.setString(index, (String) param);
+    }
+  }
+}
@@ -24,11 +24,25 @@ public class CompactEntry {
   }
 
 
+  private CompactEntry(long id, String name, String pattern, String prefix, List<CompactResource> resources) {
+    this.id = id;
+    this.name = name;
+    this.pattern = pattern;
+    this.prefix = prefix;
+    this.resources = resources;
+  }
+
+
   public static CompactEntry fromNamespace(Namespace namespace) {
     return new CompactEntry(namespace);
   }
 
 
+  static CompactEntry of(long id, String name, String pattern, String prefix, List<CompactResource> resources) {
+    return new CompactEntry(id, name, pattern, prefix, resources);
+  }
+
+
   public long getId() {
     return id;
   }
@@ -15,11 +15,23 @@ public class CompactResource {
   }
 
 
+  private CompactResource(long id, String providerCode, String urlPattern) {
+    this.id = id;
+    this.providerCode = providerCode;
+    this.urlPattern = urlPattern;
+  }
+
+
   public static CompactResource fromResource(Resource resource) {
     return new CompactResource(resource);
   }
 
 
+  static CompactResource of(long id, String providerCode, String urlPattern) {
+    return new CompactResource(id, providerCode, urlPattern);
+  }
+
+
   public long getId() {
     return id;
   }
@@ -0,0 +1,51 @@
+package edu.ucsd.sbrg.miriam;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maps literal prefixes to values, used to shortlist the patterns that can
+ * possibly match a string instead of trying all of them. Filled once during
+ * initialization of {@link Registry}, read-only afterwards.
+ *
+ * @param <T>
+ */
+final class PrefixTrie<T> {
+
+  private final Map<Character, PrefixTrie<T>> children = new HashMap<>();
+  private final List<T> values = new ArrayList<>(1);
+
+  /**
+   * @param prefix
+   *        literal prefix a string needs to start with for the value to be a candidate, the empty string for values
+   *        that are candidates for every string
+   * @param value
+   */
+  void add(String prefix, T value) {
+    PrefixTrie<T> node = this;
+    for (int i = 0; i < prefix.length(); i++) {
+      node = node.children.computeIfAbsent(prefix.charAt(i), c -> new PrefixTrie<>());
+    }
+    node.values.add(value);
+  }
+
+
+  /**
+   * @param string
+   * @return values of all prefixes of the given string, shortest prefix first, in insertion order per prefix
+   */
+  List<T> candidates(String string) {
+    List<T> candidates = new ArrayList<>(values);
+    PrefixTrie<T> node = this;
+    for (int i = 0; i < string.length(); i++) {
+      node = node.children.get(string.charAt(i));
+      if (node == null) {
+        break;
+      }
+      candidates.addAll(node.values);
+    }
+    return candidates;
+  }
+}
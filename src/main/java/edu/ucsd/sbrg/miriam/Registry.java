@@ -9,6 +9,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Logger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -17,7 +18,6 @@ import java.util.stream.Collectors;
 import org.sbml.jsbml.util.Pair;
 
 import edu.ucsd.sbrg.bigg.BiGGId;
-import edu.ucsd.sbrg.miriam.models.Miriam;
 
 public class Registry {
 
@@ -53,17 +53,41 @@ public class Registry {
    * Mapping collection name to provider code
    */
   private static final Map<String, String> PREFIX_FOR_COLLECTION = new HashMap<>();
+  /**
+   * Compiled {@link #ALTERNATIVE_URL_PATTERNS}, indexed by the URL part before the id
+   */
+  private static final PrefixTrie<Pair<Pattern, String>> ALTERNATIVE_URL_TRIE = new PrefixTrie<>();
+  /**
+   * Compiled {@link #COLLECTION_FOR_PATTERN}, indexed by the literal start of the pattern
+   */
+  private static final PrefixTrie<Pair<Pattern, String>> COLLECTION_PATTERN_TRIE = new PrefixTrie<>();
+  /**
+   * Compiled patterns used by {@link #checkPattern(String, String)}
+   */
+  private static final Map<String, Pattern> COMPILED_PATTERNS = new ConcurrentHashMap<>();
+  /**
+   * Results of {@link #checkResourceUrl(String)}, the same URIs are checked for every model
+   */
+  private static final Map<String, Optional<String>> RESOLVED = new ConcurrentHashMap<>();
+  /**
+   * Number of URIs after which {@link #RESOLVED} is cleared, to bound its size in long running processes
+   */
+  private static final int MAX_RESOLVED = 1 << 16;
+  /**
+   * Either [namespace prefix]:[accession] or [provider code]/[namespace prefix]:[accession]
+   */
+  private static final Pattern IDENTIFIERS_URL =
+    Pattern.compile("(?:https?://)?identifiers.org/(?:(?<provider>.*?)/)?(?<id>.*)");
+  private static final Pattern ID_AFTER_EQUALS = Pattern.compile("(?<=/).*=(?<remove>\"?\\w+?:)\\{\\$id}\"?");
+  private static final Pattern ID_AFTER_SLASH = Pattern.compile("/#?(?<remove>\\w+?:)\\{\\$id}");
+  private static final Pattern DIGITS = Pattern.compile("\\d+");
   /*
-   * Static initializer for Miriam, read registry once and convert to compact representation
+   * Static initializer for Miriam, read registry once in compact representation, preferably from the prebuilt index
    */
   static {
-    Miriam miriam = RegistryProvider.getInstance().getMiriam();
-    // convert namespaces to CompactEntries, holding only the necessary information for ModelPolisher
-    entries =
-      miriam.getNamespaces().values().parallelStream().map(CompactEntry::fromNamespace).collect(Collectors.toList());
-    // Free unneeded resources for GC
-    RegistryProvider.close();
+    entries = RegistryIndex.load();
     // Create helper structures for fast access
+    Map<String, String> urlPrefixes = new HashMap<>();
     for (CompactEntry entry : entries) {
       String collectionName = entry.getName();
       String pattern = entry.getPattern();
@@ -94,15 +118,46 @@ public class Registry {
           first = patternParts[0];
           second = "";
         }
-        first = Pattern.quote(first);
         second = Pattern.quote(second);
-        String matcherPattern = String.format("%s%s%s", first, patternCaptureGroup, second);
+        String matcherPattern = String.format("%s%s%s", Pattern.quote(first), patternCaptureGroup, second);
         ALTERNATIVE_URL_PATTERNS.put(matcherPattern, collectionName);
+        urlPrefixes.put(matcherPattern, first);
         COLLECTION_FOR_URI.put(createProviderURI(provider), collectionName);
       }
     }
+    for (Map.Entry<String, String> entry : ALTERNATIVE_URL_PATTERNS.entrySet()) {
+      ALTERNATIVE_URL_TRIE.add(urlPrefixes.get(entry.getKey()),
+        Pair.of(Pattern.compile(entry.getKey()), entry.getValue()));
+    }
+    for (Map.Entry<String, String> entry : COLLECTION_FOR_PATTERN.entrySet()) {
+      Pattern pattern = COMPILED_PATTERNS.computeIfAbsent(entry.getKey(), Pattern::compile);
+      COLLECTION_PATTERN_TRIE.add(literalPrefix(entry.getKey()), Pair.of(pattern, entry.getValue()));
+    }
+  }
+
+  /**
+   * @param regex
+   * @return the characters every string matching the given pattern starts with, possibly empty
+   */
+  static String literalPrefix(String regex) {
+    if (regex.contains("|")) {
+      // alternatives may start differently
+      return "";
+    }
+    int start = regex.startsWith("^") ? 1 : 0;
+    int end = start;
+    while ((end < regex.length())
+      && (Character.isLetterOrDigit(regex.charAt(end)) || (":_-/# ".indexOf(regex.charAt(end)) >= 0))) {
+      end++;
+    }
+    // a quantifier refers to the last literal character, which thus is optional
+    if ((end < regex.length()) && (end > start) && ("?*+{".indexOf(regex.charAt(end)) >= 0)) {
+      end--;
+    }
+    return regex.substring(start, end);
   }
 
+
   /**
    * NamespaceEmbeddedInLui does not work to correctly establish what is a part of an id in a non-identifiers URL
    * Thus this function strips the namespace prefix for URLs where it would be duplicated
@@ -119,8 +174,8 @@ public class Registry {
         return urlPattern;
       }
     }
-    Matcher idAfterEquals = Pattern.compile("(?<=/).*=(?<remove>\"?\\w+?:)\\{\\$id}\"?").matcher(urlPattern);
-    Matcher idAfterSlash = Pattern.compile("/#?(?<remove>\\w+?:)\\{\\$id}").matcher(urlPattern);
+    Matcher idAfterEquals = ID_AFTER_EQUALS.matcher(urlPattern);
+    Matcher idAfterSlash = ID_AFTER_SLASH.matcher(urlPattern);
     if (idAfterEquals.find()) {
       String remove = idAfterEquals.group("remove");
       urlPattern = urlPattern.replaceAll(remove, "");
@@ -191,9 +246,35 @@ public class Registry {
    * @return corrected resource URI
    */
   public static Optional<String> checkResourceUrl(String resource) {
+    Optional<String> resolved = RESOLVED.get(resource);
+    if (resolved == null) {
+      resolved = resolve(resource);
+      if (RESOLVED.size() >= MAX_RESOLVED) {
+        RESOLVED.clear();
+      }
+      RESOLVED.put(resource, resolved);
+    }
+    return resolved;
+  }
+
+
+  /**
+   * Removes all results memoized by {@link #checkResourceUrl(String)}
+   */
+  static void clearResolved() {
+    RESOLVED.clear();
+  }
+
+
+  /**
+   * @param resource
+   * @return
+   * @see #checkResourceUrl(String)
+   */
+  private static Optional<String> resolve(String resource) {
     //TODO: temporary fix, http vs https should be irrelevant, handle urlPattern differently for proper handling
-    if(resource.startsWith("http://www.reactome.org")){
-      resource = resource.replaceAll("http://www.reactome.org", "https://www.reactome.org");
+    if (resource.startsWith("http://www.reactome.org")) {
+      resource = "https" + resource.substring(4);
     }
     // no longer supported by identifiers.org, but should still resolve, keep and fix missing id prefix
     if (resource.contains("ncbigi")) {
@@ -203,7 +284,7 @@ public class Registry {
       String id = split[len - 1];
       if (!id.startsWith("GI:")) {
         if (id.startsWith("gi:")) {
-          resource = Registry.replace(resource, id, id.replaceAll("gi:", "GI:"));
+          resource = Registry.replace(resource, id, id.replace("gi:", "GI:"));
         } else {
           resource = Registry.replace(resource, id, "GI:" + id);
         }
@@ -218,8 +299,7 @@ public class Registry {
      * Either [namespace prefix]:[accession] or [provider code]/[namespace prefix]:[accession] second option is
      * currently not strict - older URIs with only accession are supported, if provider code is given
      */
-    Pattern identifiersURL = Pattern.compile("(?:https?://)?identifiers.org/(?:(?<provider>.*?)/)?(?<id>.*)");
-    Matcher urlMatcher = identifiersURL.matcher(resource);
+    Matcher urlMatcher = IDENTIFIERS_URL.matcher(resource);
     String provider = "";
     String identifier = "";
     if (urlMatcher.matches()) {
@@ -241,9 +321,9 @@ public class Registry {
     String query = identifier;
     // Get provider by checking for uniquely matching Regex
     if (provider.isEmpty()) {
-      List<String> collections =
-        COLLECTION_FOR_PATTERN.keySet().stream().filter(s -> Pattern.compile(s).matcher(query).matches())
-                              .collect(Collectors.toList());
+      List<String> collections = COLLECTION_PATTERN_TRIE.candidates(query).stream()
+                                                        .filter(pair -> pair.getKey().matcher(query).matches())
+                                                        .map(Pair::getValue).collect(Collectors.toList());
       if (collections.size() == 1) {
         String collection = collections.get(0);
         provider = PREFIX_FOR_COLLECTION.get(collection);
@@ -282,11 +362,11 @@ public class Registry {
   private static Pair<String, String> extractPartsFromNonCanonical(String resource) {
     String identifier = "";
     String provider = "";
-    for (Map.Entry<String, String> entry : ALTERNATIVE_URL_PATTERNS.entrySet()) {
-      Matcher matcher = Pattern.compile(entry.getKey()).matcher(resource);
+    for (Pair<Pattern, String> candidate : ALTERNATIVE_URL_TRIE.candidates(resource)) {
+      Matcher matcher = candidate.getKey().matcher(resource);
       if (matcher.matches()) {
         identifier = matcher.group("id");
-        provider = PREFIX_FOR_COLLECTION.get(entry.getValue());
+        provider = PREFIX_FOR_COLLECTION.get(candidate.getValue());
         break;
       }
     }
@@ -313,7 +393,7 @@ public class Registry {
    * @return
    */
   public static Boolean checkPattern(String id, String pattern) {
-    return Pattern.compile(pattern).matcher(id).matches();
+    return COMPILED_PATTERNS.computeIfAbsent(pattern, Pattern::compile).matcher(id).matches();
   }
 
 
@@ -362,7 +442,7 @@ public class Registry {
    * @return
    */
   private static String fixChEBI(String resource, String identifier) {
-    if (Pattern.compile("\\d+").matcher(identifier).matches()) {
+    if (DIGITS.matcher(identifier).matches()) {
       logger.info(mpMessageBundle.getString("ADD_PREFIX_CHEBI"));
       resource = replace(resource, identifier, "CHEBI:" + identifier);
     }
@@ -373,11 +453,12 @@ public class Registry {
   /**
    * @param resource
    * @param pattern
+   *        literal text to replace, not a regular expression
    * @param replacement
    * @return
    */
   public static String replace(String resource, String pattern, String replacement) {
-    return resource.replaceAll(pattern, replacement);
+    return resource.replace(pattern, replacement);
   }
 
 
@@ -452,8 +533,7 @@ public class Registry {
    * @return
    */
   public static List<String> getPartsFromCanonicalURI(String resource) {
-    Pattern identifiersURL = Pattern.compile("(?:https?://)?identifiers.org/(?:(?<provider>.*?)/)?(?<id>.*)");
-    Matcher matcher = identifiersURL.matcher(resource);
+    Matcher matcher = IDENTIFIERS_URL.matcher(resource);
     List<String> parts = new ArrayList<>(2);
     if (matcher.matches()) {
       parts.add(matcher.group("provider"));
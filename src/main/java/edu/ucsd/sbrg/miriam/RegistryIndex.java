@@ -0,0 +1,211 @@
+package edu.ucsd.sbrg.miriam;
+
+import static java.text.MessageFormat.format;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32;
+
+import edu.ucsd.sbrg.miriam.models.Miriam;
+
+/**
+ * Binary form of the {@link CompactEntry}s built from the MIRIAM registry. It
+ * is written at build time by the {@code buildMIRIAMIndex} Gradle task and
+ * loads much faster than the JSON registry. The index stores a checksum of the
+ * JSON it was built from, if the JSON has changed since, e.g., after running
+ * {@code downloadMIRIAM}, the JSON is parsed instead.
+ */
+final class RegistryIndex {
+
+  /**
+   * A {@link Logger} for this class.
+   */
+  private static final transient Logger logger = Logger.getLogger(RegistryIndex.class.getName());
+  static final String REGISTRY = "IdentifiersOrg-Registry.json";
+  static final String INDEX = "IdentifiersOrg-Registry.idx";
+  private static final int MAGIC = 0x4d495249;
+  private static final int VERSION = 1;
+
+  /**
+   * Don't allow instantiation
+   */
+  private RegistryIndex() {
+  }
+
+
+  /**
+   * Builds the index of the registry on the classpath
+   *
+   * @param args
+   *        the index file to write
+   * @throws IOException
+   */
+  public static void main(String[] args) throws IOException {
+    File index = new File(args[0]);
+    File parent = index.getAbsoluteFile().getParentFile();
+    if (!parent.isDirectory() && !parent.mkdirs()) {
+      throw new IOException(format("Could not create directory ''{0}''", parent));
+    }
+    try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(index)))) {
+      write(parseRegistry(), checksum(), out);
+    }
+  }
+
+
+  /**
+   * @return entries from the index, if it is up to date, else from the JSON registry
+   */
+  static List<CompactEntry> load() {
+    try {
+      long checksum = checksum();
+      Optional<List<CompactEntry>> entries = read(checksum);
+      if (entries.isPresent()) {
+        return entries.get();
+      }
+      logger.fine("MIRIAM registry index missing or outdated, parsing registry");
+    } catch (IOException exc) {
+      logger.warning(format("Could not read MIRIAM registry index: {0}", exc.getMessage()));
+    }
+    return parseRegistry();
+  }
+
+
+  /**
+   * @return
+   */
+  private static List<CompactEntry> parseRegistry() {
+    Miriam miriam = RegistryProvider.getInstance().getMiriam();
+    // convert namespaces to CompactEntries, holding only the necessary information for ModelPolisher
+    List<CompactEntry> entries =
+      miriam.getNamespaces().values().parallelStream().map(CompactEntry::fromNamespace).collect(Collectors.toList());
+    // Free unneeded resources for GC
+    RegistryProvider.close();
+    return entries;
+  }
+
+
+  /**
+   * @return CRC32 of the JSON registry on the classpath
+   * @throws IOException
+   */
+  static long checksum() throws IOException {
+    CRC32 crc = new CRC32();
+    try (InputStream in = RegistryIndex.class.getResourceAsStream(REGISTRY)) {
+      if (in == null) {
+        throw new IOException(format("MIRIAM registry ''{0}'' not found", REGISTRY));
+      }
+      byte[] buffer = new byte[1 << 16];
+      int read;
+      while ((read = in.read(buffer)) != -1) {
+        crc.update(buffer, 0, read);
+      }
+    }
+    return crc.getValue();
+  }
+
+
+  /**
+   * @param checksum
+   *        of the current JSON registry
+   * @return the entries, if the index exists and was built from the given registry
+   * @throws IOException
+   */
+  private static Optional<List<CompactEntry>> read(long checksum) throws IOException {
+    InputStream stream = RegistryIndex.class.getResourceAsStream(INDEX);
+    if (stream == null) {
+      return Optional.empty();
+    }
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(stream))) {
+      return read(in, checksum);
+    }
+  }
+
+
+  /**
+   * @param in
+   * @param checksum
+   * @return
+   * @throws IOException
+   */
+  static Optional<List<CompactEntry>> read(DataInputStream in, long checksum) throws IOException {
+    if ((in.readInt() != MAGIC) || (in.readInt() != VERSION) || (in.readLong() != checksum)) {
+      return Optional.empty();
+    }
+    int count = in.readInt();
+    List<CompactEntry> entries = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      long id = in.readLong();
+      String name = readString(in);
+      String pattern = readString(in);
+      String prefix = readString(in);
+      int resourceCount = in.readInt();
+      List<CompactResource> resources = new ArrayList<>(resourceCount);
+      for (int j = 0; j < resourceCount; j++) {
+        resources.add(CompactResource.of(in.readLong(), readString(in), readString(in)));
+      }
+      entries.add(CompactEntry.of(id, name, pattern, prefix, resources));
+    }
+    return Optional.of(entries);
+  }
+
+
+  /**
+   * @param entries
+   * @param checksum
+   *        of the JSON registry the entries were built from
+   * @param out
+   * @throws IOException
+   */
+  static void write(List<CompactEntry> entries, long checksum, DataOutputStream out) throws IOException {
+    out.writeInt(MAGIC);
+    out.writeInt(VERSION);
+    out.writeLong(checksum);
+    out.writeInt(entries.size());
+    for (CompactEntry entry : entries) {
+      out.writeLong(entry.getId());
+      writeString(out, entry.getName());
+      writeString(out, entry.getPattern());
+      writeString(out, entry.getPrefix());
+      out.writeInt(entry.getResources().size());
+      for (CompactResource resource : entry.getResources()) {
+        out.writeLong(resource.getId());
+        writeString(out, resource.getProviderCode());
+        writeString(out, resource.getUrlPattern());
+      }
+    }
+  }
+
+
+  /**
+   * @param in
+   * @return
+   * @throws IOException
+   */
+  private static String readString(DataInputStream in) throws IOException {
+    return in.readBoolean() ? in.readUTF() : null;
+  }
+
+
+  /**
+   * @param out
+   * @param string
+   * @throws IOException
+   */
+  private static void writeString(DataOutputStream out, String string) throws IOException {
+    out.writeBoolean(string != null);
+    if (string != null) {
+      out.writeUTF(string);
+    }
+  }
+}
@@ -9,6 +9,7 @@ import static org.sbml.jsbml.util.Pair.pairOf;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Iterator;
@@ -43,6 +44,7 @@ import org.sbml.jsbml.util.ModelBuilder;
 import de.zbit.sbml.util.SBMLtools;
 import de.zbit.util.Utils;
 import edu.ucsd.sbrg.bigg.BiGGId;
+import edu.ucsd.sbrg.bigg.Parameters;
 import edu.ucsd.sbrg.miriam.Registry;
 import edu.ucsd.sbrg.util.GPRParser;
 import edu.ucsd.sbrg.util.SBMLUtils;
@@ -55,6 +57,8 @@ import us.hebi.matlab.mat.types.Char;
 import us.hebi.matlab.mat.types.MatFile.Entry;
 import us.hebi.matlab.mat.types.MatlabType;
 import us.hebi.matlab.mat.types.Matrix;
+import us.hebi.matlab.mat.types.Source;
+import us.hebi.matlab.mat.types.Sources;
 import us.hebi.matlab.mat.types.Struct;
 
 /**
@@ -104,17 +108,34 @@ public class COBRAparser {
 
   /**
    * @param matFile
-   * @param omitGenericTerms
+   * @param parameters
    * @return
    * @throws IOException
    */
-  public static SBMLDocument read(File matFile, boolean omitGenericTerms) throws IOException {
+  public static SBMLDocument read(File matFile, Parameters parameters) throws IOException {
     COBRAparser parser = new COBRAparser();
-    parser.setOmitGenericTerms(omitGenericTerms);
+    parser.setOmitGenericTerms(parameters.getOmitGenericTerms());
     return parser.parse(matFile);
   }
 
 
+  /**
+   * @param stream
+   *        MAT file content, e.g., from a compressed file
+   * @param parameters
+   * @return
+   * @throws IOException
+   */
+  public static SBMLDocument read(InputStream stream, Parameters parameters) throws IOException {
+    COBRAparser parser = new COBRAparser();
+    parser.setOmitGenericTerms(parameters.getOmitGenericTerms());
+    Source source = Sources.wrapInputStream(stream);
+    try (Mat5File mat5File = Mat5.newReader(source).readMat()) {
+      return parser.parseModel(parser.getModel(mat5File));
+    }
+  }
+
+
   /**
    * @param matFile
    * @return
@@ -6,6 +6,7 @@ import static org.sbml.jsbml.util.Pair.pairOf;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
@@ -43,6 +44,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 
 import de.zbit.sbml.util.SBMLtools;
 import edu.ucsd.sbrg.bigg.BiGGId;
+import edu.ucsd.sbrg.bigg.Parameters;
 import edu.ucsd.sbrg.miriam.Registry;
 import edu.ucsd.sbrg.parsers.models.Compartments;
 import edu.ucsd.sbrg.parsers.models.Gene;
@@ -62,37 +64,63 @@ public class JSONparser {
    * A {@link Logger} for this class.
    */
   private static final transient Logger logger = Logger.getLogger(JSONparser.class.getName());
+  /**
+   * @see Parameters#getOmitGenericTerms()
+   */
+  private final boolean omitGenericTerms;
 
   /**
    * 
    */
   public JSONparser() {
+    this(Parameters.builder().build());
+  }
+
+
+  /**
+   * @param parameters
+   *        options of the model to parse
+   */
+  public JSONparser(Parameters parameters) {
     super();
+    omitGenericTerms = parameters.getOmitGenericTerms();
   }
 
 
   /**
    * @param jsonFile,
    *        to be read and parsed
+   * @param parameters
    * @return parsed {@link SBMLDocument}
    * @throws IOException
    */
-  public static SBMLDocument read(File jsonFile) throws IOException {
-    JSONparser parser = new JSONparser();
-    return parser.parse(jsonFile);
+  public static SBMLDocument read(File jsonFile, Parameters parameters) throws IOException {
+    JSONparser parser = new JSONparser(parameters);
+    return parser.parse(new ObjectMapper().readValue(jsonFile, Root.class));
   }
 
 
   /**
-   * Creates the {@link ModelBuilder}, {@link SBMLDocument} and reads the
-   * jsonFile as a tree
+   * @param stream
+   *        JSON model, e.g., from a compressed file
+   * @param parameters
+   * @return parsed {@link SBMLDocument}
+   * @throws IOException
+   */
+  public static SBMLDocument read(InputStream stream, Parameters parameters) throws IOException {
+    JSONparser parser = new JSONparser(parameters);
+    return parser.parse(new ObjectMapper().readValue(stream, Root.class));
+  }
+
+
+  /**
+   * Creates the {@link ModelBuilder} and {@link SBMLDocument} from the JSON
+   * tree
    * 
-   * @param jsonFile
+   * @param root
    * @return
    */
-  private SBMLDocument parse(File jsonFile) throws IOException {
-    ObjectMapper mapper = new ObjectMapper();
-    Root root = mapper.readValue(jsonFile, Root.class);
+  private SBMLDocument parse(Root root) {
     ModelBuilder builder = new ModelBuilder(3, 1);
     SBMLDocument doc = builder.getSBMLDocument();
     doc.addTreeNodeChangeListener(new UpdateListener());
@@ -435,7 +463,7 @@ public class JSONparser {
     setReactionStoichiometry(reaction, model, r);
     String geneReactionRule = reaction.getGeneReactionRule();
     if (!geneReactionRule.isEmpty()) {
-      GPRParser.parseGPR(r, geneReactionRule, false);
+      GPRParser.parseGPR(r, geneReactionRule, omitGenericTerms);
     }
     createSubsystem(model, reaction, r);
     setObjectiveCoefficient(reaction, model, r);
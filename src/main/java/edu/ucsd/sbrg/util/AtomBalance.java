@@ -0,0 +1,239 @@
+package edu.ucsd.sbrg.util;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.sbml.jsbml.ListOf;
+import org.sbml.jsbml.Model;
+import org.sbml.jsbml.Reaction;
+import org.sbml.jsbml.Species;
+import org.sbml.jsbml.SpeciesReference;
+import org.sbml.jsbml.ext.fbc.FBCConstants;
+import org.sbml.jsbml.ext.fbc.FBCSpeciesPlugin;
+
+import de.zbit.kegg.AtomBalanceCheck;
+
+/**
+ * Checks the atom balance of the reactions of a model like
+ * {@link AtomBalanceCheck}, but parses the chemical formula of each species
+ * only once, when it is created, into a vector of atom counts indexed by
+ * element. Checking a reaction then only adds up the vectors of its
+ * participants. Formulas changed after creation are not taken into account.
+ * Instances are immutable and can be shared between threads, the model is
+ * never changed.
+ */
+public class AtomBalance {
+
+  /**
+   * Multiplier of groups of a polymer such as {@code (C6H10O5)n}, which are
+   * counted once, same as {@link AtomBalanceCheck} is used by ModelPolisher
+   */
+  private static final int DEFAULT_N_VALUE = 1;
+  /**
+   * Symbols of all elements occurring in the formulas of the model in
+   * alphabetical order, the indices of the atom count vectors
+   */
+  private final String[] elements;
+  /**
+   * Atom counts of the species with a chemical formula by their id
+   */
+  private final Map<String, int[]> formulas;
+
+  /**
+   * @param model
+   *        whose species formulas are parsed
+   */
+  public AtomBalance(Model model) {
+    Map<String, Map<String, Integer>> atoms = new HashMap<>();
+    SortedSet<String> symbols = new TreeSet<>();
+    for (Species species : model.getListOfSpecies()) {
+      if (species.isSetPlugin(FBCConstants.shortLabel)) {
+        FBCSpeciesPlugin speciesPlugin = (FBCSpeciesPlugin) species.getPlugin(FBCConstants.shortLabel);
+        if (speciesPlugin.isSetChemicalFormula()) {
+          Map<String, Integer> formula = parseFormula(speciesPlugin.getChemicalFormula().trim());
+          atoms.put(species.getId(), formula);
+          symbols.addAll(formula.keySet());
+        }
+      }
+    }
+    elements = symbols.toArray(new String[0]);
+    formulas = new HashMap<>(2 * atoms.size());
+    for (Map.Entry<String, Map<String, Integer>> formula : atoms.entrySet()) {
+      int[] counts = new int[elements.length];
+      for (Map.Entry<String, Integer> element : formula.getValue().entrySet()) {
+        counts[Arrays.binarySearch(elements, element.getKey())] = element.getValue();
+      }
+      formulas.put(formula.getKey(), counts);
+    }
+  }
+
+
+  /**
+   * Parses a chemical formula such as {@code C6H12O6}, {@code C5H7NO3R} or
+   * {@code C2H3O2.H2O}. Groups in parentheses are multiplied by the number
+   * after the closing parenthesis, other characters are skipped.
+   *
+   * @param formula
+   * @return the number of atoms by element symbol
+   */
+  static Map<String, Integer> parseFormula(String formula) {
+    Deque<Map<String, Integer>> groups = new ArrayDeque<>();
+    Map<String, Integer> atoms = new HashMap<>();
+    int i = 0;
+    while (i < formula.length()) {
+      char c = formula.charAt(i);
+      if (Character.isUpperCase(c)) {
+        int start = i++;
+        while ((i < formula.length()) && Character.isLowerCase(formula.charAt(i))) {
+          i++;
+        }
+        String element = formula.substring(start, i);
+        int end = skipDigits(formula, i);
+        atoms.merge(element, end > i ? parseCount(formula, i, end) : 1, Integer::sum);
+        i = end;
+      } else if (c == '(') {
+        groups.push(atoms);
+        atoms = new HashMap<>();
+        i++;
+      } else if ((c == ')') && !groups.isEmpty()) {
+        i++;
+        int multiplier = 1;
+        if ((i < formula.length()) && (formula.charAt(i) == 'n')) {
+          multiplier = DEFAULT_N_VALUE;
+          i++;
+        } else {
+          int end = skipDigits(formula, i);
+          if (end > i) {
+            multiplier = parseCount(formula, i, end);
+          }
+          i = end;
+        }
+        atoms = merge(groups.pop(), atoms, multiplier);
+      } else {
+        i++;
+      }
+    }
+    while (!groups.isEmpty()) {
+      // unclosed parenthesis
+      atoms = merge(groups.pop(), atoms, 1);
+    }
+    return atoms;
+  }
+
+
+  /**
+   * @param formula
+   * @param start
+   * @return the index of the first character from start on that is not a digit
+   */
+  private static int skipDigits(String formula, int start) {
+    int end = start;
+    while ((end < formula.length()) && Character.isDigit(formula.charAt(end))) {
+      end++;
+    }
+    return end;
+  }
+
+
+  /**
+   * @param formula
+   * @param start
+   * @param end
+   * @return the number made of the digits between start and end
+   */
+  private static int parseCount(String formula, int start, int end) {
+    int count = 0;
+    for (int i = start; i < end; i++) {
+      count = 10 * count + Character.digit(formula.charAt(i), 10);
+    }
+    return count;
+  }
+
+
+  /**
+   * @param atoms
+   * @param group
+   * @param multiplier
+   * @return atoms with the atoms of the group added multiplier times
+   */
+  private static Map<String, Integer> merge(Map<String, Integer> atoms, Map<String, Integer> group, int multiplier) {
+    for (Map.Entry<String, Integer> element : group.entrySet()) {
+      atoms.merge(element.getKey(), multiplier * element.getValue(), Integer::sum);
+    }
+    return atoms;
+  }
+
+
+  /**
+   * Compares the atoms of the reactants with those of the products. As in
+   * {@link AtomBalanceCheck}, the atoms of each participant are multiplied by
+   * its stoichiometry and rounded towards zero. Elements on both sides map to
+   * the number of atoms of the reactants minus those of the products, elements
+   * on only one side to the number of their atoms on that side.
+   *
+   * @param r
+   * @return the defects by element symbol in alphabetical order, which is empty
+   *         if the reaction is balanced, or {@code null} if the balance cannot
+   *         be checked, because a side is empty or a participant has no
+   *         formula or stoichiometry
+   */
+  public Map<String, Integer> check(Reaction r) {
+    int[] reactants = new int[elements.length];
+    int[] products = new int[elements.length];
+    boolean[] inReactants = new boolean[elements.length];
+    boolean[] inProducts = new boolean[elements.length];
+    if (!count(r.getListOfReactants(), reactants, inReactants)
+      || !count(r.getListOfProducts(), products, inProducts)) {
+      return null;
+    }
+    Map<String, Integer> defects = new TreeMap<>();
+    boolean reactantAtoms = false;
+    boolean productAtoms = false;
+    for (int e = 0; e < elements.length; e++) {
+      reactantAtoms |= inReactants[e];
+      productAtoms |= inProducts[e];
+      if (inReactants[e] && inProducts[e]) {
+        if (reactants[e] != products[e]) {
+          defects.put(elements[e], reactants[e] - products[e]);
+        }
+      } else if (inReactants[e]) {
+        defects.put(elements[e], reactants[e]);
+      } else if (inProducts[e]) {
+        defects.put(elements[e], products[e]);
+      }
+    }
+    return reactantAtoms && productAtoms ? defects : null;
+  }
+
+
+  /**
+   * @param speciesReferences
+   * @param atoms
+   *        to which the atoms of the participants are added
+   * @param present
+   *        marks the elements occurring in the participants
+   * @return {@code false} if a participant has no formula or stoichiometry
+   */
+  private boolean count(ListOf<SpeciesReference> speciesReferences, int[] atoms, boolean[] present) {
+    for (SpeciesReference sr : speciesReferences) {
+      int[] formula = formulas.get(sr.getSpecies());
+      double stoichiometry = sr.getStoichiometry();
+      if ((formula == null) || Double.isNaN(stoichiometry)) {
+        return false;
+      }
+      for (int e = 0; e < formula.length; e++) {
+        if (formula[e] != 0) {
+          atoms[e] += (int) (stoichiometry * formula[e]);
+          present[e] = true;
+        }
+      }
+    }
+    return true;
+  }
+}
@@ -0,0 +1,156 @@
+package edu.ucsd.sbrg.util;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Enumeration;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import edu.ucsd.sbrg.bigg.ModelPolisherOptions.Compression;
+
+/**
+ * Reads model files that are compressed with GZIP or packed into a ZIP archive
+ * as streams, so they need not be unpacked to disk first. Of a ZIP archive,
+ * the first entry with the extension of a model format is read, further
+ * entries are ignored. COMBINE archives, i.e., ZIP archives with an OMEX
+ * manifest, are not read as models.
+ */
+public final class CompressedInput {
+
+  private static final int BUFFER_SIZE = 1 << 16;
+  /**
+   * Entry that identifies a COMBINE archive
+   */
+  private static final String COMBINE_MANIFEST = "manifest.xml";
+  /**
+   * Extensions of the model formats that can be read
+   */
+  private static final String[] MODEL_EXTENSIONS = {".xml", ".sbml", ".json", ".mat"};
+
+  /**
+   * Don't allow instantiation
+   */
+  private CompressedInput() {
+  }
+
+
+  /**
+   * @param input
+   * @return the compression of the given file, determined by its extension
+   */
+  public static Compression getCompression(File input) {
+    String name = input.getName().toLowerCase();
+    for (Compression compression : Compression.values()) {
+      if ((compression.getFileExtension() != null) && name.endsWith("." + compression.getFileExtension())) {
+        return compression;
+      }
+    }
+    return Compression.NONE;
+  }
+
+
+  /**
+   * @param input
+   * @return the name of the model within the given file, i.e., without the
+   *         {@code .gz} extension or the name of the model entry of a ZIP
+   *         archive, the name of the archive itself if it contains no model
+   * @throws IOException
+   */
+  public static String getUncompressedName(File input) throws IOException {
+    String name = input.getName();
+    switch (getCompression(input)) {
+    case GZIP:
+      return name.substring(0, name.length() - ".gz".length());
+    case ZIP:
+      try (ZipFile zip = new ZipFile(input)) {
+        ZipEntry entry = getModelEntry(zip);
+        return entry == null ? name : new File(entry.getName()).getName();
+      }
+    default:
+      return name;
+    }
+  }
+
+
+  /**
+   * @param zip
+   * @return the first entry with the extension of a model format,
+   *         {@code null} if there is none or if the archive is a COMBINE
+   *         archive, e.g., written by ModelPolisher itself
+   */
+  private static ZipEntry getModelEntry(ZipFile zip) {
+    if (zip.getEntry(COMBINE_MANIFEST) != null) {
+      return null;
+    }
+    Enumeration<? extends ZipEntry> entries = zip.entries();
+    while (entries.hasMoreElements()) {
+      ZipEntry entry = entries.nextElement();
+      String name = entry.getName().toLowerCase();
+      for (String extension : MODEL_EXTENSIONS) {
+        if (!entry.isDirectory() && name.endsWith(extension)) {
+          return entry;
+        }
+      }
+    }
+    return null;
+  }
+
+
+  /**
+   * @param input
+   * @return a buffered stream of the uncompressed content of the given file
+   * @throws IOException
+   */
+  public static InputStream open(File input) throws IOException {
+    if (getCompression(input) == Compression.ZIP) {
+      return openZip(input);
+    }
+    InputStream stream = new FileInputStream(input);
+    try {
+      if (getCompression(input) == Compression.GZIP) {
+        return new BufferedInputStream(new GZIPInputStream(stream, BUFFER_SIZE), BUFFER_SIZE);
+      }
+      return new BufferedInputStream(stream, BUFFER_SIZE);
+    } catch (IOException exc) {
+      stream.close();
+      throw exc;
+    }
+  }
+
+
+  /**
+   * @param input
+   * @return a buffered stream of the model entry, which closes the archive
+   *         when it is closed
+   * @throws IOException
+   */
+  private static InputStream openZip(File input) throws IOException {
+    ZipFile zip = new ZipFile(input);
+    try {
+      ZipEntry entry = getModelEntry(zip);
+      if (entry == null) {
+        throw new IOException("No model in ZIP archive " + input.getAbsolutePath());
+      }
+      InputStream stream = new FilterInputStream(zip.getInputStream(entry)) {
+
+        @Override
+        public void close() throws IOException {
+          try {
+            super.close();
+          } finally {
+            zip.close();
+          }
+        }
+      };
+      return new BufferedInputStream(stream, BUFFER_SIZE);
+    } catch (IOException exc) {
+      zip.close();
+      throw exc;
+    }
+  }
+}
@@ -0,0 +1,92 @@
+package edu.ucsd.sbrg.util;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * SHA-256 digests of texts and files as hexadecimal strings, used as keys of
+ * cached query results and as fingerprints of polished models
+ */
+public final class Digests {
+
+  private static final String ALGORITHM = "SHA-256";
+  private static final char[] HEX = "0123456789abcdef".toCharArray();
+  private static final int BUFFER_SIZE = 1 << 16;
+
+  /**
+   * Don't allow instantiation
+   */
+  private Digests() {
+  }
+
+
+  /**
+   * @return a new SHA-256 digest
+   */
+  public static MessageDigest newDigest() {
+    try {
+      return MessageDigest.getInstance(ALGORITHM);
+    } catch (NoSuchAlgorithmException exc) {
+      // every Java platform is required to support SHA-256
+      throw new IllegalStateException(exc);
+    }
+  }
+
+
+  /**
+   * @param text
+   * @return hexadecimal SHA-256 digest of the UTF-8 encoded text
+   */
+  public static String sha256(String text) {
+    return hex(newDigest().digest(text.getBytes(StandardCharsets.UTF_8)));
+  }
+
+
+  /**
+   * @param file
+   * @return hexadecimal SHA-256 digest of the content of the file
+   * @throws IOException
+   */
+  public static String sha256(File file) throws IOException {
+    MessageDigest digest = newDigest();
+    update(digest, file);
+    return hex(digest.digest());
+  }
+
+
+  /**
+   * Adds the content of the file to the digest
+   *
+   * @param digest
+   * @param file
+   * @throws IOException
+   */
+  public static void update(MessageDigest digest, File file) throws IOException {
+    byte[] buffer = new byte[BUFFER_SIZE];
+    try (InputStream in = new FileInputStream(file)) {
+      int read;
+      while ((read = in.read(buffer)) != -1) {
+        digest.update(buffer, 0, read);
+      }
+    }
+  }
+
+
+  /**
+   * @param bytes
+   * @return the bytes as lower case hexadecimal string
+   */
+  public static String hex(byte[] bytes) {
+    char[] chars = new char[bytes.length * 2];
+    for (int i = 0; i < bytes.length; i++) {
+      chars[2 * i] = HEX[(bytes[i] >> 4) & 0xf];
+      chars[2 * i + 1] = HEX[bytes[i] & 0xf];
+    }
+    return new String(chars);
+  }
+}
@@ -2,13 +2,14 @@ package edu.ucsd.sbrg.util;
 
 import static edu.ucsd.sbrg.bigg.ModelPolisher.mpMessageBundle;
 
-import java.io.StringReader;
 import java.text.MessageFormat;
+import java.text.ParseException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.logging.Logger;
 
@@ -26,7 +27,6 @@ import org.sbml.jsbml.ext.fbc.GeneProductAssociation;
 import org.sbml.jsbml.ext.fbc.GeneProductRef;
 import org.sbml.jsbml.ext.fbc.LogicalOperator;
 import org.sbml.jsbml.ext.fbc.Or;
-import org.sbml.jsbml.text.parser.CobraFormulaParser;
 import org.sbml.jsbml.xml.XMLNode;
 
 import de.zbit.util.Utils;
@@ -39,17 +39,24 @@ public class GPRParser {
    */
   private static final Logger logger = Logger.getLogger(GPRParser.class.getName());
   /**
-   * Mapping holding geneAssociations from model annotations
+   * Key to link from {@link Model} to the mapping holding geneAssociations from
+   * its annotation, so that several models can be processed at the same time.
    */
-  private static Map<String, XMLNode> oldGeneAssociations;
+  private static final String OLD_GENE_ASSOCIATIONS = "OLD_GENE_ASSOCIATIONS";
+  /**
+   * Key to link from {@link Model} to the mapping holding the rules parsed for
+   * its reactions, as many reactions share the same rule.
+   */
+  private static final String GENE_REACTION_RULES = "GENE_REACTION_RULES";
 
   /**
-   * resets Map containing geneAssociation XMLNodes, as it is only valid for one model
+   * resets Maps containing geneAssociation XMLNodes and parsed rules, as they are only valid for one model
+   *
+   * @param model
    */
-  public static void clearAssociationMap() {
-    if (oldGeneAssociations != null) {
-      oldGeneAssociations = null;
-    }
+  public static void clearAssociationMap(Model model) {
+    model.removeUserObject(OLD_GENE_ASSOCIATIONS);
+    model.removeUserObject(GENE_REACTION_RULES);
   }
 
 
@@ -61,10 +68,9 @@ public class GPRParser {
     if ((geneReactionRule != null) && (geneReactionRule.length() > 0)) {
       Association association = null;
       try {
-        association =
-          convertToAssociation(ASTNode.parseFormula(geneReactionRule, new CobraFormulaParser(new StringReader(""))),
-            r.getId(), r.getModel(), omitGenericTerms);
-      } catch (Throwable exc) {
+        association = convertToAssociation(parseRule(r.getModel(), geneReactionRule), r.getId(), r.getModel(),
+          omitGenericTerms);
+      } catch (ParseException exc) {
         logger.warning(
           MessageFormat.format(mpMessageBundle.getString("PARSE_GPR_ERROR"), geneReactionRule, Utils.getMessage(exc)));
       }
@@ -76,6 +82,66 @@ public class GPRParser {
 
 
   /**
+   * @param model
+   * @param geneReactionRule
+   * @return the parsed rule, which is parsed only once per model
+   * @throws ParseException
+   */
+  private static GeneReactionRule parseRule(Model model, String geneReactionRule) throws ParseException {
+    @SuppressWarnings("unchecked")
+    Map<String, GeneReactionRule> rules = (Map<String, GeneReactionRule>) model.getUserObject(GENE_REACTION_RULES);
+    if (rules == null) {
+      rules = new HashMap<>();
+      model.putUserObject(GENE_REACTION_RULES, rules);
+    }
+    GeneReactionRule rule = rules.get(geneReactionRule);
+    if (rule == null) {
+      rule = GeneReactionRule.parse(geneReactionRule);
+      rules.put(geneReactionRule, rule);
+    }
+    return rule;
+  }
+
+
+  /**
+   * Creates the association of a parsed rule in one pass, as its operators are
+   * already flattened.
+   *
+   * @param rule
+   * @param reactionId
+   * @param model
+   * @param omitGenericTerms
+   * @return
+   */
+  private static Association convertToAssociation(GeneReactionRule rule, String reactionId, Model model,
+    boolean omitGenericTerms) {
+    if (rule.getType() == GeneReactionRule.Type.GENE) {
+      return createGPR(rule.getIdentifier(), Optional.ofNullable(rule.getGeneId()), reactionId, model);
+    }
+    int level = model.getLevel(), version = model.getVersion();
+    LogicalOperator operator;
+    if (rule.getType() == GeneReactionRule.Type.AND) {
+      operator = new And(level, version);
+      if (!omitGenericTerms) {
+        operator.setSBOTerm(173); // AND
+      }
+    } else {
+      operator = new Or(level, version);
+      if (!omitGenericTerms) {
+        operator.setSBOTerm(174); // OR
+      }
+    }
+    for (int i = 0; i < rule.getOperandCount(); i++) {
+      operator.addAssociation(convertToAssociation(rule.getOperand(i), reactionId, model, omitGenericTerms));
+    }
+    return operator;
+  }
+
+
+  /**
+   * Converts a rule parsed into an {@link ASTNode}, e.g., by JSBML's
+   * {@code CobraFormulaParser}.
+   *
    * @param ast
    * @param reactionId
    * @param model
@@ -122,13 +188,27 @@ public class GPRParser {
    * @return
    */
   public static GeneProductRef createGPR(String identifier, String reactionId, Model model) {
+    return createGPR(identifier, BiGGId.createGeneId(identifier).map(BiGGId::toBiGGId), reactionId, model);
+  }
+
+
+  /**
+   * @param identifier
+   * @param geneId
+   *        BiGG id of the identifier
+   * @param reactionId
+   * @param model
+   * @return
+   */
+  private static GeneProductRef createGPR(String identifier, Optional<String> geneId, String reactionId,
+    Model model) {
     // TODO: check if this could return an empty gpr in real cases
     int level = model.getLevel(), version = model.getVersion();
     GeneProductRef gpr = new GeneProductRef(level, version);
     // check if this id exists in the model
     String oldId = identifier.startsWith("G_") ? identifier : "G_" + identifier;
     boolean containsOldId = !model.containsUniqueNamedSBase(oldId);
-    BiGGId.createGeneId(identifier).map(BiGGId::toBiGGId).ifPresent(id -> {
+    geneId.ifPresent(id -> {
       if (!model.containsUniqueNamedSBase(id)) {
         GeneProduct gp;
         if (containsOldId) {
@@ -157,7 +237,7 @@ public class GPRParser {
    * @param association
    * @param omitGenericTerms
    */
-  private static void parseGPR(Reaction r, Association association, boolean omitGenericTerms) {
+  static void parseGPR(Reaction r, Association association, boolean omitGenericTerms) {
     FBCReactionPlugin plugin = (FBCReactionPlugin) r.getPlugin(FBCConstants.shortLabel);
     if (!plugin.isSetGeneProductAssociation()) {
       GeneProductAssociation gpa = new GeneProductAssociation(r.getLevel(), r.getVersion());
@@ -272,8 +352,11 @@ public class GPRParser {
     if (node == null) {
       return;
     }
+    @SuppressWarnings("unchecked")
+    Map<String, XMLNode> oldGeneAssociations = (Map<String, XMLNode>) model.getUserObject(OLD_GENE_ASSOCIATIONS);
     if (oldGeneAssociations == null) {
       oldGeneAssociations = new HashMap<>();
+      model.putUserObject(OLD_GENE_ASSOCIATIONS, oldGeneAssociations);
       for (int i = 0; i < node.getChildCount(); i++) {
         XMLNode current = node.getChild(i);
         if (current.getName().equals("geneAssociation")) {
@@ -0,0 +1,331 @@
+package edu.ucsd.sbrg.util;
+
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.ucsd.sbrg.bigg.BiGGId;
+
+/**
+ * Immutable boolean expression of a gene-reaction rule as found in COBRA
+ * models, e.g., {@code (b0001 and b0002) or b0003}. Operands of nested
+ * operators of the same type are merged in their order, so that the tree is as
+ * flat as the FBC associations it is converted to. Genes keep their identifier
+ * as written in the rule together with its BiGG id.
+ * Conjunctions are written as {@code and}, {@code &} or {@code &&},
+ * disjunctions as {@code or}, {@code |} or {@code ||}, where words may be in
+ * any case, and conjunctions bind stronger than disjunctions. Gene identifiers
+ * are all other sequences of characters up to white space, a parenthesis,
+ * {@code &} or {@code |}, so that identifiers such as {@code 1591.1} or
+ * {@code YAL012W-A} are kept as they are.
+ */
+final class GeneReactionRule {
+
+  /**
+   * Types of the nodes of a rule
+   */
+  enum Type {
+    AND,
+    OR,
+    GENE
+  }
+
+  private static final GeneReactionRule[] NO_OPERANDS = new GeneReactionRule[0];
+  private final Type type;
+  private final GeneReactionRule[] operands;
+  /**
+   * Identifier of a gene as written in the rule, {@code null} for operators
+   */
+  private final String identifier;
+  /**
+   * BiGG id of a gene, {@code null} for operators
+   */
+  private final String geneId;
+
+  /**
+   * @param type
+   *        {@link Type#AND} or {@link Type#OR}
+   * @param operands
+   */
+  private GeneReactionRule(Type type, List<GeneReactionRule> operands) {
+    this.type = type;
+    this.operands = operands.toArray(NO_OPERANDS);
+    identifier = null;
+    geneId = null;
+  }
+
+
+  /**
+   * @param identifier
+   *        of a gene
+   */
+  private GeneReactionRule(String identifier) {
+    type = Type.GENE;
+    operands = NO_OPERANDS;
+    this.identifier = identifier;
+    geneId = BiGGId.createGeneId(identifier).map(BiGGId::toBiGGId).orElse(null);
+  }
+
+
+  /**
+   * @param rule
+   * @return the expression of the rule
+   * @throws ParseException
+   *         if the rule is empty, parentheses are not balanced or an operator
+   *         lacks an operand
+   */
+  static GeneReactionRule parse(String rule) throws ParseException {
+    Parser parser = new Parser(rule);
+    GeneReactionRule expression = parser.disjunction();
+    if (parser.token != Token.END) {
+      throw parser.unexpected();
+    }
+    return expression;
+  }
+
+
+  /**
+   * @return
+   */
+  Type getType() {
+    return type;
+  }
+
+
+  /**
+   * @return the number of operands, 0 for genes
+   */
+  int getOperandCount() {
+    return operands.length;
+  }
+
+
+  /**
+   * @param index
+   * @return
+   */
+  GeneReactionRule getOperand(int index) {
+    return operands[index];
+  }
+
+
+  /**
+   * @return the identifier of a gene as written in the rule, {@code null} for
+   *         operators
+   */
+  String getIdentifier() {
+    return identifier;
+  }
+
+
+  /**
+   * @return the BiGG id of a gene, {@code null} for operators
+   */
+  String getGeneId() {
+    return geneId;
+  }
+
+
+  /*
+   * (non-Javadoc)
+   * @see java.lang.Object#toString()
+   */
+  @Override
+  public String toString() {
+    if (type == Type.GENE) {
+      return identifier;
+    }
+    StringBuilder sb = new StringBuilder();
+    for (GeneReactionRule operand : operands) {
+      if (sb.length() > 0) {
+        sb.append(type == Type.AND ? " and " : " or ");
+      }
+      if (operand.type == Type.GENE) {
+        sb.append(operand);
+      } else {
+        sb.append('(').append(operand).append(')');
+      }
+    }
+    return sb.toString();
+  }
+
+
+  /**
+   * Tokens of a rule
+   */
+  private enum Token {
+    OPEN,
+    CLOSE,
+    AND,
+    OR,
+    GENE,
+    END
+  }
+
+  /**
+   * Recursive descent parser reading one token ahead.
+   */
+  private static final class Parser {
+
+    private final String rule;
+    /**
+     * The current token and its position in the rule
+     */
+    private Token token;
+    private int start;
+    private int end;
+
+    /**
+     * @param rule
+     */
+    private Parser(String rule) {
+      this.rule = rule;
+      next();
+    }
+
+
+    /**
+     * Moves on to the next token.
+     */
+    private void next() {
+      start = end;
+      while ((start < rule.length()) && Character.isWhitespace(rule.charAt(start))) {
+        start++;
+      }
+      end = start;
+      if (start == rule.length()) {
+        token = Token.END;
+        return;
+      }
+      char c = rule.charAt(end++);
+      switch (c) {
+      case '(':
+        token = Token.OPEN;
+        break;
+      case ')':
+        token = Token.CLOSE;
+        break;
+      case '&':
+      case '|':
+        token = c == '&' ? Token.AND : Token.OR;
+        if ((end < rule.length()) && (rule.charAt(end) == c)) {
+          end++;
+        }
+        break;
+      default:
+        while ((end < rule.length()) && isIdentifierPart(rule.charAt(end))) {
+          end++;
+        }
+        token = isWord("and") ? Token.AND : isWord("or") ? Token.OR : Token.GENE;
+      }
+    }
+
+
+    /**
+     * @param c
+     * @return
+     */
+    private static boolean isIdentifierPart(char c) {
+      return !Character.isWhitespace(c) && (c != '(') && (c != ')') && (c != '&') && (c != '|');
+    }
+
+
+    /**
+     * @param word
+     * @return whether the current token is the given word in any case
+     */
+    private boolean isWord(String word) {
+      return (end - start == word.length()) && rule.regionMatches(true, start, word, 0, word.length());
+    }
+
+
+    /**
+     * @return a disjunction of conjunctions or a single conjunction
+     * @throws ParseException
+     */
+    private GeneReactionRule disjunction() throws ParseException {
+      GeneReactionRule first = conjunction();
+      if (token != Token.OR) {
+        return first;
+      }
+      List<GeneReactionRule> operands = new ArrayList<>();
+      add(operands, first, Type.OR);
+      while (token == Token.OR) {
+        next();
+        add(operands, conjunction(), Type.OR);
+      }
+      return new GeneReactionRule(Type.OR, operands);
+    }
+
+
+    /**
+     * @return a conjunction of genes or rules in parentheses or a single one of
+     *         them
+     * @throws ParseException
+     */
+    private GeneReactionRule conjunction() throws ParseException {
+      GeneReactionRule first = operand();
+      if (token != Token.AND) {
+        return first;
+      }
+      List<GeneReactionRule> operands = new ArrayList<>();
+      add(operands, first, Type.AND);
+      while (token == Token.AND) {
+        next();
+        add(operands, operand(), Type.AND);
+      }
+      return new GeneReactionRule(Type.AND, operands);
+    }
+
+
+    /**
+     * @return a gene or a rule in parentheses
+     * @throws ParseException
+     */
+    private GeneReactionRule operand() throws ParseException {
+      if (token == Token.GENE) {
+        GeneReactionRule gene = new GeneReactionRule(rule.substring(start, end));
+        next();
+        return gene;
+      } else if (token == Token.OPEN) {
+        next();
+        GeneReactionRule expression = disjunction();
+        if (token != Token.CLOSE) {
+          throw unexpected();
+        }
+        next();
+        return expression;
+      }
+      throw unexpected();
+    }
+
+
+    /**
+     * Adds the operand, or its operands if it is an operator of the given type
+     *
+     * @param operands
+     * @param operand
+     * @param type
+     */
+    private static void add(List<GeneReactionRule> operands, GeneReactionRule operand, Type type) {
+      if (operand.type == type) {
+        for (GeneReactionRule nested : operand.operands) {
+          operands.add(nested);
+        }
+      } else {
+        operands.add(operand);
+      }
+    }
+
+
+    /**
+     * @return an exception for the current token
+     */
+    private ParseException unexpected() {
+      if (token == Token.END) {
+        return new ParseException("Unexpected end of rule", start);
+      }
+      return new ParseException("Unexpected '" + rule.substring(start, end) + "' at position " + start, start);
+    }
+  }
+}
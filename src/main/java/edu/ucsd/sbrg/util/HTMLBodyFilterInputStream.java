@@ -0,0 +1,300 @@
+package edu.ucsd.sbrg.util;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Replaces {@code <html} start tags with attributes by {@code <body} and the
+ * matching {@code </html>} end tags by {@code </body>} while the SBML document
+ * is read, as some models wrap their notes in html instead of body elements.
+ * Html elements without attributes, i.e., proper XHTML documents, are kept
+ * together with their end tags. Works on the raw bytes, the tags are plain
+ * ASCII and cannot be part of a multi-byte character in UTF-8. Only a fixed
+ * size buffer is used, independent of the document size.
+ */
+public class HTMLBodyFilterInputStream extends FilterInputStream {
+
+  private static final byte[] HTML_START = "<html".getBytes(StandardCharsets.US_ASCII);
+  private static final byte[] HTML_END = "</html>".getBytes(StandardCharsets.US_ASCII);
+  private static final byte[] BODY_START = "<body".getBytes(StandardCharsets.US_ASCII);
+  private static final byte[] BODY_END = "</body>".getBytes(StandardCharsets.US_ASCII);
+  /**
+   * Result of {@link #replace(int)} if no tag starts at the given position
+   */
+  private static final int NONE = 0;
+  /**
+   * Result of {@link #replace(int)} if the buffered bytes end within a possible
+   * tag
+   */
+  private static final int PARTIAL = -1;
+  /**
+   * Html elements nested deeper than this are never replaced
+   */
+  private static final int MAX_DEPTH = Long.SIZE;
+  private final byte[] buffer = new byte[1 << 13];
+  /**
+   * Next byte to return
+   */
+  private int position;
+  /**
+   * Bytes before this index have been checked for tags and can be returned
+   */
+  private int processed;
+  /**
+   * End of the buffered bytes
+   */
+  private int limit;
+  private boolean eof;
+  private int replacements;
+  /**
+   * Number of open html elements
+   */
+  private int depth;
+  /**
+   * Whether the open html elements have been replaced, one bit per level
+   */
+  private long replaced;
+
+  /**
+   * @param in
+   */
+  public HTMLBodyFilterInputStream(InputStream in) {
+    super(in);
+  }
+
+
+  /**
+   * Ensures that there are processed bytes to return
+   *
+   * @return {@code false} at the end of the stream
+   * @throws IOException
+   */
+  private boolean fill() throws IOException {
+    while (position == processed) {
+      if (eof) {
+        return false;
+      }
+      // keep a possibly incomplete tag at the end of the buffer
+      System.arraycopy(buffer, position, buffer, 0, limit - position);
+      limit -= position;
+      processed -= position;
+      position = 0;
+      int read = in.read(buffer, limit, buffer.length - limit);
+      if (read == -1) {
+        eof = true;
+        processed = limit;
+      } else {
+        limit += read;
+        scan();
+      }
+    }
+    return true;
+  }
+
+
+  /**
+   * Replaces all complete tags after {@link #processed}
+   */
+  private void scan() {
+    int i = processed;
+    while (i < limit) {
+      if (buffer[i] == '<') {
+        int length = replace(i);
+        if (length == PARTIAL) {
+          break;
+        } else if (length != NONE) {
+          i += length;
+          continue;
+        }
+      }
+      i++;
+    }
+    processed = i;
+  }
+
+
+  /**
+   * Replaces an html start tag followed by white space, i.e., with attributes,
+   * and the end tag of such an element
+   *
+   * @param start
+   * @return the length of the html tag starting at the given position,
+   *         {@link #NONE} or {@link #PARTIAL}
+   */
+  private int replace(int start) {
+    int matched = prefix(start, HTML_START);
+    if (matched == HTML_START.length) {
+      if (start + matched == limit) {
+        return PARTIAL;
+      }
+      byte next = buffer[start + matched];
+      if (isWhitespace(next)) {
+        System.arraycopy(BODY_START, 0, buffer, start, BODY_START.length);
+        replacements++;
+        push(true);
+        return HTML_START.length + 1;
+      } else if (next == '>') {
+        push(false);
+        return HTML_START.length + 1;
+      }
+      return NONE;
+    }
+    boolean partial = start + matched == limit;
+    matched = prefix(start, HTML_END);
+    if (matched == HTML_END.length) {
+      if (pop()) {
+        System.arraycopy(BODY_END, 0, buffer, start, BODY_END.length);
+        replacements++;
+      }
+      return HTML_END.length;
+    }
+    return (partial || (start + matched == limit)) ? PARTIAL : NONE;
+  }
+
+
+  /**
+   * @param start
+   * @param tag
+   * @return number of bytes of the tag found at the given position, up to the
+   *         first differing byte or the end of the buffered bytes
+   */
+  private int prefix(int start, byte[] tag) {
+    int j = 0;
+    while ((j < tag.length) && (start + j < limit) && (buffer[start + j] == tag[j])) {
+      j++;
+    }
+    return j;
+  }
+
+
+  /**
+   * @param b
+   * @return whether the byte is white space in XML
+   */
+  private static boolean isWhitespace(byte b) {
+    return (b == ' ') || (b == '\t') || (b == '\n') || (b == '\r');
+  }
+
+
+  /**
+   * Opens an html element
+   *
+   * @param replace
+   *        whether its start tag has been replaced
+   */
+  private void push(boolean replace) {
+    if (depth < MAX_DEPTH) {
+      replaced = replace ? replaced | (1L << depth) : replaced & ~(1L << depth);
+    }
+    depth++;
+  }
+
+
+  /**
+   * Closes the innermost open html element
+   *
+   * @return whether its start tag has been replaced, {@code false} if no
+   *         element is open
+   */
+  private boolean pop() {
+    if (depth == 0) {
+      return false;
+    }
+    depth--;
+    return (depth < MAX_DEPTH) && ((replaced & (1L << depth)) != 0);
+  }
+
+
+  /*
+   * (non-Javadoc)
+   * @see java.io.FilterInputStream#read()
+   */
+  @Override
+  public int read() throws IOException {
+    return fill() ? buffer[position++] & 0xff : -1;
+  }
+
+
+  /*
+   * (non-Javadoc)
+   * @see java.io.FilterInputStream#read(byte[], int, int)
+   */
+  @Override
+  public int read(byte[] b, int off, int len) throws IOException {
+    if (len == 0) {
+      return 0;
+    }
+    if (!fill()) {
+      return -1;
+    }
+    int count = Math.min(len, processed - position);
+    System.arraycopy(buffer, position, b, off, count);
+    position += count;
+    return count;
+  }
+
+
+  /*
+   * (non-Javadoc)
+   * @see java.io.FilterInputStream#skip(long)
+   */
+  @Override
+  public long skip(long n) throws IOException {
+    long skipped = 0;
+    while ((skipped < n) && fill()) {
+      int count = (int) Math.min(n - skipped, processed - position);
+      position += count;
+      skipped += count;
+    }
+    return skipped;
+  }
+
+
+  /*
+   * (non-Javadoc)
+   * @see java.io.FilterInputStream#available()
+   */
+  @Override
+  public int available() {
+    return processed - position;
+  }
+
+
+  /*
+   * (non-Javadoc)
+   * @see java.io.FilterInputStream#markSupported()
+   */
+  @Override
+  public boolean markSupported() {
+    return false;
+  }
+
+
+  /*
+   * (non-Javadoc)
+   * @see java.io.FilterInputStream#mark(int)
+   */
+  @Override
+  public synchronized void mark(int readlimit) {
+  }
+
+
+  /*
+   * (non-Javadoc)
+   * @see java.io.FilterInputStream#reset()
+   */
+  @Override
+  public synchronized void reset() throws IOException {
+    throw new IOException("mark/reset not supported");
+  }
+
+
+  /**
+   * @return number of tags replaced so far
+   */
+  public int getReplacements() {
+    return replacements;
+  }
+}
@@ -15,6 +15,7 @@ import java.util.logging.Logger;
 import javax.swing.tree.TreeNode;
 
 import org.sbml.jsbml.ListOf;
+import org.sbml.jsbml.Model;
 import org.sbml.jsbml.Reaction;
 import org.sbml.jsbml.ext.fbc.Association;
 import org.sbml.jsbml.ext.fbc.FBCModelPlugin;
@@ -44,9 +45,11 @@ public class SBMLUtils {
    */
   public static final String SUBSYSTEM_LINK = "SUBSYSTEM_LINK";
   /**
-   * HashMap holding all gene product references in a model for updating
+   * Key to link from {@link Model} to a {@link Map} holding all gene product
+   * references in that model for updating. Keeping this map with the model
+   * allows to process several models at the same time.
    */
-  private static Map<String, GeneProductRef> geneProductReferences = new HashMap<>();
+  private static final String GENE_PRODUCT_REFERENCES = "GENE_PRODUCT_REFERENCES";
 
   /**
    * Apply updated GeneID to geneProductReferenece
@@ -54,9 +57,7 @@ public class SBMLUtils {
    * @param gp
    */
   public static void updateGeneProductReference(GeneProduct gp) {
-    if (geneProductReferences.isEmpty()) {
-      initGPRMap(gp.getModel().getListOfReactions());
-    }
+    Map<String, GeneProductRef> geneProductReferences = getGPRMap(gp.getModel());
     String id = gp.getId();
     if (id.startsWith("G_")) {
       id = id.split("G_")[1];
@@ -68,10 +69,29 @@ public class SBMLUtils {
   }
 
 
+  /**
+   * @param model
+   * @return the gene product references of the given model, which are
+   *         collected on first access
+   */
+  @SuppressWarnings("unchecked")
+  private static Map<String, GeneProductRef> getGPRMap(Model model) {
+    Map<String, GeneProductRef> geneProductReferences =
+      (Map<String, GeneProductRef>) model.getUserObject(GENE_PRODUCT_REFERENCES);
+    if ((geneProductReferences == null) || geneProductReferences.isEmpty()) {
+      geneProductReferences = new HashMap<>();
+      initGPRMap(model.getListOfReactions(), geneProductReferences);
+      model.putUserObject(GENE_PRODUCT_REFERENCES, geneProductReferences);
+    }
+    return geneProductReferences;
+  }
+
+
   /**
    * @param reactions
+   * @param geneProductReferences
    */
-  private static void initGPRMap(ListOf<Reaction> reactions) {
+  private static void initGPRMap(ListOf<Reaction> reactions, Map<String, GeneProductRef> geneProductReferences) {
     for (Reaction r : reactions) {
       for (int childIdx = 0; childIdx < r.getChildCount(); childIdx++) {
         TreeNode child = r.getChildAt(childIdx);
@@ -81,7 +101,7 @@ public class SBMLUtils {
             GeneProductRef gpr = (GeneProductRef) association;
             geneProductReferences.put(gpr.getGeneProduct(), gpr);
           } else if (association instanceof LogicalOperator) {
-            processNested(association);
+            processNested(association, geneProductReferences);
           }
         }
       }
@@ -90,21 +110,24 @@ public class SBMLUtils {
 
 
   /**
+   * Releases the gene product references collected for the given model.
    * 
+   * @param model
    */
-  public static void cleanGPRMap() {
-    geneProductReferences = new HashMap<>();
+  public static void cleanGPRMap(Model model) {
+    model.removeUserObject(GENE_PRODUCT_REFERENCES);
   }
 
 
   /**
    * @param association
+   * @param geneProductReferences
    */
-  private static void processNested(Association association) {
+  private static void processNested(Association association, Map<String, GeneProductRef> geneProductReferences) {
     for (int idx = 0; idx < association.getChildCount(); idx++) {
       TreeNode child = association.getChildAt(idx);
       if (child instanceof LogicalOperator) {
-        processNested((Association) child);
+        processNested((Association) child, geneProductReferences);
       } else {
         // has to GeneProductReference
         GeneProductRef gpr = (GeneProductRef) child;
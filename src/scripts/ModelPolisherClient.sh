@@ -0,0 +1,13 @@
+#!/bin/bash
+
+#
+# This script submits models to a running ModelPolisher server, which has been
+# started with ModelPolisher.sh --server-port=<port>, e.g.,
+# ModelPolisherClient.sh --server=http://localhost:1995 --input=model.xml --output=out/
+#
+
+## Find location of this script ##
+DIR=$( cd "$( dirname "${BASH_SOURCE[0]}" )" && pwd )
+
+## Launch the client
+java -cp ${DIR}/../target/ModelPolisher-2.1-beta.jar edu.ucsd.sbrg.bigg.ModelPolisherClient "$@"
@@ -30,6 +30,8 @@ for OPT in $*; do
     --compression-type=*) COMPRESSION_TYPE="${OPT#*=}";;
     --check-mass-balance=*) CHECK_MASS_BALANCE="${OPT#*=}";;
     --sbml-validation=*) SBML_VALIDATION="${OPT#*=}";;
+    --validation-scope=*) VALIDATION_SCOPE="${OPT#*=}";;
+    --parallel-polishing=*) PARALLEL_POLISHING="${OPT#*=}";;
     --omit-generic-terms=*) OMIT_GENERIC_TERMS="${OPT#*=}";;
     --log-level=*) LOG_LEVEL="${OPT#*=}";;
     --log-file=*) LOG_FILE="${OPT#*=}";;
@@ -39,6 +41,7 @@ for OPT in $*; do
     --document-title-pattern=*) DOCUMENT_TITLE_PATTERN="${OPT#*=}";;
     --model-notes-file=*) MODEL_NOTES_FILE="{OPT#*=}";;
     --document-notes-file=*) DOCUMENT_NOTES_FILE="{OPT#*=}";;
+    --server=*) SERVER="${OPT#*=}";;
   esac
 done
 
@@ -99,8 +102,22 @@ if [ -n "$DOCUMENT_NOTES_FILE" ]
 then
     ARGS+=" --document-notes-file=$DOCUMENT_NOTES_FILE"
 fi
+if [ -n "$VALIDATION_SCOPE" ]
+then
+    ARGS+=" --validation-scope=$VALIDATION_SCOPE"
+fi
+if [ -n "$PARALLEL_POLISHING" ]
+then
+    ARGS+=" --parallel-polishing=$PARALLEL_POLISHING"
+fi
 
-"${DIR}/ModelPolisher.sh" $ARGS
+# Submit to a running server if given, which keeps its own database connections
+if [ -n "$SERVER" ]
+then
+    "${DIR}/ModelPolisherClient.sh" --server=$SERVER $ARGS
+else
+    "${DIR}/ModelPolisher.sh" $ARGS
+fi
 
 if [ -e "${DIR}/ModelPolisherTemplate.sh" ] && [ ! -e "${DIR}/ModelPolisherTemplate.bckp" ];
 then
@@ -0,0 +1,78 @@
+package edu.ucsd.sbrg.bigg;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class BatchManifestTest {
+
+  private File directory;
+  private File input;
+  private File output;
+
+  @BeforeEach
+  public void setUp() throws IOException {
+    directory = Files.createTempDirectory("manifest").toFile();
+    input = new File(directory, "model.json");
+    output = new File(directory, "out/model.xml");
+    Files.write(input.toPath(), "{\"id\": \"model\"}".getBytes(StandardCharsets.UTF_8));
+  }
+
+
+  @AfterEach
+  public void tearDown() throws IOException {
+    try (Stream<Path> paths = Files.walk(directory.toPath())) {
+      paths.map(Path::toFile).sorted((a, b) -> b.compareTo(a)).forEach(File::delete);
+    }
+  }
+
+
+  @Test
+  public void resumeFromPersistedManifest() throws IOException {
+    BatchManifest manifest = new BatchManifest(directory, "config");
+    String fingerprint = manifest.fingerprint(input);
+    assertFalse(manifest.isUpToDate(output, fingerprint));
+    manifest.update(output, fingerprint);
+    assertTrue(manifest.isUpToDate(output, fingerprint));
+    // a new run reads the state of the previous one, no temporary files are left
+    BatchManifest resumed = new BatchManifest(directory, "config");
+    assertTrue(resumed.isUpToDate(output, resumed.fingerprint(input)));
+    String[] files = directory.list((dir, name) -> name.startsWith(BatchManifest.FILE_NAME));
+    assertEquals(Arrays.asList(BatchManifest.FILE_NAME), Arrays.asList(files));
+  }
+
+
+  @Test
+  public void changedInputOrConfiguration() throws IOException {
+    BatchManifest manifest = new BatchManifest(directory, "config");
+    String fingerprint = manifest.fingerprint(input);
+    manifest.update(output, fingerprint);
+    BatchManifest reconfigured = new BatchManifest(directory, "other config");
+    assertFalse(reconfigured.isUpToDate(output, reconfigured.fingerprint(input)));
+    Files.write(input.toPath(), "{\"id\": \"changed\"}".getBytes(StandardCharsets.UTF_8));
+    assertNotEquals(fingerprint, manifest.fingerprint(input));
+    assertFalse(manifest.isUpToDate(output, manifest.fingerprint(input)));
+  }
+
+
+  @Test
+  public void hashIsOrderSensitive() {
+    assertEquals(BatchManifest.hash(Arrays.asList("a=1", "b=2")), BatchManifest.hash(Arrays.asList("a=1", "b=2")));
+    assertNotEquals(BatchManifest.hash(Arrays.asList("a=1", "b=2")), BatchManifest.hash(Arrays.asList("b=2", "a=1")));
+    // values are separated, so they cannot be shifted into each other
+    assertNotEquals(BatchManifest.hash(Arrays.asList("ab", "c")), BatchManifest.hash(Arrays.asList("a", "bc")));
+  }
+}
@@ -0,0 +1,71 @@
+package edu.ucsd.sbrg.bigg;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class BiGGIdCacheTest {
+
+  @BeforeEach
+  public void clear() {
+    BiGGIdCache.clear();
+  }
+
+
+  @Test
+  public void sameIdsAreShared() {
+    Optional<BiGGId> metabolite = BiGGId.createMetaboliteId("glc__D_e");
+    assertSame(metabolite.get(), BiGGId.createMetaboliteId("glc__D_e").get());
+    assertEquals(BiGGId.createMetaboliteId("glc__D_e", true), metabolite);
+    // the same raw id of another kind is cached separately
+    assertEquals("R_glc__D_e", BiGGId.createReactionId("glc__D_e").get().toBiGGId());
+    assertEquals("G_glc__D_e", BiGGId.createGeneId("glc__D_e").get().toBiGGId());
+    assertEquals("EX_glc__D_e", BiGGId.createReactionId("R_EX_glc__D_e").get().toBiGGId());
+    assertTrue(BiGGId.createMetaboliteId("").isEmpty());
+  }
+
+
+  @Test
+  public void sharedIdsCannotBeChanged() {
+    BiGGId biggId = BiGGId.createGeneId("b0001").get();
+    assertThrows(UnsupportedOperationException.class, () -> biggId.setAbbreviation("b0002"));
+    assertEquals("G_b0001", biggId.toBiGGId());
+    // ids not created through the cache can still be changed
+    BiGGId uncached = BiGGId.createGeneId("b0001", true).get();
+    uncached.setAbbreviation("b0002");
+    assertEquals("G_b0002", uncached.toBiGGId());
+  }
+
+
+  @Test
+  public void statistics() {
+    for (int i = 0; i < 3; i++) {
+      BiGGId.createMetaboliteId("h2o_c");
+      BiGGId.createReactionId("PGI");
+    }
+    BiGGIdCache.Statistics statistics = BiGGIdCache.getStatistics();
+    assertEquals(6, statistics.getLookups());
+    assertEquals(4, statistics.getHits());
+    assertEquals(2d / 3d, statistics.getHitRate(), 1e-9);
+    assertEquals(2, statistics.getSize());
+    assertEquals(2 * statistics.getRetainedBytes(), statistics.getSavedBytes());
+  }
+
+
+  @Test
+  public void bounded() {
+    for (int i = 0; i < 100000; i++) {
+      BiGGId.createMetaboliteId("m" + i + "_c");
+    }
+    BiGGIdCache.Statistics statistics = BiGGIdCache.getStatistics();
+    assertTrue(statistics.getSize() <= 1 << 15);
+    assertTrue(statistics.getEvictions() >= 100000 - statistics.getSize());
+    assertEquals("M_m99999_c", BiGGId.createMetaboliteId("m99999_c").get().toBiGGId());
+  }
+}
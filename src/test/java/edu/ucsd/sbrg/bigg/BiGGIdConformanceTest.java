@@ -0,0 +1,96 @@
+package edu.ucsd.sbrg.bigg;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Checks that {@link BiGGId} lexes and corrects ids exactly like the regular
+ * expressions of {@link RegexBiGGId}, for all ids of BiGG used in
+ * {@link BiGGIdTest}, variants of them and random ids made of the parts the
+ * lexer distinguishes.
+ */
+public class BiGGIdConformanceTest {
+
+  /**
+   * Parts of random ids: prefixes, pseudo reaction keywords, codes, characters
+   * that are replaced and line terminators, which end the parts of ids that
+   * may contain any character
+   */
+  private static final String[] TOKENS = {"R", "r", "M", "m", "G", "g", "C_", "_", "__", "EX_", "ex", "Dm_", "SK_",
+    "sInK_", "biomass", "BIOMASS_", "atpm", "ATPM", "[c]", "[cc]", "[c1]", "[C]", "[", "]", "(", ")", "(e)", "-", "/",
+    ".", "_copy", "_copy12", "_LPAREN_", "_RPAREN_", "LBRACKET_", "_RBRACKET_", "a", "c", "e", "h", "T", "T1", "0", "9",
+    "_c", "_e", "_c1", "_T", "_A1", "\n", "\r", "\u0085", "\u2028", "#", "\u00e9", "\u0131", "\u212a", "nadh", "glc__D"};
+  private static final int RANDOM_IDS = 20000;
+  private static final List<String> ids = new ArrayList<>();
+
+  @BeforeAll
+  @SuppressWarnings("unchecked")
+  public static void setUp() throws IOException {
+    ObjectMapper mapper = new ObjectMapper();
+    Map<String, List<String>> biggIds =
+      mapper.readValue(BiGGId.class.getResourceAsStream("bigg_models_data_ids.json"), Map.class);
+    biggIds.values().forEach(ids::addAll);
+  }
+
+
+  @Test
+  public final void biggIds() {
+    for (String id : ids) {
+      assertConform(id);
+      assertConform("R_" + id);
+      assertConform(id + "[c]");
+      assertConform("r_" + id + "(e)_copy2");
+    }
+  }
+
+
+  @Test
+  public final void specialCases() {
+    String[] cases = {"h", "h_c", "M_h_c", "M_h_c1", "m_h_c", "nadh____c", "M_nadh_c_LI", "G_1818", "R_EX_h2o_e",
+      "r_ex_h2o_e", "EX_h2o(e)", "DM_atp_c", "Rsink_x", "R_SK_x", "BIOMASS_Ecoli_core_w_GAM", "r_biomass", "biomass_",
+      "ATPM", "R_ATPM", "atpm_c", "C_c", "C_", "12dgr_HP_c", "ala-L[c]", "glc[c][e]", "a(b)c(d)", "a[b]c[d]", "x_copy",
+      "x_copy1_copy2", "_LPAREN_x", "a\n(b)", "a(\nb)", "a[b\n]c[d]", "M_a.b/c", "R_", "M__c", "_"};
+    for (String id : cases) {
+      assertConform(id);
+    }
+  }
+
+
+  @Test
+  public final void randomIds() {
+    Random random = new Random(42);
+    for (int i = 0; i < RANDOM_IDS; i++) {
+      StringBuilder id = new StringBuilder();
+      for (int length = 1 + random.nextInt(8); length > 0; length--) {
+        id.append(TOKENS[random.nextInt(TOKENS.length)]);
+      }
+      assertConform(id.toString());
+    }
+  }
+
+
+  /**
+   * @param id
+   */
+  private static void assertConform(String id) {
+    assertEquals(RegexBiGGId.createMetaboliteId(id, true), BiGGId.createMetaboliteId(id), id);
+    assertEquals(RegexBiGGId.createMetaboliteId(id, false), BiGGId.createMetaboliteId(id, false), id);
+    assertEquals(RegexBiGGId.createGeneId(id, true), BiGGId.createGeneId(id), id);
+    assertEquals(RegexBiGGId.createGeneId(id, false), BiGGId.createGeneId(id, false), id);
+    assertEquals(RegexBiGGId.createReactionId(id), BiGGId.createReactionId(id), id);
+    assertEquals(RegexBiGGId.createReactionId(id, true, true), BiGGId.createReactionId(id, true, true), id);
+    assertEquals(RegexBiGGId.createReactionId(id, false, false), BiGGId.createReactionId(id, false, false), id);
+    assertEquals(RegexBiGGId.isValid(id), BiGGId.isValid(id), id);
+    assertEquals(RegexBiGGId.extractCompartmentCode(id), BiGGId.extractCompartmentCode(id), id);
+  }
+}
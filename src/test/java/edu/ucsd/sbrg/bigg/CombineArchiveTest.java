@@ -10,10 +10,15 @@ import org.junit.jupiter.api.Test;
 
 import javax.xml.transform.TransformerException;
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
 import java.text.ParseException;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 import static org.junit.Assert.assertTrue;
 
@@ -67,6 +72,31 @@ public class CombineArchiveTest {
         assertTrue(hasGlossary);
     }
 
+    @Test
+    public void testStreamedArchive() throws IOException, JDOMException, ParseException, CombineArchiveException {
+        File archive = File.createTempFile("streamed", ".zip");
+        try {
+            try (ZipOutputStream zip = new ZipOutputStream(new FileOutputStream(archive))) {
+                zip.putNextEntry(new ZipEntry(ModelPolisher.COMBINE_MANIFEST));
+                zip.write(ModelPolisher.getCombineManifest().getBytes(StandardCharsets.UTF_8));
+                zip.closeEntry();
+                for (String entry : new String[] {ModelPolisher.COMBINE_MODEL, ModelPolisher.COMBINE_GLOSSARY}) {
+                    zip.putNextEntry(new ZipEntry(entry));
+                    try (InputStream content = CombineArchiveTest.class.getResourceAsStream(entry)) {
+                        content.transferTo(zip);
+                    }
+                    zip.closeEntry();
+                }
+            }
+            CombineArchive ca = new CombineArchive(archive, true);
+            assertTrue(ca.getMainEntry().getFileName().equals(ModelPolisher.COMBINE_MODEL));
+            assertTrue(ca.getEntry("/" + ModelPolisher.COMBINE_GLOSSARY) != null);
+            ca.close();
+        } finally {
+            archive.delete();
+        }
+    }
+
     @AfterAll
     public static void cleanUp(){
         String modelLocation = CombineArchiveTest.class.getResource("model.xml").getFile();
@@ -0,0 +1,122 @@
+package edu.ucsd.sbrg.bigg;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.sbml.jsbml.Compartment;
+import org.sbml.jsbml.Model;
+import org.sbml.jsbml.Reaction;
+import org.sbml.jsbml.SBMLDocument;
+import org.sbml.jsbml.Species;
+import org.sbml.jsbml.SpeciesReference;
+
+public class ParametersTest {
+
+  @Test
+  public void builderIsIndependentOfBuiltParameters() {
+    double[] coefficients = {1d, 2d};
+    Parameters.Builder builder = Parameters.builder().omitGenericTerms(true).fluxCoefficients(coefficients);
+    Parameters parameters = builder.build();
+    coefficients[0] = 5d;
+    builder.omitGenericTerms(false);
+    parameters.getFluxCoefficients()[1] = 5d;
+    assertTrue(parameters.getOmitGenericTerms());
+    assertArrayEquals(new double[] {1d, 2d}, parameters.getFluxCoefficients());
+    assertFalse(builder.build().getOmitGenericTerms());
+  }
+
+
+  @Test
+  public void defaults() {
+    Parameters parameters = Parameters.builder().build();
+    assertTrue(parameters.getCheckMassBalance());
+    assertFalse(parameters.getOmitGenericTerms());
+    assertEquals(ModelPolisherOptions.Compression.NONE, parameters.getCompression());
+    assertEquals("[biggId] - [organism]", parameters.getDocumentTitlePattern());
+    assertEquals(1, parameters.getThreads());
+    assertEquals(parameters.getConfigurationHash(), Parameters.builder().threads(4).build().getConfigurationHash());
+    assertNotEquals(parameters.getConfigurationHash(),
+      Parameters.builder().omitGenericTerms(true).build().getConfigurationHash());
+  }
+
+
+  /**
+   * Models polished concurrently with different parameters have to come out
+   * as if they had been polished one after another
+   */
+  @Test
+  public void concurrentRunsWithDifferentParameters() throws InterruptedException, ExecutionException {
+    Parameters generic = Parameters.builder().omitGenericTerms(false).checkMassBalance(true).build();
+    Parameters omitted = Parameters.builder().omitGenericTerms(true).checkMassBalance(false).build();
+    String expectedGeneric = polish(generic);
+    String expectedOmitted = polish(omitted);
+    assertNotEquals(expectedGeneric, expectedOmitted);
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<String>> generics = new ArrayList<>();
+      List<Future<String>> omitteds = new ArrayList<>();
+      for (int i = 0; i < 32; i++) {
+        generics.add(executor.submit(() -> polish(generic)));
+        omitteds.add(executor.submit(() -> polish(omitted)));
+      }
+      for (int i = 0; i < generics.size(); i++) {
+        assertEquals(expectedGeneric, generics.get(i).get());
+        assertEquals(expectedOmitted, omitteds.get(i).get());
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+
+  /**
+   * @param parameters
+   * @return the SBO terms of all reactions and their participants after
+   *         polishing a small model with the given parameters
+   */
+  private String polish(Parameters parameters) {
+    SBMLDocument doc = new SBMLDocument(3, 1);
+    Model model = doc.createModel("test_model");
+    Compartment cytosol = model.createCompartment("c");
+    List<Species> species = new ArrayList<>();
+    for (String id : new String[] {"M_glc__D_c", "M_g6p_c", "M_atp_c", "M_adp_c"}) {
+      Species s = model.createSpecies(id, cytosol);
+      s.setHasOnlySubstanceUnits(false);
+      s.setBoundaryCondition(false);
+      s.setConstant(false);
+      species.add(s);
+    }
+    for (int i = 0; i < 20; i++) {
+      Reaction r = model.createReaction("R_HEX" + i);
+      r.setReversible(false);
+      r.createReactant(species.get(0));
+      r.createReactant(species.get(2));
+      r.createProduct(species.get(1));
+      r.createProduct(species.get(3));
+    }
+    new SBMLPolisher(parameters).polish(doc);
+    StringBuilder signature = new StringBuilder();
+    for (Reaction r : model.getListOfReactions()) {
+      signature.append(r.getId()).append(':').append(r.getSBOTerm());
+      for (SpeciesReference reference : r.getListOfReactants()) {
+        signature.append(' ').append(reference.getSBOTerm());
+      }
+      for (SpeciesReference reference : r.getListOfProducts()) {
+        signature.append(' ').append(reference.getSBOTerm());
+      }
+      signature.append('\n');
+    }
+    return signature.toString();
+  }
+}
@@ -0,0 +1,49 @@
+package edu.ucsd.sbrg.bigg;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.junit.jupiter.api.Test;
+import org.sbml.jsbml.Model;
+import org.sbml.jsbml.SBMLDocument;
+
+public class PolisherTest {
+
+  @Test
+  public void polishStream() throws IOException {
+    Polisher polisher = new Polisher(Parameters.builder().sbmlValidation(true).build());
+    PolishingReport report;
+    try (InputStream stream = PolisherTest.class.getResourceAsStream("model.xml")) {
+      report = polisher.polish(stream, Polisher.Format.SBML);
+    }
+    assertEquals("e_coli_core", report.getModelId());
+    assertEquals(3, report.getOriginalLevel());
+    assertEquals(1, report.getOriginalVersion());
+    assertFalse(report.isConverted());
+    assertFalse(report.isAnnotated());
+    assertTrue(report.isValidated());
+    assertEquals(95, report.getDocument().getModel().getReactionCount());
+  }
+
+
+  @Test
+  public void polishDocument() {
+    SBMLDocument doc = new SBMLDocument(2, 4);
+    Model model = doc.createModel("test_model");
+    model.createCompartment("c");
+    model.createSpecies("M_glc__D_c", model.getCompartment("c"));
+    PolishingReport report = new Polisher(Parameters.builder().build()).polish(doc);
+    assertEquals(2, report.getOriginalLevel());
+    assertEquals(4, report.getOriginalVersion());
+    assertTrue(report.isConverted());
+    assertFalse(report.isValidated());
+    assertTrue(report.isValid());
+    assertEquals(3, report.getDocument().getLevel());
+    assertEquals(1, report.getDocument().getVersion());
+    assertEquals(624, report.getDocument().getSBOTerm());
+  }
+}
@@ -0,0 +1,140 @@
+package edu.ucsd.sbrg.bigg;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.stream.XMLStreamException;
+
+import org.junit.jupiter.api.Test;
+import org.sbml.jsbml.SBMLDocument;
+import org.sbml.jsbml.SBMLReader;
+import org.sbml.jsbml.SBMLWriter;
+
+import de.zbit.util.prefs.KeyProvider;
+import de.zbit.util.prefs.Option;
+import de.zbit.util.prefs.SBProperties;
+import edu.ucsd.sbrg.bigg.Polisher.Format;
+
+public class PolishingServerTest {
+
+  @Test
+  public void parseQuery() {
+    Map<String, String> query = PolishingServer.parseQuery(
+      "name=e%20coli.xml&--check-mass-balance=false&omit-generic-terms&&flux-objectives=%5Ba%3Ab%5D");
+    assertEquals(4, query.size());
+    assertEquals("e coli.xml", query.get("name"));
+    assertEquals("false", query.get("--check-mass-balance"));
+    assertEquals("true", query.get("omit-generic-terms"));
+    assertEquals("[a:b]", query.get("flux-objectives"));
+    assertTrue(PolishingServer.parseQuery(null).isEmpty());
+  }
+
+
+  @Test
+  public void toOptionName() {
+    assertEquals("CHECK_MASS_BALANCE", PolishingServer.toOptionName("--check-mass-balance"));
+    assertEquals("COMPRESSION_TYPE", PolishingServer.toOptionName("compression-type"));
+  }
+
+
+  /**
+   * Posts a model to a running server, which polishes it with the options of
+   * the request, but never reads files named by a request
+   */
+  @Test
+  public void polish() throws IOException, InterruptedException, XMLStreamException {
+    List<Parameters> requests = Collections.synchronizedList(new ArrayList<>());
+    PolishingServer server = new PolishingServer(List.of(ModelPolisherOptions.class), (parameters, input, output) -> {
+      requests.add(parameters);
+      if (input.length() == 0) {
+        return null;
+      }
+      SBMLDocument doc;
+      try (InputStream stream = new FileInputStream(input)) {
+        doc = new Polisher(parameters).polish(stream, Format.SBML).getDocument();
+      }
+      File polished = new File(output, input.getName());
+      new SBMLWriter().write(doc, polished);
+      return polished;
+    }, "test", defaults(), 0, 1);
+    server.start();
+    File notes = File.createTempFile("notes", ".html");
+    try {
+      Files.write(notes.toPath(), "<body>secret</body>".getBytes(StandardCharsets.UTF_8));
+      byte[] model;
+      try (InputStream in = PolishingServerTest.class.getResourceAsStream("/edu/ucsd/sbrg/bigg/model.xml")) {
+        model = in.readAllBytes();
+      }
+      String polish = "http://127.0.0.1:" + server.getPort() + PolishingServer.POLISH_PATH;
+      HttpResponse<String> response = post(polish + "?name=model.xml&omit-generic-terms=true&model-notes-file="
+        + URLEncoder.encode(notes.getAbsolutePath(), StandardCharsets.UTF_8), model);
+      assertEquals(200, response.statusCode(), response.body());
+      assertTrue(response.headers().firstValue("Content-Disposition").orElse("").contains("model.xml"));
+      assertTrue(new SBMLReader().readSBMLFromString(response.body()).isSetModel());
+      assertEquals(1, requests.size());
+      assertTrue(requests.get(0).getOmitGenericTerms());
+      assertNull(requests.get(0).getModelNotesFile());
+      assertFalse(response.body().contains("secret"));
+      // invalid requests are rejected before the model is polished
+      assertEquals(400, post(polish + "?name=model.xml&unknown-option=true", model).statusCode());
+      assertEquals(400, post(polish, model).statusCode());
+      assertEquals(1, requests.size());
+      assertEquals(422, post(polish + "?name=empty.xml", new byte[0]).statusCode());
+      HttpResponse<String> get = HttpClient.newHttpClient().send(HttpRequest.newBuilder(URI.create(polish)).build(),
+        HttpResponse.BodyHandlers.ofString());
+      assertEquals(405, get.statusCode());
+    } finally {
+      server.stop(0);
+      Files.deleteIfExists(notes.toPath());
+    }
+  }
+
+
+  /**
+   * @param uri
+   * @param body
+   * @return the response of the server
+   * @throws IOException
+   * @throws InterruptedException
+   */
+  private static HttpResponse<String> post(String uri, byte[] body) throws IOException, InterruptedException {
+    HttpRequest request =
+      HttpRequest.newBuilder(URI.create(uri)).POST(HttpRequest.BodyPublishers.ofByteArray(body)).build();
+    return HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.ofString());
+  }
+
+
+  /**
+   * @return the default values of {@link ModelPolisherOptions}, as given to
+   *         the server when it is started without options
+   */
+  @SuppressWarnings("rawtypes")
+  private static SBProperties defaults() {
+    SBProperties defaults = new SBProperties();
+    for (Option option : KeyProvider.Tools.optionList(ModelPolisherOptions.class)) {
+      Object value = option.getDefaultValue();
+      if ((value != null) && !value.getClass().isArray()) {
+        defaults.put(option.getOptionName(), value.toString());
+      }
+    }
+    return defaults;
+  }
+}
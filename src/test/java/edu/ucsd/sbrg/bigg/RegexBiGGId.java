@@ -0,0 +1,199 @@
+package edu.ucsd.sbrg.bigg;
+
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Reference implementation of the creation of {@link BiGGId}s with regular
+ * expressions, as done before ids were lexed by hand. Only used to check that
+ * both give the same results.
+ */
+final class RegexBiGGId {
+
+  private static final Pattern ATPM = Pattern.compile("[Aa][Tt][Pp][Mm]");
+  private static final Pattern BIOMASS = Pattern.compile("(([Rr]_?)?[Bb][Ii][Oo][Mm][Aa][Ss][Ss])(?:_(.+))?");
+  private static final Pattern COMPARTMENT = Pattern.compile("[a-zA-Z][a-zA-Z0-9]?");
+  private static final Pattern METABOLITE_SPECIAL =
+    Pattern.compile("M_(?<abbreviation>[a-zA-Z0-9])_(?<compartment>[a-z][a-z0-9]?)");
+  private static final Pattern PSEUDO =
+    Pattern.compile("(([Rr]_?)?[Ee][Xx]_).*|(([Rr]_?)?[Dd][Mm]_).*|(([Rr]_?)?[Ss]([Ii][Nn])?[Kk]_).*");
+  private static final Pattern UNIVERSAL =
+    Pattern.compile("^(?<prefix>[RMG])_(?<abbreviation>[a-zA-Z0-9][a-zA-Z0-9_]+?)(?:_(?<compartment>[a-z][a-z0-9]?))?"
+      + "(?:_(?<tissueCode>[A-Z][A-Z0-9]?))?$");
+
+  private RegexBiGGId() {
+  }
+
+
+  static Optional<BiGGId> createMetaboliteId(String id, boolean correct) {
+    if (id.isEmpty()) {
+      return Optional.empty();
+    }
+    id = fixCompartmentCode(id);
+    if (correct) {
+      id = makeBiGGConform(id);
+      if (id.startsWith("_")) {
+        id = id.substring(1);
+      }
+      if (id.startsWith("m_")) {
+        id = id.replaceAll("^m_", "M_");
+      } else if (!id.startsWith("M_")) {
+        id = "M_" + id;
+      }
+    }
+    Matcher metaboliteSpecialCase = METABOLITE_SPECIAL.matcher(id);
+    if (metaboliteSpecialCase.matches()) {
+      BiGGId biggId = new BiGGId();
+      biggId.setPrefix("M");
+      biggId.setAbbreviation(metaboliteSpecialCase.group("abbreviation"));
+      biggId.setCompartmentCode(metaboliteSpecialCase.group("compartment"));
+      return Optional.of(biggId);
+    }
+    return Optional.of(parseBiGGId(id));
+  }
+
+
+  static Optional<BiGGId> createGeneId(String id, boolean correct) {
+    if (id.isEmpty()) {
+      return Optional.empty();
+    }
+    if (correct) {
+      id = makeBiGGConform(id);
+      if (id.startsWith("_")) {
+        id = id.substring(1);
+      }
+      if (id.startsWith("g_")) {
+        id = id.replaceAll("^g_", "G_");
+      } else if (!id.startsWith("G_")) {
+        id = "G_" + id;
+      }
+    }
+    return Optional.of(parseBiGGId(id));
+  }
+
+
+  static Optional<BiGGId> createReactionId(String id) {
+    String prefixStripped = "";
+    if (id.startsWith("R_") || id.startsWith("r_")) {
+      prefixStripped = id.substring(2);
+    }
+    if (isPseudo(id)) {
+      return createReactionId(id, true, true);
+    } else if (!prefixStripped.isEmpty() && isPseudo(prefixStripped)) {
+      return createReactionId(prefixStripped, true, true);
+    } else {
+      return createReactionId(id, true, false);
+    }
+  }
+
+
+  static Optional<BiGGId> createReactionId(String id, boolean correct, boolean isPseudo) {
+    if (id.isEmpty()) {
+      return Optional.empty();
+    }
+    if (correct) {
+      id = makeBiGGConform(id);
+      if (id.startsWith("_")) {
+        id = id.substring(1);
+      }
+      if (!isPseudo && id.startsWith("r_")) {
+        id = id.replaceAll("^r_", "R_");
+      } else if (!isPseudo && !id.startsWith("R_")) {
+        id = "R_" + id;
+      }
+    }
+    return Optional.of(parseBiGGId(id));
+  }
+
+
+  static boolean isValid(String queryId) {
+    return ATPM.matcher(queryId).matches() || BIOMASS.matcher(queryId).matches()
+      || COMPARTMENT.matcher(queryId).matches() || METABOLITE_SPECIAL.matcher(queryId).matches()
+      || PSEUDO.matcher(queryId).matches() || UNIVERSAL.matcher(queryId).matches();
+  }
+
+
+  static Optional<String> extractCompartmentCode(String id) {
+    if (!Pattern.compile("(C_)?[a-z][a-z0-9]?").matcher(id).matches()) {
+      return Optional.empty();
+    }
+    if (id.startsWith("C_")) {
+      id = id.substring(2);
+    }
+    return Optional.of(id);
+  }
+
+
+  private static boolean isPseudo(String reactionId) {
+    return ATPM.matcher(reactionId).matches() || BIOMASS.matcher(reactionId).matches()
+      || PSEUDO.matcher(reactionId).matches();
+  }
+
+
+  private static String makeBiGGConform(String id) {
+    if (Character.isDigit(id.charAt(0))) {
+      id = "_" + id;
+    }
+    id = id.replaceAll("[-/]", "__").replaceAll("\\.", "__SBML_DOT__").replaceAll("\\(", "_LPAREN_")
+           .replaceAll("\\)", "_RPAREN_").replaceAll("\\[", "_LBRACKET_").replaceAll("]", "_RBRACKET_");
+    Pattern parenCompartment = Pattern.compile("_LPAREN_(?<paren>.*?)_RPAREN_");
+    Matcher parenMatcher = parenCompartment.matcher(id);
+    if (parenMatcher.find()) {
+      id = id.replaceAll(parenCompartment.toString(), "_" + parenMatcher.group("paren"));
+    }
+    Pattern bracketCompartment = Pattern.compile("_LBRACKET_(?<bracket>.*)_RBRACKET_");
+    Matcher bracketMatcher = bracketCompartment.matcher(id);
+    if (bracketMatcher.find()) {
+      id = id.replaceAll(bracketCompartment.toString(), "_" + bracketMatcher.group("bracket"));
+    }
+    if (id.matches(".*_copy\\d*")) {
+      id = id.substring(0, id.lastIndexOf('_'));
+    }
+    StringBuilder builder = new StringBuilder(id.length());
+    for (char ch : id.toCharArray()) {
+      builder.append(String.valueOf(ch).matches("[a-zA-Z0-9_]") ? ch : '_');
+    }
+    id = builder.toString();
+    if (id.endsWith("_")) {
+      id = id.substring(0, id.length() - 1);
+    }
+    return id;
+  }
+
+
+  private static String fixCompartmentCode(String id) {
+    Matcher rescueMatcher = Pattern.compile(".*\\[(?<code>[a-z][a-z0-9]?)\\]").matcher(id);
+    if (rescueMatcher.matches()) {
+      id = id.replaceAll("\\[[a-z][a-z0-9]?\\]", "_" + rescueMatcher.group("code") + "_");
+      if (id.endsWith("_")) {
+        id = id.substring(0, id.length() - 1);
+      }
+    }
+    return id;
+  }
+
+
+  private static BiGGId parseBiGGId(String id) {
+    BiGGId biggId = new BiGGId();
+    Matcher matcher = UNIVERSAL.matcher(id);
+    if (!(id.startsWith("R_") && isPseudo(id)) && matcher.matches()) {
+      biggId.setPrefix(matcher.group("prefix"));
+      biggId.setAbbreviation(matcher.group("abbreviation"));
+      biggId.setCompartmentCode(matcher.group("compartment"));
+      biggId.setTissueCode(matcher.group("tissueCode"));
+    } else if (PSEUDO.matcher(id).matches()) {
+      id = id.replaceAll("^([Rr]_?)?[Ee][Xx]", "EX");
+      id = id.replaceAll("^([Rr]_?)?[Dd][Mm]", "DM");
+      id = id.replaceAll("^([Rr]_?)?[Ss]([Ii][Nn])?[Kk]", "SK");
+      biggId.setAbbreviation(id);
+    } else if (BIOMASS.matcher(id).matches()) {
+      biggId.setAbbreviation(id.replaceAll("^([Rr]_?)?[Bb][Ii][Oo][Mm][Aa][Ss][Ss]", "BIOMASS"));
+    } else if (ATPM.matcher(id).matches()) {
+      biggId.setAbbreviation("ATPM");
+    } else {
+      biggId.setAbbreviation(id);
+    }
+    return biggId;
+  }
+}
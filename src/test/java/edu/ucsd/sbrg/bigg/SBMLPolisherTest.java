@@ -0,0 +1,127 @@
+package edu.ucsd.sbrg.bigg;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import javax.xml.stream.XMLStreamException;
+
+import org.junit.jupiter.api.Test;
+import org.sbml.jsbml.KineticLaw;
+import org.sbml.jsbml.Model;
+import org.sbml.jsbml.Reaction;
+import org.sbml.jsbml.SBMLDocument;
+import org.sbml.jsbml.SBMLReader;
+import org.sbml.jsbml.SBMLWriter;
+import org.sbml.jsbml.Species;
+import org.sbml.jsbml.SpeciesReference;
+import org.sbml.jsbml.ext.fbc.FBCConstants;
+import org.sbml.jsbml.ext.fbc.FBCModelPlugin;
+import org.sbml.jsbml.ext.fbc.FBCSpeciesPlugin;
+
+public class SBMLPolisherTest {
+
+  @Test
+  public void parallelPolishingOfModel() throws IOException, XMLStreamException {
+    String sequential = polish(readModel(), false);
+    String parallel = polish(readModel(), true);
+    assertEquals(sequential, parallel);
+  }
+
+
+  @Test
+  public void parallelPolishingOfGeneratedModel() throws XMLStreamException {
+    String sequential = polish(createModel(500), false);
+    String parallel = polish(createModel(500), true);
+    assertEquals(sequential, parallel);
+  }
+
+
+  @Test
+  public void polishGeneratedModel() {
+    SBMLDocument doc = createModel(100);
+    new SBMLPolisher(Parameters.builder().parallelPolishing(true).build()).polish(doc);
+    Model model = doc.getModel();
+    // the reaction without id is removed, all others are polished
+    assertEquals(100, model.getReactionCount());
+    for (Reaction r : model.getListOfReactions()) {
+      assertTrue(r.isSetFast(), r.getId());
+    }
+    // bounds from the kinetic laws are added to the model once
+    assertNotNull(model.getParameter("DEFAULT_LOWER_BOUND"));
+    assertNotNull(model.getParameter("R_r42_UPPER_BOUND"));
+    // compartments are created for species without one
+    assertNotNull(model.getCompartment("e"));
+    assertFalse(model.getSpecies("M_m1_c").getBoundaryCondition());
+  }
+
+
+  /**
+   * @param doc
+   * @param parallelPolishing
+   * @return the polished document written as SBML
+   */
+  private static String polish(SBMLDocument doc, boolean parallelPolishing) throws XMLStreamException {
+    new SBMLPolisher(Parameters.builder().parallelPolishing(parallelPolishing).build()).polish(doc);
+    return new SBMLWriter().writeSBMLToString(doc);
+  }
+
+
+  private static SBMLDocument readModel() throws IOException, XMLStreamException {
+    try (InputStream stream = SBMLPolisherTest.class.getResourceAsStream("model.xml")) {
+      return SBMLReader.read(stream);
+    }
+  }
+
+
+  /**
+   * Creates a model that covers the changes the polisher makes across
+   * elements: species without compartment or id, reactions without id or with
+   * unknown participants, flux bounds in kinetic laws and gene products.
+   *
+   * @param reactions
+   *        number of reactions with id
+   * @return a new document
+   */
+  private static SBMLDocument createModel(int reactions) {
+    SBMLDocument doc = new SBMLDocument(3, 1);
+    Model model = doc.createModel("generated");
+    FBCModelPlugin fbc = (FBCModelPlugin) model.getPlugin(FBCConstants.shortLabel);
+    model.createCompartment("C_c");
+    for (int i = 0; i <= reactions; i++) {
+      Species species = model.createSpecies("M_m" + i + (i % 10 == 0 ? "_e" : "_c"));
+      if (i % 10 != 0) {
+        species.setCompartment("c");
+      }
+      if (i % 3 != 0) {
+        ((FBCSpeciesPlugin) species.getPlugin(FBCConstants.shortLabel)).setChemicalFormula("C" + (i % 7 + 1) + "H2O");
+      }
+      fbc.createGeneProduct("G_g" + i).setLabel("g" + i);
+    }
+    model.createSpecies("M_h_c_boundary").setCompartment("c");
+    model.createSpecies().setName("unnamed");
+    for (int i = 0; i < reactions; i++) {
+      if (i == reactions / 2) {
+        model.createReaction().setName("without id");
+      }
+      Reaction r = model.createReaction(i % 20 == 0 ? "R_EX_m" + i + "_e" : "R_r" + i);
+      r.setName(r.getId() + "_copy2");
+      r.createReactant(model.getSpecies(i)).setStoichiometry(1d);
+      r.createProduct(model.getSpecies(i + 1)).setStoichiometry(1d);
+      if (i % 25 == 0) {
+        SpeciesReference unknown = r.createProduct();
+        unknown.setSpecies("M_unknown_c");
+        unknown.setStoichiometry(1d);
+      }
+      KineticLaw kl = r.createKineticLaw();
+      kl.createLocalParameter("LOWER_BOUND").setValue(-1000d);
+      kl.createLocalParameter("UPPER_BOUND").setValue(i);
+      kl.createLocalParameter("OBJECTIVE_COEFFICIENT").setValue(i == 0 ? 1d : 0d);
+    }
+    return doc;
+  }
+}
@@ -0,0 +1,170 @@
+package edu.ucsd.sbrg.bigg;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import javax.xml.stream.XMLStreamException;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.sbml.jsbml.Compartment;
+import org.sbml.jsbml.Model;
+import org.sbml.jsbml.Parameter;
+import org.sbml.jsbml.Reaction;
+import org.sbml.jsbml.SBMLDocument;
+import org.sbml.jsbml.SBMLError;
+import org.sbml.jsbml.SBMLReader;
+import org.sbml.jsbml.Species;
+import org.sbml.jsbml.ext.fbc.FBCConstants;
+import org.sbml.jsbml.ext.fbc.FBCModelPlugin;
+import org.sbml.jsbml.ext.fbc.FBCReactionPlugin;
+import org.sbml.jsbml.ext.fbc.GeneProduct;
+import org.sbml.jsbml.ext.fbc.GeneProductRef;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import edu.ucsd.sbrg.bigg.ModelPolisherOptions.ValidationScope;
+
+public class SBMLValidatorTest {
+
+  private static SBMLDocument doc;
+
+  @BeforeAll
+  public static void setUp() throws IOException, XMLStreamException {
+    try (InputStream stream = SBMLValidatorTest.class.getResourceAsStream("model.xml")) {
+      doc = new SBMLReader().readSBMLFromStream(stream);
+    }
+  }
+
+
+  @Test
+  public void fbcScopeIsSubsetOfAll() {
+    List<SBMLError> all = SBMLValidator.validate(doc, ValidationScope.ALL);
+    List<SBMLError> fbc = SBMLValidator.validate(doc, ValidationScope.FBC);
+    assertTrue(fbc.size() <= all.size());
+    for (SBMLError error : fbc) {
+      assertTrue(all.stream().anyMatch(other -> other.getCode() == error.getCode()));
+    }
+  }
+
+
+  @Test
+  public void parallelMatchesSequential() {
+    assertSameErrors(doc, ValidationScope.ALL);
+    assertSameErrors(doc, ValidationScope.FBC);
+  }
+
+
+  @Test
+  public void parallelMatchesSequentialOnLargeModel() {
+    assertSameErrors(createLargeModel(3000), ValidationScope.ALL);
+  }
+
+
+  @Test
+  public void parallelPolishingValidatesInParallel() {
+    SBMLDocument large = createLargeModel(3000);
+    List<SBMLError> sequential = SBMLValidator.validate(large, ValidationScope.ALL);
+    List<SBMLError> parallel = SBMLValidator.validate(large,
+      Parameters.builder().parallelPolishing(true).validationScope(ValidationScope.ALL).build());
+    assertEquals(sequential.size(), parallel.size());
+    for (int i = 0; i < sequential.size(); i++) {
+      assertEquals(sequential.get(i).getCode(), parallel.get(i).getCode());
+    }
+  }
+
+
+  @Test
+  public void structuredReport() throws IOException {
+    List<SBMLError> errors = SBMLValidator.validate(doc, ValidationScope.ALL);
+    ByteArrayOutputStream stream = new ByteArrayOutputStream();
+    SBMLValidator.writeReport(doc.getModel().getId(), errors, stream);
+    JsonNode report = new ObjectMapper().readTree(stream.toByteArray());
+    assertEquals("e_coli_core", report.get("model").asText());
+    assertEquals(SBMLValidator.countErrors(errors), report.get("errors").asLong());
+    assertEquals(errors.size(), report.get("problems").size());
+    for (int i = 0; i < errors.size(); i++) {
+      assertEquals(errors.get(i).getCode(), report.get("problems").get(i).get("code").asInt());
+      assertEquals(errors.get(i).getSeverity(), report.get("problems").get(i).get("severity").asText());
+    }
+  }
+
+
+  /**
+   * Compares the errors found in parallel with those found sequentially, which
+   * have to be the same in the same order. The parallel validation works on
+   * copies and must leave the document as it is.
+   *
+   * @param document
+   * @param scope
+   */
+  private static void assertSameErrors(SBMLDocument document, ValidationScope scope) {
+    List<SBMLError> sequential = SBMLValidator.validate(document, scope);
+    SBMLDocument before = document.clone();
+    List<SBMLError> parallel;
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      parallel = SBMLValidator.validate(document, scope, pool);
+    } finally {
+      pool.shutdown();
+    }
+    assertEquals(before, document);
+    assertEquals(sequential.size(), parallel.size());
+    for (int i = 0; i < sequential.size(); i++) {
+      assertEquals(sequential.get(i).getCode(), parallel.get(i).getCode());
+      assertEquals(sequential.get(i).getSeverity(), parallel.get(i).getSeverity());
+      assertEquals(sequential.get(i).getMessage(), parallel.get(i).getMessage());
+    }
+  }
+
+
+  /**
+   * @param reactions
+   *        number of reactions
+   * @return a model with the given number of reactions, each converting one of
+   *         its own metabolites into the next and catalyzed by its own gene
+   *         product, some of the reactions lack bounds
+   */
+  private static SBMLDocument createLargeModel(int reactions) {
+    SBMLDocument document = new SBMLDocument(3, 1);
+    Model model = document.createModel("large_model");
+    Compartment compartment = model.createCompartment("c");
+    compartment.setConstant(true);
+    FBCModelPlugin fbc = (FBCModelPlugin) model.getPlugin(FBCConstants.shortLabel);
+    fbc.setStrict(true);
+    Parameter bound = model.createParameter("R_default_bound");
+    bound.setValue(1000d);
+    bound.setConstant(true);
+    for (int i = 0; i <= reactions; i++) {
+      Species species = model.createSpecies("M_m" + i + "_c", compartment);
+      species.setHasOnlySubstanceUnits(false);
+      species.setBoundaryCondition(false);
+      species.setConstant(false);
+    }
+    for (int i = 0; i < reactions; i++) {
+      Reaction r = model.createReaction("R_r" + i);
+      r.setReversible(false);
+      r.setFast(false);
+      r.createReactant(model.getSpecies(i)).setConstant(true);
+      r.createProduct(model.getSpecies(i + 1)).setConstant(true);
+      GeneProduct geneProduct = fbc.createGeneProduct("G_g" + i);
+      geneProduct.setLabel("g" + i);
+      FBCReactionPlugin reactionPlugin = (FBCReactionPlugin) r.getPlugin(FBCConstants.shortLabel);
+      GeneProductRef geneProductRef = new GeneProductRef(3, 1);
+      geneProductRef.setGeneProduct(geneProduct.getId());
+      reactionPlugin.createGeneProductAssociation().setAssociation(geneProductRef);
+      if (i % 10 != 0) {
+        reactionPlugin.setLowerFluxBound(bound);
+        reactionPlugin.setUpperFluxBound(bound);
+      }
+    }
+    return document;
+  }
+}
@@ -0,0 +1,61 @@
+package edu.ucsd.sbrg.db;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class BiGGIdIndexTest {
+
+  private final BiGGIdIndex index = BiGGIdIndex.of(Arrays.asList("h2o", "atp", "adp", "h2o", "10fthf", "", null));
+
+
+  @Test
+  public void size() {
+    assertEquals(5, index.size());
+    assertEquals(0, BiGGIdIndex.of(List.of()).size());
+  }
+
+
+  @Test
+  public void contains() {
+    for (String id : List.of("h2o", "atp", "adp", "10fthf", "")) {
+      assertTrue(index.contains(id), id);
+    }
+    for (String id : List.of("h2", "h2o2", "ATP", "amp", "zzz", "0")) {
+      assertFalse(index.contains(id), id);
+    }
+    assertFalse(BiGGIdIndex.of(List.of()).contains("atp"));
+  }
+
+
+  @Test
+  public void containsFrom() {
+    assertTrue(index.contains("M_atp", 2));
+    assertTrue(index.contains(new StringBuilder("R_h2o"), 2));
+    assertFalse(index.contains("M_atp", 1));
+    assertTrue(index.contains("M_", 2));
+  }
+
+
+  @Test
+  public void nonLatin1() {
+    BiGGIdIndex wide = BiGGIdIndex.of(List.of("\u00e9t\u00e9", "\u03b1_glc", "glc"));
+    assertEquals(3, wide.size());
+    assertTrue(wide.contains("\u00e9t\u00e9"));
+    assertTrue(wide.contains("M_\u03b1_glc", 2));
+    assertTrue(wide.contains("glc"));
+    assertFalse(wide.contains("\u03b2_glc"));
+  }
+
+
+  @Test
+  public void memoryFootprint() {
+    // 3 + 3 + 3 + 6 characters and 6 offsets
+    assertEquals(16 + 15 + 16 + 4 * 6, index.getMemoryFootprint());
+  }
+}
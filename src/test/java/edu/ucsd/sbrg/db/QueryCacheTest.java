@@ -0,0 +1,101 @@
+package edu.ucsd.sbrg.db;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class QueryCacheTest {
+
+  private static final String VERSION = "2019-10-31 17:07:38.123456";
+  private static final List<String[]> ROWS =
+    List.of(new String[] {"atp", "C10H12N5O13P3", "-4"}, new String[] {"h2o", null, "0"});
+  @TempDir
+  File directory;
+
+  @Test
+  public void load() throws IOException {
+    QueryCache cache = QueryCache.create(directory, VERSION);
+    assertEquals(0, cache.size());
+    cache.put("formulas", ROWS, 3);
+    cache.put("empty", List.of(), 1);
+    cache.put("formulas", List.of(), 3);
+    assertRows(ROWS, cache.get("formulas"));
+    cache.release();
+    cache = QueryCache.create(directory, VERSION);
+    assertEquals(2, cache.size());
+    assertRows(ROWS, cache.get("formulas"));
+    assertRows(List.of(), cache.get("empty"));
+    assertNull(cache.get("unknown"));
+    cache.release();
+  }
+
+
+  @Test
+  public void truncateIncompleteEntry() throws IOException {
+    QueryCache cache = QueryCache.create(directory, VERSION);
+    cache.put("formulas", ROWS, 3);
+    cache.put("names", List.<String[]> of(new String[] {"atp", "ATP"}), 2);
+    cache.release();
+    File file = cacheFile();
+    long length = file.length();
+    try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+      raf.setLength(length - 3);
+    }
+    cache = QueryCache.create(directory, VERSION);
+    assertEquals(1, cache.size());
+    assertNull(cache.get("names"));
+    cache.put("charges", List.<String[]> of(new String[] {"-4"}), 1);
+    cache.release();
+    assertTrue(file.length() < length);
+    cache = QueryCache.create(directory, VERSION);
+    assertEquals(2, cache.size());
+    assertRows(ROWS, cache.get("formulas"));
+    assertRows(List.<String[]> of(new String[] {"-4"}), cache.get("charges"));
+    cache.release();
+  }
+
+
+  @Test
+  public void versionSwitch() throws IOException {
+    QueryCache cache = QueryCache.create(directory, VERSION);
+    cache.put("formulas", ROWS, 3);
+    cache.release();
+    File old = cacheFile();
+    cache = QueryCache.create(directory, "2020-01-01 00:00:00");
+    assertEquals(0, cache.size());
+    assertTrue(!old.exists());
+    cache.put("formulas", List.of(), 3);
+    // the new version is still in use, hence it is kept
+    QueryCache other = QueryCache.create(directory, VERSION);
+    assertEquals(2, directory.listFiles().length);
+    other.release();
+    cache.release();
+  }
+
+
+  /**
+   * @return the only cache file in the directory
+   */
+  private File cacheFile() {
+    File[] files = directory.listFiles();
+    assertEquals(1, files.length);
+    return files[0];
+  }
+
+
+  private static void assertRows(List<String[]> expected, List<String[]> actual) {
+    assertEquals(expected.size(), actual.size());
+    for (int i = 0; i < expected.size(); i++) {
+      assertArrayEquals(expected.get(i), actual.get(i));
+    }
+  }
+}
@@ -0,0 +1,128 @@
+package edu.ucsd.sbrg.db;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import edu.ucsd.sbrg.bigg.BiGGId;
+
+/**
+ * Runs {@link BiGGDB} queries against a snapshot exported by
+ * {@link BiGGSnapshot} from a small SQLite database with the BiGG schema.
+ */
+public class SQLiteConnectorTest {
+
+  private static final String[] SCHEMA = {
+    "CREATE TABLE database_version (date_time TEXT)",
+    "INSERT INTO database_version VALUES ('2019-10-31 17:07:38.123456')",
+    "CREATE TABLE compartment (id INTEGER, bigg_id TEXT, name TEXT)",
+    "INSERT INTO compartment VALUES (1, 'c', 'cytosol')",
+    "CREATE TABLE component (id INTEGER, bigg_id TEXT, name TEXT, type TEXT)",
+    "INSERT INTO component VALUES (1, 'atp', 'ATP C10H12N5O13P3', 'metabolite'), (2, 'h2o', 'H2O H2O', 'metabolite'),"
+      + " (3, 'nameless', '', 'metabolite')",
+    "CREATE TABLE compartmentalized_component (id INTEGER, component_id INTEGER, compartment_id INTEGER)",
+    "INSERT INTO compartmentalized_component VALUES (1, 1, 1), (2, 2, 1)",
+    "CREATE TABLE model (id INTEGER, bigg_id TEXT, genome_id INTEGER)",
+    "INSERT INTO model VALUES (1, 'e_coli_core', 1)",
+    "CREATE TABLE model_compartmentalized_component (id INTEGER, compartmentalized_component_id INTEGER,"
+      + " model_id INTEGER, formula TEXT, charge INTEGER)",
+    "INSERT INTO model_compartmentalized_component VALUES (1, 1, 1, 'C10H12N5O13P3', -4), (2, 2, 1, 'H2O', 0)",
+    "CREATE TABLE reaction (id INTEGER, bigg_id TEXT, name TEXT, pseudoreaction TEXT)",
+    "INSERT INTO reaction VALUES (1, 'PGI', 'Glucose-6-phosphate isomerase', 'f'), (2, 'ATPM', 'ATP maintenance', 't')",
+    "CREATE TABLE data_source (id INTEGER, bigg_id TEXT, url_prefix TEXT)",
+    "CREATE TABLE gene (id INTEGER, locus_tag TEXT)",
+    "CREATE TABLE genome (id INTEGER, organism TEXT, taxon_id TEXT)",
+    "CREATE TABLE genome_region (id INTEGER, bigg_id TEXT)",
+    "CREATE TABLE model_reaction (id INTEGER, reaction_id INTEGER, model_id INTEGER, subsystem TEXT)",
+    "CREATE TABLE publication (id INTEGER, reference_type TEXT, reference_id TEXT)",
+    "CREATE TABLE publication_model (model_id INTEGER, publication_id INTEGER)",
+    "CREATE TABLE synonym (id INTEGER, ome_id INTEGER, synonym TEXT, data_source_id INTEGER)"};
+  /**
+   * Holds the source database and the snapshot
+   */
+  @TempDir
+  static File directory;
+
+  @BeforeAll
+  public static void exportSnapshot() throws IOException, SQLException {
+    File source = new File(directory, "source.db");
+    try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + source.getAbsolutePath());
+        Statement statement = connection.createStatement()) {
+      for (String sql : SCHEMA) {
+        statement.execute(sql);
+      }
+    }
+    SQLConnector connector = new SQLiteConnector(source);
+    File snapshot = new File(directory, "bigg.db");
+    try {
+      BiGGSnapshot.export(connector, null, snapshot);
+    } finally {
+      connector.close();
+    }
+    BiGGDB.initSnapshot(snapshot);
+  }
+
+
+  @AfterAll
+  public static void close() {
+    BiGGDB.close();
+  }
+
+
+  @Test
+  public void singleLookups() {
+    assertEquals(Optional.of("2019-10-31 17:07:38.123456"), BiGGDB.getDatabaseVersion());
+    assertEquals(Optional.of("H2O H2O"), BiGGDB.getComponentName(new BiGGId("M_h2o_c")));
+    assertEquals(Optional.empty(), BiGGDB.getComponentName(new BiGGId("M_nameless_c")));
+    assertTrue(BiGGDB.isPseudoreaction("ATPM"));
+    assertFalse(BiGGDB.isPseudoreaction("PGI"));
+  }
+
+
+  @Test
+  public void arrayParameters() {
+    List<String[]> components = BiGGDB.getComponents(List.of("atp", "h2o", "nameless", "unknown"));
+    components.sort(Comparator.comparing(row -> row[0]));
+    assertEquals(2, components.size());
+    assertArrayEquals(new String[] {"atp", "ATP C10H12N5O13P3", "metabolite"}, components.get(0));
+    assertArrayEquals(new String[] {"h2o", "H2O H2O", "metabolite"}, components.get(1));
+    List<String[]> reactions = BiGGDB.getReactions(List.of("ATPM"));
+    assertEquals(1, reactions.size());
+    assertArrayEquals(new String[] {"ATPM", "ATP maintenance", "t"}, reactions.get(0));
+    assertTrue(BiGGDB.getReactions(List.of()).isEmpty());
+  }
+
+
+  @Test
+  public void arrayAndScalarParameters() {
+    List<String[]> rows = BiGGDB.getFormulasAndCharges(List.of("atp", "h2o"), "e_coli_core");
+    rows.sort(Comparator.comparing(row -> row[0]));
+    assertEquals(2, rows.size());
+    assertArrayEquals(new String[] {"atp", "C10H12N5O13P3", "-4"}, rows.get(0));
+    assertArrayEquals(new String[] {"h2o", "H2O", "0"}, rows.get(1));
+    assertTrue(BiGGDB.getFormulasAndCharges(List.of("atp"), "iJO1366").isEmpty());
+  }
+
+
+  @Test
+  public void allIds() {
+    assertEquals(Set.of("PGI", "ATPM"), BiGGDB.getOnce("reaction"));
+  }
+}
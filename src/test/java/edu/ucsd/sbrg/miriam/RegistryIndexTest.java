@@ -0,0 +1,54 @@
+package edu.ucsd.sbrg.miriam;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+
+public class RegistryIndexTest {
+
+  @Test
+  public void roundTrip() throws IOException {
+    List<CompactEntry> entries = RegistryIndex.load();
+    assertFalse(entries.isEmpty());
+    long checksum = RegistryIndex.checksum();
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      RegistryIndex.write(entries, checksum, out);
+    }
+    Optional<List<CompactEntry>> read = readIndex(bytes.toByteArray(), checksum);
+    assertTrue(read.isPresent());
+    assertEquals(entries.size(), read.get().size());
+    for (int i = 0; i < entries.size(); i++) {
+      CompactEntry expected = entries.get(i);
+      CompactEntry actual = read.get().get(i);
+      assertEquals(expected.getId(), actual.getId());
+      assertEquals(expected.getName(), actual.getName());
+      assertEquals(expected.getPattern(), actual.getPattern());
+      assertEquals(expected.getPrefix(), actual.getPrefix());
+      assertEquals(expected.getResources().size(), actual.getResources().size());
+      for (int j = 0; j < expected.getResources().size(); j++) {
+        assertEquals(expected.getResources().get(j).getProviderCode(), actual.getResources().get(j).getProviderCode());
+        assertEquals(expected.getResources().get(j).getUrlPattern(), actual.getResources().get(j).getUrlPattern());
+      }
+    }
+    // an index built from another version of the registry is ignored
+    assertFalse(readIndex(bytes.toByteArray(), checksum + 1).isPresent());
+  }
+
+
+  private Optional<List<CompactEntry>> readIndex(byte[] index, long checksum) throws IOException {
+    try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(index))) {
+      return RegistryIndex.read(in, checksum);
+    }
+  }
+}
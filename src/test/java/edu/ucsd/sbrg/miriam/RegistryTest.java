@@ -3,6 +3,7 @@ package edu.ucsd.sbrg.miriam;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.ArrayList;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
@@ -122,6 +123,47 @@ public class RegistryTest {
   }
 
 
+  @Test
+  public void literalPrefixTest() {
+    assertEquals("CHEBI:", Registry.literalPrefix("^CHEBI:\\d+$"));
+    assertEquals("GO:", Registry.literalPrefix("^GO:\\d{7}$"));
+    assertEquals("R-", Registry.literalPrefix("^R-[A-Z]{3}-\\d+(-\\d+)?(\\.\\d+)?$"));
+    assertEquals("a", Registry.literalPrefix("^ab?c$"));
+    assertEquals("", Registry.literalPrefix("^\\d+$"));
+    assertEquals("", Registry.literalPrefix("^(?i)x$"));
+    assertEquals("", Registry.literalPrefix("^G|P|U|C|S\\d{5}$"));
+    for (Namespace ns : namespaces) {
+      String id = correctId(ns);
+      if (Registry.checkPattern(id, ns.getPattern())) {
+        assertTrue(id.startsWith(Registry.literalPrefix(ns.getPattern())), ns.getName());
+      }
+    }
+  }
+
+
+  @Test
+  public void memoizedResourceUrls() {
+    List<String> urls = new ArrayList<>();
+    for (Namespace ns : namespaces) {
+      for (Resource res : ns.getResources()) {
+        urls.add(res.getUrlPattern().replaceAll("\\{\\$id}", res.getSampleId()));
+      }
+    }
+    List<Optional<String>> resolved = new ArrayList<>(urls.size());
+    for (String url : urls) {
+      Registry.clearResolved();
+      resolved.add(Registry.checkResourceUrl(url));
+    }
+    // all URLs again, now answered from memory
+    for (String url : urls) {
+      Registry.checkResourceUrl(url);
+    }
+    for (int i = 0; i < urls.size(); i++) {
+      assertEquals(resolved.get(i), Registry.checkResourceUrl(urls.get(i)), urls.get(i));
+    }
+  }
+
+
   private String correctId(Namespace ns) {
     String id = ns.getSampleId();
     String pattern = ns.getPattern();
@@ -0,0 +1,85 @@
+package edu.ucsd.sbrg.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+
+import javax.xml.stream.XMLStreamException;
+
+import org.junit.jupiter.api.Test;
+import org.sbml.jsbml.Model;
+import org.sbml.jsbml.Reaction;
+import org.sbml.jsbml.SBMLDocument;
+import org.sbml.jsbml.SBMLReader;
+import org.sbml.jsbml.Species;
+import org.sbml.jsbml.ext.fbc.FBCConstants;
+import org.sbml.jsbml.ext.fbc.FBCSpeciesPlugin;
+
+import de.zbit.kegg.AtomBalanceCheck;
+import de.zbit.kegg.AtomBalanceCheck.AtomCheckResult;
+
+public class AtomBalanceTest {
+
+  @Test
+  public void parseFormula() {
+    assertEquals(Map.of("C", 6, "H", 12, "O", 6), AtomBalance.parseFormula("C6H12O6"));
+    assertEquals(Map.of("C", 5, "H", 7, "N", 1, "O", 3, "R", 1), AtomBalance.parseFormula("C5H7NO3R"));
+    assertEquals(Map.of("C", 2, "H", 5, "O", 3), AtomBalance.parseFormula("C2H3O2.H2O"));
+    assertEquals(Map.of("Fe", 2, "S", 2), AtomBalance.parseFormula("Fe2S2"));
+    assertEquals(Map.of("C", 4, "H", 10, "O", 2), AtomBalance.parseFormula("C2H4(OH)2"));
+    assertEquals(Map.of("C", 6, "H", 10, "O", 5), AtomBalance.parseFormula("(C6H10O5)n"));
+    assertTrue(AtomBalance.parseFormula("").isEmpty());
+  }
+
+
+  @Test
+  public void sameDefectsAsAtomBalanceCheck() throws IOException, XMLStreamException {
+    SBMLDocument doc;
+    try (InputStream stream = AtomBalanceTest.class.getResourceAsStream("/edu/ucsd/sbrg/bigg/model.xml")) {
+      doc = SBMLReader.read(stream);
+    }
+    Model model = doc.getModel();
+    AtomBalance atomBalance = new AtomBalance(model);
+    for (Reaction r : model.getListOfReactions()) {
+      Map<String, Integer> defects = atomBalance.check(r);
+      AtomCheckResult<Reaction> expected = AtomBalanceCheck.checkAtomBalance(r, 1);
+      if (expected == null) {
+        assertNull(defects, r.getId());
+      } else {
+        assertEquals(expected.getDefects(), defects, r.getId());
+        assertEquals(expected.getDefects().toString(), defects.toString(), r.getId());
+      }
+    }
+  }
+
+
+  @Test
+  public void checkReaction() {
+    Model model = new SBMLDocument(3, 1).createModel("balance");
+    createSpecies(model, "M_h2o_c", "H2O");
+    createSpecies(model, "M_h2_c", "H2");
+    createSpecies(model, "M_o2_c", "O2");
+    model.createSpecies("M_x_c");
+    Reaction r = model.createReaction("R_H2Ot");
+    r.createReactant(model.getSpecies("M_h2o_c")).setStoichiometry(2d);
+    r.createProduct(model.getSpecies("M_h2_c")).setStoichiometry(2d);
+    r.createProduct(model.getSpecies("M_o2_c")).setStoichiometry(1d);
+    assertTrue(new AtomBalance(model).check(r).isEmpty());
+    // one oxygen atom too few on the product side
+    r.getProduct(1).setStoichiometry(0.5d);
+    assertEquals(Map.of("O", 1), new AtomBalance(model).check(r));
+    // participants without formula cannot be checked
+    r.createProduct(model.getSpecies("M_x_c")).setStoichiometry(1d);
+    assertNull(new AtomBalance(model).check(r));
+  }
+
+
+  private static void createSpecies(Model model, String id, String formula) {
+    Species species = model.createSpecies(id);
+    ((FBCSpeciesPlugin) species.getPlugin(FBCConstants.shortLabel)).setChemicalFormula(formula);
+  }
+}
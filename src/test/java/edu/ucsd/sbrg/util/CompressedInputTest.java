@@ -0,0 +1,109 @@
+package edu.ucsd.sbrg.util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import edu.ucsd.sbrg.bigg.ModelPolisherOptions.Compression;
+
+public class CompressedInputTest {
+
+  private static Path directory;
+  private static byte[] model;
+  private static File plain;
+  private static File gzip;
+  private static File zip;
+  private static File combine;
+
+  @BeforeAll
+  public static void setUp() throws IOException {
+    directory = Files.createTempDirectory("compressed");
+    try (InputStream in = CompressedInputTest.class.getResourceAsStream("/edu/ucsd/sbrg/bigg/model.xml")) {
+      model = in.readAllBytes();
+    }
+    plain = directory.resolve("model.xml").toFile();
+    Files.write(plain.toPath(), model);
+    gzip = directory.resolve("model.xml.gz").toFile();
+    try (OutputStream out = new GZIPOutputStream(new FileOutputStream(gzip))) {
+      out.write(model);
+    }
+    zip = directory.resolve("archive.zip").toFile();
+    try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(zip))) {
+      out.putNextEntry(new ZipEntry("models/"));
+      out.closeEntry();
+      out.putNextEntry(new ZipEntry("README.txt"));
+      out.write("e_coli_core".getBytes());
+      out.closeEntry();
+      out.putNextEntry(new ZipEntry("models/e_coli_core.xml"));
+      out.write(model);
+      out.closeEntry();
+    }
+    combine = directory.resolve("e_coli_core.zip").toFile();
+    try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(combine))) {
+      out.putNextEntry(new ZipEntry("manifest.xml"));
+      out.write("<omexManifest/>".getBytes());
+      out.closeEntry();
+      out.putNextEntry(new ZipEntry("model.xml"));
+      out.write(model);
+      out.closeEntry();
+    }
+  }
+
+
+  @AfterAll
+  public static void cleanUp() throws IOException {
+    for (File file : new File[] {plain, gzip, zip, combine}) {
+      Files.deleteIfExists(file.toPath());
+    }
+    Files.deleteIfExists(directory);
+  }
+
+
+  @Test
+  public void compression() {
+    assertEquals(Compression.NONE, CompressedInput.getCompression(plain));
+    assertEquals(Compression.GZIP, CompressedInput.getCompression(gzip));
+    assertEquals(Compression.ZIP, CompressedInput.getCompression(zip));
+    assertEquals(Compression.GZIP, CompressedInput.getCompression(new File("MODEL.JSON.GZ")));
+  }
+
+
+  @Test
+  public void uncompressedName() throws IOException {
+    assertEquals("model.xml", CompressedInput.getUncompressedName(plain));
+    assertEquals("model.xml", CompressedInput.getUncompressedName(gzip));
+    assertEquals("e_coli_core.xml", CompressedInput.getUncompressedName(zip));
+    assertEquals("e_coli_core.zip", CompressedInput.getUncompressedName(combine));
+  }
+
+
+  @Test
+  public void content() throws IOException {
+    for (File file : new File[] {plain, gzip, zip}) {
+      try (InputStream in = CompressedInput.open(file)) {
+        assertArrayEquals(model, in.readAllBytes(), file.getName());
+      }
+    }
+  }
+
+
+  @Test
+  public void combineArchive() {
+    assertThrows(IOException.class, () -> CompressedInput.open(combine));
+  }
+}
@@ -0,0 +1,33 @@
+package edu.ucsd.sbrg.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.junit.jupiter.api.Test;
+
+public class DigestsTest {
+
+  private static final String ABC = "ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad";
+
+  @Test
+  public void sha256() throws IOException {
+    assertEquals(ABC, Digests.sha256("abc"));
+    File file = File.createTempFile("digest", ".txt");
+    try {
+      Files.write(file.toPath(), "abc".getBytes(StandardCharsets.UTF_8));
+      assertEquals(ABC, Digests.sha256(file));
+    } finally {
+      file.delete();
+    }
+  }
+
+
+  @Test
+  public void hex() {
+    assertEquals("00017f80ff", Digests.hex(new byte[] {0, 1, 127, -128, -1}));
+  }
+}
@@ -1,16 +1,27 @@
 package edu.ucsd.sbrg.util;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
 import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
 import org.sbml.jsbml.Model;
+import org.sbml.jsbml.Reaction;
+import org.sbml.jsbml.SBMLDocument;
+import org.sbml.jsbml.ext.fbc.And;
+import org.sbml.jsbml.ext.fbc.Association;
 import org.sbml.jsbml.ext.fbc.FBCConstants;
 import org.sbml.jsbml.ext.fbc.FBCModelPlugin;
+import org.sbml.jsbml.ext.fbc.FBCReactionPlugin;
 import org.sbml.jsbml.ext.fbc.GeneProduct;
 import org.sbml.jsbml.ext.fbc.GeneProductAssociation;
 import org.sbml.jsbml.ext.fbc.GeneProductRef;
+import org.sbml.jsbml.ext.fbc.Or;
 
 public class GPRParserTest {
 
@@ -54,4 +65,32 @@ public class GPRParserTest {
 
   public final void test() {
   }
+
+
+  @Test
+  public final void parseGPR() {
+    Model gprModel = new SBMLDocument(LEVEL, VERSION).createModel("gpr");
+    Reaction r1 = gprModel.createReaction("R_r1");
+    Reaction r2 = gprModel.createReaction("R_r2");
+    // the same rule is parsed once and converted to separate associations
+    GPRParser.parseGPR(r1, geneReactionRules.get(2), false);
+    GPRParser.parseGPR(r2, geneReactionRules.get(2), false);
+    for (Reaction r : List.of(r1, r2)) {
+      FBCReactionPlugin plugin = (FBCReactionPlugin) r.getPlugin(FBCConstants.shortLabel);
+      Association association = plugin.getGeneProductAssociation().getAssociation();
+      assertTrue(association instanceof Or, r.getId());
+      Or or = (Or) association;
+      assertEquals(174, or.getSBOTerm());
+      assertEquals(2, or.getListOfAssociations().size());
+      And and = (And) or.getListOfAssociations().get(0);
+      assertEquals(4, and.getListOfAssociations().size());
+      assertEquals("G_4967__SBML_DOT__2", ((GeneProductRef) and.getListOfAssociations().get(0)).getGeneProduct());
+    }
+    FBCModelPlugin fbcPlug = (FBCModelPlugin) gprModel.getPlugin(FBCConstants.shortLabel);
+    assertEquals(5, fbcPlug.getGeneProductCount());
+    // rules that cannot be parsed are skipped
+    Reaction r3 = gprModel.createReaction("R_r3");
+    GPRParser.parseGPR(r3, "(b0001 and", false);
+    assertFalse(((FBCReactionPlugin) r3.getPlugin(FBCConstants.shortLabel)).isSetGeneProductAssociation());
+  }
 }
@@ -0,0 +1,54 @@
+package edu.ucsd.sbrg.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.text.ParseException;
+
+import org.junit.jupiter.api.Test;
+
+import edu.ucsd.sbrg.util.GeneReactionRule.Type;
+
+public class GeneReactionRuleTest {
+
+  @Test
+  public void singleGene() throws ParseException {
+    GeneReactionRule rule = GeneReactionRule.parse(" 1591.1 ");
+    assertEquals(Type.GENE, rule.getType());
+    assertEquals("1591.1", rule.getIdentifier());
+    assertEquals("G_1591__SBML_DOT__1", rule.getGeneId());
+  }
+
+
+  @Test
+  public void operatorsAreFlattened() throws ParseException {
+    GeneReactionRule rule = GeneReactionRule.parse("(4967.2 and 1738.1 and (8050.1 and 1743.1)) or (4967.1 or 26.1)");
+    assertEquals(Type.OR, rule.getType());
+    assertEquals(3, rule.getOperandCount());
+    assertEquals(4, rule.getOperand(0).getOperandCount());
+    assertEquals("(4967.2 and 1738.1 and 8050.1 and 1743.1) or 4967.1 or 26.1", rule.toString());
+  }
+
+
+  @Test
+  public void operatorSpellings() throws ParseException {
+    assertEquals("b1 and b2 and b3 and b4", GeneReactionRule.parse("b1 AND b2 & b3&&b4").toString());
+    assertEquals("b1 or b2 or b3 or b4", GeneReactionRule.parse("b1 Or b2 | b3||b4").toString());
+    // words containing operators are identifiers
+    assertEquals("android or orb", GeneReactionRule.parse("android or orb").toString());
+  }
+
+
+  @Test
+  public void conjunctionsBindStronger() throws ParseException {
+    assertEquals("b1 or (b2 and b3) or b4", GeneReactionRule.parse("b1 or b2 and b3 or b4").toString());
+  }
+
+
+  @Test
+  public void invalidRules() {
+    for (String rule : new String[] {"", "  ", "b1 and", "or b1", "(b1 or b2", "b1 or b2)", "b1 b2", "()"}) {
+      assertThrows(ParseException.class, () -> GeneReactionRule.parse(rule), rule);
+    }
+  }
+}
@@ -0,0 +1,102 @@
+package edu.ucsd.sbrg.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+public class HTMLBodyFilterInputStreamTest {
+
+  private static final String NOTES =
+    "<notes>\n<html xmlns=\"http://www.w3.org/1999/xhtml\"><p>\u00e4</p></html>\n</notes>";
+  private static final String EXPECTED =
+    "<notes>\n<body xmlns=\"http://www.w3.org/1999/xhtml\"><p>\u00e4</p></body>\n</notes>";
+
+
+  @Test
+  public void replaceTags() throws IOException {
+    assertEquals(EXPECTED, filter(NOTES, 1 << 10));
+  }
+
+
+  @Test
+  public void tagsAcrossReads() throws IOException {
+    // the underlying stream returns at most the given number of bytes per read, so tags are split between reads
+    for (int chunk = 1; chunk < 9; chunk++) {
+      assertEquals(EXPECTED, filter(NOTES, chunk));
+    }
+  }
+
+
+  @Test
+  public void keepOtherTags() throws IOException {
+    String input = "<html><htm </htm> <body >text</html";
+    assertEquals(input, filter(input, 3));
+  }
+
+
+  @Test
+  public void keepXHTMLDocuments() throws IOException {
+    // html without attributes is valid XHTML, its end tag must not be replaced
+    String input = "<notes><html><body><p>text</p></body></html></notes>";
+    for (int chunk = 1; chunk < 9; chunk++) {
+      assertEquals(input, filter(input, chunk));
+    }
+    assertEquals("<notes><body xmlns=\"x\"><p/></body><html><p/></html></notes>",
+      filter("<notes><html xmlns=\"x\"><p/></html><html><p/></html></notes>", 4));
+    assertEquals("<html><body ><p/></body></html>", filter("<html><html ><p/></html></html>", 2));
+  }
+
+
+  @Test
+  public void whitespaceBeforeAttributes() throws IOException {
+    for (int chunk = 1; chunk < 9; chunk++) {
+      assertEquals("<notes><body\n  xmlns=\"x\"><p/></body><body\r\n\txmlns=\"x\"></body></notes>",
+        filter("<notes><html\n  xmlns=\"x\"><p/></html><html\r\n\txmlns=\"x\"></html></notes>", chunk));
+    }
+  }
+
+
+  @Test
+  public void countReplacements() throws IOException {
+    try (HTMLBodyFilterInputStream in = new HTMLBodyFilterInputStream(stream(NOTES, 5))) {
+      in.readAllBytes();
+      assertEquals(2, in.getReplacements());
+    }
+  }
+
+
+  private String filter(String input, int chunk) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (InputStream in = new HTMLBodyFilterInputStream(stream(input, chunk))) {
+      int b;
+      // mix single byte and bulk reads
+      while ((b = in.read()) != -1) {
+        out.write(b);
+        byte[] buffer = new byte[chunk];
+        int read = in.read(buffer);
+        if (read == -1) {
+          break;
+        }
+        out.write(buffer, 0, read);
+      }
+    }
+    return out.toString(StandardCharsets.UTF_8);
+  }
+
+
+  private InputStream stream(String input, int chunk) {
+    return new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)) {
+
+      @Override
+      public synchronized int read(byte[] b, int off, int len) {
+        return super.read(b, off, Math.min(len, chunk));
+      }
+    };
+  }
+}